@@ -13,11 +13,40 @@ public final class PlatformNames {
     public static final String COMPONENT_MANAGER = "com.intellij.openapi.components.ComponentManager";
     public static final String PROJECT = "com.intellij.openapi.project.Project";
     public static final String APPLICATION = "com.intellij.openapi.application.Application";
+    /**
+     * The file facade class of the Kotlin {@code service()} and {@code serviceOrNull()} functions.
+     */
+    public static final String SERVICES_KT = "com.intellij.openapi.components.ServicesKt";
+    public static final String BASE_COMPONENT = "com.intellij.openapi.components.BaseComponent";
+    public static final String APPLICATION_COMPONENT = "com.intellij.openapi.components.ApplicationComponent";
+    public static final String PROJECT_COMPONENT = "com.intellij.openapi.components.ProjectComponent";
+    public static final String MODULE_COMPONENT = "com.intellij.openapi.module.ModuleComponent";
+
+    //Startup
+    public static final String PROJECT_ACTIVITY = "com.intellij.openapi.startup.ProjectActivity";
+    public static final String STARTUP_ACTIVITY = "com.intellij.openapi.startup.StartupActivity";
+
+    //Message bus
+    public static final String MESSAGE_BUS = "com.intellij.util.messages.MessageBus";
+    public static final String SIMPLE_MESSAGE_BUS_CONNECTION = "com.intellij.util.messages.SimpleMessageBusConnection";
+    public static final String TOPIC = "com.intellij.util.messages.Topic";
+
+    //Concurrency
+    public static final String COROUTINE_SCOPE = "kotlinx.coroutines.CoroutineScope";
+    public static final String APP_EXECUTOR_UTIL = "com.intellij.util.concurrency.AppExecutorUtil";
+    public static final String DISPOSER = "com.intellij.openapi.util.Disposer";
     
     //Persistence
     public static final String STATE_ANNOTATION = "com.intellij.openapi.components.State";
     public static final String PERSISTENT_STATE_COMPONENT = "com.intellij.openapi.components.PersistentStateComponent";
     public static final String STORAGE_ANNOTATION = "com.intellij.openapi.components.Storage";
+    public static final String SIMPLE_PERSISTENT_STATE_COMPONENT = "com.intellij.openapi.components.SimplePersistentStateComponent";
+    public static final String SERIALIZABLE_PERSISTENT_STATE_COMPONENT = "com.intellij.openapi.components.SerializablePersistentStateComponent";
+    public static final String BASE_STATE = "com.intellij.openapi.components.BaseState";
+    public static final String STORAGE_PATH_MACROS = "com.intellij.openapi.components.StoragePathMacros";
+    public static final String ROAMING_TYPE = "com.intellij.openapi.components.RoamingType";
+    public static final String XML_SERIALIZER_UTIL = "com.intellij.util.xmlb.XmlSerializerUtil";
+    public static final String SIMPLE_MODIFICATION_TRACKER = "com.intellij.openapi.util.SimpleModificationTracker";
     
     //Method calls
     public static final String CALL_MATCHER = "com.siyeh.ig.callMatcher.CallMatcher";
@@ -30,11 +59,40 @@ public final class PlatformNames {
     public static final String CONVENTION_OPTIONS_PANEL = "com.intellij.codeInspection.ui.ConventionOptionsPanel";
     
     //Caching
+    public static final String CACHED_VALUE_PROVIDER = "com.intellij.psi.util.CachedValueProvider";
     public static final String CACHED_VALUE_PROVIDER_RESULT = "com.intellij.psi.util.CachedValueProvider.Result";
+    public static final String CACHED_VALUE = "com.intellij.psi.util.CachedValue";
+    public static final String CACHED_VALUES_MANAGER = "com.intellij.psi.util.CachedValuesManager";
+    public static final String KEY = "com.intellij.openapi.util.Key";
+    public static final String PARAMETERIZED_CACHED_VALUE = "com.intellij.psi.util.ParameterizedCachedValue";
+    public static final String CONTAINER_UTIL = "com.intellij.util.containers.ContainerUtil";
+    public static final String COLLECTION_FACTORY = "com.intellij.util.containers.CollectionFactory";
+    public static final String PSI_MODIFICATION_TRACKER = "com.intellij.psi.util.PsiModificationTracker";
+    public static final String PROJECT_ROOT_MODIFICATION_TRACKER = "com.intellij.openapi.roots.ProjectRootModificationTracker";
+    public static final String VIRTUAL_FILE_MANAGER = "com.intellij.openapi.vfs.VirtualFileManager";
     
+    //JDK
+    public static final String CONCURRENT_MAP = "java.util.concurrent.ConcurrentMap";
+    public static final String WEAK_HASH_MAP = "java.util.WeakHashMap";
+    public static final String REFERENCE = "java.lang.ref.Reference";
+
     //PSI
     public static final String PSI_EXPRESSION_LIST = "com.intellij.psi.PsiExpressionList";
     public static final String PSI_CALL = "com.intellij.psi.PsiCall";
+    public static final String PSI_ELEMENT_VISITOR = "com.intellij.psi.PsiElementVisitor";
+    public static final String PSI_ELEMENT = "com.intellij.psi.PsiElement";
+    public static final String PSI_FILE = "com.intellij.psi.PsiFile";
+    public static final String PSI_FILE_SYSTEM_ITEM = "com.intellij.psi.PsiFileSystemItem";
+    public static final String SMART_PSI_ELEMENT_POINTER = "com.intellij.psi.SmartPsiElementPointer";
+    public static final String SMART_POINTER_MANAGER = "com.intellij.psi.SmartPointerManager";
+
+    //Editor and project model
+    public static final String EDITOR = "com.intellij.openapi.editor.Editor";
+    public static final String DOCUMENT = "com.intellij.openapi.editor.Document";
+    public static final String MODULE = "com.intellij.openapi.module.Module";
+
+    //Actions
+    public static final String AN_ACTION = "com.intellij.openapi.actionSystem.AnAction";
 
     private PlatformNames() {
         //Utility class
@@ -0,0 +1,163 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import com.intellij.lang.xml.XMLLanguage;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.XmlElementFactory;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.devkit.dom.IdeaPlugin;
+import org.jetbrains.idea.devkit.util.DescriptorUtil;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility for dealing with plugin descriptor files.
+ *
+ * @since 1.5.0
+ */
+public final class PluginDescriptorUtil {
+    /**
+     * The attributes of extension tags that reference classes instantiated by the IntelliJ Platform.
+     */
+    private static final Set<String> EXTENSION_CLASS_ATTRIBUTES = Set.of("implementationClass", "implementation", "instance", "className",
+        "serviceImplementation", "factoryClass");
+    /**
+     * The sub-tag of extension tags that references a class by its text, e.g. in {@code <intentionAction>}.
+     */
+    private static final String CLASS_NAME_TAG = "className";
+
+    /**
+     * Returns whether the argument file is a plugin descriptor file, not just {@code plugin.xml}.
+     * <p>
+     * This is a workaround because {@link DescriptorUtil#isPluginXml} doesn't seem to work in unit test mode.
+     */
+    public static boolean isPluginDescriptor(@NotNull XmlFile xmlFile) {
+        return ApplicationManager.getApplication().isUnitTestMode()
+               ? StringUtil.toLowerCase(xmlFile.getName()).endsWith("plugin.xml")
+               : DescriptorUtil.isPluginXml(xmlFile);
+    }
+
+    /**
+     * Returns the {@code META-INF/plugin.xml} file in the argument module, or null if there is no such file.
+     * <p>
+     * Must be called in smart mode.
+     */
+    @Nullable
+    public static XmlFile findPluginXml(@NotNull Module module) {
+        var psiManager = PsiManager.getInstance(module.getProject());
+        return FilenameIndex.getVirtualFilesByName("plugin.xml", GlobalSearchScope.moduleScope(module)).stream()
+            .filter(file -> file.getParent() != null && "META-INF".equals(file.getParent().getName()))
+            .map(psiManager::findFile)
+            .filter(XmlFile.class::isInstance)
+            .map(XmlFile.class::cast)
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * Returns the plugin descriptor files in the production sources of the argument project.
+     * <p>
+     * Must be called in smart mode.
+     */
+    public static List<XmlFile> findPluginDescriptors(@NotNull Project project) {
+        var psiManager = PsiManager.getInstance(project);
+        return DomService.getInstance().getDomFileCandidates(IdeaPlugin.class, GlobalSearchScopesCore.projectProductionScope(project)).stream()
+            .map(psiManager::findFile)
+            .filter(XmlFile.class::isInstance)
+            .map(XmlFile.class::cast)
+            .toList();
+    }
+
+    /**
+     * Returns the fully qualified names (with nested classes separated by dots) of the classes referenced in the
+     * {@code implementationClass}, {@code implementation}, {@code instance}, {@code className}, {@code serviceImplementation}
+     * and {@code factoryClass} attributes of the tags within {@code <extensions>} tags, and in {@code <className>} sub-tags,
+     * e.g. of {@code <intentionAction>}, in the plugin descriptors of the argument project.
+     * <p>
+     * The result is cached until an XML file changes in the project. Must be called in smart mode.
+     */
+    public static Set<String> getExtensionClassNames(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+            CachedValueProvider.Result.create(collectExtensionClassNames(project), PsiModificationTracker.getInstance(project).forLanguage(XMLLanguage.INSTANCE)));
+    }
+
+    private static Set<String> collectExtensionClassNames(Project project) {
+        var classNames = new HashSet<String>();
+        for (var descriptor : findPluginDescriptors(project)) {
+            if (descriptor.getRootTag() == null) continue;
+            for (var extensions : descriptor.getRootTag().findSubTags("extensions")) {
+                collectClassNames(extensions, classNames);
+            }
+        }
+        return classNames;
+    }
+
+    private static void collectClassNames(XmlTag tag, Set<String> classNames) {
+        for (var subTag : tag.getSubTags()) {
+            if (CLASS_NAME_TAG.equals(subTag.getName())) {
+                String className = subTag.getValue().getTrimmedText();
+                if (!className.isEmpty()) classNames.add(className.replace('$', '.'));
+                continue;
+            }
+            for (var attribute : subTag.getAttributes()) {
+                if (EXTENSION_CLASS_ATTRIBUTES.contains(attribute.getName()) && attribute.getValue() != null) {
+                    classNames.add(attribute.getValue().trim().replace('$', '.'));
+                }
+            }
+            collectClassNames(subTag, classNames);
+        }
+    }
+
+    //Modification
+
+    /**
+     * Returns the {@code <extensions defaultExtensionNs="com.intellij">} tag of the argument plugin descriptor root tag,
+     * or adds one as its last sub-tag if there is no such tag.
+     */
+    public static XmlTag getOrCreateExtensionsTag(@NotNull XmlTag rootTag) {
+        return Arrays.stream(rootTag.findSubTags("extensions"))
+            .filter(extensions -> "com.intellij".equals(extensions.getAttributeValue("defaultExtensionNs")))
+            .findFirst()
+            .orElseGet(() -> addSubTag(rootTag, "<extensions defaultExtensionNs=\"com.intellij\"></extensions>"));
+    }
+
+    /**
+     * Returns the first sub-tag of the argument tag with the given name, e.g. {@code <projectListeners>},
+     * or adds one as its last sub-tag if there is no such tag.
+     */
+    public static XmlTag getOrCreateSubTag(@NotNull XmlTag parentTag, @NotNull String tagName) {
+        var subTag = parentTag.findFirstSubTag(tagName);
+        return subTag != null ? subTag : addSubTag(parentTag, "<" + tagName + "></" + tagName + ">");
+    }
+
+    /**
+     * Adds a new tag created from the argument text as the last sub-tag of the argument parent tag.
+     *
+     * @return the added tag
+     */
+    public static XmlTag addSubTag(@NotNull XmlTag parentTag, @NotNull String tagText) {
+        return parentTag.addSubTag(XmlElementFactory.getInstance(parentTag.getProject()).createTagFromText(tagText), false);
+    }
+
+    private PluginDescriptorUtil() {
+        //Utility class
+    }
+}
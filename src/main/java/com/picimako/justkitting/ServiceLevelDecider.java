@@ -6,10 +6,18 @@ import static com.intellij.openapi.application.ReadAction.compute;
 import static com.picimako.justkitting.PlatformNames.SERVICE_ANNOTATION;
 
 import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiNamedElement;
 import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.picimako.justkitting.index.LightServiceIndex;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import kotlin.Pair;
 import lombok.RequiredArgsConstructor;
@@ -20,10 +28,14 @@ import org.jetbrains.kotlin.psi.KtAnnotationEntry;
 import org.jetbrains.kotlin.psi.KtClass;
 import org.jetbrains.kotlin.psi.ValueArgument;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -50,12 +62,76 @@ public final class ServiceLevelDecider {
      */
     @NotNull
     public static <T extends PsiNamedElement> ServiceLevel getServiceLevel(@Nullable T targetClass) {
+        if (targetClass == null) return ServiceLevel.NOT_SURE;
+
+        //Kotlin service levels are resolved only where analysis is allowed. The text-based fallback used elsewhere is not memoized,
+        //so that it doesn't shadow the resolved service level until the file changes.
+        if (targetClass instanceof KtClass && !KotlinServiceLevelResolver.isAnalysisAllowed())
+            return compute(() -> computeServiceLevel(targetClass));
+
+        //Memoized per class until the class' file or the project roots change
+        return compute(() -> CachedValuesManager.getCachedValue(targetClass,
+            () -> CachedValueProvider.Result.create(computeServiceLevel(targetClass), targetClass.getContainingFile(),
+                ProjectRootModificationTracker.getInstance(targetClass.getProject()))));
+    }
+
+    /**
+     * Returns the service levels of the argument classes, determined the same way as by {@link #getServiceLevel(PsiNamedElement)}.
+     * <p>
+     * The classes are classified in a single read action, distributed across multiple threads. If there is no read access yet,
+     * a non-blocking read action is used, so that the classification doesn't prevent write actions from happening.
+     *
+     * @param targetClasses the classes of which the service levels are determined
+     * @return the service level for each argument class
+     * @since 1.5.0
+     */
+    @NotNull
+    public static <T extends PsiNamedElement> Map<T, ServiceLevel> getServiceLevels(@NotNull Collection<T> targetClasses) {
+        if (targetClasses.isEmpty()) return Map.of();
+
+        return ApplicationManager.getApplication().isReadAccessAllowed()
+            ? classifyConcurrently(targetClasses)
+            : ReadAction.nonBlocking(() -> classifyConcurrently(targetClasses)).executeSynchronously();
+    }
+
+    private static <T extends PsiNamedElement> Map<T, ServiceLevel> classifyConcurrently(Collection<T> targetClasses) {
+        var serviceLevels = new ConcurrentHashMap<T, ServiceLevel>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(new ArrayList<>(targetClasses), ProgressManager.getInstance().getProgressIndicator(),
+            targetClass -> {
+                serviceLevels.put(targetClass, getServiceLevel(targetClass));
+                return true;
+            });
+        return serviceLevels;
+    }
+
+    @NotNull
+    private static <T extends PsiNamedElement> ServiceLevel computeServiceLevel(@NotNull T targetClass) {
         var specifiedServiceLevels = getSpecifiedServiceLevels(targetClass);
 
-        final var levels = specifiedServiceLevels != null
+        final List<String> levels = specifiedServiceLevels != null
             ? convertToServiceLevelNames(specifiedServiceLevels, compute(targetClass::getProject))
             : Collections.emptyList();
 
+        return getServiceLevel(levels, targetClass.getName());
+    }
+
+    /**
+     * Returns the service level based on the service levels stored for a class in {@link LightServiceIndex}, without accessing the PSI.
+     * <p>
+     * It applies the same rules as {@link #getServiceLevel(PsiNamedElement)}, but since the indexed service levels are recognized
+     * by their names instead of resolving them, the result may differ from that in very rare cases.
+     *
+     * @param declaredLevels the comma-separated list of declared service levels. Empty if there is none specified.
+     * @param className      the simple name of the light service class
+     * @since 1.5.0
+     */
+    @NotNull
+    public static ServiceLevel getServiceLevel(@NotNull String declaredLevels, @NotNull String className) {
+        return getServiceLevel(declaredLevels.isEmpty() ? Collections.emptyList() : List.of(declaredLevels.split(",")), className);
+    }
+
+    @NotNull
+    private static ServiceLevel getServiceLevel(List<String> levels, String className) {
         var level = ServiceLevel.NOT_SURE;
         if (!levels.isEmpty()) {
             if (levels.contains(PROJECT) && levels.contains(APP)) level = ServiceLevel.PROJECT_AND_APP;
@@ -63,7 +139,6 @@ public final class ServiceLevelDecider {
             if (!levels.contains(PROJECT) && levels.contains(APP)) level = ServiceLevel.APP;
         } else {
             //NOTE: existing constructor and parameter injection are not taken into account in the determination process, for now
-            String className = targetClass.getName();
             if (PROJECT_SERVICE_CLASS_NAME_PATTERN.matcher(className).matches())
                 level = ServiceLevel.PROJECT;
             else if (APP_SERVICE_CLASS_NAME_PATTERN.matcher(className).matches())
@@ -84,6 +159,12 @@ public final class ServiceLevelDecider {
                 .orElse(null);
         }
 
+        if (targetClass instanceof KtClass kotlinServiceClass) {
+            //Resolve the service levels via the Kotlin Analysis API when possible
+            var resolvedServiceLevels = KotlinServiceLevelResolver.resolveDeclaredServiceLevels(kotlinServiceClass);
+            if (resolvedServiceLevels != null) return resolvedServiceLevels;
+        }
+
         return targetClass instanceof KtClass kotlinServiceClass
             ? kotlinServiceClass.getAnnotationEntries()
             .stream()
@@ -106,6 +187,9 @@ public final class ServiceLevelDecider {
         var cache = PlatformPsiCache.getInstance(project);
         return serviceLevels.stream()
             .map(expression -> {
+                //Handles Kotlin service levels resolved via KotlinServiceLevelResolver
+                if (expression instanceof String levelName) return levelName;
+
                 //Handles Java annotation values
                 if (expression instanceof PsiReferenceExpression levelRef)
                     return compute(() -> levelRef.isReferenceTo(cache.getServiceLevelProject()) || levelRef.isReferenceTo(cache.getServiceLevelApp()))
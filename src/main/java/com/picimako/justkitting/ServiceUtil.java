@@ -3,14 +3,35 @@
 package com.picimako.justkitting;
 
 import static com.intellij.openapi.application.ReadAction.compute;
+import static com.picimako.justkitting.PlatformNames.COMPONENT_MANAGER;
+import static com.picimako.justkitting.PlatformNames.SERVICES_KT;
 
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTypesUtil;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UClassLiteralExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Generic utility for dealing with service classes.
  */
 public final class ServiceUtil {
+    private static final Set<String> SERVICE_GETTER_METHOD_NAMES = Set.of("getService", "getServiceIfCreated");
+    private static final Set<String> KOTLIN_SERVICE_FUNCTION_NAMES = Set.of("service", "serviceOrNull", "serviceIfCreated");
 
     /**
      * Returns whether the argument class is annotated with {@link com.intellij.openapi.components.Service}.
@@ -19,6 +40,135 @@ public final class ServiceUtil {
         return psiClass != null && compute(() -> psiClass.hasAnnotation(PlatformNames.SERVICE_ANNOTATION));
     }
 
+    //Service retrieval
+
+    /**
+     * Returns whether the argument call retrieves a service, i.e. it is
+     * <ul>
+     *     <li>a {@code getService()} or {@code getServiceIfCreated()} call on a {@code ComponentManager}, e.g. {@code project.getService(SomeService.class)},</li>
+     *     <li>a call to the Kotlin {@code service()}, {@code serviceOrNull()} or {@code serviceIfCreated()} functions,</li>
+     *     <li>a call to a {@code getInstance()} method returning an instance of its containing class (or of the class of its companion object).</li>
+     * </ul>
+     *
+     * @since 1.5.0
+     */
+    public static boolean isServiceRetrieval(@NotNull UCallExpression call) {
+        String methodName = call.getMethodName();
+        if (methodName == null
+            || !(SERVICE_GETTER_METHOD_NAMES.contains(methodName) || KOTLIN_SERVICE_FUNCTION_NAMES.contains(methodName) || "getInstance".equals(methodName)))
+            return false;
+
+        PsiMethod method = call.resolve();
+        PsiClass containingClass = method != null ? method.getContainingClass() : null;
+        if (containingClass == null) return false;
+
+        if (SERVICE_GETTER_METHOD_NAMES.contains(methodName)) return InheritanceUtil.isInheritor(containingClass, COMPONENT_MANAGER);
+        if (KOTLIN_SERVICE_FUNCTION_NAMES.contains(methodName)) return SERVICES_KT.equals(containingClass.getQualifiedName());
+        return isServiceGetInstance(method, containingClass);
+    }
+
+    /**
+     * Returns whether the argument method is a {@code getInstance()} method returning an instance of its containing class,
+     * or in case of Kotlin companion objects, of the class containing the companion object.
+     */
+    private static boolean isServiceGetInstance(PsiMethod method, PsiClass containingClass) {
+        var returnClass = PsiTypesUtil.getPsiClass(method.getReturnType());
+        return returnClass != null
+            && (returnClass.getManager().areElementsEquivalent(returnClass, containingClass)
+            || returnClass.getManager().areElementsEquivalent(returnClass, containingClass.getContainingClass()));
+    }
+
+    /**
+     * Returns the class of the service retrieved by the argument call, or null if it cannot be determined.
+     * <p>
+     * The call is expected to be a service retrieval according to {@link #isServiceRetrieval(UCallExpression)}.
+     *
+     * @since 1.5.0
+     */
+    @Nullable
+    public static PsiClass getRetrievedServiceClass(@NotNull UCallExpression serviceRetrieval) {
+        //project.getService(SomeService.class)
+        if (serviceRetrieval.getValueArgumentCount() > 0 && serviceRetrieval.getValueArguments().get(0) instanceof UClassLiteralExpression classLiteral) {
+            var serviceClass = PsiTypesUtil.getPsiClass(classLiteral.getType());
+            if (serviceClass != null) return serviceClass;
+        }
+        //service<SomeService>()
+        if (!serviceRetrieval.getTypeArguments().isEmpty()) {
+            var serviceClass = PsiTypesUtil.getPsiClass(serviceRetrieval.getTypeArguments().get(0));
+            if (serviceClass != null) return serviceClass;
+        }
+        //SomeService.getInstance(), and the other retrievals where the service type is inferred
+        return PsiTypesUtil.getPsiClass(serviceRetrieval.getReturnType());
+    }
+
+    //Service initialization
+
+    /**
+     * Returns the code of the argument class that is executed when it is instantiated: the bodies of constructors,
+     * instance initializers, and the initializers of instance fields.
+     * <p>
+     * In case of Kotlin, properties of companion objects are static fields of the outer class, thus they are not included.
+     *
+     * @since 1.5.0
+     */
+    public static List<UElement> getInitializationCode(@NotNull UClass serviceClass) {
+        var initializationCode = new ArrayList<UElement>();
+        for (var method : serviceClass.getMethods()) {
+            if (method.isConstructor() && method.getUastBody() != null) initializationCode.add(method.getUastBody());
+        }
+        for (var initializer : serviceClass.getInitializers()) {
+            if (!initializer.isStatic()) initializationCode.add(initializer.getUastBody());
+        }
+        for (var field : serviceClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC) && field.getUastInitializer() != null) initializationCode.add(field.getUastInitializer());
+        }
+        return initializationCode;
+    }
+
+    /**
+     * Collects the calls in the argument element that are executed right away, i.e. the ones not in lambdas and anonymous classes.
+     * Those are usually executed later, e.g. in case of listeners, or Kotlin {@code by lazy} properties.
+     *
+     * @since 1.5.0
+     */
+    public static List<UCallExpression> collectEagerCalls(@NotNull UElement element) {
+        var calls = new ArrayList<UCallExpression>();
+        element.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                calls.add(node);
+                return super.visitCallExpression(node);
+            }
+
+            @Override
+            public boolean visitLambdaExpression(@NotNull ULambdaExpression node) {
+                return true;
+            }
+
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                return true;
+            }
+        });
+        return calls;
+    }
+
+    /**
+     * Collects the calls executed right away during the initialization of the argument service class,
+     * i.e. the eager calls (see {@link #collectEagerCalls(UElement)}) in its initialization code (see {@link #getInitializationCode(UClass)}).
+     * <p>
+     * Kotlin property initializers and init blocks may be part of the primary constructor too, so each call is returned only once.
+     *
+     * @since 1.5.0
+     */
+    public static List<UCallExpression> collectEagerInitializationCalls(@NotNull UClass serviceClass) {
+        var callPsis = new HashSet<PsiElement>();
+        return getInitializationCode(serviceClass).stream()
+            .flatMap(code -> collectEagerCalls(code).stream())
+            .filter(call -> call.getSourcePsi() != null && callPsis.add(call.getSourcePsi()))
+            .toList();
+    }
+
     private ServiceUtil() {
         //Utility class
     }
@@ -5,16 +5,15 @@ package com.picimako.justkitting.codefolding.plugindescriptor;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.folding.CustomFoldingBuilder;
 import com.intellij.lang.folding.FoldingDescriptor;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.XmlRecursiveElementVisitor;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.picimako.justkitting.PluginDescriptorUtil;
 import com.picimako.justkitting.codefolding.JustKittingCodeFoldingSettings;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.idea.devkit.util.DescriptorUtil;
 
 import java.util.List;
 import java.util.Set;
@@ -37,7 +36,7 @@ public class PluginDescriptorTagsFoldingBuilder extends CustomFoldingBuilder {
     protected void buildLanguageFoldRegions(@NotNull List<FoldingDescriptor> descriptors, @NotNull PsiElement root, @NotNull Document document, boolean quick) {
         //All plugin descriptor files are supported, not just plugin.xml
         if (root instanceof XmlFile xmlFile
-            && isPluginDescriptor(xmlFile)
+            && PluginDescriptorUtil.isPluginDescriptor(xmlFile)
             && JustKittingCodeFoldingSettings.getInstance().isCollapsePluginDescriptorTags()) {
             root.accept(new XmlRecursiveElementVisitor() {
                 @Override
@@ -54,15 +53,6 @@ public class PluginDescriptorTagsFoldingBuilder extends CustomFoldingBuilder {
         }
     }
 
-    /**
-     * This is a workaround because {@link DescriptorUtil#isPluginXml} doesn't seem to work in unit test mode.
-     */
-    private static boolean isPluginDescriptor(XmlFile xmlFile) {
-        return ApplicationManager.getApplication().isUnitTestMode()
-               ? xmlFile.getName().toLowerCase().endsWith("plugin.xml")
-               : DescriptorUtil.isPluginXml(xmlFile);
-    }
-
     //Placeholder text
 
     @Override
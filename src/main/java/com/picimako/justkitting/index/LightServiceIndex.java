@@ -0,0 +1,385 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.index;
+
+import static com.picimako.justkitting.PlatformNames.SERVICE_ANNOTATION;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.idea.KotlinFileType;
+import org.jetbrains.kotlin.psi.KtAnnotationEntry;
+import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtClassOrObject;
+import org.jetbrains.kotlin.psi.KtDeclaration;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtImportDirective;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Indexes the Java and Kotlin classes that are annotated as {@link com.intellij.openapi.components.Service}, so that light services
+ * can be looked up without running a project-wide {@code ReferencesSearch} for the {@code @Service} annotation class.
+ * <p>
+ * The key is the fully qualified name of the light service class, the value is the comma-separated list of
+ * {@link com.intellij.openapi.components.Service.Level} names specified in the annotation, e.g. {@code PROJECT}, {@code APP}
+ * or {@code PROJECT,APP}. The value is an empty string when no service level is specified.
+ * <p>
+ * Since resolving references is not allowed during indexing, the annotation is recognized by its name and the imports of the file:
+ * <ul>
+ *     <li>the annotation is referenced by its fully qualified name,</li>
+ *     <li>or the file imports {@code com.intellij.openapi.components.Service} or {@code com.intellij.openapi.components.*}.</li>
+ * </ul>
+ * Similarly, service levels are recognized by whether the annotation arguments reference a {@code PROJECT} or {@code APP} named value.
+ * This filters out references to the {@code Service} class that are not used as part of an annotation, e.g.:
+ * <pre>{@code
+ * class SomeClass(serviceLevel: Service.Level)
+ * }</pre>
+ *
+ * @since 1.5.0
+ */
+public final class LightServiceIndex extends FileBasedIndexExtension<String, String> {
+    public static final ID<String, String> NAME = ID.create("just.kitting.light.services");
+
+    private static final String SERVICE_ANNOTATION_PACKAGE = "com.intellij.openapi.components";
+    private static final String SERVICE_ANNOTATION_SHORT_NAME = "Service";
+    private static final Pattern PROJECT_LEVEL_PATTERN = Pattern.compile("\\bPROJECT\\b");
+    private static final Pattern APP_LEVEL_PATTERN = Pattern.compile("\\bAPP\\b");
+
+    @Override
+    public @NotNull ID<String, String> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            //Cheap pre-filtering to avoid building PSI for files that cannot contain light services
+            if (!StringUtil.contains(inputData.getContentAsText(), SERVICE_ANNOTATION_SHORT_NAME)) return Map.of();
+
+            var lightServices = new HashMap<String, String>();
+            PsiFile psiFile = inputData.getPsiFile();
+            if (psiFile instanceof PsiJavaFile javaFile) {
+                boolean isServiceImported = isServiceImportedInJavaFile(javaFile);
+                processJavaClasses(javaFile.getClasses(), javaClass -> {
+                    var serviceAnnotation = findJavaServiceAnnotation(javaClass, isServiceImported);
+                    if (serviceAnnotation != null && javaClass.getQualifiedName() != null)
+                        lightServices.put(javaClass.getQualifiedName(), getDeclaredLevels(serviceAnnotation.getParameterList().getText()));
+                });
+            } else if (psiFile instanceof KtFile ktFile) {
+                boolean isServiceImported = isServiceImportedInKotlinFile(ktFile);
+                processKotlinClasses(ktFile.getDeclarations(), kotlinClass -> {
+                    var serviceAnnotation = findKotlinServiceAnnotation(kotlinClass, isServiceImported);
+                    if (serviceAnnotation != null && kotlinClass.getFqName() != null)
+                        lightServices.put(kotlinClass.getFqName().asString(),
+                            serviceAnnotation.getValueArgumentList() != null ? getDeclaredLevels(serviceAnnotation.getValueArgumentList().getText()) : "");
+                });
+            }
+            return lightServices;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE, KotlinFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    //Lookup
+
+    /**
+     * Returns whether there is at least one light service class in the argument scope.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     */
+    public static boolean hasLightService(@NotNull GlobalSearchScope scope) {
+        var index = FileBasedIndex.getInstance();
+        //Keys may be stale, thus it is validated that there is at least one file in scope still having the key
+        for (String qualifiedName : getAllQualifiedNames(scope)) {
+            if (!index.getContainingFiles(NAME, qualifiedName, scope).isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@link PsiClass}es and {@link KtClass}es in the argument scope that are annotated as light services.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     */
+    public static List<PsiNameIdentifierOwner> findLightServiceClasses(@NotNull Project project, @NotNull GlobalSearchScope scope) {
+        var lightServices = new ArrayList<PsiNameIdentifierOwner>();
+        processLightServiceClasses(project, scope, (serviceClass, declaredLevels) -> {
+            lightServices.add(serviceClass);
+            return true;
+        });
+        return lightServices;
+    }
+
+    /**
+     * Passes the light service classes in the argument scope, and the service levels declared for them, to the argument processor,
+     * until the processor returns false.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     *
+     * @return false if the processing was stopped by the processor, true otherwise
+     */
+    public static boolean processLightServiceClasses(@NotNull Project project, @NotNull GlobalSearchScope scope, @NotNull LightServiceProcessor processor) {
+        var psiManager = PsiManager.getInstance(project);
+        return processLightServiceEntries(scope, (qualifiedName, file, declaredLevels) -> {
+            var serviceClass = findClassInFile(psiManager, file, qualifiedName);
+            return serviceClass == null || processor.process(serviceClass, declaredLevels);
+        });
+    }
+
+    /**
+     * Passes the indexed light service entries in the argument scope to the argument processor, until the processor returns false.
+     * <p>
+     * Unlike {@link #processLightServiceClasses(Project, GlobalSearchScope, LightServiceProcessor)}, this doesn't load the PSI
+     * of the files, so it is cheap enough to go through all light services, and resolve only the ones actually needed
+     * via {@link #findLightServiceClass(Project, VirtualFile, String)}.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     *
+     * @return false if the processing was stopped by the processor, true otherwise
+     */
+    public static boolean processLightServiceEntries(@NotNull GlobalSearchScope scope, @NotNull LightServiceEntryProcessor processor) {
+        return processLightServiceEntries(scope, null, processor);
+    }
+
+    /**
+     * Passes the indexed light service entries in the argument scope to the argument processor, in the order of their fully qualified names
+     * defined by the argument comparator, until the processor returns false.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     *
+     * @param order the order in which the entries are processed, or null if the order doesn't matter
+     * @return false if the processing was stopped by the processor, true otherwise
+     * @since 1.5.0
+     */
+    public static boolean processLightServiceEntries(@NotNull GlobalSearchScope scope, @Nullable Comparator<String> order,
+                                                     @NotNull LightServiceEntryProcessor processor) {
+        var index = FileBasedIndex.getInstance();
+        Collection<String> qualifiedNames = getAllQualifiedNames(scope);
+        if (order != null) qualifiedNames = qualifiedNames.stream().sorted(order).toList();
+        for (String qualifiedName : qualifiedNames) {
+            boolean shouldContinue = index.processValues(NAME, qualifiedName, null,
+                (file, declaredLevels) -> processor.process(qualifiedName, file, declaredLevels), scope);
+            if (!shouldContinue) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the indexed light service entries of the argument file, mapping the fully qualified names of the light service classes
+     * to their declared service levels. It doesn't load the PSI of the file, and doesn't go through other files, so it is suitable
+     * for updating light services incrementally, only for the changed files.
+     * <p>
+     * Must be called in a read action and in smart mode.
+     *
+     * @since 1.5.0
+     */
+    @NotNull
+    public static Map<String, String> getLightServiceEntries(@NotNull Project project, @NotNull VirtualFile file) {
+        return FileBasedIndex.getInstance().getFileData(NAME, file, project);
+    }
+
+    /**
+     * Returns the light service class with the given qualified name from the argument file, or null if there is no such class
+     * in the file.
+     * <p>
+     * Must be called in a read action.
+     */
+    @Nullable
+    public static PsiNameIdentifierOwner findLightServiceClass(@NotNull Project project, @NotNull VirtualFile file, @NotNull String qualifiedName) {
+        return findClassInFile(PsiManager.getInstance(project), file, qualifiedName);
+    }
+
+    /**
+     * Returns the fully qualified names of the light service classes available in the argument scope.
+     * <p>
+     * Keys are collected first, so that querying the values of them doesn't happen while still processing the keys.
+     */
+    private static Set<String> getAllQualifiedNames(@NotNull GlobalSearchScope scope) {
+        var qualifiedNames = new LinkedHashSet<String>();
+        FileBasedIndex.getInstance().processAllKeys(NAME, (Processor<String>) qualifiedName -> {
+            qualifiedNames.add(qualifiedName);
+            return true;
+        }, scope, null);
+        return qualifiedNames;
+    }
+
+    /**
+     * Finds the class with the given qualified name in the argument file.
+     */
+    @Nullable
+    private static PsiNameIdentifierOwner findClassInFile(PsiManager psiManager, VirtualFile file, String qualifiedName) {
+        var psiFile = psiManager.findFile(file);
+        var serviceClass = new PsiNameIdentifierOwner[1];
+        if (psiFile instanceof PsiJavaFile javaFile) {
+            processJavaClasses(javaFile.getClasses(), javaClass -> {
+                if (qualifiedName.equals(javaClass.getQualifiedName())) serviceClass[0] = javaClass;
+            });
+        } else if (psiFile instanceof KtFile ktFile) {
+            processKotlinClasses(ktFile.getDeclarations(), kotlinClass -> {
+                if (kotlinClass.getFqName() != null && qualifiedName.equals(kotlinClass.getFqName().asString())) serviceClass[0] = kotlinClass;
+            });
+        }
+        return serviceClass[0];
+    }
+
+    //Java
+
+    private static void processJavaClasses(PsiClass[] classes, Consumer<PsiClass> processor) {
+        for (var javaClass : classes) {
+            processor.accept(javaClass);
+            processJavaClasses(javaClass.getInnerClasses(), processor);
+        }
+    }
+
+    private static boolean isServiceImportedInJavaFile(PsiJavaFile javaFile) {
+        if (SERVICE_ANNOTATION_PACKAGE.equals(javaFile.getPackageName())) return true;
+        if (javaFile.getImportList() == null) return false;
+
+        for (var importStatement : javaFile.getImportList().getImportStatements()) {
+            var importReference = importStatement.getImportReference();
+            if (importReference == null) continue;
+            String importedName = importReference.getText();
+            if (importStatement.isOnDemand() ? SERVICE_ANNOTATION_PACKAGE.equals(importedName) : SERVICE_ANNOTATION.equals(importedName))
+                return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static PsiAnnotation findJavaServiceAnnotation(PsiClass javaClass, boolean isServiceImported) {
+        if (javaClass.getModifierList() == null) return null;
+
+        for (var annotation : javaClass.getModifierList().getAnnotations()) {
+            var nameReference = annotation.getNameReferenceElement();
+            if (nameReference != null && isServiceAnnotationName(nameReference.getText(), isServiceImported)) return annotation;
+        }
+        return null;
+    }
+
+    //Kotlin
+
+    private static void processKotlinClasses(List<KtDeclaration> declarations, Consumer<KtClass> processor) {
+        for (var declaration : declarations) {
+            if (declaration instanceof KtClass kotlinClass) processor.accept(kotlinClass);
+            //Also covers nested classes in companion objects
+            if (declaration instanceof KtClassOrObject classOrObject) processKotlinClasses(classOrObject.getDeclarations(), processor);
+        }
+    }
+
+    private static boolean isServiceImportedInKotlinFile(KtFile ktFile) {
+        if (SERVICE_ANNOTATION_PACKAGE.equals(ktFile.getPackageFqName().asString())) return true;
+
+        for (KtImportDirective importDirective : ktFile.getImportDirectives()) {
+            var importedName = importDirective.getImportedFqName();
+            if (importedName == null) continue;
+            if (importDirective.isAllUnder() ? SERVICE_ANNOTATION_PACKAGE.equals(importedName.asString()) : SERVICE_ANNOTATION.equals(importedName.asString()))
+                return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static KtAnnotationEntry findKotlinServiceAnnotation(KtClass kotlinClass, boolean isServiceImported) {
+        for (var annotationEntry : kotlinClass.getAnnotationEntries()) {
+            if (annotationEntry.getTypeReference() != null && isServiceAnnotationName(annotationEntry.getTypeReference().getText(), isServiceImported))
+                return annotationEntry;
+        }
+        return null;
+    }
+
+    //Helpers
+
+    private static boolean isServiceAnnotationName(String annotationName, boolean isServiceImported) {
+        return SERVICE_ANNOTATION.equals(annotationName) || (isServiceImported && SERVICE_ANNOTATION_SHORT_NAME.equals(annotationName));
+    }
+
+    /**
+     * Returns the service levels declared in the argument annotation argument list text, e.g. {@code PROJECT,APP}.
+     */
+    private static String getDeclaredLevels(String annotationArguments) {
+        var levels = new ArrayList<String>(2);
+        if (PROJECT_LEVEL_PATTERN.matcher(annotationArguments).find()) levels.add("PROJECT");
+        if (APP_LEVEL_PATTERN.matcher(annotationArguments).find()) levels.add("APP");
+        return String.join(",", levels);
+    }
+
+    /**
+     * Processes a light service class and the service levels declared for it in the {@code @Service} annotation.
+     */
+    @FunctionalInterface
+    public interface LightServiceProcessor {
+        /**
+         * @param serviceClass   the light service class
+         * @param declaredLevels the comma-separated list of declared service levels. Empty if there is none specified.
+         * @return true to continue processing, false to stop
+         */
+        boolean process(@NotNull PsiNameIdentifierOwner serviceClass, @NotNull String declaredLevels);
+    }
+
+    /**
+     * Processes an indexed light service entry without loading the PSI of the containing file.
+     */
+    @FunctionalInterface
+    public interface LightServiceEntryProcessor {
+        /**
+         * @param qualifiedName  the fully qualified name of the light service class
+         * @param file           the file containing the light service class
+         * @param declaredLevels the comma-separated list of declared service levels. Empty if there is none specified.
+         * @return true to continue processing, false to stop
+         */
+        boolean process(@NotNull String qualifiedName, @NotNull VirtualFile file, @NotNull String declaredLevels);
+    }
+}
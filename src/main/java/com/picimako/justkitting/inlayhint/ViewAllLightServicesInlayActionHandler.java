@@ -0,0 +1,90 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inlayhint;
+
+import com.intellij.codeInsight.hints.declarative.InlayActionHandler;
+import com.intellij.codeInsight.hints.declarative.InlayActionPayload;
+import com.intellij.codeInsight.hints.declarative.PsiPointerInlayActionPayload;
+import com.intellij.ide.util.DelegatingPsiElementCellRenderer;
+import com.intellij.ide.util.PsiElementRenderingInfo;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbModeBlockedFunctionality;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.ui.popup.PopupStep;
+import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import com.intellij.openapi.util.NlsSafe;
+import com.intellij.pom.Navigatable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.picimako.justkitting.LightServicesModel;
+import com.picimako.justkitting.LightServicesScope;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtClass;
+
+/**
+ * Handles clicking on the *View all light services...* inlay hint.
+ * <p>
+ * On click, it brings up a popup with the list of light service classes from where users can navigate to the corresponding classes.
+ *
+ * @since 1.5.0
+ */
+@SuppressWarnings("UnstableApiUsage")
+public final class ViewAllLightServicesInlayActionHandler implements InlayActionHandler {
+    public static final String HANDLER_ID = "just.kitting.view.all.light.services";
+
+    @Override
+    public void handleClick(@NotNull Editor editor, @NotNull InlayActionPayload payload) {
+        var project = editor.getProject();
+        if (project == null) return;
+        //The hint may be displayed during indexing from the persisted light services, but the services cannot be looked up until indexing finishes
+        if (DumbService.isDumb(project)) {
+            DumbService.getInstance(project).showDumbModeNotificationForFunctionality(
+                JustKittingBundle.message("inlay.hints.light.services.view.all.not.available.during.indexing"), DumbModeBlockedFunctionality.Other);
+            return;
+        }
+
+        var extensionsTag = payload instanceof PsiPointerInlayActionPayload pointerPayload ? pointerPayload.getPointer().getElement() : null;
+        //The popup lists the services from the same scope the hints are displayed for
+        var scope = extensionsTag != null
+            ? LightServicesInlayHintsSettings.getInstance().getSettings().getLookupScope().toLightServicesScope(extensionsTag.getContainingFile())
+            : LightServicesScope.PROJECT;
+
+        var step = new BaseListPopupStep<>(
+            JustKittingBundle.message("inlay.hints.light.services.view.all.popup.title"),
+            LightServicesModel.getInstance(project).getSnapshot(scope).getAllServices()) {
+            @Override
+            public @Nullable PopupStep<?> onChosen(PsiNameIdentifierOwner selectedValue, boolean finalChoice) {
+                if (selectedValue instanceof PsiClass || selectedValue instanceof KtClass) {
+                    ((Navigatable) selectedValue).navigate(true);
+                }
+
+                return null;
+            }
+        };
+
+        //Moving the caret to the beginning of the <extensions> tag, so that the popup list is displayed right at the element's inlay hint.
+        if (extensionsTag != null) editor.getCaretModel().moveToOffset(extensionsTag.getTextRange().getStartOffset());
+        JBPopupFactory.getInstance()
+            //DelegatingPsiElementCellRenderer and ClassRenderingInfo replaces PsiClassListCellRenderer,
+            // so that both PsiClasses and KtClasses can be rendered.
+            .createListPopup(project, step, renderer -> new DelegatingPsiElementCellRenderer<>(ClassRenderingInfo.INSTANCE))
+            .showInBestPositionFor(editor);
+    }
+
+    /**
+     * Rendering info for various classes.
+     */
+    private static final class ClassRenderingInfo implements PsiElementRenderingInfo<PsiNameIdentifierOwner> {
+        public static final ClassRenderingInfo INSTANCE = new ClassRenderingInfo();
+
+        private ClassRenderingInfo() { }
+
+        @Override
+        public @NlsSafe @NotNull String getPresentableText(@NotNull PsiNameIdentifierOwner element) {
+            return element.getName();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiModifier;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+import org.jetbrains.uast.UBlockExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UThisExpression;
+
+/**
+ * Replaces an {@code XmlSerializerUtil.copyBean(state, myState)} statement in {@code loadState()} with {@code myState = state},
+ * so that the loaded state object is kept as is, instead of copying its properties reflectively into another object.
+ * <p>
+ * It is available only when the target of the copy is a non-final field or a {@code var} property, and the loaded state
+ * is assignable to it.
+ *
+ * @see PersistentStateSerializationCostInspection
+ * @since 1.5.0
+ */
+final class AssignLoadedStateQuickFix extends LocalQuickFixOnPsiElement {
+    private final String targetText;
+    private final String sourceText;
+
+    private AssignLoadedStateQuickFix(@NotNull PsiElement statement, String targetText, String sourceText) {
+        super(statement);
+        this.targetText = targetText;
+        this.sourceText = sourceText;
+    }
+
+    /**
+     * Creates the quick fix for the argument {@code copyBean()} call in the argument {@code loadState()} method,
+     * or returns null if the quick fix is not available for it.
+     */
+    @Nullable
+    static AssignLoadedStateQuickFix create(UCallExpression copyBeanCall, UMethod loadState) {
+        var statement = getStatement(copyBeanCall);
+        if (statement == null || copyBeanCall.getValueArgumentCount() != 2) return null;
+
+        var source = copyBeanCall.getValueArguments().get(0);
+        var target = copyBeanCall.getValueArguments().get(1);
+        if (!(source instanceof USimpleNameReferenceExpression sourceReference)
+            || !sourceReference.getIdentifier().equals(loadState.getUastParameters().get(0).getName())
+            || !isMutableField(target)
+            || source.getSourcePsi() == null || target.getSourcePsi() == null) {
+            return null;
+        }
+
+        var sourceType = source.getExpressionType();
+        var targetType = target.getExpressionType();
+        if (sourceType == null || targetType == null || !targetType.isAssignableFrom(sourceType)) return null;
+
+        return new AssignLoadedStateQuickFix(statement, target.getSourcePsi().getText(), source.getSourcePsi().getText());
+    }
+
+    /**
+     * Returns the Java expression statement, or the Kotlin expression, consisting of only the argument call.
+     */
+    @Nullable
+    private static PsiElement getStatement(UCallExpression call) {
+        UExpression expression = call.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == call
+                                 ? qualified
+                                 : call;
+        if (!(expression.getUastParent() instanceof UBlockExpression)) return null;
+
+        var expressionPsi = expression.getSourcePsi();
+        if (expressionPsi instanceof KtExpression) return expressionPsi;
+        return expressionPsi != null && expressionPsi.getParent() instanceof PsiExpressionStatement statement ? statement : null;
+    }
+
+    /**
+     * Returns whether the argument is a reference to a non-final Java field, or a Kotlin {@code var} property,
+     * either by its simple name or qualified with {@code this}.
+     */
+    private static boolean isMutableField(UExpression expression) {
+        if (expression instanceof UQualifiedReferenceExpression qualified && qualified.getReceiver() instanceof UThisExpression) {
+            expression = qualified.getSelector();
+        }
+        if (!(expression instanceof UReferenceExpression reference)) return false;
+
+        var resolved = reference.resolve();
+        return resolved instanceof KtProperty property && property.isVar()
+            || resolved instanceof PsiField field && !field.hasModifierProperty(PsiModifier.FINAL);
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("inspection.persistent.state.serialization.assign.state", targetText);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.persistent.state.serialization.assign.state.family");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (startElement instanceof PsiExpressionStatement statement) {
+            statement.replace(JavaPsiFacade.getElementFactory(project).createStatementFromText(targetText + " = " + sourceText + ";", statement));
+        } else if (startElement instanceof KtExpression expression) {
+            expression.replace(new KtPsiFactory(project, false).createExpression(targetText + " = " + sourceText));
+        }
+    }
+}
@@ -0,0 +1,431 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER_RESULT;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.picimako.justkitting.PlatformNames.PROJECT_ROOT_MODIFICATION_TRACKER;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.PSI_FILE;
+import static com.picimako.justkitting.PlatformNames.PSI_FILE_SYSTEM_ITEM;
+import static com.picimako.justkitting.PlatformNames.VIRTUAL_FILE_MANAGER;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.lexer.KtTokens;
+import org.jetbrains.kotlin.psi.KtElement;
+import org.jetbrains.kotlin.psi.KtParameter;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.util.UastExpressionUtils;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out the narrowest modification tracker that a {@code CachedValueProvider} could depend on, based on what the provider reads.
+ * <p>
+ * The analysis is a conservative one. It classifies the methods called in the provider, i.e. the lambda or method that creates
+ * the {@code CachedValueProvider.Result}, and in the methods, from the project sources, called by it, at most two levels deep,
+ * against lists of known methods:
+ * <ul>
+ *     <li>PSI navigation within a file, e.g. {@code PsiElement.getChildren()} or {@code PsiTreeUtil.findChildrenOfType()},
+ *     reads only the containing file, unless it leaves the file, e.g. via {@code PsiFile.getParent()},</li>
+ *     <li>the {@code com.intellij.openapi.roots} and {@code com.intellij.openapi.module} APIs, except for the ones iterating files
+ *     or returning services, read the project roots,</li>
+ *     <li>the {@code com.intellij.openapi.vfs} APIs navigating the file system, e.g. {@code VirtualFile.findChild()}, read the VFS structure,</li>
+ *     <li>the JDK, Kotlin stdlib, string and collection utilities that don't read global state are ignored.</li>
+ * </ul>
+ * If any other method is called, e.g. one that resolves references, reads file contents or user data, if a non-constant field or property
+ * is read, or if the provider reads from more than one of the areas above, the analysis gives up, and no narrower dependency is suggested.
+ * <p>
+ * Resolving references and class lookups are not classified, since they may return light classes of any JVM language, e.g. Kotlin,
+ * whose changes a Java-specific tracker wouldn't reflect.
+ *
+ * @see CachedValuesInspection
+ * @see com.picimako.justkitting.intention.caching.WrapInCachedValueIntention
+ * @since 1.5.0
+ */
+public final class CachedValueDependencyAnalyzer {
+    private static final int MAX_DEPTH = 2;
+    private static final Set<String> NEUTRAL_CLASS_PREFIXES = Set.of("java.util.", "com.intellij.openapi.util.text.",
+        "com.intellij.util.containers.", "com.intellij.openapi.diagnostic.");
+    private static final Set<String> NEUTRAL_CLASSES = Set.of("java.lang.Object", "java.lang.Class", "java.lang.String", "java.lang.StringBuilder",
+        "java.lang.CharSequence", "java.lang.Math", "java.lang.Number", "java.lang.Integer", "java.lang.Long", "java.lang.Double", "java.lang.Float",
+        "java.lang.Boolean", "java.lang.Character", "java.lang.Enum", "java.lang.Iterable", "java.lang.Comparable",
+        "com.intellij.openapi.util.Pair", "com.intellij.psi.search.GlobalSearchScope", "com.intellij.psi.search.ProjectScope");
+    /**
+     * JDK and Kotlin stdlib classes that read global, mutable state, e.g. the clock, the default locale or concurrent collections.
+     */
+    private static final Set<String> NON_NEUTRAL_CLASS_PREFIXES = Set.of("java.util.concurrent.", "java.util.Random", "java.util.Date",
+        "java.util.Calendar", "java.util.TimeZone", "java.util.Locale", "java.util.UUID", "java.util.ServiceLoader", "java.util.prefs.",
+        "java.util.logging.", "kotlin.io.", "kotlin.random.", "kotlin.system.", "kotlin.concurrent.");
+    private static final Set<String> NEUTRAL_PROJECT_METHODS = Set.of("getName", "getBasePath", "getProjectFilePath", "isDisposed");
+    private static final Set<String> NEUTRAL_PSI_METHODS = Set.of("getProject", "getManager");
+    /**
+     * Methods of PSI elements that read only the file containing the element.
+     * <p>
+     * Methods not listed here, e.g. {@code getType()}, {@code resolve()}, {@code getNavigationElement()} or {@code PsiAnnotation.findAttributeValue()},
+     * may reach out to other files.
+     */
+    private static final Set<String> FILE_LOCAL_PSI_METHODS = Set.of("getChildren", "getFirstChild", "getLastChild", "getNextSibling",
+        "getPrevSibling", "getParent", "getNode", "getText", "getTextRange", "getTextOffset", "getTextLength", "getStartOffsetInParent",
+        "textMatches", "textContains", "textToCharArray", "getContainingFile", "isValid", "getLanguage", "accept", "acceptChildren",
+        "findElementAt", "getName", "getNameIdentifier", "getModifierList", "hasModifierProperty", "getBody", "getParameterList",
+        "getParameters", "getParametersCount", "getMethods", "getFields", "getInnerClasses", "getConstructors", "getContainingClass",
+        "getAnnotations", "findDeclaredAttributeValue", "getInitializer", "getArgumentList", "getExpressions", "getStatements",
+        "isInterface", "isEnum", "isAnnotationType", "isRecord", "isConstructor", "isVarArgs");
+    /**
+     * Methods of PSI files that leave the file, e.g. {@code PsiFile.getParent()} returns the containing directory.
+     */
+    private static final Set<String> FILE_SYSTEM_NAVIGATION_METHODS = Set.of("getParent", "getNextSibling", "getPrevSibling");
+    /**
+     * PSI utility methods that navigate within a file. For example, {@code PsiTreeUtil.getParentOfType()} stops at the file,
+     * while {@code PsiTreeUtil.getContextOfType()} may continue in the injection host file.
+     */
+    private static final Map<String, Set<String>> FILE_UTILITY_METHODS = Map.of(
+        "com.intellij.psi.util.PsiTreeUtil", Set.of("findChildOfType", "findChildrenOfType", "findChildOfAnyType", "findChildrenOfAnyType",
+            "getChildOfType", "getChildrenOfType", "getChildrenOfTypeAsList", "getChildrenOfAnyType", "getParentOfType", "getTopmostParentOfType",
+            "getPrevSiblingOfType", "getNextSiblingOfType", "findElementOfClassAtOffset", "findElementOfClassAtRange", "isAncestor",
+            "collectElements", "collectElementsOfType", "processElements", "getDeepestFirst", "getDeepestLast", "firstChild", "lastChild",
+            "nextLeaf", "prevLeaf", "skipWhitespacesForward", "skipWhitespacesBackward", "skipWhitespacesAndCommentsForward",
+            "skipWhitespacesAndCommentsBackward", "hasErrorElements"),
+        "com.intellij.psi.util.PsiTreeUtilKt", Set.of("parentOfType", "parentOfTypes"),
+        "com.intellij.psi.util.PsiUtilCore", Set.of("getElementType"));
+    /**
+     * Project roots and module API methods whose results are not invalidated by root changes, e.g. ones iterating files in the content,
+     * or returning services and user data.
+     */
+    private static final Set<String> NON_ROOTS_METHOD_PREFIXES = Set.of("iterate", "process", "getService", "getComponent", "getUserData",
+        "isUnderIgnored");
+    /**
+     * VFS methods that read only the file system structure, i.e. what changes when files are created, deleted, moved or renamed.
+     */
+    private static final Set<String> VFS_STRUCTURE_METHODS = Set.of("getInstance", "findChild", "findFileByRelativePath", "getChildren",
+        "getParent", "exists", "isDirectory", "isValid", "getName", "getNameSequence", "getPath", "getUrl", "getPresentableUrl", "getExtension",
+        "getNameWithoutExtension", "getFileSystem", "findFileByUrl", "findFileByPath", "findRelativeFile", "getRelativePath", "isAncestor");
+
+    /**
+     * The areas a provider may read, from the narrowest to the broadest.
+     */
+    public enum ReadScope {
+        FILE("inspection.cached.value.provider.reads.file"),
+        PROJECT_ROOTS("inspection.cached.value.provider.reads.project.roots"),
+        VFS_STRUCTURE("inspection.cached.value.provider.reads.vfs.structure");
+
+        private final String messageKey;
+
+        ReadScope(String messageKey) {
+            this.messageKey = messageKey;
+        }
+
+        String getDescription() {
+            return JustKittingBundle.message(messageKey);
+        }
+    }
+
+    /**
+     * A dependency to add to the {@code Result} creation.
+     *
+     * @param scope           the area read by the provider
+     * @param presentableText the text displayed in quick fixes
+     * @param text            the text of the dependency expression, with fully qualified class names in Java
+     * @param imports         the classes to import for the dependency expression in Kotlin
+     */
+    public record Dependency(ReadScope scope, String presentableText, String text, List<String> imports) {
+    }
+
+    private CachedValueDependencyAnalyzer() {
+        //Utility class
+    }
+
+    /**
+     * Returns the narrowest dependency for the provider containing the argument {@code Result} creation, or null if there is none,
+     * or it cannot be determined.
+     */
+    @Nullable
+    static Dependency findNarrowestDependency(UCallExpression resultCreation) {
+        var provider = getProvider(resultCreation);
+        return provider != null && resultCreation.getSourcePsi() != null ? findNarrowestDependency(provider, resultCreation.getSourcePsi()) : null;
+    }
+
+    /**
+     * Returns the narrowest dependency for the argument provider, or null if there is none, or it cannot be determined.
+     *
+     * @param provider the lambda, method or expression computing the cached value
+     * @param context  the element at which the dependency expression is placed, used to find the variables available for the dependency
+     */
+    @Nullable
+    public static Dependency findNarrowestDependency(UElement provider, PsiElement context) {
+        var scopes = EnumSet.noneOf(ReadScope.class);
+        if (!collectReadScopes(provider, scopes, 0, new HashSet<>())) return null;
+
+        var scope = getNarrowest(scopes);
+        return scope != null ? createDependency(scope, context, provider) : null;
+    }
+
+    /**
+     * Returns the closest lambda or method containing the argument {@code Result} creation.
+     */
+    @Nullable
+    private static UElement getProvider(UCallExpression resultCreation) {
+        for (var parent = resultCreation.getUastParent(); parent != null; parent = parent.getUastParent()) {
+            if (parent instanceof ULambdaExpression || parent instanceof UMethod) return parent;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static ReadScope getNarrowest(Set<ReadScope> scopes) {
+        return scopes.size() == 1 ? scopes.iterator().next() : null;
+    }
+
+    //---- Read scope collection ----
+
+    /**
+     * Collects the areas read in the argument element, and in the methods it calls.
+     *
+     * @return false if there is a call whose read area cannot be determined, true otherwise
+     */
+    private static boolean collectReadScopes(UElement element, Set<ReadScope> scopes, int depth, Set<PsiMethod> visitedMethods) {
+        var visitor = new AbstractUastVisitor() {
+            boolean isUnknown;
+
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (isUnknown) return true;
+                if (UastExpressionUtils.isNewArray(node) || UastExpressionUtils.isArrayInitializer(node)) return false;
+
+                var method = node.resolve();
+                //Only the value of Result creations is computed, the dependencies are not read by the provider
+                if (isResultCreation(method)) {
+                    if (node.getValueArgumentCount() > 0) node.getValueArguments().get(0).accept(this);
+                    return true;
+                }
+                isUnknown = !collectReadScopes(method, node.getReceiverType(), scopes, depth, visitedMethods);
+                return isUnknown;
+            }
+
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                if (isUnknown) return true;
+
+                var target = node.resolve();
+                //Kotlin property accesses may resolve to Java getter methods
+                if (node.getSourcePsi() instanceof KtElement && target instanceof PsiMethod method) {
+                    var receiverType = node.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == node
+                                       ? qualified.getReceiver().getExpressionType()
+                                       : null;
+                    isUnknown = !collectReadScopes(method, receiverType, scopes, depth, visitedMethods);
+                }
+                //Fields and properties may hold any mutable state
+                else if (isMutableField(target)) {
+                    isUnknown = true;
+                }
+                return isUnknown;
+            }
+        };
+        element.accept(visitor);
+        return !visitor.isUnknown;
+    }
+
+    private static boolean collectReadScopes(@Nullable PsiMethod method, @Nullable PsiType receiverType, Set<ReadScope> scopes, int depth,
+                                             Set<PsiMethod> visitedMethods) {
+        if (method == null || method.getContainingClass() == null) return false;
+
+        var containingClass = method.getContainingClass();
+        var className = containingClass.getQualifiedName();
+        if (className == null) return false;
+        if (isNeutral(method, containingClass, className)) return true;
+
+        var scope = getReadScope(method, receiverType, containingClass, className);
+        if (scope != null) {
+            scopes.add(scope);
+            return true;
+        }
+
+        //Methods from the project sources are checked by what they call
+        if (!visitedMethods.add(method)) return true;
+        if (method instanceof PsiCompiledElement || depth >= MAX_DEPTH) return false;
+        var uMethod = UastContextKt.toUElement(method.getNavigationElement(), UMethod.class);
+        return uMethod != null && uMethod.getUastBody() != null && collectReadScopes(uMethod.getUastBody(), scopes, depth + 1, visitedMethods);
+    }
+
+    private static boolean isResultCreation(@Nullable PsiMethod method) {
+        return method != null && method.getContainingClass() != null && CACHED_VALUE_PROVIDER_RESULT.equals(method.getContainingClass().getQualifiedName());
+    }
+
+    private static boolean isNeutral(PsiMethod method, PsiClass containingClass, String className) {
+        if (NON_NEUTRAL_CLASS_PREFIXES.stream().anyMatch(className::startsWith)) return false;
+
+        return NEUTRAL_CLASSES.contains(className)
+            || NEUTRAL_CLASS_PREFIXES.stream().anyMatch(className::startsWith)
+            || className.startsWith("kotlin.")
+            || (PROJECT.equals(className) && NEUTRAL_PROJECT_METHODS.contains(method.getName()))
+            || (NEUTRAL_PSI_METHODS.contains(method.getName()) && InheritanceUtil.isInheritor(containingClass, PSI_ELEMENT));
+    }
+
+    /**
+     * Returns whether the argument element is a field or property that may change, i.e. it is not a compile-time constant or an enum constant.
+     */
+    private static boolean isMutableField(@Nullable PsiElement element) {
+        if (element instanceof PsiField field) return !(field instanceof PsiEnumConstant) && field.computeConstantValue() == null;
+        if (element instanceof KtProperty property) return !property.isLocal() && !property.hasModifier(KtTokens.CONST_KEYWORD);
+        return element instanceof KtParameter parameter && parameter.hasValOrVar();
+    }
+
+    @Nullable
+    private static ReadScope getReadScope(PsiMethod method, @Nullable PsiType receiverType, PsiClass containingClass, String className) {
+        var methodName = method.getName();
+        if (FILE_UTILITY_METHODS.containsKey(className)) return FILE_UTILITY_METHODS.get(className).contains(methodName) ? ReadScope.FILE : null;
+
+        if (className.startsWith("com.intellij.openapi.roots.") || className.startsWith("com.intellij.openapi.module.")) {
+            return NON_ROOTS_METHOD_PREFIXES.stream().anyMatch(methodName::startsWith) ? null : ReadScope.PROJECT_ROOTS;
+        }
+        if (className.startsWith("com.intellij.openapi.vfs.")) return VFS_STRUCTURE_METHODS.contains(methodName) ? ReadScope.VFS_STRUCTURE : null;
+
+        if (InheritanceUtil.isInheritor(containingClass, PSI_ELEMENT)) {
+            //Directories, and the parents and siblings of files are outside any file
+            if (InheritanceUtil.isInheritor(containingClass, PSI_FILE_SYSTEM_ITEM) || InheritanceUtil.isInheritor(receiverType, PSI_FILE_SYSTEM_ITEM)) {
+                boolean isFile = InheritanceUtil.isInheritor(containingClass, PSI_FILE) || InheritanceUtil.isInheritor(receiverType, PSI_FILE);
+                if (!isFile || FILE_SYSTEM_NAVIGATION_METHODS.contains(methodName)) return null;
+            }
+            return FILE_LOCAL_PSI_METHODS.contains(methodName) ? ReadScope.FILE : null;
+        }
+        return null;
+    }
+
+    //---- Dependency creation ----
+
+    @Nullable
+    private static Dependency createDependency(ReadScope scope, PsiElement context, UElement provider) {
+        boolean isKotlin = context instanceof KtElement;
+        return switch (scope) {
+            case FILE -> {
+                var file = getFileExpression(context, provider, isKotlin);
+                yield file != null ? new Dependency(scope, file, file, List.of()) : null;
+            }
+            case PROJECT_ROOTS -> {
+                var project = getProjectExpression(context, provider, isKotlin);
+                yield project != null
+                      ? createDependency(scope, "ProjectRootModificationTracker.getInstance(" + project + ")", isKotlin, PROJECT_ROOT_MODIFICATION_TRACKER)
+                      : null;
+            }
+            case VFS_STRUCTURE -> createDependency(scope, "VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS", isKotlin, VIRTUAL_FILE_MANAGER);
+        };
+    }
+
+    /**
+     * Creates the dependency from the argument text containing the short names of the argument classes.
+     */
+    private static Dependency createDependency(ReadScope scope, String presentableText, boolean isKotlin, String... classFqns) {
+        if (isKotlin) return new Dependency(scope, presentableText, presentableText, List.of(classFqns));
+
+        var text = presentableText;
+        for (var classFqn : classFqns) {
+            text = text.replace(StringUtil.getShortName(classFqn) + ".", classFqn + ".");
+        }
+        return new Dependency(scope, presentableText, text, List.of());
+    }
+
+    /**
+     * Returns the file of the PSI element the provider reads. If the provider references more than one PSI element, they may be
+     * in different files, so null is returned.
+     */
+    @Nullable
+    private static String getFileExpression(PsiElement context, UElement provider, boolean isKotlin) {
+        var variables = collectVariables(context, provider);
+        long referencedPsiElementCount = variables.stream()
+            .filter(variable -> variable.isReferenced && InheritanceUtil.isInheritor(variable.type, PSI_ELEMENT))
+            .map(Variable::name)
+            .distinct()
+            .count();
+        if (referencedPsiElementCount != 1) return null;
+
+        for (var variable : variables) {
+            if (InheritanceUtil.isInheritor(variable.type, PSI_FILE)) return variable.name;
+        }
+        var element = findPsiElementVariable(variables);
+        return element != null ? element + (isKotlin ? ".containingFile" : ".getContainingFile()") : null;
+    }
+
+    @Nullable
+    private static String getProjectExpression(PsiElement context, UElement provider, boolean isKotlin) {
+        var variables = collectVariables(context, provider);
+        for (var variable : variables) {
+            if (InheritanceUtil.isInheritor(variable.type, PROJECT)) return variable.name;
+        }
+        var element = findPsiElementVariable(variables);
+        return element != null ? element + (isKotlin ? ".project" : ".getProject()") : null;
+    }
+
+    @Nullable
+    private static String findPsiElementVariable(List<Variable> variables) {
+        for (var variable : variables) {
+            if (InheritanceUtil.isInheritor(variable.type, PSI_ELEMENT)) return variable.name;
+        }
+        return null;
+    }
+
+    /**
+     * Collects the variables referenced by their simple names in the provider, and in case of a lambda provider,
+     * the parameters of its enclosing method.
+     */
+    private static List<Variable> collectVariables(PsiElement context, UElement provider) {
+        var variables = new ArrayList<Variable>();
+        provider.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                boolean isSelector = node.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == node;
+                var type = node.getExpressionType();
+                if (!isSelector && type != null && isVisibleAt(node.resolve(), context)) {
+                    variables.add(new Variable(node.getIdentifier(), type, true));
+                }
+                return false;
+            }
+        });
+        if (provider instanceof ULambdaExpression) {
+            for (var parent = provider.getUastParent(); parent != null; parent = parent.getUastParent()) {
+                if (parent instanceof UMethod method) {
+                    method.getUastParameters().forEach(parameter -> variables.add(new Variable(parameter.getName(), parameter.getType(), false)));
+                    break;
+                }
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Returns whether the argument variable is declared in a scope that contains the argument element,
+     * e.g. it is not a local variable or a parameter of a nested lambda.
+     */
+    private static boolean isVisibleAt(@Nullable PsiElement variable, @Nullable PsiElement element) {
+        return variable != null && !(variable instanceof PsiMethod) && !(variable instanceof PsiClass)
+            && element != null && variable.getParent() != null && PsiTreeUtil.isAncestor(variable.getParent().getParent(), element, false);
+    }
+
+    private record Variable(String name, PsiType type, boolean isReferenced) {
+    }
+}
@@ -2,28 +2,40 @@
 
 package com.picimako.justkitting.inspection;
 
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUES_MANAGER;
 import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER_RESULT;
+import static com.picimako.justkitting.PlatformNames.KEY;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.picimako.justkitting.PlatformNames.PSI_MODIFICATION_TRACKER;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
 import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
 
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.CommonClassNames;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiCall;
-import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLocalVariable;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParameter;
 import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.InheritanceUtil;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.ImportUtilsKt;
 import com.picimako.justkitting.resources.JustKittingBundle;
 import com.siyeh.ig.callMatcher.CallMatcher;
 import lombok.AccessLevel;
@@ -31,13 +43,44 @@ import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtDestructuringDeclarationEntry;
+import org.jetbrains.kotlin.psi.KtElement;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtParameter;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+import org.jetbrains.uast.UBinaryExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UClassInitializer;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UField;
+import org.jetbrains.uast.UIfExpression;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.ULiteralExpression;
+import org.jetbrains.uast.ULocalVariable;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UObjectLiteralExpression;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UastBinaryOperator;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.util.UastExpressionUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
 
-import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Reports calls to the {@code create()} methods and the constructor of {@link com.intellij.psi.util.CachedValueProvider.Result} in which there is no dependency
- * specified, or it is an empty collection.
+ * specified, or it is an empty collection, both in Java and Kotlin code.
  * <p>
  * In this case the {@code Result} class constructor would log an error level message.
  * <p>
@@ -47,6 +90,22 @@ import java.util.function.Supplier;
  *     <li>{@code Set.of()}</li>
  *     <li>{@code Collections.emptyList()}</li>
  *     <li>{@code Collections.emptySet()}</li>
+ *     <li>Kotlin's {@code emptyList()}, {@code emptySet()}, {@code emptyArray()}, and {@code listOf()}, {@code setOf()}, {@code arrayOf()}
+ *     without arguments (since 1.5.0)</li>
+ * </ul>
+ * <p>
+ * Since 1.5.0, based on what the provider computing the value reads, it also suggests the narrowest dependency as a quick fix,
+ * and reports {@code PsiModificationTracker.MODIFICATION_COUNT} and {@code PsiModificationTracker.getInstance()} dependencies
+ * when a narrower one would be enough. See {@link CachedValueDependencyAnalyzer} for details.
+ * <p>
+ * Since 1.5.0, it also reports
+ * <ul>
+ *     <li>local variables and parameters captured by the providers of {@code CachedValuesManager.getCachedValue(element, provider)} calls.
+ *     Since the cached value is keyed by the provider class, the value computed for one value of a captured variable would be returned
+ *     for the other values too. The cached element itself, and the project are not reported.</li>
+ *     <li>{@code Key.create()} and {@code createCachedValue()} calls executed on every call of their containing methods,
+ *     that create a new {@code Key}, that is never released, or a new {@code CachedValue}, that caches nothing, every time.
+ *     Cached values stored in user data, or lazily initialized under a null check are not reported.</li>
  * </ul>
  *
  * @see com.intellij.psi.util.CachedValueProvider.Result
@@ -56,59 +115,326 @@ public class CachedValuesInspection extends LocalInspectionTool {
 
     private static final CallMatcher RESULT_CREATE_MATCHER = staticCall(CACHED_VALUE_PROVIDER_RESULT, "create");
     private static final CallMatcher EMPTY_COLLECTION_MATCHER = CallMatcher.anyOf(
-        staticCall(CommonClassNames.JAVA_UTIL_LIST, "of"),
-        staticCall(CommonClassNames.JAVA_UTIL_SET, "of"),
+        staticCall(CommonClassNames.JAVA_UTIL_LIST, "of").parameterCount(0),
+        staticCall(CommonClassNames.JAVA_UTIL_SET, "of").parameterCount(0),
         staticCall(CommonClassNames.JAVA_UTIL_COLLECTIONS, "emptyList", "emptySet"));
+    private static final CallMatcher PSI_MODIFICATION_TRACKER_INSTANCE_MATCHER = staticCall(PSI_MODIFICATION_TRACKER, "getInstance");
+    /**
+     * {@code getCachedValue()} calls that use the provider class as the key of the cached value.
+     */
+    private static final CallMatcher GET_CACHED_VALUE_BY_PROVIDER_MATCHER = CallMatcher.anyOf(
+        staticCall(CACHED_VALUES_MANAGER, "getCachedValue").parameterCount(2),
+        instanceCall(CACHED_VALUES_MANAGER, "getCachedValue").parameterCount(2));
+    private static final CallMatcher CREATE_CACHED_VALUE_MATCHER = instanceCall(CACHED_VALUES_MANAGER, "createCachedValue", "createParameterizedCachedValue");
+    private static final CallMatcher KEY_CREATE_MATCHER = staticCall(KEY, "create");
+    /**
+     * Methods whose lambda arguments are executed once per map key.
+     */
+    private static final Set<String> PER_KEY_COMPUTATIONS = Set.of("computeIfAbsent", "getOrPut");
+    /**
+     * Methods that store cached values in the user data of {@code UserDataHolder}s.
+     */
+    private static final Set<String> USER_DATA_STORING_METHODS = Set.of("putUserData", "putUserDataIfAbsent", "putCopyableUserData");
+    /**
+     * Kotlin stdlib functions that create empty collections or arrays, when called without arguments.
+     */
+    private static final Set<String> KOTLIN_EMPTY_COLLECTION_FACTORIES = Set.of("emptyList", "emptySet", "emptyArray", "listOf", "setOf", "arrayOf");
 
+    @SuppressWarnings("unchecked")
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
-        return new JavaElementVisitor() {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
             @Override
-            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
-                //If it is a static call to 'CachedValueProvider.Result.create()'
-                if (expression.getMethodExpression().getReferenceNameElement() != null && RESULT_CREATE_MATCHER.matches(expression)) {
-                    checkForMissingOrEmptyDependencies(expression.getArgumentList(), () -> expression.getMethodExpression().getReferenceNameElement(), PsiMethodCallExpression.class);
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                //If it is a static call to 'CachedValueProvider.Result.create()', or a constructor call to 'new CachedValueProvider.Result()'
+                if (RESULT_CREATE_MATCHER.uCallMatches(node) || isResultConstructorCall(node)) {
+                    var problemElement = getProblemElement(node);
+                    if (problemElement != null) checkForMissingOrEmptyDependencies(node, problemElement);
+                } else if (GET_CACHED_VALUE_BY_PROVIDER_MATCHER.uCallMatches(node)) {
+                    checkForCapturedVariables(node);
+                } else if (KEY_CREATE_MATCHER.uCallMatches(node) || CREATE_CACHED_VALUE_MATCHER.uCallMatches(node)) {
+                    checkForPerCallCreation(node, KEY_CREATE_MATCHER.uCallMatches(node));
                 }
+                return true;
             }
 
-            @Override
-            public void visitNewExpression(@NotNull PsiNewExpression expression) {
-                //If it is a constructor call to 'new CachedValueProvider.Result()'
-                if (Optional.ofNullable(expression.getClassOrAnonymousClassReference())
-                    .filter(cls -> CACHED_VALUE_PROVIDER_RESULT.equals(cls.getQualifiedName()))
-                    .isPresent()) {
-                    checkForMissingOrEmptyDependencies(expression.getArgumentList(), () -> expression.getClassOrAnonymousClassReference().getReferenceNameElement(), PsiNewExpression.class);
-                }
-            }
+            /**
+             * Reports the local variables and parameters captured by the provider of {@code getCachedValue(element, provider)} calls,
+             * apart from the cached element, and the project.
+             */
+            private void checkForCapturedVariables(UCallExpression getCachedValue) {
+                var arguments = getCachedValue.getValueArguments();
+                var provider = UastUtils.skipParenthesizedExprDown(arguments.get(1));
+                if (!(provider instanceof ULambdaExpression || provider instanceof UObjectLiteralExpression) || provider.getSourcePsi() == null) return;
 
-            @Override
-            public void visitCallExpression(@NotNull PsiCallExpression callExpression) {
-                //Other types of calls are out of scope
+                var cachedElement = UastUtils.skipParenthesizedExprDown(arguments.get(0)) instanceof UReferenceExpression reference ? reference.resolve() : null;
+                var reportedVariables = new HashSet<PsiElement>();
+                provider.accept(new AbstractUastVisitor() {
+                    @Override
+                    public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                        var variable = node.resolve();
+                        if (isLocalVariable(variable)
+                            && !variable.equals(cachedElement)
+                            && !PsiTreeUtil.isAncestor(provider.getSourcePsi(), variable, false)
+                            && !InheritanceUtil.isInheritor(node.getExpressionType(), PROJECT)
+                            && node.getSourcePsi() != null
+                            && reportedVariables.add(variable)) {
+                            holder.registerProblem(node.getSourcePsi(),
+                                JustKittingBundle.message("inspection.cached.value.provider.captured.variable", node.getIdentifier()),
+                                ProblemHighlightType.WARNING);
+                        }
+                        return false;
+                    }
+                });
             }
 
-            private void checkForMissingOrEmptyDependencies(@Nullable PsiExpressionList arguments,
-                                                            Supplier<PsiElement> problemElement,
-                                                            Class<? extends PsiCall> expressionType) {
-                if (arguments == null) return;
+            /**
+             * Reports {@code Key.create()} and {@code createCachedValue()} calls that are executed on every call of their containing methods.
+             */
+            private void checkForPerCallCreation(UCallExpression creation, boolean isKey) {
+                var problemElement = getProblemElement(creation);
+                if (problemElement == null || !isCreatedPerCall(creation, isKey)) return;
 
+                var hoistFix = HoistCachingObjectQuickFix.create(creation, isKey);
+                holder.registerProblem(problemElement,
+                    JustKittingBundle.message(isKey ? "inspection.cached.value.key.created.per.call" : "inspection.cached.value.created.per.call"),
+                    ProblemHighlightType.WARNING,
+                    hoistFix != null ? new LocalQuickFix[]{hoistFix} : LocalQuickFix.EMPTY_ARRAY);
+            }
+
+            private void checkForMissingOrEmptyDependencies(UCallExpression resultCreation, PsiElement problemElement) {
                 //If only the 'value' parameter is specified, but no dependency
-                if (arguments.getExpressionCount() == 1) {
-                    holder.registerProblem(problemElement.get(),
+                if (resultCreation.getValueArgumentCount() == 1) {
+                    var fixes = new ArrayList<LocalQuickFix>(List.of(
+                        new AddDependencyQuickFix(ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
+                        new AddDependencyQuickFix(ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT)));
+                    addNarrowerDependencyFix(fixes, resultCreation, resultCreation.getSourcePsi(), false, "inspection.cached.value.provider.add.dependency.quick.fix");
+                    holder.registerProblem(problemElement,
                         JustKittingBundle.message("inspection.cached.value.provider.result.without.dependency"),
-                        new AddDependencyQuickFix(expressionType, ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
-                        new AddDependencyQuickFix(expressionType, ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT));
+                        fixes.toArray(LocalQuickFix.EMPTY_ARRAY));
                 }
-                //If there is a dependency specified as an empty Collection, defined by EMPTY_COLLECTION_MATCHER
-                else if (arguments.getExpressionCount() == 2
-                    && arguments.getExpressions()[1] instanceof PsiMethodCallExpression
-                    && EMPTY_COLLECTION_MATCHER.matches(arguments.getExpressions()[1])) {
-                    holder.registerProblem(problemElement.get(),
+                //If there is a dependency specified as an empty Collection, defined by EMPTY_COLLECTION_MATCHER and KOTLIN_EMPTY_COLLECTION_FACTORIES
+                else if (resultCreation.getValueArgumentCount() == 2 && isEmptyCollection(resultCreation.getValueArguments().get(1))) {
+                    var fixes = new ArrayList<LocalQuickFix>(List.of(
+                        new ReplaceDependencyQuickFix(ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
+                        new ReplaceDependencyQuickFix(ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT)));
+                    addNarrowerDependencyFix(fixes, resultCreation, resultCreation.getValueArguments().get(1).getSourcePsi(), true,
+                        "inspection.cached.value.provider.replace.with.dependency.quick.fix");
+                    holder.registerProblem(problemElement,
                         JustKittingBundle.message("inspection.cached.value.provider.result.without.dependency"),
-                        new ReplaceDependencyQuickFix(expressionType, ModificationTracker.MODIFICATION_TRACKER_NEVER_CHANGED),
-                        new ReplaceDependencyQuickFix(expressionType, ModificationTracker.PSI_MODIFICATION_TRACKER_MODIFICATION_COUNT));
+                        fixes.toArray(LocalQuickFix.EMPTY_ARRAY));
+                }
+                //If a dependency is invalidated by any PSI change, but the provider reads less than that
+                else if (resultCreation.getValueArgumentCount() >= 2) {
+                    checkForBroaderDependencies(resultCreation);
                 }
             }
-        };
+
+            private void checkForBroaderDependencies(UCallExpression resultCreation) {
+                var dependencies = resultCreation.getValueArguments();
+                for (int i = 1; i < dependencies.size(); i++) {
+                    var dependencyPsi = dependencies.get(i).getSourcePsi();
+                    if (dependencyPsi == null || !isAnyPsiChangeDependency(dependencies.get(i))) continue;
+
+                    var narrowerDependency = CachedValueDependencyAnalyzer.findNarrowestDependency(resultCreation);
+                    if (narrowerDependency == null) return;
+
+                    holder.registerProblem(dependencyPsi,
+                        JustKittingBundle.message("inspection.cached.value.provider.broader.dependency", narrowerDependency.scope().getDescription()),
+                        ProblemHighlightType.WARNING,
+                        new UseNarrowerDependencyQuickFix(dependencyPsi, narrowerDependency, true, "inspection.cached.value.provider.replace.broader.dependency.quick.fix"));
+                }
+            }
+        }, new Class[]{UCallExpression.class});
+    }
+
+    private static boolean isResultConstructorCall(UCallExpression call) {
+        if (!UastExpressionUtils.isConstructorCall(call)) return false;
+
+        var constructor = call.resolve();
+        var resultClass = constructor != null ? constructor.getContainingClass() : call.getClassReference() != null ? call.getClassReference().resolve() : null;
+        return resultClass instanceof PsiClass psiClass && CACHED_VALUE_PROVIDER_RESULT.equals(psiClass.getQualifiedName());
+    }
+
+    /**
+     * Returns the name of the called method, or the name of the class in case of constructor calls.
+     */
+    @Nullable
+    private static PsiElement getProblemElement(UCallExpression call) {
+        var callPsi = call.getSourcePsi();
+        if (callPsi instanceof PsiMethodCallExpression methodCall) return methodCall.getMethodExpression().getReferenceNameElement();
+        if (callPsi instanceof PsiNewExpression newExpression) {
+            return newExpression.getClassOrAnonymousClassReference() != null ? newExpression.getClassOrAnonymousClassReference().getReferenceNameElement() : null;
+        }
+        return call.getMethodIdentifier() != null ? call.getMethodIdentifier().getSourcePsi() : null;
+    }
+
+    /**
+     * Returns whether the argument creation call is executed on every call of its containing method.
+     * <p>
+     * It is not the case when it is called in field initializers and initializer blocks, in computations that are executed once per map key,
+     * e.g. in {@code computeIfAbsent()}, and, for cached values, in constructors and when assigned to fields, e.g. in case of lazy initialization.
+     * <p>
+     * Cached values stored in user data, and ones assigned to local variables under a null check of the same variable
+     * are not created per call either, e.g.:
+     * <pre>{@code
+     * var value = element.getUserData(KEY);
+     * if (value == null) {
+     *     value = manager.createCachedValue(...);
+     *     element.putUserData(KEY, value);
+     * }
+     * }</pre>
+     */
+    private static boolean isCreatedPerCall(UCallExpression creation, boolean isKey) {
+        for (var parent = creation.getUastParent(); parent != null; parent = parent.getUastParent()) {
+            if (parent instanceof UField || parent instanceof UClassInitializer || parent instanceof UClass) return false;
+            if (parent instanceof ULambdaExpression && parent.getUastParent() instanceof UCallExpression call
+                && PER_KEY_COMPUTATIONS.contains(call.getMethodName())) {
+                return false;
+            }
+            if (parent instanceof UMethod method) {
+                return isKey || (!method.isConstructor() && !isAssignedToField(creation) && !isStoredAsUserData(creation, method));
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAssignedToField(UCallExpression call) {
+        var target = getAssignedVariable(call);
+        return target instanceof PsiField || target instanceof KtProperty property && !property.isLocal();
+    }
+
+    /**
+     * Returns whether the argument cached value creation is passed directly into a user data storing call,
+     * or it is assigned to a local variable that is either stored in user data, or is assigned under a null check of the same variable.
+     */
+    private static boolean isStoredAsUserData(UCallExpression creation, UMethod method) {
+        UExpression expression = getQualifiedExpression(creation);
+        if (UastUtils.skipParenthesizedExprUp(expression.getUastParent()) instanceof UCallExpression call && isUserDataStoringCall(call)) return true;
+
+        var variable = getAssignedVariable(creation);
+        if (!isLocalVariable(variable)) return false;
+
+        UElement child = expression;
+        for (var parent = expression.getUastParent(); parent != null && !(parent instanceof UMethod); child = parent, parent = parent.getUastParent()) {
+            if (parent instanceof UIfExpression ifExpression && isNullCheckOf(ifExpression.getCondition(), variable)
+                && ifExpression.getThenExpression() != null && Objects.equals(ifExpression.getThenExpression().getSourcePsi(), child.getSourcePsi())) {
+                return true;
+            }
+        }
+
+        var isStored = new Ref<>(false);
+        method.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (isUserDataStoringCall(node)
+                    && node.getValueArguments().stream().anyMatch(argument -> isReferenceTo(argument, variable))) {
+                    isStored.set(true);
+                }
+                return isStored.get();
+            }
+        });
+        return isStored.get();
+    }
+
+    private static boolean isUserDataStoringCall(UCallExpression call) {
+        return USER_DATA_STORING_METHODS.contains(call.getMethodName());
+    }
+
+    private static boolean isNullCheckOf(UExpression condition, PsiElement variable) {
+        return UastUtils.skipParenthesizedExprDown(condition) instanceof UBinaryExpression nullCheck
+            && (nullCheck.getOperator() == UastBinaryOperator.IDENTITY_EQUALS || nullCheck.getOperator() == UastBinaryOperator.EQUALS)
+            && (isNullLiteral(nullCheck.getRightOperand()) && isReferenceTo(nullCheck.getLeftOperand(), variable)
+                || isNullLiteral(nullCheck.getLeftOperand()) && isReferenceTo(nullCheck.getRightOperand(), variable));
+    }
+
+    private static boolean isNullLiteral(UExpression expression) {
+        return UastUtils.skipParenthesizedExprDown(expression) instanceof ULiteralExpression literal && literal.isNull();
+    }
+
+    private static boolean isReferenceTo(UExpression expression, PsiElement variable) {
+        return UastUtils.skipParenthesizedExprDown(expression) instanceof UReferenceExpression reference && variable.equals(reference.resolve());
+    }
+
+    /**
+     * Returns the variable or field the argument call is assigned to, either in an assignment or in a local variable declaration.
+     */
+    @Nullable
+    private static PsiElement getAssignedVariable(UCallExpression call) {
+        var parent = UastUtils.skipParenthesizedExprUp(getQualifiedExpression(call).getUastParent());
+        if (parent instanceof UBinaryExpression assignment
+            && assignment.getOperator() == UastBinaryOperator.ASSIGN
+            && assignment.getLeftOperand() instanceof UReferenceExpression target) {
+            return target.resolve();
+        }
+        return parent instanceof ULocalVariable localVariable ? localVariable.getSourcePsi() : null;
+    }
+
+    /**
+     * Returns the qualified expression of the argument call, e.g. {@code manager.createCachedValue(...)}, or the call itself if it is not qualified.
+     */
+    private static UExpression getQualifiedExpression(UCallExpression call) {
+        return call.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == call ? qualified : call;
+    }
+
+    private static boolean isLocalVariable(@Nullable PsiElement element) {
+        return element instanceof PsiLocalVariable
+            || element instanceof PsiParameter
+            || (element instanceof KtParameter parameter && !parameter.hasValOrVar())
+            || (element instanceof KtProperty property && property.isLocal())
+            || element instanceof KtDestructuringDeclarationEntry;
+    }
+
+    /**
+     * Adds a quick fix to introduce the narrowest dependency, based on what the provider reads, if there is one.
+     *
+     * @param target    the {@code Result} creation call to add the dependency to, or the dependency expression to replace
+     * @param isReplace whether the target is a dependency to replace
+     */
+    private static void addNarrowerDependencyFix(List<LocalQuickFix> fixes, UCallExpression resultCreation, @Nullable PsiElement target,
+                                                 boolean isReplace, String textKey) {
+        if (target == null) return;
+        var narrowerDependency = CachedValueDependencyAnalyzer.findNarrowestDependency(resultCreation);
+        if (narrowerDependency != null) fixes.add(new UseNarrowerDependencyQuickFix(target, narrowerDependency, isReplace, textKey));
+    }
+
+    /**
+     * Returns whether the argument dependency is {@code PsiModificationTracker.MODIFICATION_COUNT} or {@code PsiModificationTracker.getInstance()},
+     * that are invalidated by any PSI change.
+     */
+    private static boolean isAnyPsiChangeDependency(UExpression dependency) {
+        var call = getCall(dependency);
+        if (call != null) return PSI_MODIFICATION_TRACKER_INSTANCE_MATCHER.uCallMatches(call);
+
+        return UastUtils.skipParenthesizedExprDown(dependency) instanceof UReferenceExpression reference
+            && reference.resolve() instanceof PsiField field
+            && "MODIFICATION_COUNT".equals(field.getName())
+            && field.getContainingClass() != null
+            && PSI_MODIFICATION_TRACKER.equals(field.getContainingClass().getQualifiedName());
+    }
+
+    /**
+     * Returns the argument expression as a call, either as a standalone one, or as the selector of a qualified expression.
+     */
+    @Nullable
+    private static UCallExpression getCall(UExpression expression) {
+        var unwrapped = UastUtils.skipParenthesizedExprDown(expression);
+        if (unwrapped instanceof UQualifiedReferenceExpression qualified) unwrapped = qualified.getSelector();
+        return unwrapped instanceof UCallExpression call ? call : null;
+    }
+
+    private static boolean isEmptyCollection(UExpression dependency) {
+        var call = getCall(dependency);
+        if (call == null) return false;
+        if (EMPTY_COLLECTION_MATCHER.uCallMatches(call)) return true;
+
+        //Kotlin stdlib functions are matched by name when they cannot be resolved, e.g. due to a missing stdlib in the module
+        if (!(call.getSourcePsi() instanceof KtElement) || call.getValueArgumentCount() != 0 || !KOTLIN_EMPTY_COLLECTION_FACTORIES.contains(call.getMethodName())) {
+            return false;
+        }
+        var method = call.resolve();
+        var containingClass = method != null ? method.getContainingClass() : null;
+        return method == null || (containingClass != null && StringUtil.startsWith(StringUtil.notNullize(containingClass.getQualifiedName()), "kotlin."));
     }
 
     // ---- Quick fixes ----
@@ -117,13 +443,13 @@ public class CachedValuesInspection extends LocalInspectionTool {
      * Adds a modification tracker as a dependency to the CachedValueProvider.Result creation.
      */
     private static final class AddDependencyQuickFix extends BaseCachingQuickFix {
-        public AddDependencyQuickFix(@NotNull Class<? extends PsiCall> expressionType, ModificationTracker modificationTracker) {
-            super(expressionType, modificationTracker, "inspection.cached.value.provider.add.dependency.quick.fix");
+        public AddDependencyQuickFix(ModificationTracker modificationTracker) {
+            super(modificationTracker, "inspection.cached.value.provider.add.dependency.quick.fix");
         }
 
         @Override
         public void applyFix(@NotNull Project project, ProblemDescriptor descriptor) {
-            modificationTracker.addDependency(descriptor.getPsiElement(), expressionType, project);
+            modificationTracker.addDependency(descriptor.getPsiElement(), project);
         }
     }
 
@@ -131,23 +457,18 @@ public class CachedValuesInspection extends LocalInspectionTool {
      * Replaces the empty collection dependency with a modification tracker, in the CachedValueProvider.Result creation.
      */
     private static final class ReplaceDependencyQuickFix extends BaseCachingQuickFix {
-        public ReplaceDependencyQuickFix(Class<? extends PsiCall> expressionType, ModificationTracker modificationTracker) {
-            super(expressionType, modificationTracker, "inspection.cached.value.provider.replace.with.dependency.quick.fix");
+        public ReplaceDependencyQuickFix(ModificationTracker modificationTracker) {
+            super(modificationTracker, "inspection.cached.value.provider.replace.with.dependency.quick.fix");
         }
 
         @Override
         public void applyFix(@NotNull Project project, ProblemDescriptor descriptor) {
-            modificationTracker.replaceEmptyDependency(descriptor.getPsiElement(), expressionType, project);
+            modificationTracker.replaceEmptyDependency(descriptor.getPsiElement(), project);
         }
     }
 
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
     private abstract static class BaseCachingQuickFix implements LocalQuickFix {
-        /**
-         * PsiMethodCallExpression if it's a method call to 'CachedValueProvider.Result.create()',
-         * or PsiNewExpression if it's a call to 'new CachedValueProvider.Result()'.
-         */
-        protected final Class<? extends PsiCall> expressionType;
         protected final ModificationTracker modificationTracker;
         private final String quickFixKey;
 
@@ -177,18 +498,44 @@ public class CachedValuesInspection extends LocalInspectionTool {
 
         /**
          * Adds this modification tracker to the argument list of the Result creation call.
+         * <p>
+         * The context element is the method or class name of the Result creation call, so the call is its closest parent call:
+         * a {@link PsiCall} in Java, or a {@link KtCallExpression} in Kotlin.
          */
-        void addDependency(PsiElement context, Class<? extends PsiCall> expressionType, Project project) {
-            var resultCreate = PsiTreeUtil.getParentOfType(context, expressionType);
-            resultCreate.getArgumentList().add(getElement(project, context));
+        void addDependency(PsiElement context, Project project) {
+            if (context.getContainingFile() instanceof KtFile) {
+                var resultCreate = PsiTreeUtil.getParentOfType(context, KtCallExpression.class);
+                if (resultCreate == null || resultCreate.getValueArgumentList() == null) return;
+
+                var factory = new KtPsiFactory(project, false);
+                resultCreate.getValueArgumentList().addArgument(factory.createArgument(factory.createExpression(name)));
+                importTrackerClass(resultCreate, factory);
+            } else {
+                var resultCreate = PsiTreeUtil.getParentOfType(context, PsiCall.class);
+                if (resultCreate != null && resultCreate.getArgumentList() != null) resultCreate.getArgumentList().add(getElement(project, context));
+            }
         }
 
         /**
          * Replaces the empty collection dependency with this modification tracker in the argument list of the Result creation call.
          */
-        void replaceEmptyDependency(PsiElement context, Class<? extends PsiCall> expressionType, Project project) {
-            var resultCreate = PsiTreeUtil.getParentOfType(context, expressionType);
-            resultCreate.getArgumentList().getExpressions()[1].replace(getElement(project, context));
+        void replaceEmptyDependency(PsiElement context, Project project) {
+            if (context.getContainingFile() instanceof KtFile) {
+                var resultCreate = PsiTreeUtil.getParentOfType(context, KtCallExpression.class);
+                if (resultCreate == null || resultCreate.getValueArguments().size() != 2) return;
+
+                var dependency = resultCreate.getValueArguments().get(1).getArgumentExpression();
+                if (dependency == null) return;
+
+                var factory = new KtPsiFactory(project, false);
+                dependency.replace(factory.createExpression(name));
+                importTrackerClass(resultCreate, factory);
+            } else {
+                var resultCreate = PsiTreeUtil.getParentOfType(context, PsiCall.class);
+                if (resultCreate != null && resultCreate.getArgumentList() != null) {
+                    resultCreate.getArgumentList().getExpressions()[1].replace(getElement(project, context));
+                }
+            }
         }
 
         private PsiElement getElement(Project project, PsiElement context) {
@@ -196,5 +543,9 @@ public class CachedValuesInspection extends LocalInspectionTool {
                 .shortenClassReferences(JavaPsiFacade.getElementFactory(project)
                     .createExpressionFromText(fqn, context));
         }
+
+        private void importTrackerClass(KtCallExpression resultCreate, KtPsiFactory factory) {
+            ImportUtilsKt.importIfNotAlreadyAdded(resultCreate.getContainingKtFile(), StringUtil.getPackageName(fqn), factory);
+        }
     }
 }
@@ -0,0 +1,77 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlTag;
+import com.picimako.justkitting.PluginDescriptorUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Registers the components of an {@code <application-components>}, {@code <project-components>} or {@code <module-components>} tag
+ * as services of the corresponding level, in the {@code <extensions defaultExtensionNs="com.intellij">} tag of the plugin descriptor.
+ * <p>
+ * Only the components accepted by {@link PluginDescriptorStartupCostInspection#isConvertibleToService(XmlTag)} are converted.
+ * The components tag is removed when all its components are converted.
+ * <p>
+ * Since services are created lazily, on their first use, work done in the constructors of the components no longer runs at startup.
+ * The fix text notes this, so that components that must run at startup are migrated to e.g. {@code ProjectActivity}s instead.
+ * <p>
+ * From:
+ * <pre>{@code
+ * <application-components>
+ *     <component>
+ *         <interface-class>com.example.SomeComponent</interface-class>
+ *         <implementation-class>com.example.SomeComponentImpl</implementation-class>
+ *     </component>
+ * </application-components>
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * <extensions defaultExtensionNs="com.intellij">
+ *     <applicationService serviceInterface="com.example.SomeComponent" serviceImplementation="com.example.SomeComponentImpl"/>
+ * </extensions>
+ * }</pre>
+ *
+ * @see PluginDescriptorStartupCostInspection
+ * @since 1.5.0
+ */
+final class ConvertComponentsToServicesQuickFix implements LocalQuickFix {
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.convert.components");
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        var componentsTag = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), XmlTag.class, false);
+        if (componentsTag == null || componentsTag.getParentTag() == null) return;
+
+        var serviceTagName = PluginDescriptorStartupCostInspection.COMPONENT_CONTAINER_TO_SERVICE_TAG.get(componentsTag.getName());
+        if (serviceTagName == null) return;
+
+        var convertibleComponents = Arrays.stream(componentsTag.findSubTags("component"))
+            .filter(PluginDescriptorStartupCostInspection::isConvertibleToService)
+            .toList();
+        if (convertibleComponents.isEmpty()) return;
+
+        var extensionsTag = PluginDescriptorUtil.getOrCreateExtensionsTag(componentsTag.getParentTag());
+        for (var component : convertibleComponents) {
+            var serviceTag = PluginDescriptorUtil.addSubTag(extensionsTag, "<" + serviceTagName + "/>");
+            var interfaceClass = component.getSubTagText("interface-class");
+            if (interfaceClass != null) serviceTag.setAttribute("serviceInterface", interfaceClass.trim());
+            serviceTag.setAttribute("serviceImplementation", component.getSubTagText("implementation-class").trim());
+            component.delete();
+        }
+
+        if (componentsTag.findSubTags("component").length == 0) componentsTag.delete();
+    }
+}
@@ -0,0 +1,176 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.SMART_POINTER_MANAGER;
+import static com.picimako.justkitting.PlatformNames.SMART_PSI_ELEMENT_POINTER;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.psiutils.ExpressionUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * Converts a private Java field of a {@code PsiElement} type to a {@code SmartPsiElementPointer}, so that it doesn't keep the PSI element,
+ * and through it, the PSI tree and the document of its file alive.
+ * <p>
+ * The field type and initializer, the values assigned to the field, and the reads of the field are updated accordingly.
+ * Since the field is private, all its usages are in its containing file.
+ * <p>
+ * Since the field may be null, e.g. when it is initialized lazily, the values are converted to pointers, and the pointers back to elements,
+ * via null-safe static helper methods added to the containing class. {@code null} literals are kept as they are.
+ * <p>
+ * From:
+ * <pre>{@code
+ * private PsiClass psiClass = null;
+ *
+ * void method() {
+ *     if (psiClass == null) psiClass = findClass();
+ *     process(psiClass);
+ * }
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * private SmartPsiElementPointer<PsiClass> psiClass = null;
+ *
+ * void method() {
+ *     if (getPointedElement(psiClass) == null) psiClass = createNullablePointer(findClass());
+ *     process(getPointedElement(psiClass));
+ * }
+ *
+ * private static <T extends PsiElement> T getPointedElement(SmartPsiElementPointer<T> pointer) {
+ *     return pointer != null ? pointer.getElement() : null;
+ * }
+ *
+ * private static <T extends PsiElement> SmartPsiElementPointer<T> createNullablePointer(T element) {
+ *     return element != null ? SmartPointerManager.createPointer(element) : null;
+ * }
+ * }</pre>
+ *
+ * @see HeavyObjectRetentionInspection
+ * @since 1.5.0
+ */
+final class ConvertFieldToSmartPointerQuickFix implements LocalQuickFix {
+    private static final String GET_POINTED_ELEMENT = "getPointedElement";
+    private static final String CREATE_NULLABLE_POINTER = "createNullablePointer";
+
+    /**
+     * Returns whether the argument field is private, and its type is a {@code PsiElement} type.
+     */
+    static boolean isAvailableFor(PsiField field) {
+        return field.hasModifierProperty(PsiModifier.PRIVATE)
+            && field.getType() instanceof PsiClassType classType
+            && InheritanceUtil.isInheritor(classType.resolve(), PSI_ELEMENT)
+            && !InheritanceUtil.isInheritor(classType.resolve(), SMART_PSI_ELEMENT_POINTER);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.heavy.object.retention.convert.to.smart.pointer");
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        var field = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiField.class, false);
+        if (field == null || field.getContainingClass() == null) return;
+
+        var factory = JavaPsiFacade.getElementFactory(project);
+        var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        var containingFile = field.getContainingFile();
+
+        var assignments = new ArrayList<PsiAssignmentExpression>();
+        //Reads are converted first, so that reads in assigned values, e.g. 'psiClass = psiClass.getParent()', are not invalidated
+        //by the conversion of the assigned values.
+        for (var reference : ReferencesSearch.search(field, new LocalSearchScope(containingFile)).findAll()) {
+            if (reference.getElement() instanceof PsiReferenceExpression referenceExpression) {
+                var assignment = getAssignmentTo(referenceExpression);
+                if (assignment != null) {
+                    assignments.add(assignment);
+                } else if (!PsiUtil.isAccessedForWriting(referenceExpression)) {
+                    referenceExpression.replace(createHelperCall(GET_POINTED_ELEMENT, referenceExpression, factory));
+                }
+            }
+        }
+        for (var assignment : assignments) {
+            wrapInPointerCreation(assignment.getRExpression(), factory, codeStyleManager);
+        }
+
+        wrapInPointerCreation(field.getInitializer(), factory, codeStyleManager);
+        var pointerType = factory.createTypeFromText(SMART_PSI_ELEMENT_POINTER + "<" + field.getType().getCanonicalText() + ">", field);
+        codeStyleManager.shortenClassReferences(field.getTypeElement().replace(factory.createTypeElement(pointerType)));
+        addHelperMethods(field.getContainingClass(), factory, codeStyleManager);
+    }
+
+    /**
+     * Adds the null-safe helper methods to the argument class, unless they have already been added, e.g. by the conversion of another field.
+     */
+    private static void addHelperMethods(PsiClass psiClass, PsiElementFactory factory, JavaCodeStyleManager codeStyleManager) {
+        if (psiClass.findMethodsByName(GET_POINTED_ELEMENT, false).length == 0) {
+            codeStyleManager.shortenClassReferences(psiClass.add(factory.createMethodFromText(
+                "private static <T extends " + PSI_ELEMENT + "> T " + GET_POINTED_ELEMENT + "(" + SMART_PSI_ELEMENT_POINTER + "<T> pointer) {\n"
+                    + "return pointer != null ? pointer.getElement() : null;\n"
+                    + "}", psiClass)));
+        }
+        if (psiClass.findMethodsByName(CREATE_NULLABLE_POINTER, false).length == 0) {
+            codeStyleManager.shortenClassReferences(psiClass.add(factory.createMethodFromText(
+                "private static <T extends " + PSI_ELEMENT + "> " + SMART_PSI_ELEMENT_POINTER + "<T> " + CREATE_NULLABLE_POINTER + "(T element) {\n"
+                    + "return element != null ? " + SMART_POINTER_MANAGER + ".createPointer(element) : null;\n"
+                    + "}", psiClass)));
+        }
+    }
+
+    /**
+     * Returns the assignment whose left operand is the argument field reference, or null if the reference is not assigned to.
+     */
+    @Nullable
+    private static PsiAssignmentExpression getAssignmentTo(PsiReferenceExpression reference) {
+        var parent = PsiUtil.skipParenthesizedExprUp(reference.getParent());
+        return parent instanceof PsiAssignmentExpression assignment
+            && assignment.getOperationTokenType() == JavaTokenType.EQ
+            && PsiTreeUtil.isAncestor(assignment.getLExpression(), reference, false)
+            ? assignment
+            : null;
+    }
+
+    /**
+     * Creates a call to the argument helper method, with a copy of the argument expression as its argument.
+     */
+    private static PsiMethodCallExpression createHelperCall(String helperName, PsiExpression argument, PsiElementFactory factory) {
+        var helperCall = (PsiMethodCallExpression) factory.createExpressionFromText(helperName + "(argument)", argument);
+        helperCall.getArgumentList().getExpressions()[0].replace(argument);
+        return helperCall;
+    }
+
+    /**
+     * Replaces the argument expression with {@code createNullablePointer(<expression>)}, unless it is a {@code null} literal.
+     */
+    private static void wrapInPointerCreation(@Nullable PsiExpression expression, PsiElementFactory factory, JavaCodeStyleManager codeStyleManager) {
+        if (expression == null || ExpressionUtils.isNullLiteral(expression)) return;
+
+        codeStyleManager.shortenClassReferences(expression.replace(createHelperCall(CREATE_NULLABLE_POINTER, expression, factory)));
+    }
+}
@@ -0,0 +1,114 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.CONTAINER_UTIL;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Replaces the initializer of a Java {@code Map} or {@code ConcurrentMap} field with {@code ContainerUtil.createWeakMap()}
+ * or {@code ContainerUtil.createConcurrentWeakMap()} respectively, so that the map doesn't keep its keys alive.
+ * {@code Map} fields initialized with a {@code ConcurrentMap}, e.g. a {@code ConcurrentHashMap}, are also initialized with a concurrent map.
+ * <p>
+ * The imports that become unused by the removal of the original initializer are removed.
+ * <p>
+ * It is available only when the keys are the only retained objects in the map, since the values of weak-keyed maps are still strongly referenced.
+ * <p>
+ * From:
+ * <pre>{@code
+ * private final Map<PsiClass, String> names = new HashMap<>();
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * private final Map<PsiClass, String> names = ContainerUtil.createWeakMap();
+ * }</pre>
+ *
+ * @see HeavyObjectRetentionInspection
+ * @since 1.5.0
+ */
+final class ConvertToWeakKeyedMapQuickFix implements LocalQuickFix {
+    private final boolean isConcurrent;
+
+    ConvertToWeakKeyedMapQuickFix(boolean isConcurrent) {
+        this.isConcurrent = isConcurrent;
+    }
+
+    /**
+     * Returns whether the argument field is a {@code Map} or {@code ConcurrentMap} with retained keys, and non-retained values.
+     */
+    static boolean isAvailableFor(PsiField field) {
+        if (!HeavyObjectRetentionInspection.isMapInterface(field.getType()) || !(field.getType() instanceof PsiClassType mapType)) return false;
+
+        var typeArguments = mapType.getParameters();
+        return typeArguments.length == 2
+            && HeavyObjectRetentionInspection.findRetainedClass(typeArguments[0]) != null
+            && HeavyObjectRetentionInspection.findRetainedClass(typeArguments[1]) == null;
+    }
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return JustKittingBundle.message("inspection.heavy.object.retention.convert.to.weak.map", getFactoryMethodName());
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.heavy.object.retention.convert.to.weak.map.family");
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        var field = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiField.class, false);
+        if (field == null) return;
+
+        var initializerClasses = new HashSet<PsiElement>();
+        if (field.getInitializer() != null) {
+            for (var reference : PsiTreeUtil.findChildrenOfType(field.getInitializer(), PsiJavaCodeReferenceElement.class)) {
+                if (reference.resolve() instanceof PsiClass psiClass) initializerClasses.add(psiClass);
+            }
+        }
+
+        var weakMapCreation = JavaPsiFacade.getElementFactory(project).createExpressionFromText(CONTAINER_UTIL + "." + getFactoryMethodName() + "()", field);
+        field.setInitializer(weakMapCreation);
+        var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        codeStyleManager.shortenClassReferences(field);
+        removeUnusedImports(field.getContainingFile(), initializerClasses, codeStyleManager);
+    }
+
+    /**
+     * Removes the imports of the argument classes that are no longer used in the argument file. Other unused imports are left intact.
+     */
+    private static void removeUnusedImports(PsiFile file, Set<PsiElement> classes, JavaCodeStyleManager codeStyleManager) {
+        if (classes.isEmpty() || !(file instanceof PsiJavaFile javaFile)) return;
+
+        var redundantImports = codeStyleManager.findRedundantImports(javaFile);
+        if (redundantImports == null) return;
+
+        for (var redundantImport : redundantImports) {
+            if (classes.contains(redundantImport.resolve())) redundantImport.delete();
+        }
+    }
+
+    private String getFactoryMethodName() {
+        return isConcurrent ? "createConcurrentWeakMap" : "createWeakMap";
+    }
+}
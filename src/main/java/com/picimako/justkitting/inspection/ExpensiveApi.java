@@ -0,0 +1,146 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.siyeh.ig.callMatcher.CallMatcher.anyOf;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiMethod;
+import com.picimako.justkitting.ServiceUtil;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UastContextKt;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Groups of IntelliJ Platform and JDK APIs that are considered too expensive to be called during the initialization of
+ * classes loaded or instantiated early, e.g. services and extension implementation classes.
+ *
+ * @since 1.5.0
+ */
+enum ExpensiveApi {
+    INDEX_QUERY("inspection.expensive.api.index.query", anyOf(
+        instanceCall("com.intellij.util.indexing.FileBasedIndex", "getValues", "getContainingFiles", "processValues", "getAllKeys",
+            "processAllKeys", "getFileData", "processFilesContainingAllKeys", "processFilesContainingAnyKey"),
+        staticCall("com.intellij.psi.stubs.StubIndex", "getElements", "getElementsByKey"),
+        instanceCall("com.intellij.psi.stubs.StubIndex", "processElements", "getAllKeys", "processAllKeys", "getContainingFiles"),
+        staticCall("com.intellij.psi.search.FilenameIndex", "getVirtualFilesByName", "getFilesByName", "getAllFilesByExt",
+            "getAllFilenames", "processFilesByName", "processAllFileNames"),
+        staticCall("com.intellij.psi.search.FileTypeIndex", "getFiles", "containsFileOfType", "processFiles"),
+        instanceCall("com.intellij.psi.search.PsiShortNamesCache", "getClassesByName", "getMethodsByName", "getFieldsByName",
+            "getAllClassNames", "getAllMethodNames", "getAllFieldNames"),
+        instanceCall("com.intellij.psi.JavaPsiFacade", "findClass", "findClasses", "findPackage"))),
+    SEARCH("inspection.expensive.api.search", anyOf(
+        staticCall("com.intellij.psi.search.searches.ReferencesSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.MethodReferencesSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.ClassInheritorsSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.OverridingMethodsSearch", "search"),
+        staticCall("com.intellij.psi.search.searches.AnnotatedElementsSearch", "searchElements", "searchPsiClasses", "searchPsiMethods"),
+        instanceCall("com.intellij.psi.search.PsiSearchHelper", "processElementsWithWord", "processAllFilesWithWord", "findFilesWithPlainTextWords"))),
+    FILE_IO("inspection.expensive.api.file.io", anyOf(
+        staticCall("java.nio.file.Files", "readAllBytes", "readString", "readAllLines", "lines", "newInputStream", "newBufferedReader",
+            "write", "writeString", "newOutputStream", "newBufferedWriter", "walk", "list", "find", "copy", "move"),
+        instanceCall("com.intellij.openapi.vfs.VirtualFile", "contentsToByteArray", "getInputStream", "getOutputStream", "refresh"),
+        staticCall("com.intellij.openapi.vfs.VfsUtilCore", "loadText", "loadBytes"),
+        staticCall("com.intellij.openapi.util.io.FileUtil", "loadFile", "loadFileBytes", "loadLines", "loadFileText", "writeToFile"),
+        instanceCall("com.intellij.openapi.vfs.LocalFileSystem", "refreshAndFindFileByPath", "refreshAndFindFileByNioFile", "refreshAndFindFileByIoFile"))) {
+        @Override
+        boolean matches(PsiMethod method) {
+            if (method.isConstructor()) {
+                var containingClass = method.getContainingClass();
+                return containingClass != null && FILE_IO_CLASSES.contains(containingClass.getQualifiedName());
+            }
+            return super.matches(method);
+        }
+    },
+    PSI_ACCESS("inspection.expensive.api.psi.access", anyOf(
+        instanceCall("com.intellij.psi.PsiManager", "findFile", "findDirectory"),
+        instanceCall("com.intellij.psi.PsiFileFactory", "createFileFromText"),
+        instanceCall("com.intellij.psi.PsiDocumentManager", "getPsiFile", "commitDocument", "commitAllDocuments"))),
+    READ_ACTION("inspection.expensive.api.read.action", anyOf(
+        staticCall("com.intellij.openapi.application.ReadAction", "compute", "run", "computeCancellable"),
+        instanceCall("com.intellij.openapi.application.Application", "runReadAction"),
+        staticCall("com.intellij.openapi.application.ActionsKt", "runReadAction")));
+
+    private static final Set<String> FILE_IO_CLASSES = Set.of("java.io.FileInputStream", "java.io.FileOutputStream", "java.io.FileReader",
+        "java.io.FileWriter", "java.io.RandomAccessFile");
+
+    private final String messageKey;
+    private final CallMatcher matcher;
+
+    ExpensiveApi(String messageKey, CallMatcher matcher) {
+        this.messageKey = messageKey;
+        this.matcher = matcher;
+    }
+
+    boolean matches(PsiMethod method) {
+        return matcher.methodMatches(method);
+    }
+
+    /**
+     * The bundle key of the text describing what the calls of this API group do, e.g. 'queries an index'.
+     */
+    String getMessageKey() {
+        return messageKey;
+    }
+
+    /**
+     * Returns the API group the argument method belongs to, or null if it is not considered expensive.
+     */
+    @Nullable
+    static ExpensiveApi find(@Nullable PsiMethod method) {
+        if (method == null) return null;
+        for (var expensiveApi : values()) {
+            if (expensiveApi.matches(method)) return expensiveApi;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the expensive API call, and the method it is called from, in the argument method, or in the methods called from it,
+     * at most {@code maxDepth} levels deep, as long as their source code is available.
+     * <p>
+     * The bodies of lambdas and anonymous classes are not checked, since they are usually executed later.
+     */
+    @Nullable
+    static Call findCallIn(@Nullable PsiMethod method, int maxDepth) {
+        return findCallIn(method, 1, maxDepth, new HashSet<>());
+    }
+
+    /**
+     * @param depth          the call level of the argument method
+     * @param visitedMethods the methods already checked, to avoid infinite recursion
+     */
+    @Nullable
+    private static Call findCallIn(@Nullable PsiMethod method, int depth, int maxDepth, Set<PsiMethod> visitedMethods) {
+        if (method == null || depth > maxDepth || method instanceof PsiCompiledElement || !visitedMethods.add(method)) return null;
+        var uMethod = UastContextKt.toUElement(method.getNavigationElement(), UMethod.class);
+        if (uMethod == null || uMethod.getUastBody() == null) return null;
+
+        var calls = ServiceUtil.collectEagerCalls(uMethod.getUastBody());
+        for (var call : calls) {
+            var calledMethod = call.resolve();
+            var expensiveApi = find(calledMethod);
+            if (expensiveApi != null) return new Call(calledMethod, expensiveApi);
+        }
+        for (var call : calls) {
+            var expensiveCall = findCallIn(call.resolve(), depth + 1, maxDepth, visitedMethods);
+            if (expensiveCall != null) return expensiveCall;
+        }
+        return null;
+    }
+
+    /**
+     * An expensive API call.
+     *
+     * @param method       the called API method
+     * @param expensiveApi the API group of the method
+     */
+    record Call(PsiMethod method, ExpensiveApi expensiveApi) {
+    }
+}
@@ -0,0 +1,185 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_COLLECTION;
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_MAP;
+import static com.picimako.justkitting.PlatformNames.CONTAINER_UTIL;
+import static com.siyeh.ig.callMatcher.CallMatcher.anyOf;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiClassInitializer;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiSubstitutor;
+import com.intellij.psi.util.PsiFormatUtil;
+import com.intellij.psi.util.PsiFormatUtilBase;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.PluginDescriptorUtil;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports expensive static initialization in classes registered as extensions in the plugin descriptors of the project,
+ * i.e. the ones referenced in the {@code implementationClass}, {@code implementation}, {@code instance}, {@code className}, etc. attributes
+ * of extension tags, and in {@code <className>} sub-tags (see {@link PluginDescriptorUtil#getExtensionClassNames}).
+ * <p>
+ * These classes are loaded e.g. while the IDE builds highlighting passes, so their static initialization shows up as class loading time.
+ * The static initializers and the initializers of static fields (including the properties of Kotlin companion objects and objects) are checked for:
+ * <ul>
+ *     <li>calls of {@link ExpensiveApi}s, e.g. index queries and file I/O, directly, or in the methods called from them,
+ *     at most {@link #MAX_CALL_DEPTH} levels deep,</li>
+ *     <li>large collections, i.e. collection and array literals, and {@code add()}/{@code put()} calls adding at least
+ *     {@link #LARGE_COLLECTION_SIZE} elements in total,</li>
+ *     <li>eagerly built pattern trees, i.e. at least {@link #LARGE_PATTERN_SIZE} calls to {@code com.intellij.patterns} APIs.</li>
+ * </ul>
+ * The bodies of lambdas and anonymous classes are not checked, since they are usually executed later.
+ * <p>
+ * For private static final Java fields, a quick fix is provided to move them into lazy holder classes.
+ *
+ * @since 1.5.0
+ */
+public class ExtensionStaticInitializationInspection extends LocalInspectionTool {
+    private static final int MAX_CALL_DEPTH = 2;
+    static final int LARGE_COLLECTION_SIZE = 20;
+    static final int LARGE_PATTERN_SIZE = 10;
+    private static final CallMatcher COLLECTION_FACTORIES = anyOf(
+        staticCall("java.util.List", "of"),
+        staticCall("java.util.Set", "of"),
+        staticCall("java.util.Map", "ofEntries"),
+        staticCall("java.util.Arrays", "asList"),
+        staticCall(CONTAINER_UTIL, "newArrayList", "newHashSet", "newLinkedHashSet", "immutableList", "immutableSet"),
+        staticCall("kotlin.collections.CollectionsKt", "listOf", "mutableListOf", "arrayListOf"),
+        staticCall("kotlin.collections.SetsKt", "setOf", "mutableSetOf", "hashSetOf", "linkedSetOf"),
+        staticCall("kotlin.collections.MapsKt", "mapOf", "mutableMapOf", "hashMapOf", "linkedMapOf"));
+    /**
+     * {@code Map.of()} receives the keys and values as separate arguments.
+     */
+    private static final CallMatcher MAP_OF = staticCall(JAVA_UTIL_MAP, "of");
+    private static final CallMatcher COLLECTION_ADDITION = anyOf(
+        instanceCall(JAVA_UTIL_MAP, "put", "putIfAbsent"),
+        instanceCall(JAVA_UTIL_COLLECTION, "add"));
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                var qualifiedName = node.getQualifiedName();
+                if (qualifiedName != null && PluginDescriptorUtil.getExtensionClassNames(holder.getProject()).contains(qualifiedName)) {
+                    for (var staticCode : getStaticInitializationCode(node)) {
+                        checkStaticCode(staticCode, holder);
+                    }
+                }
+                return true;
+            }
+        }, new Class[]{UClass.class});
+    }
+
+    /**
+     * Returns the static initializers, and the initializers of static fields, of the argument class.
+     */
+    private static List<StaticCode> getStaticInitializationCode(UClass uClass) {
+        var staticCode = new ArrayList<StaticCode>();
+        for (var field : uClass.getFields()) {
+            var anchor = field.getUastAnchor() != null ? field.getUastAnchor().getSourcePsi() : null;
+            if (field.isStatic() && field.getUastInitializer() != null && anchor != null) {
+                staticCode.add(new StaticCode(field.getUastInitializer(), anchor, field.getSourcePsi() instanceof PsiField javaField ? javaField : null));
+            }
+        }
+        for (var initializer : uClass.getInitializers()) {
+            if (initializer.isStatic() && initializer.getSourcePsi() != null) {
+                var anchor = initializer.getSourcePsi() instanceof PsiClassInitializer javaInitializer ? javaInitializer.getModifierList() : initializer.getSourcePsi();
+                staticCode.add(new StaticCode(initializer.getUastBody(), anchor, null));
+            }
+        }
+        return staticCode;
+    }
+
+    private static void checkStaticCode(StaticCode staticCode, ProblemsHolder holder) {
+        var quickFixes = MoveFieldToLazyHolderQuickFix.isAvailableFor(staticCode.javaField())
+                         ? new LocalQuickFix[]{new MoveFieldToLazyHolderQuickFix(staticCode.javaField())}
+                         : LocalQuickFix.EMPTY_ARRAY;
+        int collectionSize = 0;
+        int patternSize = 0;
+        for (var call : ServiceUtil.collectEagerCalls(staticCode.code())) {
+            var method = call.resolve();
+            collectionSize += getAddedElementCount(call, method);
+            if (isPatternCall(method)) patternSize++;
+
+            var callPsi = call.getSourcePsi();
+            if (callPsi == null) continue;
+
+            var expensiveApi = ExpensiveApi.find(method);
+            if (expensiveApi != null) {
+                holder.registerProblem(callPsi, JustKittingBundle.message("inspection.extension.static.initialization.direct",
+                    JustKittingBundle.message(expensiveApi.getMessageKey()), getMethodText(method)), quickFixes);
+                continue;
+            }
+            var indirectCall = ExpensiveApi.findCallIn(method, MAX_CALL_DEPTH);
+            if (indirectCall != null) {
+                holder.registerProblem(callPsi, JustKittingBundle.message("inspection.extension.static.initialization.indirect",
+                    JustKittingBundle.message(indirectCall.expensiveApi().getMessageKey()), getMethodText(indirectCall.method()), getMethodText(method)), quickFixes);
+            }
+        }
+
+        if (collectionSize >= LARGE_COLLECTION_SIZE) {
+            holder.registerProblem(staticCode.anchor(), JustKittingBundle.message("inspection.extension.static.initialization.large.collection", collectionSize), quickFixes);
+        }
+        if (patternSize >= LARGE_PATTERN_SIZE) {
+            holder.registerProblem(staticCode.anchor(), JustKittingBundle.message("inspection.extension.static.initialization.pattern", patternSize), quickFixes);
+        }
+    }
+
+    /**
+     * Returns the number of elements the argument call adds to a collection or an array, either as a collection/array literal,
+     * or as an {@code add()} or {@code put()} call.
+     */
+    private static int getAddedElementCount(UCallExpression call, @Nullable PsiMethod method) {
+        if (call.getKind() == UastCallKind.NESTED_ARRAY_INITIALIZER || call.getKind() == UastCallKind.NEW_ARRAY_WITH_INITIALIZER
+            || COLLECTION_FACTORIES.methodMatches(method)) {
+            return call.getValueArgumentCount();
+        }
+        if (MAP_OF.methodMatches(method)) return call.getValueArgumentCount() / 2;
+        return COLLECTION_ADDITION.methodMatches(method) ? 1 : 0;
+    }
+
+    private static boolean isPatternCall(@Nullable PsiMethod method) {
+        var containingClass = method != null ? method.getContainingClass() : null;
+        var qualifiedName = containingClass != null ? containingClass.getQualifiedName() : null;
+        return qualifiedName != null && qualifiedName.startsWith("com.intellij.patterns.");
+    }
+
+    private static String getMethodText(PsiMethod method) {
+        return PsiFormatUtil.formatMethod(method, PsiSubstitutor.EMPTY,
+            PsiFormatUtilBase.SHOW_CONTAINING_CLASS | PsiFormatUtilBase.SHOW_NAME, 0);
+    }
+
+    /**
+     * Code executed during the static initialization of a class.
+     *
+     * @param code      the static initializer block, or the initializer of a static field
+     * @param anchor    the element to report problems of the code as a whole on
+     * @param javaField the Java field whose initializer the code is, if any
+     */
+    private record StaticCode(UElement code, PsiElement anchor, @Nullable PsiField javaField) {
+    }
+}
@@ -0,0 +1,199 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_MAP;
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE;
+import static com.picimako.justkitting.PlatformNames.COLLECTION_FACTORY;
+import static com.picimako.justkitting.PlatformNames.CONCURRENT_MAP;
+import static com.picimako.justkitting.PlatformNames.CONTAINER_UTIL;
+import static com.picimako.justkitting.PlatformNames.DOCUMENT;
+import static com.picimako.justkitting.PlatformNames.EDITOR;
+import static com.picimako.justkitting.PlatformNames.MODULE;
+import static com.picimako.justkitting.PlatformNames.PARAMETERIZED_CACHED_VALUE;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.REFERENCE;
+import static com.picimako.justkitting.PlatformNames.SMART_PSI_ELEMENT_POINTER;
+import static com.picimako.justkitting.PlatformNames.WEAK_HASH_MAP;
+import static com.siyeh.ig.callMatcher.CallMatcher.anyOf;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWildcardType;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiTypesUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.asJava.LightClassUtil;
+import org.jetbrains.kotlin.psi.KtClassOrObject;
+import org.jetbrains.kotlin.psi.KtObjectDeclaration;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UField;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports fields of long-lived objects that keep heavy IntelliJ Platform objects alive, i.e. {@code PsiElement}s (including {@code PsiFile}s),
+ * {@code Editor}s, {@code Document}s and {@code Module}s, thus potentially causing memory leaks.
+ * <p>
+ * Long-lived objects are light services (classes annotated with {@link com.intellij.openapi.components.Service}), which live as long as
+ * their project or the application, and Kotlin {@code object}s and {@code companion object}s, which live as long as their class loader.
+ * <p>
+ * The retained objects are searched for in the type arguments of field types too, so that e.g. {@code List<PsiClass>}, {@code Map<String, Editor>}
+ * and Kotlin {@code by lazy} properties are also reported. Types that don't keep their values strongly reachable are not checked further:
+ * {@code SmartPsiElementPointer}, {@code CachedValue}, {@code ParameterizedCachedValue} and {@code java.lang.ref.Reference}.
+ * Fields initialized with weak maps and collections, i.e. via the weak map and set factory methods of {@code ContainerUtil} and {@code CollectionFactory},
+ * or via the constructors of {@code WeakHashMap} and its subclasses, are not reported either.
+ * <p>
+ * For Java fields, the following quick fixes are available:
+ * <ul>
+ *     <li>{@link ConvertFieldToSmartPointerQuickFix} for private fields of {@code PsiElement} types,</li>
+ *     <li>{@link ConvertToWeakKeyedMapQuickFix} for {@code Map} and {@code ConcurrentMap} fields whose only retained objects are the keys.</li>
+ * </ul>
+ *
+ * @since 1.5.0
+ */
+public class HeavyObjectRetentionInspection extends LocalInspectionTool {
+    private static final List<String> RETAINED_CLASSES = List.of(PSI_ELEMENT, EDITOR, DOCUMENT, MODULE);
+    private static final List<String> NON_RETAINING_CLASSES = List.of(SMART_PSI_ELEMENT_POINTER, CACHED_VALUE, PARAMETERIZED_CACHED_VALUE, REFERENCE);
+    private static final String[] WEAK_COLLECTION_FACTORY_METHOD_NAMES = {
+        "createWeakMap", "createWeakValueMap", "createWeakKeySoftValueMap", "createWeakKeyWeakValueMap", "createWeakIdentityMap", "createWeakSet",
+        "createConcurrentWeakMap", "createConcurrentWeakValueMap", "createConcurrentWeakKeySoftValueMap", "createConcurrentWeakKeyWeakValueMap",
+        "createConcurrentWeakIdentityMap"};
+    private static final CallMatcher WEAK_COLLECTION_FACTORIES = anyOf(
+        staticCall(CONTAINER_UTIL, WEAK_COLLECTION_FACTORY_METHOD_NAMES),
+        staticCall(COLLECTION_FACTORY, WEAK_COLLECTION_FACTORY_METHOD_NAMES));
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitField(@NotNull UField node) {
+                checkField(node, holder);
+                return true;
+            }
+        }, new Class[]{UField.class});
+    }
+
+    private static void checkField(UField field, ProblemsHolder holder) {
+        var sourcePsi = field.getSourcePsi();
+        var nameIdentifier = field.getUastAnchor() != null ? field.getUastAnchor().getSourcePsi() : null;
+        if (sourcePsi == null || nameIdentifier == null) return;
+
+        String ownerKind = getLongLivedOwnerKind(field.getJavaPsi(), sourcePsi);
+        if (ownerKind == null || isWeakCollection(field.getUastInitializer())) return;
+
+        var retainedClass = findRetainedClass(getRetainingType(field, sourcePsi));
+        if (retainedClass == null) return;
+
+        holder.registerProblem(nameIdentifier, JustKittingBundle.message("inspection.heavy.object.retention", retainedClass.getName(), ownerKind),
+            createQuickFixes(field.getJavaPsi(), sourcePsi));
+    }
+
+    /**
+     * Returns the message text for the kind of the long-lived object the argument field is declared in,
+     * or null if the field is not declared in a long-lived object.
+     */
+    @Nullable
+    private static String getLongLivedOwnerKind(PsiField field, PsiElement sourcePsi) {
+        //In case of Kotlin, the properties of companion objects are fields of the outer class, so the owner is determined from the source
+        var ktOwner = PsiTreeUtil.getParentOfType(sourcePsi, KtClassOrObject.class);
+        if (ktOwner instanceof KtObjectDeclaration object && !object.isObjectLiteral()) {
+            return JustKittingBundle.message(object.isCompanion() ? "inspection.heavy.object.retention.companion" : "inspection.heavy.object.retention.object");
+        }
+        return ServiceUtil.isLightService(field.getContainingClass()) ? JustKittingBundle.message("inspection.heavy.object.retention.light.service") : null;
+    }
+
+    /**
+     * Returns the type that determines what the field keeps alive. For Kotlin delegated properties (e.g. {@code by lazy}),
+     * it is the type of the property, since the type of the delegate field may not carry it.
+     */
+    @Nullable
+    private static PsiType getRetainingType(UField field, PsiElement sourcePsi) {
+        if (sourcePsi instanceof KtProperty property && property.hasDelegate()) {
+            var getter = LightClassUtil.INSTANCE.getLightClassPropertyMethods(property).getGetter();
+            if (getter != null) return getter.getReturnType();
+        }
+        return field.getType();
+    }
+
+    /**
+     * Returns the first class, from the argument type and its type arguments, that is retained, or null if there is no such class.
+     */
+    @Nullable
+    static PsiClass findRetainedClass(@Nullable PsiType type) {
+        if (type instanceof PsiArrayType arrayType) return findRetainedClass(arrayType.getComponentType());
+        if (type instanceof PsiWildcardType wildcardType) return findRetainedClass(wildcardType.getBound());
+        if (!(type instanceof PsiClassType classType)) return null;
+
+        var psiClass = classType.resolve();
+        if (psiClass == null || NON_RETAINING_CLASSES.stream().anyMatch(nonRetaining -> InheritanceUtil.isInheritor(psiClass, nonRetaining))) return null;
+        if (RETAINED_CLASSES.stream().anyMatch(retained -> InheritanceUtil.isInheritor(psiClass, retained))) return psiClass;
+
+        for (var typeArgument : classType.getParameters()) {
+            var retainedClass = findRetainedClass(typeArgument);
+            if (retainedClass != null) return retainedClass;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the argument field initializer creates a weak map or collection,
+     * e.g. {@code ContainerUtil.createWeakMap()} or {@code new WeakHashMap<>()}.
+     */
+    private static boolean isWeakCollection(@Nullable UExpression initializer) {
+        var call = initializer instanceof UQualifiedReferenceExpression qualified ? qualified.getSelector() : initializer;
+        if (!(call instanceof UCallExpression callExpression)) return false;
+        if (WEAK_COLLECTION_FACTORIES.uCallMatches(callExpression)) return true;
+
+        return callExpression.getKind() == UastCallKind.CONSTRUCTOR_CALL
+            && InheritanceUtil.isInheritor(PsiTypesUtil.getPsiClass(callExpression.getReturnType()), WEAK_HASH_MAP);
+    }
+
+    private static LocalQuickFix[] createQuickFixes(PsiField field, PsiElement sourcePsi) {
+        //Quick fixes are available only for Java fields
+        if (sourcePsi != field) return LocalQuickFix.EMPTY_ARRAY;
+
+        var quickFixes = new ArrayList<LocalQuickFix>(1);
+        if (ConvertFieldToSmartPointerQuickFix.isAvailableFor(field)) quickFixes.add(new ConvertFieldToSmartPointerQuickFix());
+        if (ConvertToWeakKeyedMapQuickFix.isAvailableFor(field)) quickFixes.add(new ConvertToWeakKeyedMapQuickFix(isConcurrentMap(field)));
+        return quickFixes.toArray(LocalQuickFix.EMPTY_ARRAY);
+    }
+
+    /**
+     * Returns whether the argument field is declared as, or is initialized with a {@code ConcurrentMap}, e.g. a {@code Map} field
+     * initialized with a {@code ConcurrentHashMap}, so that the map replacing it remains thread-safe.
+     */
+    static boolean isConcurrentMap(PsiField field) {
+        var initializer = field.getInitializer();
+        return InheritanceUtil.isInheritor(field.getType(), CONCURRENT_MAP)
+            || (initializer != null && InheritanceUtil.isInheritor(initializer.getType(), CONCURRENT_MAP));
+    }
+
+    static boolean isMapInterface(PsiType type) {
+        var psiClass = PsiTypesUtil.getPsiClass(type);
+        return psiClass != null
+            && (JAVA_UTIL_MAP.equals(psiClass.getQualifiedName()) || CONCURRENT_MAP.equals(psiClass.getQualifiedName()));
+    }
+}
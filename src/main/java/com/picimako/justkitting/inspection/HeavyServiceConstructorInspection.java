@@ -0,0 +1,77 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiSubstitutor;
+import com.intellij.psi.util.PsiFormatUtil;
+import com.intellij.psi.util.PsiFormatUtilBase;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+
+
+/**
+ * Reports expensive IntelliJ Platform API calls in the initialization of light services, i.e. in classes annotated with
+ * {@link com.intellij.openapi.components.Service}.
+ * <p>
+ * Services are created lazily, on their first retrieval, which often happens on the EDT, or during project opening.
+ * Thus, querying indices, searching for references, performing file I/O, accessing PSI or running read actions in constructors,
+ * instance initializers and field initializers can directly slow down the IDE.
+ * <p>
+ * Besides the direct calls, the methods called from the initialization code are followed at most {@link #MAX_CALL_DEPTH} levels deep,
+ * as long as their source code is available. In that case, the call in the initialization code is reported.
+ * <p>
+ * The bodies of lambdas and anonymous classes are not checked, since they are usually executed later, e.g. in case of
+ * listeners or Kotlin {@code by lazy} properties.
+ *
+ * @since 1.5.0
+ */
+public class HeavyServiceConstructorInspection extends LocalInspectionTool {
+    /**
+     * The number of call levels followed from the service initialization code, not counting the initialization code itself.
+     */
+    private static final int MAX_CALL_DEPTH = 2;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                if (ServiceUtil.isLightService(node.getJavaPsi())) checkServiceInitialization(node, holder);
+                return true;
+            }
+        }, new Class[]{UClass.class});
+    }
+
+    private static void checkServiceInitialization(UClass serviceClass, ProblemsHolder holder) {
+        for (var call : ServiceUtil.collectEagerInitializationCalls(serviceClass)) {
+            var callPsi = call.getSourcePsi();
+            var method = call.resolve();
+            var expensiveApi = ExpensiveApi.find(method);
+            if (expensiveApi != null) {
+                holder.registerProblem(callPsi, JustKittingBundle.message("inspection.heavy.service.constructor.direct",
+                    JustKittingBundle.message(expensiveApi.getMessageKey()), getMethodText(method)));
+                continue;
+            }
+
+            var indirectCall = ExpensiveApi.findCallIn(method, MAX_CALL_DEPTH);
+            if (indirectCall != null) {
+                holder.registerProblem(callPsi, JustKittingBundle.message("inspection.heavy.service.constructor.indirect",
+                    JustKittingBundle.message(indirectCall.expensiveApi().getMessageKey()), getMethodText(indirectCall.method()), getMethodText(method)));
+            }
+        }
+    }
+
+    private static String getMethodText(PsiMethod method) {
+        return PsiFormatUtil.formatMethod(method, PsiSubstitutor.EMPTY,
+            PsiFormatUtilBase.SHOW_CONTAINING_CLASS | PsiFormatUtilBase.SHOW_NAME, 0);
+    }
+}
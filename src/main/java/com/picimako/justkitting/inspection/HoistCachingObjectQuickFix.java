@@ -0,0 +1,159 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UCallExpression;
+
+/**
+ * Moves a {@code Key.create()} or a {@code createCachedValue()} call from a Java method into a field, and replaces the call
+ * with a reference to the field, so that the {@code Key} or {@code CachedValue} is created only once, e.g. from
+ * <pre>{@code
+ * public Object compute() {
+ *     return CachedValuesManager.getManager(project).createCachedValue(() -> ...).getValue();
+ * }
+ * }</pre>
+ * to
+ * <pre>{@code
+ * private final CachedValue<Object> cachedValue = CachedValuesManager.getManager(project).createCachedValue(() -> ...);
+ *
+ * public Object compute() {
+ *     return cachedValue.getValue();
+ * }
+ * }</pre>
+ * <p>
+ * Keys are moved into static fields, while cached values are moved into instance fields, or into static fields when called from static methods.
+ * <p>
+ * It is available only when the call doesn't reference local variables or parameters, and, apart from within lambdas and anonymous classes,
+ * it references only instance fields that are initialized in their declarations, or no instance members at all in case of static fields.
+ * <p>
+ * It supports only Java code, Kotlin calls are reported by {@link CachedValuesInspection} without a quick fix.
+ *
+ * @see CachedValuesInspection
+ * @since 1.5.0
+ */
+final class HoistCachingObjectQuickFix extends LocalQuickFixOnPsiElement {
+    private final String fieldName;
+    private final String fieldType;
+    private final boolean isStatic;
+    private final boolean isKey;
+
+    private HoistCachingObjectQuickFix(@NotNull PsiElement call, String fieldName, String fieldType, boolean isStatic, boolean isKey) {
+        super(call);
+        this.fieldName = fieldName;
+        this.fieldType = fieldType;
+        this.isStatic = isStatic;
+        this.isKey = isKey;
+    }
+
+    /**
+     * Creates the quick fix for the argument {@code Key.create()} or {@code createCachedValue()} call, or returns null
+     * if the quick fix is not available for it.
+     */
+    @Nullable
+    static HoistCachingObjectQuickFix create(UCallExpression creation, boolean isKey) {
+        if (!(creation.getSourcePsi() instanceof PsiMethodCallExpression call) || call.getType() == null) return null;
+
+        var method = PsiTreeUtil.getParentOfType(call, PsiMethod.class);
+        var psiClass = method != null ? method.getContainingClass() : null;
+        if (psiClass == null || psiClass instanceof PsiAnonymousClass || psiClass.isInterface() || PsiUtil.isLocalClass(psiClass)) return null;
+
+        boolean isStatic = isKey || method.hasModifierProperty(PsiModifier.STATIC);
+        if (!canBeMovedToField(call, isStatic)) return null;
+
+        var fieldName = isKey ? getKeyFieldName(call) : isStatic ? "CACHED_VALUE" : "cachedValue";
+        return new HoistCachingObjectQuickFix(call, fieldName, call.getType().getCanonicalText(), isStatic, isKey);
+    }
+
+    private static boolean canBeMovedToField(PsiMethodCallExpression call, boolean isStatic) {
+        if (isStatic && PsiTreeUtil.findChildOfType(call, PsiThisExpression.class) != null) return false;
+
+        for (var reference : PsiTreeUtil.findChildrenOfType(call, PsiReferenceExpression.class)) {
+            var resolved = reference.resolve();
+            if ((resolved instanceof PsiLocalVariable || resolved instanceof PsiParameter) && !PsiTreeUtil.isAncestor(call, resolved, true)) return false;
+            if (resolved instanceof PsiMember member && !member.hasModifierProperty(PsiModifier.STATIC) && !(member instanceof PsiClass)) {
+                if (isStatic) return false;
+                //Lambdas and anonymous classes are evaluated later, when the instance is already initialized
+                var deferredContext = PsiTreeUtil.getParentOfType(reference, PsiLambdaExpression.class, PsiAnonymousClass.class);
+                boolean isDeferred = deferredContext != null && PsiTreeUtil.isAncestor(call, deferredContext, true);
+                if (!isDeferred && member instanceof PsiField field && !field.hasInitializer()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a constant name based on the name of the key, e.g. {@code LIGHT_SERVICES_KEY} for {@code "lightServices"}.
+     */
+    private static String getKeyFieldName(PsiMethodCallExpression call) {
+        var arguments = call.getArgumentList().getExpressions();
+        if (arguments.length == 0 || !(arguments[0] instanceof PsiLiteralExpression literal) || !(literal.getValue() instanceof String keyName)) {
+            return "KEY";
+        }
+
+        var name = StringUtil.toUpperCase(keyName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("[^A-Za-z0-9]+", "_"));
+        name = StringUtil.trimStart(StringUtil.trimEnd(name.replaceAll("^[0-9_]+", ""), "_"), "_");
+        if (name.isEmpty()) return "KEY";
+        return name.endsWith("KEY") ? name : name + "_KEY";
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message(isKey ? "inspection.cached.value.hoist.key.quick.fix" : "inspection.cached.value.hoist.cached.value.quick.fix", fieldName);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.cached.value.provider.add.never.changed.quick.fix.family");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (!(startElement instanceof PsiMethodCallExpression call)) return;
+        var method = PsiTreeUtil.getParentOfType(call, PsiMethod.class);
+        var psiClass = method != null ? method.getContainingClass() : null;
+        if (psiClass == null || psiClass.getLBrace() == null) return;
+
+        var factory = JavaPsiFacade.getElementFactory(project);
+        var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        var name = codeStyleManager.suggestUniqueVariableName(fieldName, psiClass, true);
+        var field = factory.createFieldFromText(
+            "private " + (isStatic ? "static " : "") + "final " + fieldType + " " + name + " = " + call.getText() + ";", psiClass);
+
+        //Static fields go first, instance fields go last, so that the fields they may reference are initialized before them
+        var fields = psiClass.getFields();
+        PsiElement addedField;
+        if (fields.length == 0) addedField = psiClass.addAfter(field, psiClass.getLBrace());
+        else if (isStatic) addedField = psiClass.addBefore(field, fields[0]);
+        else addedField = psiClass.addAfter(field, fields[fields.length - 1]);
+        codeStyleManager.shortenClassReferences(addedField);
+
+        call.replace(factory.createExpressionFromText(name, call));
+    }
+}
@@ -0,0 +1,103 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInsight.PsiEquivalenceUtil;
+import com.intellij.codeInspection.LocalQuickFixAndIntentionActionOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtExpression;
+
+/**
+ * Moves a service retrieval into a new local variable declared right before the anchor statement (e.g. a loop),
+ * and replaces the retrieval, along with the equivalent ones within the anchor statement, with a reference to the new variable.
+ * <p>
+ * If the retrieval is moved out of code that may not run at all, e.g. a loop body, the fix text notes that the service is retrieved
+ * even when there are no iterations.
+ * <p>
+ * From:
+ * <pre>{@code
+ * for (var element : elements) {
+ *     SomeService.getInstance(project).process(element);
+ * }
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * SomeService someService = SomeService.getInstance(project);
+ * for (var element : elements) {
+ *     someService.process(element);
+ * }
+ * }</pre>
+ *
+ * @see ServiceRetrievalInHotCodeInspection
+ * @since 1.5.0
+ */
+final class HoistServiceRetrievalQuickFix extends LocalQuickFixAndIntentionActionOnPsiElement {
+    private final String variableName;
+    /**
+     * The canonical text of the variable type. Used only in Java code.
+     */
+    @Nullable
+    private final String variableType;
+    /**
+     * Whether the hoisted retrieval is evaluated even when the original one wouldn't be, e.g. when the loop has no iterations.
+     */
+    private final boolean isEvaluatedAdditionally;
+
+    HoistServiceRetrievalQuickFix(@NotNull PsiElement retrieval, @NotNull PsiElement anchor, String variableName, @Nullable String variableType,
+                                  boolean isEvaluatedAdditionally) {
+        super(retrieval, anchor);
+        this.variableName = variableName;
+        this.variableType = variableType;
+        this.isEvaluatedAdditionally = isEvaluatedAdditionally;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @Nullable Editor editor, @NotNull PsiElement retrieval, @NotNull PsiElement anchor) {
+        if (retrieval instanceof PsiExpression javaRetrieval && anchor instanceof PsiStatement javaAnchor && variableType != null) {
+            hoistJavaRetrieval(project, javaRetrieval, javaAnchor);
+        } else if (retrieval instanceof KtExpression kotlinRetrieval && anchor instanceof KtExpression kotlinAnchor) {
+            KotlinServiceRetrievalHoister.hoist(kotlinRetrieval, kotlinAnchor, variableName);
+        }
+    }
+
+    private void hoistJavaRetrieval(Project project, PsiExpression retrieval, PsiStatement anchor) {
+        var factory = JavaPsiFacade.getElementFactory(project);
+        var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        String name = codeStyleManager.suggestUniqueVariableName(variableName, anchor, true);
+
+        var equivalentRetrievals = PsiTreeUtil.findChildrenOfType(anchor, PsiMethodCallExpression.class).stream()
+            .filter(call -> PsiEquivalenceUtil.areElementsEquivalent(call, retrieval))
+            .toList();
+        var declaration = factory.createVariableDeclarationStatement(name, factory.createTypeFromText(variableType, anchor), retrieval);
+        codeStyleManager.shortenClassReferences(anchor.getParent().addBefore(declaration, anchor));
+        for (var equivalentRetrieval : equivalentRetrievals) {
+            equivalentRetrieval.replace(factory.createExpressionFromText(name, equivalentRetrieval));
+        }
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return isEvaluatedAdditionally
+            ? JustKittingBundle.message("inspection.service.retrieval.hoist.out.of.loop.quick.fix", variableName)
+            : JustKittingBundle.message("inspection.service.retrieval.hoist.quick.fix", variableName);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.service.retrieval.hoist.quick.fix.family");
+    }
+}
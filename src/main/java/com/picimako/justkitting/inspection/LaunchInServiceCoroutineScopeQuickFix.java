@@ -0,0 +1,78 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.picimako.justkitting.CoroutineScopeInjector;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtLambdaExpression;
+
+/**
+ * Replaces a standalone Kotlin {@code executeOnPooledThread { ... }} statement in a service with {@code coroutineScope.launch { ... }},
+ * using the {@code CoroutineScope} property of the service, or injecting one into its primary constructor if there is none.
+ * <p>
+ * From:
+ * <pre>{@code
+ * @Service
+ * class SomeService {
+ *     fun refresh() {
+ *         ApplicationManager.getApplication().executeOnPooledThread { doRefresh() }
+ *     }
+ * }
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * @Service
+ * class SomeService(private val coroutineScope: CoroutineScope) {
+ *     fun refresh() {
+ *         coroutineScope.launch { doRefresh() }
+ *     }
+ * }
+ * }</pre>
+ *
+ * @see UnmanagedServiceExecutorInspection
+ * @since 1.5.0
+ */
+final class LaunchInServiceCoroutineScopeQuickFix extends LocalQuickFixOnPsiElement {
+    private final SmartPsiElementPointer<KtLambdaExpression> lambda;
+
+    LaunchInServiceCoroutineScopeQuickFix(@NotNull KtExpression statement, @NotNull KtLambdaExpression lambda) {
+        super(statement);
+        this.lambda = SmartPointerManager.createPointer(lambda);
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return getFamilyName();
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.unmanaged.service.executor.launch");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        var lambdaExpression = PsiTreeUtil.findSameElementInCopy(lambda.getElement(), file);
+        var serviceClass = PsiTreeUtil.getParentOfType(startElement, KtClass.class);
+        if (!(startElement instanceof KtExpression statement) || lambdaExpression == null || serviceClass == null) return;
+
+        var scopeName = CoroutineScopeInjector.findScopeProperty(serviceClass);
+        if (scopeName == null) {
+            if (!CoroutineScopeInjector.canInject(serviceClass)) return;
+            scopeName = CoroutineScopeInjector.inject(serviceClass);
+        }
+        CoroutineScopeInjector.replaceWithLaunch(statement, lambdaExpression, scopeName);
+    }
+}
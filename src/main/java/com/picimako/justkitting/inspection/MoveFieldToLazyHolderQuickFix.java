@@ -0,0 +1,115 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Moves a private static final Java field into a new nested holder class, so that it is initialized only when it is first accessed,
+ * instead of when its containing class is loaded. References of the field are updated to access it via the holder class.
+ * <p>
+ * From:
+ * <pre>{@code
+ * private static final Set<String> ATTRIBUTE_NAMES = Set.of(...);
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * private static final class AttributeNamesHolder {
+ *     private static final Set<String> ATTRIBUTE_NAMES = Set.of(...);
+ * }
+ * }</pre>
+ *
+ * @see ExtensionStaticInitializationInspection
+ * @since 1.5.0
+ */
+final class MoveFieldToLazyHolderQuickFix extends LocalQuickFixOnPsiElement {
+    private final String holderName;
+
+    MoveFieldToLazyHolderQuickFix(@NotNull PsiField field) {
+        super(field);
+        holderName = getHolderName(field);
+    }
+
+    /**
+     * Returns whether the argument is a private static final Java field of a named class.
+     */
+    static boolean isAvailableFor(@Nullable PsiField field) {
+        return field != null
+            && field.getContainingClass() != null
+            && field.getContainingClass().getName() != null
+            && field.hasModifierProperty(PsiModifier.PRIVATE)
+            && field.hasModifierProperty(PsiModifier.STATIC)
+            && field.hasModifierProperty(PsiModifier.FINAL);
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("inspection.extension.static.initialization.move.to.holder", holderName);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.extension.static.initialization.move.to.holder.family");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (!(startElement instanceof PsiField field) || field.getContainingClass() == null) return;
+
+        var containingClass = field.getContainingClass();
+        //The field is private, so it can only be referenced in its containing file
+        var references = ReferencesSearch.search(field, new LocalSearchScope(file)).findAll();
+
+        var factory = JavaPsiFacade.getElementFactory(project);
+        var holder = factory.createClass(holderName);
+        PsiUtil.setModifierProperty(holder, PsiModifier.PRIVATE, true);
+        PsiUtil.setModifierProperty(holder, PsiModifier.STATIC, true);
+        PsiUtil.setModifierProperty(holder, PsiModifier.FINAL, true);
+        holder.add(field);
+        containingClass.add(holder);
+
+        for (var reference : references) {
+            if (reference.getElement() instanceof PsiReferenceExpression referenceExpression) {
+                referenceExpression.replace(factory.createExpressionFromText(holderName + "." + field.getName(), referenceExpression));
+            }
+        }
+        field.delete();
+    }
+
+    /**
+     * Returns the name of the holder class based on the name of the argument field, e.g. {@code AttributeNamesHolder} for {@code ATTRIBUTE_NAMES},
+     * that doesn't clash with the existing nested classes of the containing class.
+     */
+    private static String getHolderName(PsiField field) {
+        String fieldName = field.getName();
+        var words = fieldName.equals(StringUtil.toUpperCase(fieldName)) ? StringUtil.toLowerCase(fieldName).split("_") : new String[]{fieldName};
+        String baseName = Arrays.stream(words).filter(word -> !word.isEmpty()).map(StringUtil::capitalize).collect(Collectors.joining()) + "Holder";
+
+        PsiClass containingClass = field.getContainingClass();
+        String holderName = baseName;
+        for (int i = 2; containingClass != null && containingClass.findInnerClassByName(holderName, false) != null; i++) {
+            holderName = baseName + i;
+        }
+        return holderName;
+    }
+}
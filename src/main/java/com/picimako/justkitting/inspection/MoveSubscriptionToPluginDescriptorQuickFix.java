@@ -0,0 +1,101 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInsight.FileModificationService;
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.picimako.justkitting.PluginDescriptorUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registers a listener in the {@code <applicationListeners>} or {@code <projectListeners>} tag of the {@code plugin.xml} of the module,
+ * and removes the programmatic subscription statement.
+ * <p>
+ * From:
+ * <pre>{@code
+ * project.getMessageBus().connect().subscribe(VirtualFileManager.VFS_CHANGES, new SomeListener());
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * <projectListeners>
+ *     <listener class="com.example.SomeListener" topic="com.intellij.openapi.vfs.newvfs.BulkFileListener"/>
+ * </projectListeners>
+ * }</pre>
+ *
+ * @see ProgrammaticListenerSubscriptionInspection
+ * @since 1.5.0
+ */
+final class MoveSubscriptionToPluginDescriptorQuickFix extends LocalQuickFixOnPsiElement {
+    private final String listenersTagName;
+    private final String listenerClass;
+    private final String topic;
+
+    /**
+     * @param subscriptionStatement the statement of the subscription to remove
+     * @param listenersTagName      either {@code applicationListeners} or {@code projectListeners}
+     * @param listenerClass         the binary name of the listener implementation class
+     * @param topic                 the binary name of the listener interface of the topic
+     */
+    MoveSubscriptionToPluginDescriptorQuickFix(@NotNull PsiElement subscriptionStatement, String listenersTagName, String listenerClass, String topic) {
+        super(subscriptionStatement);
+        this.listenersTagName = listenersTagName;
+        this.listenerClass = listenerClass;
+        this.topic = topic;
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("inspection.programmatic.listener.subscription.move.to.plugin.xml", listenersTagName);
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.programmatic.listener.subscription.move.to.plugin.xml.family");
+    }
+
+    /**
+     * The fix modifies the plugin descriptor too, so both files are made writable before starting the write action.
+     */
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement subscriptionStatement, @NotNull PsiElement endElement) {
+        var module = ModuleUtilCore.findModuleForPsiElement(subscriptionStatement);
+        var pluginXml = module != null ? PluginDescriptorUtil.findPluginXml(module) : null;
+        if (pluginXml == null || pluginXml.getRootTag() == null
+            || !FileModificationService.getInstance().preparePsiElementsForWrite(subscriptionStatement, pluginXml)) {
+            return;
+        }
+
+        WriteCommandAction.writeCommandAction(project, file, pluginXml).withName(getText()).run(() -> {
+            var listenersTag = PluginDescriptorUtil.getOrCreateSubTag(pluginXml.getRootTag(), listenersTagName);
+            var listenerTag = PluginDescriptorUtil.addSubTag(listenersTag, "<listener/>");
+            listenerTag.setAttribute("class", listenerClass);
+            listenerTag.setAttribute("topic", topic);
+            subscriptionStatement.delete();
+        });
+    }
+
+    /**
+     * Previews the listener registration added to the plugin descriptor.
+     */
+    @Override
+    public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull ProblemDescriptor previewDescriptor) {
+        return new IntentionPreviewInfo.CustomDiff(XmlFileType.INSTANCE, "plugin.xml", "",
+            "<" + listenersTagName + ">\n    <listener class=\"" + listenerClass + "\" topic=\"" + topic + "\"/>\n</" + listenersTagName + ">");
+    }
+}
@@ -0,0 +1,395 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_COLLECTION;
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_MAP;
+import static com.picimako.justkitting.PlatformNames.BASE_STATE;
+import static com.picimako.justkitting.PlatformNames.PERSISTENT_STATE_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.ROAMING_TYPE;
+import static com.picimako.justkitting.PlatformNames.SERIALIZABLE_PERSISTENT_STATE_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.SIMPLE_PERSISTENT_STATE_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.STATE_ANNOTATION;
+import static com.picimako.justkitting.PlatformNames.STORAGE_ANNOTATION;
+import static com.picimako.justkitting.PlatformNames.XML_SERIALIZER_UTIL;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiArrayInitializerMemberValue;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtCollectionLiteralExpression;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtValueArgument;
+import org.jetbrains.uast.UAnnotation;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.ULocalVariable;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.UReturnExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.util.UastExpressionUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reports {@code PersistentStateComponent} implementations whose state is expensive to serialize or to save:
+ * <ul>
+ *     <li>{@code XmlSerializerUtil.copyBean()} calls in {@code loadState()}, that copy the loaded state reflectively,</li>
+ *     <li>{@code getState()} methods that return a newly created object, so a new object graph is built every time the settings are saved,</li>
+ *     <li>states with collection, map or array fields, when the component doesn't override {@code getStateModificationCount()},
+ *     thus the platform has to serialize the state and compare it to the stored one on every save,</li>
+ *     <li>cache-like states, i.e. whose component or state class name, or the name of a collection field, contains the word "cache",
+ *     e.g. {@code resultCache}, stored in a roamable or workspace file instead of {@code StoragePathMacros.CACHE_FILE}.
+ *     Storages with {@code roamingType = RoamingType.DISABLED} are already non-roamable, so they are not reported.</li>
+ * </ul>
+ * {@code BaseState}-based states, {@code SimplePersistentStateComponent}s and {@code SerializablePersistentStateComponent}s track their
+ * modifications themselves, so they are not reported for the missing modification count.
+ * <p>
+ * Quick fixes are provided to
+ * <ul>
+ *     <li>replace {@code copyBean(state, myState)} with {@code myState = state}, when the state is kept in a mutable field or property,</li>
+ *     <li>track the modifications of the state fields of Java components serving as their own state,
+ *     see {@link TrackStateModificationsQuickFix},</li>
+ *     <li>store cache-like states in {@code StoragePathMacros.CACHE_FILE}.</li>
+ * </ul>
+ * There is no quick fix for {@code getState()} creating new objects, since keeping the state in a field usually requires
+ * restructuring the component.
+ *
+ * @see <a href="https://plugins.jetbrains.com/docs/intellij/persisting-state-of-components.html">Persisting State of Components</a>
+ * @since 1.5.0
+ */
+public class PersistentStateSerializationCostInspection extends LocalInspectionTool {
+    private static final CallMatcher COPY_BEAN = staticCall(XML_SERIALIZER_UTIL, "copyBean").parameterCount(2);
+    private static final Set<String> SCOPE_FUNCTIONS = Set.of("apply", "also");
+    private static final String CACHE_FILE_MACRO = "$cache_file$";
+    /**
+     * Words in class and field names that mark the state as cache-like.
+     */
+    private static final Set<String> CACHE_WORDS = Set.of("cache", "caches", "cached", "caching");
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                var component = node.getJavaPsi();
+                if (node.getSourcePsi() == null || component.isInterface() || !InheritanceUtil.isInheritor(component, PERSISTENT_STATE_COMPONENT)) {
+                    return true;
+                }
+
+                checkLoadState(node, holder);
+                checkGetState(node, holder);
+                var stateClass = getStateClass(component);
+                if (stateClass != null) {
+                    checkModificationCount(node, stateClass, holder);
+                    checkCacheStorage(node, stateClass, holder);
+                }
+                return true;
+            }
+        }, new Class[]{UClass.class});
+    }
+
+    //loadState()
+
+    private static void checkLoadState(UClass component, ProblemsHolder holder) {
+        for (var method : getMethods(component, "loadState", 1)) {
+            for (var call : collectCalls(method)) {
+                if (call.getSourcePsi() != null && COPY_BEAN.methodMatches(call.resolve())) {
+                    var quickFix = AssignLoadedStateQuickFix.create(call, method);
+                    holder.registerProblem(call.getSourcePsi(), JustKittingBundle.message("inspection.persistent.state.serialization.copy.bean"),
+                        quickFix != null ? new LocalQuickFix[]{quickFix} : LocalQuickFix.EMPTY_ARRAY);
+                }
+            }
+        }
+    }
+
+    //getState()
+
+    private static void checkGetState(UClass component, ProblemsHolder holder) {
+        for (var method : getMethods(component, "getState", 0)) {
+            for (var returnExpression : collectReturns(method)) {
+                var returnValue = returnExpression.getReturnExpression();
+                if (returnValue != null && returnValue.getSourcePsi() != null && isNewObject(returnValue)) {
+                    holder.registerProblem(returnValue.getSourcePsi(), JustKittingBundle.message("inspection.persistent.state.serialization.new.state"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the argument expression creates a new object, either directly via a constructor call (optionally followed
+     * by a Kotlin {@code apply} or {@code also} call), or via a local variable initialized that way.
+     */
+    private static boolean isNewObject(UExpression expression) {
+        var unwrapped = UastUtils.skipParenthesizedExprDown(expression);
+        if (unwrapped instanceof UQualifiedReferenceExpression qualified
+            && qualified.getSelector() instanceof UCallExpression selector
+            && SCOPE_FUNCTIONS.contains(selector.getMethodName())) {
+            unwrapped = qualified.getReceiver();
+        }
+        if (unwrapped instanceof USimpleNameReferenceExpression reference) {
+            var variable = UastContextKt.toUElement(reference.resolve(), ULocalVariable.class);
+            return variable != null && variable.getUastInitializer() != null && isConstructorCall(variable.getUastInitializer());
+        }
+        return isConstructorCall(unwrapped);
+    }
+
+    private static boolean isConstructorCall(@Nullable UExpression expression) {
+        return expression instanceof UCallExpression call && UastExpressionUtils.isConstructorCall(call);
+    }
+
+    //getStateModificationCount()
+
+    private static void checkModificationCount(UClass node, PsiClass stateClass, ProblemsHolder holder) {
+        var component = node.getJavaPsi();
+        if (InheritanceUtil.isInheritor(stateClass, BASE_STATE)
+            || InheritanceUtil.isInheritor(component, SIMPLE_PERSISTENT_STATE_COMPONENT)
+            || InheritanceUtil.isInheritor(component, SERIALIZABLE_PERSISTENT_STATE_COMPONENT)
+            || overridesModificationCount(component)
+            || getCollectionFields(stateClass).isEmpty()) {
+            return;
+        }
+
+        var anchor = node.getUastAnchor() != null ? node.getUastAnchor().getSourcePsi() : null;
+        if (anchor != null) {
+            var quickFixes = node.getSourcePsi() instanceof PsiClass javaClass && javaClass == stateClass && TrackStateModificationsQuickFix.isAvailableFor(javaClass)
+                             ? new LocalQuickFix[]{new TrackStateModificationsQuickFix(javaClass)}
+                             : LocalQuickFix.EMPTY_ARRAY;
+            holder.registerProblem(anchor, JustKittingBundle.message("inspection.persistent.state.serialization.modification.count"), quickFixes);
+        }
+    }
+
+    private static boolean overridesModificationCount(PsiClass component) {
+        return Arrays.stream(component.findMethodsByName("getStateModificationCount", true))
+            .anyMatch(method -> method.getParameterList().isEmpty()
+                && method.getContainingClass() != null
+                && !PERSISTENT_STATE_COMPONENT.equals(method.getContainingClass().getQualifiedName()));
+    }
+
+    /**
+     * Returns the non-static fields of the argument state class whose type is a collection, a map or an array.
+     */
+    private static List<PsiField> getCollectionFields(PsiClass stateClass) {
+        return Arrays.stream(stateClass.getFields())
+            .filter(field -> !field.hasModifierProperty(PsiModifier.STATIC) && isCollectionType(field.getType()))
+            .toList();
+    }
+
+    static boolean isCollectionType(PsiType type) {
+        return type instanceof PsiArrayType || InheritanceUtil.isInheritor(type, JAVA_UTIL_COLLECTION) || InheritanceUtil.isInheritor(type, JAVA_UTIL_MAP);
+    }
+
+    //Cache storage
+
+    private static void checkCacheStorage(UClass component, PsiClass stateClass, ProblemsHolder holder) {
+        if (!isCacheLike(component.getJavaPsi(), stateClass)) return;
+
+        for (var storageValue : getNonCacheStorageValues(component.getSourcePsi())) {
+            holder.registerProblem(storageValue, JustKittingBundle.message("inspection.persistent.state.serialization.cache.storage"),
+                new StoreInCacheFileQuickFix(storageValue));
+        }
+    }
+
+    private static boolean isCacheLike(PsiClass component, PsiClass stateClass) {
+        return hasCacheWord(component.getName())
+            || hasCacheWord(stateClass.getName())
+            || getCollectionFields(stateClass).stream().anyMatch(field -> hasCacheWord(field.getName()));
+    }
+
+    /**
+     * Returns whether the argument camel-case name contains a cache related word, e.g. {@code ResultCache}, but not e.g. {@code cachetList}.
+     */
+    private static boolean hasCacheWord(@Nullable String name) {
+        return name != null && Arrays.stream(NameUtil.nameToWords(name)).anyMatch(word -> CACHE_WORDS.contains(StringUtil.toLowerCase(word)));
+    }
+
+    /**
+     * Returns the storage file expressions of the {@code @Storage} annotations in the {@code @State} annotation of the argument class,
+     * that don't specify {@code StoragePathMacros.CACHE_FILE}, and are not already non-roamable.
+     */
+    private static List<PsiElement> getNonCacheStorageValues(@Nullable PsiElement component) {
+        var storageValues = new ArrayList<PsiElement>();
+        if (component instanceof PsiClass javaClass) {
+            var state = AnnotationUtil.findAnnotation(javaClass, STATE_ANNOTATION);
+            var storages = state != null ? state.findDeclaredAttributeValue("storages") : null;
+            var storageAnnotations = storages instanceof PsiArrayInitializerMemberValue array ? array.getInitializers() : new Object[]{storages};
+            for (var storage : storageAnnotations) {
+                if (storage instanceof PsiAnnotation storageAnnotation && STORAGE_ANNOTATION.equals(storageAnnotation.getQualifiedName())) {
+                    var value = storageAnnotation.findDeclaredAttributeValue("value");
+                    if (value == null) value = storageAnnotation.findDeclaredAttributeValue("file");
+                    if (value instanceof PsiExpression expression && !isCacheFile(expression)
+                        && !isRoamingDisabled(storageAnnotation.findDeclaredAttributeValue("roamingType"))) {
+                        storageValues.add(expression);
+                    }
+                }
+            }
+        } else if (component instanceof KtClass ktClass) {
+            for (var entry : ktClass.getAnnotationEntries()) {
+                var state = UastContextKt.toUElement(entry, UAnnotation.class);
+                if (state == null || !STATE_ANNOTATION.equals(state.getQualifiedName())) continue;
+
+                for (var argument : entry.getValueArguments()) {
+                    if (argument.getArgumentName() == null || !"storages".equals(argument.getArgumentName().getAsName().asString())) continue;
+
+                    for (var storage : getKotlinArrayElements(argument.getArgumentExpression())) {
+                        if (!(storage instanceof KtCallExpression storageCall) || !isStorageAnnotation(storageCall)) continue;
+
+                        var value = getKotlinStorageArgument(storageCall, true, "value", "file");
+                        if (value != null && !isCacheFile(value) && !isRoamingDisabled(getKotlinStorageArgument(storageCall, false, "roamingType"))) {
+                            storageValues.add(value);
+                        }
+                    }
+                }
+            }
+        }
+        return storageValues;
+    }
+
+    /**
+     * Returns whether the argument storage file expression evaluates to {@code StoragePathMacros.CACHE_FILE}.
+     */
+    private static boolean isCacheFile(PsiElement storageValue) {
+        var expression = UastContextKt.toUElement(storageValue, UExpression.class);
+        return expression != null && CACHE_FILE_MACRO.equals(expression.evaluate());
+    }
+
+    /**
+     * Returns whether the argument {@code roamingType} attribute value references {@code RoamingType.DISABLED}.
+     */
+    private static boolean isRoamingDisabled(@Nullable PsiElement roamingType) {
+        var reference = UastContextKt.toUElement(roamingType, UReferenceExpression.class);
+        return reference != null
+            && reference.resolve() instanceof PsiField constant
+            && "DISABLED".equals(constant.getName())
+            && constant.getContainingClass() != null
+            && ROAMING_TYPE.equals(constant.getContainingClass().getQualifiedName());
+    }
+
+    /**
+     * Returns whether the argument Kotlin annotation call, e.g. {@code Storage("some.xml")}, is a {@code @Storage} annotation.
+     */
+    private static boolean isStorageAnnotation(KtCallExpression storage) {
+        var call = UastContextKt.toUElement(storage, UCallExpression.class);
+        if (call == null) return false;
+
+        var annotationClass = call.getClassReference() != null ? call.getClassReference().resolve() : null;
+        return annotationClass instanceof PsiClass psiClass
+               ? STORAGE_ANNOTATION.equals(psiClass.getQualifiedName())
+               : call.getReturnType() != null && STORAGE_ANNOTATION.equals(call.getReturnType().getCanonicalText());
+    }
+
+    /**
+     * Returns the elements of a Kotlin array literal, or of an {@code arrayOf()} call.
+     */
+    private static List<? extends KtExpression> getKotlinArrayElements(@Nullable KtExpression array) {
+        if (array instanceof KtCollectionLiteralExpression literal) return literal.getInnerExpressions();
+        if (array instanceof KtCallExpression call && call.getCalleeExpression() != null && "arrayOf".equals(call.getCalleeExpression().getText())) {
+            return call.getValueArguments().stream().map(KtValueArgument::getArgumentExpression).toList();
+        }
+        return array != null ? List.of(array) : List.of();
+    }
+
+    /**
+     * Returns the expression of the argument with one of the argument names, or optionally of the first positional argument,
+     * of a Kotlin {@code Storage(...)} annotation call.
+     */
+    @Nullable
+    private static KtExpression getKotlinStorageArgument(KtCallExpression storage, boolean isPositional, String... names) {
+        return storage.getValueArguments().stream()
+            .filter(argument -> argument.getArgumentName() == null
+                                ? isPositional
+                                : Arrays.asList(names).contains(argument.getArgumentName().getAsName().asString()))
+            .findFirst()
+            .map(KtValueArgument::getArgumentExpression)
+            .orElse(null);
+    }
+
+    //Helpers
+
+    /**
+     * Returns the class of the state the argument component is parameterized with, e.g. {@code State} in {@code PersistentStateComponent<State>}.
+     */
+    @Nullable
+    private static PsiClass getStateClass(PsiClass component) {
+        var componentType = JavaPsiFacade.getElementFactory(component.getProject()).createType(component);
+        return PsiUtil.resolveClassInClassTypeOnly(PsiUtil.substituteTypeParameter(componentType, PERSISTENT_STATE_COMPONENT, 0, false));
+    }
+
+    private static List<UMethod> getMethods(UClass uClass, String name, int parameterCount) {
+        return Arrays.stream(uClass.getMethods())
+            .filter(method -> name.equals(method.getName()) && method.getUastParameters().size() == parameterCount && method.getUastBody() != null)
+            .toList();
+    }
+
+    private static List<UCallExpression> collectCalls(UMethod method) {
+        var calls = new ArrayList<UCallExpression>();
+        method.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                calls.add(node);
+                return super.visitCallExpression(node);
+            }
+        });
+        return calls;
+    }
+
+    /**
+     * Collects the return expressions of the argument method, excluding the ones in lambdas and local or anonymous classes.
+     */
+    private static List<UReturnExpression> collectReturns(UMethod method) {
+        var returns = new ArrayList<UReturnExpression>();
+        method.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitReturnExpression(@NotNull UReturnExpression node) {
+                returns.add(node);
+                return super.visitReturnExpression(node);
+            }
+
+            @Override
+            public boolean visitLambdaExpression(@NotNull ULambdaExpression node) {
+                return true;
+            }
+
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                return true;
+            }
+        });
+        return returns;
+    }
+}
@@ -0,0 +1,155 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.APPLICATION_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.BASE_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.MODULE_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.PROJECT_COMPONENT;
+import static com.picimako.justkitting.PlatformNames.PROJECT_ACTIVITY;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.XmlElementVisitor;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.xml.util.XmlTagUtil;
+import com.picimako.justkitting.PluginDescriptorUtil;
+import com.picimako.justkitting.PsiClassFinder;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports declarations in plugin descriptor files that are known to slow down the startup of the IDE, or the opening of projects:
+ * <ul>
+ *     <li>services registered with the {@code preload} attribute, since they are created during startup instead of on their first use,</li>
+ *     <li>{@code <application-components>}, {@code <project-components>} and {@code <module-components>}, since components are created eagerly,</li>
+ *     <li>startup activities whose implementations are not {@code ProjectActivity}s, since those block project opening, or run on the EDT,</li>
+ *     <li>{@code <applicationListeners>} on high-frequency topics, since the listener is created early, and is called on every single event.</li>
+ * </ul>
+ * Each finding names the cheaper, lazy alternative, and where the registration can be rewritten safely, a quick fix is provided too.
+ *
+ * @since 1.5.0
+ */
+public class PluginDescriptorStartupCostInspection extends LocalInspectionTool {
+    private static final Set<String> SERVICE_TAGS = Set.of("applicationService", "projectService", "moduleService");
+    private static final Set<String> PRELOAD_VALUES = Set.of("true", "await", "notHeadless", "notLightEdit");
+    private static final Set<String> STARTUP_ACTIVITY_TAGS = Set.of("postStartupActivity", "backgroundPostStartupActivity", "startupActivity");
+    private static final List<String> COMPONENT_CLASSES = List.of(BASE_COMPONENT, APPLICATION_COMPONENT, PROJECT_COMPONENT, MODULE_COMPONENT);
+    /**
+     * Component lifecycle methods that are not called for services.
+     */
+    private static final Set<String> COMPONENT_LIFECYCLE_METHOD_NAMES = Set.of(
+        "initComponent", "disposeComponent", "getComponentName", "projectOpened", "projectClosed", "moduleAdded");
+    static final Map<String, String> COMPONENT_CONTAINER_TO_SERVICE_TAG = Map.of(
+        "application-components", "applicationService",
+        "project-components", "projectService",
+        "module-components", "moduleService");
+    /**
+     * High-frequency topics mapped to the bundle keys of their cheaper alternatives.
+     */
+    private static final Map<String, String> HIGH_FREQUENCY_TOPICS = Map.of(
+        "com.intellij.openapi.vfs.newvfs.BulkFileListener", "inspection.plugin.descriptor.startup.cost.listener.alternative.vfs",
+        "com.intellij.psi.util.PsiModificationTracker$Listener", "inspection.plugin.descriptor.startup.cost.listener.alternative.psi.modification",
+        "com.intellij.openapi.actionSystem.ex.AnActionListener", "inspection.plugin.descriptor.startup.cost.listener.alternative.subscribe",
+        "com.intellij.openapi.command.CommandListener", "inspection.plugin.descriptor.startup.cost.listener.alternative.subscribe",
+        "com.intellij.openapi.fileEditor.FileDocumentManagerListener", "inspection.plugin.descriptor.startup.cost.listener.alternative.subscribe");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        //All plugin descriptor files are supported, not just plugin.xml
+        if (!(holder.getFile() instanceof XmlFile xmlFile) || !PluginDescriptorUtil.isPluginDescriptor(xmlFile)) return PsiElementVisitor.EMPTY_VISITOR;
+
+        return new XmlElementVisitor() {
+            @Override
+            public void visitXmlTag(@NotNull XmlTag tag) {
+                var parentTag = tag.getParentTag();
+                if (parentTag == null) return;
+
+                if (COMPONENT_CONTAINER_TO_SERVICE_TAG.containsKey(tag.getName()) && parentTag.getParentTag() == null) {
+                    checkComponents(tag, holder);
+                } else if ("extensions".equals(parentTag.getName()) && "com.intellij".equals(parentTag.getAttributeValue("defaultExtensionNs"))) {
+                    if (SERVICE_TAGS.contains(tag.getName())) checkServicePreload(tag, holder);
+                    else if (STARTUP_ACTIVITY_TAGS.contains(tag.getName())) checkStartupActivity(tag, holder);
+                } else if ("listener".equals(tag.getName()) && "applicationListeners".equals(parentTag.getName())) {
+                    checkApplicationListener(tag, holder);
+                }
+            }
+        };
+    }
+
+    private static void checkServicePreload(XmlTag serviceTag, ProblemsHolder holder) {
+        var preload = serviceTag.getAttribute("preload");
+        if (preload != null && PRELOAD_VALUES.contains(preload.getValue())) {
+            holder.registerProblem(preload, JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.preload"), new RemovePreloadAttributeQuickFix());
+        }
+    }
+
+    private static void checkComponents(XmlTag componentsTag, ProblemsHolder holder) {
+        var nameElement = XmlTagUtil.getStartTagNameElement(componentsTag);
+        if (nameElement == null) return;
+
+        var quickFixes = Arrays.stream(componentsTag.findSubTags("component")).anyMatch(PluginDescriptorStartupCostInspection::isConvertibleToService)
+                         ? new LocalQuickFix[]{new ConvertComponentsToServicesQuickFix()}
+                         : LocalQuickFix.EMPTY_ARRAY;
+        holder.registerProblem(nameElement,
+            JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.components", componentsTag.getName()), quickFixes);
+    }
+
+    private static void checkStartupActivity(XmlTag activityTag, ProblemsHolder holder) {
+        var implementation = activityTag.getAttribute("implementation");
+        if (implementation == null || implementation.getValueElement() == null) return;
+
+        var activityClass = findClass(implementation.getValue(), activityTag);
+        if (activityClass != null && !InheritanceUtil.isInheritor(activityClass, PROJECT_ACTIVITY)) {
+            holder.registerProblem(implementation.getValueElement(),
+                JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.startup.activity", activityTag.getName()));
+        }
+    }
+
+    private static void checkApplicationListener(XmlTag listenerTag, ProblemsHolder holder) {
+        var topic = listenerTag.getAttribute("topic");
+        if (topic == null || topic.getValueElement() == null) return;
+
+        var alternativeKey = HIGH_FREQUENCY_TOPICS.get(topic.getValue());
+        if (alternativeKey != null) {
+            holder.registerProblem(topic.getValueElement(),
+                JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.listener", JustKittingBundle.message(alternativeKey)));
+        }
+    }
+
+    /**
+     * Returns whether the argument {@code <component>} tag can be registered as a service without changing its behaviour,
+     * i.e. it has only interface and implementation classes, and its implementation class doesn't rely on the component lifecycle
+     * methods, e.g. {@code initComponent()} or {@code projectOpened()}. Such methods are recognized both via the component interfaces
+     * (e.g. {@code BaseComponent} or {@code ProjectComponent}), and by their names, in case they are declared without implementing those interfaces.
+     * <p>
+     * Note that services are created on their first use, thus work done in the constructor of the implementation class no longer runs at startup.
+     */
+    static boolean isConvertibleToService(XmlTag componentTag) {
+        if (Arrays.stream(componentTag.getSubTags()).anyMatch(tag -> !"interface-class".equals(tag.getName()) && !"implementation-class".equals(tag.getName())))
+            return false;
+
+        var implementationClass = findClass(componentTag.getSubTagText("implementation-class"), componentTag);
+        return implementationClass != null
+            && COMPONENT_CLASSES.stream().noneMatch(componentClass -> InheritanceUtil.isInheritor(implementationClass, componentClass))
+            && COMPONENT_LIFECYCLE_METHOD_NAMES.stream().allMatch(name -> implementationClass.findMethodsByName(name, true).length == 0);
+    }
+
+    @Nullable
+    private static PsiClass findClass(@Nullable String qualifiedName, XmlTag context) {
+        return qualifiedName != null && !qualifiedName.isBlank()
+               ? PsiClassFinder.findClass(qualifiedName.trim().replace('$', '.'), context.getProject(), context.getResolveScope())
+               : null;
+    }
+}
@@ -0,0 +1,209 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.APPLICATION;
+import static com.picimako.justkitting.PlatformNames.MESSAGE_BUS;
+import static com.picimako.justkitting.PlatformNames.PROJECT;
+import static com.picimako.justkitting.PlatformNames.PROJECT_ACTIVITY;
+import static com.picimako.justkitting.PlatformNames.SIMPLE_MESSAGE_BUS_CONNECTION;
+import static com.picimako.justkitting.PlatformNames.STARTUP_ACTIVITY;
+import static com.picimako.justkitting.PlatformNames.TOPIC;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.ClassUtil;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTypesUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.PluginDescriptorUtil;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UBlockExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.util.UastExpressionUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reports programmatic message bus subscriptions, e.g. {@code project.getMessageBus().connect().subscribe(TOPIC, new SomeListener())},
+ * in code that is executed during startup or project opening:
+ * <ul>
+ *     <li>in the initialization code of light services (see {@link ServiceUtil#getInitializationCode(UClass)}),</li>
+ *     <li>anywhere in startup activities, i.e. in {@code ProjectActivity} and {@code StartupActivity} implementations.</li>
+ * </ul>
+ * Such subscriptions force the owner classes to be loaded and initialized early, while listeners registered declaratively
+ * in {@code <applicationListeners>} and {@code <projectListeners>} are instantiated lazily, on the first event.
+ * <p>
+ * A quick fix is provided to move the subscription to the {@code plugin.xml} of the module. It is offered only when the subscription
+ * can be removed safely, i.e. when
+ * <ul>
+ *     <li>it is a standalone statement, connecting to the message bus of a project or the application in-place,</li>
+ *     <li>the topic's listener type can be determined,</li>
+ *     <li>the listener is created in-place, by calling the no-arg constructor, or in case of project-level subscriptions,
+ *     the constructor with a single {@code Project} parameter, of a named, non-inner class,</li>
+ *     <li>the module has a {@code META-INF/plugin.xml} file.</li>
+ * </ul>
+ *
+ * @since 1.5.0
+ */
+public class ProgrammaticListenerSubscriptionInspection extends LocalInspectionTool {
+    private static final CallMatcher SUBSCRIBE = instanceCall(SIMPLE_MESSAGE_BUS_CONNECTION, "subscribe").parameterCount(2);
+    private static final CallMatcher CONNECT = instanceCall(MESSAGE_BUS, "connect", "simpleConnect");
+    private static final Set<String> STARTUP_ACTIVITIES = Set.of(PROJECT_ACTIVITY, STARTUP_ACTIVITY);
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                String messageKey;
+                List<UCallExpression> calls;
+                if (ServiceUtil.isLightService(node.getJavaPsi())) {
+                    messageKey = "inspection.programmatic.listener.subscription.service";
+                    calls = ServiceUtil.collectEagerInitializationCalls(node);
+                } else if (STARTUP_ACTIVITIES.stream().anyMatch(activity -> InheritanceUtil.isInheritor(node.getJavaPsi(), activity))) {
+                    messageKey = "inspection.programmatic.listener.subscription.startup.activity";
+                    calls = collectAllCalls(node);
+                } else return true;
+
+                for (var call : calls) {
+                    var callPsi = call.getSourcePsi();
+                    if (callPsi != null && SUBSCRIBE.methodMatches(call.resolve())) {
+                        var quickFix = createQuickFix(call);
+                        holder.registerProblem(callPsi, JustKittingBundle.message(messageKey),
+                            quickFix != null ? new LocalQuickFix[]{quickFix} : LocalQuickFix.EMPTY_ARRAY);
+                    }
+                }
+                return true;
+            }
+        }, new Class[]{UClass.class});
+    }
+
+    /**
+     * Collects the calls in the argument class, excluding the ones in nested classes, since they are inspected on their own.
+     */
+    private static List<UCallExpression> collectAllCalls(UClass uClass) {
+        var calls = new ArrayList<UCallExpression>();
+        uClass.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                calls.add(node);
+                return super.visitCallExpression(node);
+            }
+
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                return node != uClass;
+            }
+        });
+        return calls;
+    }
+
+    //Quick fix
+
+    @Nullable
+    private static MoveSubscriptionToPluginDescriptorQuickFix createQuickFix(UCallExpression subscription) {
+        var statement = getStandaloneStatement(subscription);
+        if (statement == null) return null;
+
+        var connect = asCall(subscription.getReceiver());
+        if (connect == null || !CONNECT.methodMatches(connect.resolve())) return null;
+        String listenersTagName = getListenersTagName(connect.getReceiver());
+        if (listenersTagName == null) return null;
+
+        var arguments = subscription.getValueArguments();
+        var listenerInterface = PsiTypesUtil.getPsiClass(PsiUtil.substituteTypeParameter(arguments.get(0).getExpressionType(), TOPIC, 0, false));
+        var listenerClass = getDeclarableListenerClass(arguments.get(1), "projectListeners".equals(listenersTagName));
+        if (listenerInterface == null || listenerClass == null) return null;
+
+        String listenerInterfaceName = ClassUtil.getJVMClassName(listenerInterface);
+        String listenerClassName = ClassUtil.getJVMClassName(listenerClass);
+        var module = ModuleUtilCore.findModuleForPsiElement(statement);
+        if (listenerInterfaceName == null || listenerClassName == null || module == null || PluginDescriptorUtil.findPluginXml(module) == null) return null;
+
+        return new MoveSubscriptionToPluginDescriptorQuickFix(statement, listenersTagName, listenerClassName, listenerInterfaceName);
+    }
+
+    /**
+     * Returns the statement consisting of only the argument subscription call, e.g. {@code project.getMessageBus().connect().subscribe(...);}.
+     */
+    @Nullable
+    private static PsiElement getStandaloneStatement(UCallExpression subscription) {
+        UExpression expression = subscription.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == subscription
+                                 ? qualified
+                                 : subscription;
+        if (!(expression.getUastParent() instanceof UBlockExpression) || expression.getSourcePsi() == null) return null;
+
+        var sourcePsi = expression.getSourcePsi();
+        return sourcePsi.getParent() instanceof PsiExpressionStatement javaStatement ? javaStatement : sourcePsi;
+    }
+
+    /**
+     * Returns the listeners tag based on the owner of the message bus, e.g. {@code project.getMessageBus()} or {@code project.messageBus},
+     * or null if the owner cannot be determined.
+     */
+    @Nullable
+    private static String getListenersTagName(@Nullable UExpression messageBus) {
+        if (!(UastUtils.skipParenthesizedExprDown(messageBus) instanceof UQualifiedReferenceExpression qualified)) return null;
+
+        var ownerClass = PsiTypesUtil.getPsiClass(qualified.getReceiver().getExpressionType());
+        if (InheritanceUtil.isInheritor(ownerClass, PROJECT)) return "projectListeners";
+        if (InheritanceUtil.isInheritor(ownerClass, APPLICATION)) return "applicationListeners";
+        return null;
+    }
+
+    /**
+     * Returns the class of the argument listener, if it is a constructor call that the IntelliJ Platform can replicate
+     * when instantiating a declarative listener.
+     */
+    @Nullable
+    private static PsiClass getDeclarableListenerClass(UExpression listener, boolean isProjectLevel) {
+        var constructorCall = asCall(listener);
+        if (constructorCall == null || !UastExpressionUtils.isConstructorCall(constructorCall)) return null;
+
+        var listenerClass = PsiTypesUtil.getPsiClass(constructorCall.getExpressionType());
+        if (listenerClass == null || listenerClass instanceof PsiAnonymousClass || PsiUtil.isLocalClass(listenerClass)
+            || (listenerClass.getContainingClass() != null && !listenerClass.hasModifierProperty(PsiModifier.STATIC)))
+            return null;
+
+        var arguments = constructorCall.getValueArguments();
+        return arguments.isEmpty() || (isProjectLevel && arguments.size() == 1 && isProjectType(arguments.get(0).getExpressionType()))
+               ? listenerClass
+               : null;
+    }
+
+    private static boolean isProjectType(@Nullable PsiType type) {
+        return InheritanceUtil.isInheritor(PsiTypesUtil.getPsiClass(type), PROJECT);
+    }
+
+    @Nullable
+    private static UCallExpression asCall(@Nullable UExpression expression) {
+        var unwrapped = UastUtils.skipParenthesizedExprDown(expression);
+        if (unwrapped instanceof UQualifiedReferenceExpression qualified) unwrapped = qualified.getSelector();
+        return unwrapped instanceof UCallExpression call ? call : null;
+    }
+}
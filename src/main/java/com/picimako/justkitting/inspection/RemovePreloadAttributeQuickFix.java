@@ -0,0 +1,41 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlAttribute;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Removes the {@code preload} attribute of service registrations, so that the service is created on its first use.
+ * <p>
+ * From:
+ * <pre>{@code
+ * <applicationService serviceImplementation="com.example.SomeService" preload="true"/>
+ * }</pre>
+ * to:
+ * <pre>{@code
+ * <applicationService serviceImplementation="com.example.SomeService"/>
+ * }</pre>
+ *
+ * @see PluginDescriptorStartupCostInspection
+ * @since 1.5.0
+ */
+final class RemovePreloadAttributeQuickFix implements LocalQuickFix {
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.plugin.descriptor.startup.cost.remove.preload");
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        var preload = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), XmlAttribute.class, false);
+        if (preload != null) preload.delete();
+    }
+}
@@ -0,0 +1,283 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.AN_ACTION;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT_VISITOR;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.psi.GenericsUtil;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UDoWhileExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UForEachExpression;
+import org.jetbrains.uast.UForExpression;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.ULoopExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.USuperExpression;
+import org.jetbrains.uast.UThisExpression;
+import org.jetbrains.uast.UWhileExpression;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reports service retrievals in Java and Kotlin code that is executed many times, where each retrieval goes through the lookup
+ * in the component container:
+ * <ul>
+ *     <li>in the body and condition of loops, and in lambdas passed to {@code forEach()},</li>
+ *     <li>in the {@code visit*()} methods of {@code PsiElementVisitor}s,</li>
+ *     <li>in {@code AnAction.update()}.</li>
+ * </ul>
+ * The service retrievals recognized by {@link ServiceUtil#isServiceRetrieval(UCallExpression)} are reported:
+ * <ul>
+ *     <li>{@code getService()} and {@code getServiceIfCreated()} calls on {@code ComponentManager}s, e.g. {@code project.getService(SomeService.class)},</li>
+ *     <li>the Kotlin {@code service()}, {@code serviceOrNull()} and {@code serviceIfCreated()} functions,</li>
+ *     <li>{@code getInstance()} methods returning an instance of their containing class (or of the class of their companion object),
+ *     like the ones generated by {@link com.picimako.justkitting.action.getinstance.GenerateStaticGetInstanceAction}.</li>
+ * </ul>
+ * In loops, only the retrievals are reported that don't depend on variables declared in the loop, and thus can be moved before the loop.
+ * <p>
+ * Quick fixes are provided to move the retrieval into a local variable before the loop, or in case of anonymous visitors,
+ * before the visitor creation, e.g. in {@code buildVisitor()}. Since a retrieval moved out of a loop body is evaluated even when the loop
+ * has no iterations, and it may create the service, the quick fix text says so, unless the retrieval doesn't create the service. Retrievals in named visitor classes and in {@code AnAction.update()} have no quick fix,
+ * since storing services in fields of long-living objects is discouraged.
+ *
+ * @since 1.5.0
+ */
+public class ServiceRetrievalInHotCodeInspection extends LocalInspectionTool {
+    private static final Set<String> FOR_EACH_METHOD_NAMES = Set.of("forEach", "forEachIndexed");
+    /**
+     * Retrievals that don't create the service, thus it is safe to evaluate them even when the loop body would not run.
+     */
+    private static final Set<String> SIDE_EFFECT_FREE_RETRIEVAL_NAMES = Set.of("getServiceIfCreated", "serviceIfCreated");
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (ServiceUtil.isServiceRetrieval(node)) checkServiceRetrieval(node, holder);
+                return true;
+            }
+        }, new Class[]{UCallExpression.class});
+    }
+
+    private static void checkServiceRetrieval(UCallExpression call, ProblemsHolder holder) {
+        //Includes the receiver of the call, e.g. 'project' in 'project.getService(SomeService.class)'
+        UExpression retrieval = UastUtils.getQualifiedParentOrThis(call);
+        var retrievalPsi = retrieval.getSourcePsi();
+        if (retrievalPsi == null) return;
+
+        var context = findHotContext(retrieval);
+        if (context == null) return;
+
+        boolean isHoistable = context.boundary() != null && isIndependentOf(retrieval, context.boundary());
+        //In loops, retrievals depending on e.g. the loop variable are not reported, since they might retrieve different instances
+        if (context.kind() == HotContextKind.LOOP && !isHoistable) return;
+
+        var anchor = isHoistable ? findAnchor(context.boundary()) : null;
+        //Moving a retrieval out of a loop body evaluates it even when the loop has no iterations, which may create the service
+        boolean isEvaluatedAdditionally = context.isConditional() && !SIDE_EFFECT_FREE_RETRIEVAL_NAMES.contains(call.getMethodName());
+        var quickFix = anchor != null ? createQuickFix(call, retrievalPsi, anchor, isEvaluatedAdditionally) : null;
+        holder.registerProblem(retrievalPsi, JustKittingBundle.message(context.kind().messageKey),
+            quickFix != null ? new LocalQuickFix[]{quickFix} : LocalQuickFix.EMPTY_ARRAY);
+    }
+
+    // ---- Hot contexts ----
+
+    /**
+     * Returns the closest context of the argument service retrieval that is executed many times, or null if there is no such context.
+     */
+    @Nullable
+    private static HotContext findHotContext(UElement retrieval) {
+        UElement child = retrieval;
+        UElement parent = retrieval.getUastParent();
+        while (parent != null) {
+            if (parent instanceof ULoopExpression loop && isRepeatedlyEvaluated(loop, child))
+                return new HotContext(HotContextKind.LOOP, loop, isConditionallyEvaluated(loop, child));
+            if (parent instanceof ULambdaExpression lambda && isForEachLambda(lambda)) return new HotContext(HotContextKind.LOOP, lambda, true);
+            if (parent instanceof UMethod method) return getMethodContext(method);
+            if (parent instanceof UClass) return null;
+
+            child = parent;
+            parent = parent.getUastParent();
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the argument child of the loop is evaluated in every iteration, e.g. it is not the iterated value of a for-each loop.
+     */
+    private static boolean isRepeatedlyEvaluated(ULoopExpression loop, UElement child) {
+        if (isSameElement(loop.getBody(), child)) return true;
+        if (loop instanceof UForExpression forLoop) return isSameElement(forLoop.getCondition(), child) || isSameElement(forLoop.getUpdate(), child);
+        if (loop instanceof UWhileExpression whileLoop) return isSameElement(whileLoop.getCondition(), child);
+        if (loop instanceof UDoWhileExpression doWhileLoop) return isSameElement(doWhileLoop.getCondition(), child);
+        return !(loop instanceof UForEachExpression);
+    }
+
+    /**
+     * Returns whether the argument child of the loop may not be evaluated at all, e.g. it is in the body of a {@code for} loop.
+     * The bodies of {@code do-while} loops, and the conditions of loops are always evaluated at least once.
+     */
+    private static boolean isConditionallyEvaluated(ULoopExpression loop, UElement child) {
+        if (loop instanceof UDoWhileExpression) return false;
+        if (loop instanceof UForExpression forLoop) return !isSameElement(forLoop.getCondition(), child);
+        if (loop instanceof UWhileExpression whileLoop) return !isSameElement(whileLoop.getCondition(), child);
+        return true;
+    }
+
+    private static boolean isForEachLambda(ULambdaExpression lambda) {
+        return lambda.getUastParent() instanceof UCallExpression call && FOR_EACH_METHOD_NAMES.contains(call.getMethodName());
+    }
+
+    @Nullable
+    private static HotContext getMethodContext(UMethod method) {
+        var psiMethod = method.getJavaPsi();
+        var containingClass = psiMethod.getContainingClass();
+        if (containingClass == null) return null;
+
+        if (psiMethod.getName().startsWith("visit") && InheritanceUtil.isInheritor(containingClass, PSI_ELEMENT_VISITOR)) {
+            //Retrievals can be moved out of anonymous visitors, e.g. into buildVisitor()
+            return new HotContext(HotContextKind.VISITOR, containingClass instanceof PsiAnonymousClass ? method.getUastParent() : null, false);
+        }
+        if ("update".equals(psiMethod.getName()) && InheritanceUtil.isInheritor(containingClass, AN_ACTION)) {
+            return new HotContext(HotContextKind.ACTION_UPDATE, null, false);
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the argument service retrieval doesn't reference anything declared within the boundary element,
+     * e.g. the loop variable, or the parameters of a visitor method.
+     */
+    private static boolean isIndependentOf(UExpression retrieval, UElement boundary) {
+        var boundaryPsi = boundary.getSourcePsi();
+        if (boundaryPsi == null) return false;
+
+        var isIndependent = new boolean[]{true};
+        retrieval.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                checkTarget(node.resolve());
+                return super.visitSimpleNameReferenceExpression(node);
+            }
+
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                checkTarget(node.resolve());
+                return super.visitCallExpression(node);
+            }
+
+            @Override
+            public boolean visitThisExpression(@NotNull UThisExpression node) {
+                //'this' refers to a different object outside the anonymous class
+                if (boundary instanceof UClass) isIndependent[0] = false;
+                return super.visitThisExpression(node);
+            }
+
+            @Override
+            public boolean visitSuperExpression(@NotNull USuperExpression node) {
+                if (boundary instanceof UClass) isIndependent[0] = false;
+                return super.visitSuperExpression(node);
+            }
+
+            private void checkTarget(@Nullable PsiElement target) {
+                if (target != null && PsiTreeUtil.isAncestor(boundaryPsi, target.getNavigationElement(), false)) isIndependent[0] = false;
+            }
+        });
+        return isIndependent[0];
+    }
+
+    // ---- Quick fix ----
+
+    /**
+     * Returns the statement before which the retrieval can be moved, or null if there is no such statement,
+     * e.g. the loop is in a Kotlin expression body.
+     */
+    @Nullable
+    private static PsiElement findAnchor(UElement boundary) {
+        var boundaryPsi = boundary.getSourcePsi();
+        if (boundaryPsi == null) return null;
+        if (boundaryPsi.getLanguage().isKindOf(JavaLanguage.INSTANCE)) {
+            //Anonymous classes are members themselves, thus the search for the statement starts from their parents
+            var start = boundaryPsi instanceof PsiAnonymousClass ? boundaryPsi.getParent() : boundaryPsi;
+            var statement = PsiTreeUtil.getParentOfType(start, PsiStatement.class, false, PsiMember.class, PsiLambdaExpression.class);
+            while (statement != null && !(statement.getParent() instanceof PsiCodeBlock)) {
+                statement = PsiTreeUtil.getParentOfType(statement, PsiStatement.class, true, PsiMember.class, PsiLambdaExpression.class);
+            }
+            return statement;
+        }
+        return KotlinServiceRetrievalHoister.findAnchor(boundaryPsi);
+    }
+
+    @Nullable
+    private static LocalQuickFix createQuickFix(UCallExpression call, PsiElement retrieval, PsiElement anchor, boolean isEvaluatedAdditionally) {
+        PsiType type = call.getReturnType();
+        String serviceClassName = type instanceof PsiClassType classType ? classType.getClassName() : null;
+        String variableName = serviceClassName != null ? StringUtils.uncapitalize(serviceClassName) : "service";
+        if (retrieval.getLanguage().isKindOf(JavaLanguage.INSTANCE)) {
+            return type != null
+                ? new HoistServiceRetrievalQuickFix(retrieval, anchor, variableName,
+                GenericsUtil.getVariableTypeByExpressionType(type).getCanonicalText(), isEvaluatedAdditionally)
+                : null;
+        }
+        return retrieval instanceof KtExpression
+            ? new HoistServiceRetrievalQuickFix(retrieval, anchor, variableName, null, isEvaluatedAdditionally)
+            : null;
+    }
+
+    /**
+     * @param boundary      the element from which the service retrieval may be moved out, or null if it cannot be moved
+     * @param isConditional whether the retrieval may not be evaluated at all within the boundary, e.g. when a loop has no iterations
+     */
+    private record HotContext(HotContextKind kind, @Nullable UElement boundary, boolean isConditional) {
+    }
+
+    private enum HotContextKind {
+        LOOP("inspection.service.retrieval.in.loop"),
+        VISITOR("inspection.service.retrieval.in.visitor"),
+        ACTION_UPDATE("inspection.service.retrieval.in.action.update");
+
+        private final String messageKey;
+
+        HotContextKind(String messageKey) {
+            this.messageKey = messageKey;
+        }
+    }
+
+    private static boolean isSameElement(@Nullable UElement element, UElement other) {
+        return element != null
+            && (element.equals(other) || (element.getSourcePsi() != null && Objects.equals(element.getSourcePsi(), other.getSourcePsi())));
+    }
+}
@@ -0,0 +1,60 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.STORAGE_PATH_MACROS;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.picimako.justkitting.ImportUtilsKt;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+
+/**
+ * Replaces the storage file of a {@code @Storage} annotation with {@code StoragePathMacros.CACHE_FILE}, e.g. from
+ * {@code @Storage("someCache.xml")} to {@code @Storage(StoragePathMacros.CACHE_FILE)}, so that the state is neither roamed
+ * nor shared, and it is stored separately from the settings.
+ * <p>
+ * Note that the state previously stored in the original file is not migrated, which is usually fine for caches.
+ *
+ * @see PersistentStateSerializationCostInspection
+ * @since 1.5.0
+ */
+final class StoreInCacheFileQuickFix extends LocalQuickFixOnPsiElement {
+
+    StoreInCacheFileQuickFix(@NotNull PsiElement storageValue) {
+        super(storageValue);
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return getFamilyName();
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.persistent.state.serialization.use.cache.file");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (startElement instanceof PsiExpression expression) {
+            var cacheFile = JavaPsiFacade.getElementFactory(project).createExpressionFromText(STORAGE_PATH_MACROS + ".CACHE_FILE", expression);
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(expression.replace(cacheFile));
+        } else if (startElement instanceof KtExpression expression && file instanceof KtFile ktFile) {
+            var factory = new KtPsiFactory(project, false);
+            expression.replace(factory.createExpression("StoragePathMacros.CACHE_FILE"));
+            ImportUtilsKt.importIfNotAlreadyAdded(ktFile, STORAGE_PATH_MACROS, factory);
+        }
+    }
+}
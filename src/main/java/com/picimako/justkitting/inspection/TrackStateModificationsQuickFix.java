@@ -0,0 +1,224 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.intellij.psi.CommonClassNames.JAVA_LANG_STRING;
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_COLLECTION;
+import static com.intellij.psi.CommonClassNames.JAVA_UTIL_MAP;
+import static com.picimako.justkitting.PlatformNames.SIMPLE_MODIFICATION_TRACKER;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiForeachStatement;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiUnaryExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Makes a Java {@code PersistentStateComponent}, that serves as its own state, report its modifications via {@code getStateModificationCount()},
+ * so that the platform can skip serializing the state when it hasn't changed since the last save.
+ * <p>
+ * It adds a {@code SimpleModificationTracker} field and a {@code getStateModificationCount()} override returning its modification count,
+ * and increments the count after each statement that modifies a state field:
+ * <pre>{@code
+ * private final SimpleModificationTracker stateModificationTracker = new SimpleModificationTracker();
+ * ...
+ * public void addItem(String item) {
+ *     items.add(item);
+ *     stateModificationTracker.incModificationCount();
+ * }
+ *
+ * @Override
+ * public long getStateModificationCount() {
+ *     return stateModificationTracker.getModificationCount();
+ * }
+ * }</pre>
+ * <p>
+ * Since a modification that is not tracked would not be saved, the quick fix is available only when all modifications of the state
+ * can be tracked, that is:
+ * <ul>
+ *     <li>the state fields, i.e. the non-static, non-transient fields that are either non-final or are collections or maps, are private,</li>
+ *     <li>the state fields are of primitive, boxed primitive, {@code String} or enum types, or are collections or maps,</li>
+ *     <li>the state fields are modified only in standalone statements, via assignments, increments and decrements,
+ *     or via calls to the mutating methods of collections and maps, e.g. {@code items.add(item);},</li>
+ *     <li>collections and maps are otherwise only read via non-mutating methods, e.g. {@code size()} or {@code contains()},
+ *     or are iterated in for-each loops, so that they are not exposed to code that could modify them,</li>
+ *     <li>there are no Lombok annotations that could generate setters.</li>
+ * </ul>
+ *
+ * @see PersistentStateSerializationCostInspection
+ * @since 1.5.0
+ */
+final class TrackStateModificationsQuickFix extends LocalQuickFixOnPsiElement {
+    private static final String TRACKER_NAME = "stateModificationTracker";
+    private static final Set<String> MUTATING_METHODS = Set.of("add", "addAll", "addFirst", "addLast", "clear", "compute", "computeIfAbsent",
+        "computeIfPresent", "merge", "put", "putAll", "putIfAbsent", "remove", "removeAll", "removeFirst", "removeIf", "removeLast", "replace",
+        "replaceAll", "retainAll", "set", "sort");
+    private static final Set<String> READING_METHODS = Set.of("contains", "containsAll", "containsKey", "containsValue", "equals", "forEach",
+        "get", "getOrDefault", "hashCode", "indexOf", "isEmpty", "lastIndexOf", "size", "stream", "toString");
+
+    TrackStateModificationsQuickFix(@NotNull PsiClass component) {
+        super(component);
+    }
+
+    static boolean isAvailableFor(PsiClass component) {
+        return collectModifyingStatements(component) != null;
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return getFamilyName();
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.persistent.state.serialization.track.modifications");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (!(startElement instanceof PsiClass component)) return;
+        var statements = collectModifyingStatements(component);
+        if (statements == null) return;
+
+        var factory = JavaPsiFacade.getElementFactory(project);
+        var codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        var trackerName = codeStyleManager.suggestUniqueVariableName(TRACKER_NAME, component, true);
+        for (var statement : statements) {
+            statement.getParent().addAfter(factory.createStatementFromText(trackerName + ".incModificationCount();", statement), statement);
+        }
+
+        var tracker = factory.createFieldFromText(
+            "private final " + SIMPLE_MODIFICATION_TRACKER + " " + trackerName + " = new " + SIMPLE_MODIFICATION_TRACKER + "();", component);
+        //Adding it as the first field, so that it is initialized before anything could modify the state
+        var fields = component.getFields();
+        codeStyleManager.shortenClassReferences(fields.length > 0 ? component.addBefore(tracker, fields[0]) : component.add(tracker));
+        component.add(factory.createMethodFromText(
+            "@Override public long getStateModificationCount() { return " + trackerName + ".getModificationCount(); }", component));
+    }
+
+    /**
+     * Collects the statements that modify the state fields of the argument component.
+     *
+     * @return the statements, or null if not all modifications of the state can be tracked
+     */
+    @Nullable
+    private static Set<PsiStatement> collectModifyingStatements(PsiClass component) {
+        if (hasLombokAnnotation(component)) return null;
+
+        var statements = new LinkedHashSet<PsiStatement>();
+        for (var field : component.getFields()) {
+            if (!isStateField(field)) continue;
+            if (!field.hasModifierProperty(PsiModifier.PRIVATE) || hasLombokAnnotation(field)) return null;
+
+            boolean isCollection = isCollectionOrMap(field.getType());
+            if (!isCollection && !isImmutableType(field.getType())) return null;
+
+            //The field is private, so it can only be referenced in its containing file
+            for (var reference : ReferencesSearch.search(field, new LocalSearchScope(component.getContainingFile())).findAll()) {
+                if (!(reference.getElement() instanceof PsiReferenceExpression referenceExpression)) return null;
+
+                if (PsiUtil.isAccessedForWriting(referenceExpression)) {
+                    var statement = getStandaloneStatement(getWritingExpression(referenceExpression));
+                    if (statement == null) return null;
+                    statements.add(statement);
+                } else if (isCollection && !collectCollectionAccess(referenceExpression, statements)) {
+                    return null;
+                }
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Validates the argument read access of a collection or map field, and collects the statement if the access is a modification.
+     *
+     * @return whether the access is either a read-only access, or a trackable modification
+     */
+    private static boolean collectCollectionAccess(PsiReferenceExpression reference, Set<PsiStatement> statements) {
+        if (reference.getParent() instanceof PsiForeachStatement forEach && forEach.getIteratedValue() == reference) return true;
+
+        if (reference.getParent() instanceof PsiReferenceExpression methodReference
+            && methodReference.getQualifierExpression() == reference
+            && methodReference.getParent() instanceof PsiMethodCallExpression call) {
+            if (READING_METHODS.contains(methodReference.getReferenceName())) return true;
+            if (MUTATING_METHODS.contains(methodReference.getReferenceName())) {
+                var statement = getStandaloneStatement(call);
+                if (statement != null) statements.add(statement);
+                return statement != null;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private static PsiExpression getWritingExpression(PsiReferenceExpression reference) {
+        return reference.getParent() instanceof PsiAssignmentExpression || reference.getParent() instanceof PsiUnaryExpression
+               ? (PsiExpression) reference.getParent()
+               : null;
+    }
+
+    /**
+     * Returns the expression statement consisting of only the argument expression, if it is directly in a code block.
+     */
+    @Nullable
+    private static PsiStatement getStandaloneStatement(@Nullable PsiExpression expression) {
+        return expression != null && expression.getParent() instanceof PsiExpressionStatement statement && statement.getParent() instanceof PsiCodeBlock
+               ? statement
+               : null;
+    }
+
+    private static boolean isStateField(PsiField field) {
+        return !field.hasModifierProperty(PsiModifier.STATIC)
+            && !field.hasModifierProperty(PsiModifier.TRANSIENT)
+            && !AnnotationUtil.isAnnotated(field, "com.intellij.util.xmlb.annotations.Transient", 0)
+            && (!field.hasModifierProperty(PsiModifier.FINAL) || isCollectionOrMap(field.getType()));
+    }
+
+    private static boolean isCollectionOrMap(PsiType type) {
+        return InheritanceUtil.isInheritor(type, JAVA_UTIL_COLLECTION) || InheritanceUtil.isInheritor(type, JAVA_UTIL_MAP);
+    }
+
+    private static boolean isImmutableType(PsiType type) {
+        if (type instanceof PsiPrimitiveType || PsiPrimitiveType.getUnboxedType(type) != null || type.equalsToText(JAVA_LANG_STRING)) return true;
+        var psiClass = PsiUtil.resolveClassInClassTypeOnly(type);
+        return psiClass != null && psiClass.isEnum();
+    }
+
+    private static boolean hasLombokAnnotation(PsiModifierListOwner owner) {
+        return owner.getModifierList() != null
+            && Arrays.stream(owner.getModifierList().getAnnotations())
+            .map(PsiAnnotation::getQualifiedName)
+            .anyMatch(name -> name != null && name.startsWith("lombok."));
+    }
+}
@@ -0,0 +1,245 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static com.picimako.justkitting.PlatformNames.APPLICATION;
+import static com.picimako.justkitting.PlatformNames.APP_EXECUTOR_UTIL;
+import static com.picimako.justkitting.PlatformNames.DISPOSER;
+import static com.siyeh.ig.callMatcher.CallMatcher.anyOf;
+import static com.siyeh.ig.callMatcher.CallMatcher.instanceCall;
+import static com.siyeh.ig.callMatcher.CallMatcher.staticCall;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.uast.UastHintedVisitorAdapter;
+import com.picimako.justkitting.CoroutineScopeInjector;
+import com.picimako.justkitting.ServiceUtil;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import com.siyeh.ig.callMatcher.CallMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtLambdaExpression;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.uast.UBinaryExpression;
+import org.jetbrains.uast.UBlockExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UCallableReferenceExpression;
+import org.jetbrains.uast.UClass;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UField;
+import org.jetbrains.uast.ULambdaExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.UastBinaryOperator;
+import org.jetbrains.uast.UastUtils;
+import org.jetbrains.uast.util.UastExpressionUtils;
+import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reports light services that start background work on threads that are not bound to the lifecycle of the service:
+ * <ul>
+ *     <li>executors created by the service itself, e.g. via {@code Executors.newFixedThreadPool()},
+ *     {@code new ThreadPoolExecutor(...)} or {@code AppExecutorUtil.createBoundedApplicationPoolExecutor()},</li>
+ *     <li>tasks submitted via {@code Application.executeOnPooledThread()}.</li>
+ * </ul>
+ * Such work is not cancelled when the service is disposed, e.g. when the project is closed or the plugin is unloaded,
+ * and executors created this way keep their threads until they are shut down explicitly.
+ * <p>
+ * Executors stored in a field of the service, that is shut down via {@code shutdown()}, {@code shutdownNow()} or {@code close()}
+ * in the {@code dispose()} method of the service, or in a callback registered via {@code Disposer.register()}, are not reported.
+ * <p>
+ * In Kotlin, a quick fix is provided to replace standalone {@code executeOnPooledThread { ... }} calls with {@code coroutineScope.launch { ... }},
+ * injecting the scope into the service if needed (see {@link CoroutineScopeInjector}). Executors are not rewritten automatically,
+ * and in Java, there is no quick fix, since coroutines are not usable from Java.
+ *
+ * @see <a href="https://plugins.jetbrains.com/docs/intellij/launching-coroutines.html#launching-coroutine-from-service-scope">Launching Coroutine From Service Scope</a>
+ * @since 1.5.0
+ */
+public class UnmanagedServiceExecutorInspection extends LocalInspectionTool {
+    private static final CallMatcher EXECUTOR_FACTORIES = anyOf(
+        staticCall("java.util.concurrent.Executors", "newFixedThreadPool", "newCachedThreadPool", "newSingleThreadExecutor",
+            "newScheduledThreadPool", "newSingleThreadScheduledExecutor", "newWorkStealingPool", "newThreadPerTaskExecutor", "newVirtualThreadPerTaskExecutor"),
+        staticCall(APP_EXECUTOR_UTIL, "createBoundedApplicationPoolExecutor", "createBoundedScheduledExecutorService"));
+    private static final Set<String> EXECUTOR_CLASSES = Set.of("java.util.concurrent.ThreadPoolExecutor", "java.util.concurrent.ScheduledThreadPoolExecutor",
+        "java.util.concurrent.ForkJoinPool");
+    private static final CallMatcher EXECUTE_ON_POOLED_THREAD = instanceCall(APPLICATION, "executeOnPooledThread").parameterCount(1);
+    private static final CallMatcher DISPOSER_REGISTER = staticCall(DISPOSER, "register");
+    private static final Set<String> SHUTDOWN_METHOD_NAMES = Set.of("shutdown", "shutdownNow", "close");
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return UastHintedVisitorAdapter.create(holder.getFile().getLanguage(), new AbstractUastNonRecursiveVisitor() {
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                if (!ServiceUtil.isLightService(node.getJavaPsi()) || node.getSourcePsi() == null) return true;
+
+                for (var call : collectCalls(node)) {
+                    var callPsi = call.getSourcePsi();
+                    if (callPsi == null) continue;
+
+                    var method = call.resolve();
+                    if (EXECUTE_ON_POOLED_THREAD.methodMatches(method)) {
+                        holder.registerProblem(callPsi, JustKittingBundle.message("inspection.unmanaged.service.executor.pooled.thread"),
+                            getQuickFixes(node, call));
+                    } else if ((EXECUTOR_FACTORIES.methodMatches(method) || isExecutorConstructorCall(call, method)) && !isShutDownOnDispose(call, node)) {
+                        holder.registerProblem(callPsi, JustKittingBundle.message("inspection.unmanaged.service.executor.executor"));
+                    }
+                }
+                return true;
+            }
+        }, new Class[]{UClass.class});
+    }
+
+    /**
+     * Collects the calls in the argument class, excluding the ones in nested classes, since they are inspected on their own.
+     */
+    private static List<UCallExpression> collectCalls(UClass uClass) {
+        var calls = new ArrayList<UCallExpression>();
+        uClass.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                calls.add(node);
+                return super.visitCallExpression(node);
+            }
+
+            @Override
+            public boolean visitClass(@NotNull UClass node) {
+                return node != uClass;
+            }
+        });
+        return calls;
+    }
+
+    private static boolean isExecutorConstructorCall(UCallExpression call, @Nullable PsiMethod method) {
+        if (!UastExpressionUtils.isConstructorCall(call) || method == null) return false;
+
+        var containingClass = method.getContainingClass();
+        return containingClass != null && EXECUTOR_CLASSES.contains(containingClass.getQualifiedName());
+    }
+
+    //Shutdown on disposal
+
+    /**
+     * Returns whether the argument executor creation is assigned to a field of the argument service, that is shut down when the service
+     * is disposed, i.e. in its {@code dispose()} method, or in a callback registered via {@code Disposer.register()}.
+     */
+    private static boolean isShutDownOnDispose(UCallExpression creation, UClass service) {
+        var field = getAssignedField(creation);
+        if (field == null) return false;
+
+        var isShutDown = new boolean[1];
+        service.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (SHUTDOWN_METHOD_NAMES.contains(node.getMethodName()) && isField(node.getReceiver(), field) && isExecutedOnDispose(node)) {
+                    isShutDown[0] = true;
+                }
+                return isShutDown[0];
+            }
+
+            @Override
+            public boolean visitCallableReferenceExpression(@NotNull UCallableReferenceExpression node) {
+                //E.g. Disposer.register(this, executor::shutdown)
+                if (SHUTDOWN_METHOD_NAMES.contains(node.getCallableName()) && isField(node.getQualifierExpression(), field)
+                    && node.getUastParent() instanceof UCallExpression call && DISPOSER_REGISTER.uCallMatches(call)) {
+                    isShutDown[0] = true;
+                }
+                return isShutDown[0];
+            }
+        });
+        return isShutDown[0];
+    }
+
+    /**
+     * Returns the source element of the field or property the argument creation is assigned to, either in its initializer or in an assignment,
+     * or null if it is not assigned to one.
+     */
+    @Nullable
+    private static PsiElement getAssignedField(UCallExpression creation) {
+        UExpression expression = creation.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == creation
+                                 ? qualified
+                                 : creation;
+        var parent = UastUtils.skipParenthesizedExprUp(expression.getUastParent());
+        if (parent instanceof UField field) return field.getSourcePsi();
+        if (parent instanceof UBinaryExpression assignment && assignment.getOperator() == UastBinaryOperator.ASSIGN
+            && assignment.getLeftOperand() instanceof UReferenceExpression target) {
+            var resolved = target.resolve();
+            return resolved instanceof PsiField || resolved instanceof KtProperty property && !property.isLocal() ? resolved.getNavigationElement() : null;
+        }
+        return null;
+    }
+
+    private static boolean isField(@Nullable UExpression expression, PsiElement field) {
+        return UastUtils.skipParenthesizedExprDown(expression) instanceof UReferenceExpression reference
+            && reference.resolve() != null
+            && field.equals(reference.resolve().getNavigationElement());
+    }
+
+    /**
+     * Returns whether the argument call is in the {@code dispose()} method of the service, or in a lambda passed to {@code Disposer.register()}.
+     */
+    private static boolean isExecutedOnDispose(UCallExpression call) {
+        for (var parent = call.getUastParent(); parent != null; parent = parent.getUastParent()) {
+            if (parent instanceof UMethod method) return "dispose".equals(method.getName()) && method.getUastParameters().isEmpty();
+            if (parent instanceof ULambdaExpression && parent.getUastParent() instanceof UCallExpression register && DISPOSER_REGISTER.uCallMatches(register)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Quick fixes
+
+    /**
+     * Returns the quick fixes for the argument {@code executeOnPooledThread()} call in the argument service class.
+     * <p>
+     * Only Kotlin calls are converted to coroutines, and only when the service has a {@code CoroutineScope}, or one can be injected.
+     */
+    private static LocalQuickFix[] getQuickFixes(UClass service, UCallExpression pooledThreadCall) {
+        if (!(service.getSourcePsi() instanceof KtClass ktClass)) return LocalQuickFix.EMPTY_ARRAY;
+        if (CoroutineScopeInjector.findScopeProperty(ktClass) == null && !CoroutineScopeInjector.canInject(ktClass)) return LocalQuickFix.EMPTY_ARRAY;
+
+        var statement = getStandaloneKotlinStatement(pooledThreadCall);
+        var lambda = getKotlinLambdaArgument(pooledThreadCall);
+        return statement != null && lambda != null
+               ? new LocalQuickFix[]{new LaunchInServiceCoroutineScopeQuickFix(statement, lambda)}
+               : LocalQuickFix.EMPTY_ARRAY;
+    }
+
+    /**
+     * Returns the Kotlin statement consisting of only the argument call, e.g. {@code ApplicationManager.getApplication().executeOnPooledThread { ... }},
+     * so that its result is not used.
+     */
+    @Nullable
+    private static KtExpression getStandaloneKotlinStatement(UCallExpression call) {
+        UExpression expression = call.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == call
+                                 ? qualified
+                                 : call;
+        return expression.getUastParent() instanceof UBlockExpression && expression.getSourcePsi() instanceof KtExpression ktExpression
+               ? ktExpression
+               : null;
+    }
+
+    @Nullable
+    private static KtLambdaExpression getKotlinLambdaArgument(UCallExpression call) {
+        return call.getValueArgumentCount() == 1
+               && call.getValueArguments().get(0) instanceof ULambdaExpression lambda
+               && lambda.getSourcePsi() instanceof KtLambdaExpression ktLambda
+               ? ktLambda
+               : null;
+    }
+}
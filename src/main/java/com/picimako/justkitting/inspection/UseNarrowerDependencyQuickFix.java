@@ -0,0 +1,91 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.LocalQuickFixOnPsiElement;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiCall;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.picimako.justkitting.ImportUtilsKt;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.psi.KtCallExpression;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+
+/**
+ * Adds the narrowest dependency, determined by {@link CachedValueDependencyAnalyzer}, to a {@code CachedValueProvider.Result} creation,
+ * or replaces an existing dependency with it, e.g. from
+ * <pre>{@code
+ * CachedValueProvider.Result.create(value, PsiModificationTracker.MODIFICATION_COUNT)
+ * }</pre>
+ * to
+ * <pre>{@code
+ * CachedValueProvider.Result.create(value, ProjectRootModificationTracker.getInstance(project))
+ * }</pre>
+ *
+ * @see CachedValuesInspection
+ * @since 1.5.0
+ */
+final class UseNarrowerDependencyQuickFix extends LocalQuickFixOnPsiElement {
+    private final CachedValueDependencyAnalyzer.Dependency dependency;
+    private final boolean isReplace;
+    private final String textKey;
+
+    /**
+     * @param target     the {@code Result} creation call to add the dependency to, or the dependency expression to replace
+     * @param dependency the dependency to introduce
+     * @param isReplace  whether the target is a dependency to replace
+     * @param textKey    the message key of the quick fix text
+     */
+    UseNarrowerDependencyQuickFix(@NotNull PsiElement target, CachedValueDependencyAnalyzer.Dependency dependency, boolean isReplace, String textKey) {
+        super(target);
+        this.dependency = dependency;
+        this.isReplace = isReplace;
+        this.textKey = textKey;
+    }
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message(textKey, dependency.presentableText());
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return JustKittingBundle.message("inspection.cached.value.provider.add.never.changed.quick.fix.family");
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull PsiFile file, @NotNull PsiElement startElement, @NotNull PsiElement endElement) {
+        if (file instanceof KtFile ktFile) {
+            var factory = new KtPsiFactory(project, false);
+            var tracker = factory.createExpression(dependency.text());
+            if (isReplace && startElement instanceof KtExpression expression) {
+                expression.replace(tracker);
+            } else if (!isReplace && startElement instanceof KtCallExpression call && call.getValueArgumentList() != null) {
+                call.getValueArgumentList().addArgument(factory.createArgument(tracker));
+            } else {
+                return;
+            }
+            dependency.imports().forEach(fqn -> ImportUtilsKt.importIfNotAlreadyAdded(ktFile, fqn, factory));
+        } else {
+            var tracker = JavaPsiFacade.getElementFactory(project).createExpressionFromText(dependency.text(), startElement);
+            PsiElement added;
+            if (isReplace && startElement instanceof PsiExpression expression) {
+                added = expression.replace(tracker);
+            } else if (!isReplace && startElement instanceof PsiCall call && call.getArgumentList() != null) {
+                added = call.getArgumentList().add(tracker);
+            } else {
+                return;
+            }
+            JavaCodeStyleManager.getInstance(project).shortenClassReferences(added);
+        }
+    }
+}
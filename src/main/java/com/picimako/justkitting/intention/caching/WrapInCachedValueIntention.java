@@ -0,0 +1,467 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.caching;
+
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUES_MANAGER;
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER;
+import static com.picimako.justkitting.PlatformNames.CACHED_VALUE_PROVIDER_RESULT;
+import static com.picimako.justkitting.PlatformNames.PSI_ELEMENT;
+import static com.picimako.justkitting.PlatformNames.PSI_MODIFICATION_TRACKER;
+
+import com.intellij.codeInsight.CodeInsightUtil;
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiTypes;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.IncorrectOperationException;
+import com.picimako.justkitting.ImportUtilsKt;
+import com.picimako.justkitting.inspection.CachedValueDependencyAnalyzer;
+import com.picimako.justkitting.resources.JustKittingBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.lexer.KtTokens;
+import org.jetbrains.kotlin.psi.KtBlockExpression;
+import org.jetbrains.kotlin.psi.KtClass;
+import org.jetbrains.kotlin.psi.KtElement;
+import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtNamedFunction;
+import org.jetbrains.kotlin.psi.KtObjectDeclaration;
+import org.jetbrains.kotlin.psi.KtParameter;
+import org.jetbrains.kotlin.psi.KtProperty;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+import org.jetbrains.kotlin.psi.KtReturnExpression;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UMethod;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.USuperExpression;
+import org.jetbrains.uast.UThisExpression;
+import org.jetbrains.uast.UVariable;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.visitor.AbstractUastVisitor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps the computation of a method, or a selected expression, into {@code CachedValuesManager.getCachedValue(anchor, provider)},
+ * both in Java and Kotlin code, e.g. from
+ * <pre>{@code
+ * public static PsiClass findTopmostSuperClass(PsiClass psiClass) {
+ *     PsiClass current = psiClass;
+ *     while (current.getSuperClass() != null) {
+ *         current = current.getSuperClass();
+ *     }
+ *     return current;
+ * }
+ * }</pre>
+ * to
+ * <pre>{@code
+ * public static PsiClass findTopmostSuperClass(PsiClass psiClass) {
+ *     return CachedValuesManager.getCachedValue(psiClass, () -> {
+ *         PsiClass current = psiClass;
+ *         while (current.getSuperClass() != null) {
+ *             current = current.getSuperClass();
+ *         }
+ *         return CachedValueProvider.Result.create(current, PsiModificationTracker.MODIFICATION_COUNT);
+ *     });
+ * }
+ * }</pre>
+ * <p>
+ * The anchor, i.e. the element the value is cached on, is the PSI element parameter or local variable used in the computation.
+ * Since {@code getCachedValue()} uses the provider class as the key, the intention is available only when the computation uses
+ * exactly one such variable, and it doesn't use the state of the containing class instance, or non-constant static state,
+ * otherwise the value computed for one value of them would be returned for the others too, or it would not reflect their changes.
+ * <p>
+ * The dependency is inferred from the APIs used in the computation by {@link CachedValueDependencyAnalyzer}. If no narrower dependency
+ * can be inferred soundly, e.g. when references are resolved, like in the example above, {@code PsiModificationTracker.MODIFICATION_COUNT} is used.
+ * <p>
+ * The intention is available on the name of a method, or on a selected expression.
+ *
+ * @see CachedValueDependencyAnalyzer
+ * @since 1.5.0
+ */
+public class WrapInCachedValueIntention implements IntentionAction {
+    private static final String FALLBACK_DEPENDENCY = "PsiModificationTracker.MODIFICATION_COUNT";
+
+    @Override
+    public @IntentionName @NotNull String getText() {
+        return JustKittingBundle.message("intention.wrap.in.cached.value");
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return JustKittingBundle.message("intention.wrap.in.cached.value");
+    }
+
+    //---- Availability check ----
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, PsiFile file) {
+        return findTarget(editor, file) != null;
+    }
+
+    /**
+     * The method or expression to wrap.
+     *
+     * @param element  the Java method, the Kotlin function, or the selected expression
+     * @param provider the UAST body of the method, or the UAST expression, that computes the value
+     * @param anchor   the name of the variable to cache the value on
+     */
+    private record Target(PsiElement element, UElement provider, String anchor) {
+    }
+
+    @Nullable
+    private static Target findTarget(Editor editor, PsiFile file) {
+        if (!(file instanceof PsiJavaFile) && !(file instanceof KtFile)) return null;
+
+        if (editor.getSelectionModel().hasSelection()) {
+            var expression = findSelectedExpression(editor, file);
+            var uExpression = UastContextKt.toUElement(expression, UExpression.class);
+            if (uExpression == null || uExpression.getExpressionType() == null || PsiTypes.voidType().equals(uExpression.getExpressionType())) return null;
+            //Wrapping e.g. a simple variable reference would not save anything
+            if (!containsCall(uExpression)) return null;
+            return createTarget(expression, uExpression);
+        }
+
+        var elementAtCaret = file.findElementAt(editor.getCaretModel().getOffset());
+        if (elementAtCaret == null) return null;
+        PsiElement method = elementAtCaret.getParent() instanceof PsiMethod javaMethod && javaMethod.getNameIdentifier() == elementAtCaret && javaMethod.getBody() != null
+                            ? javaMethod
+                            : elementAtCaret.getParent() instanceof KtNamedFunction function && function.getNameIdentifier() == elementAtCaret && function.hasBody()
+                              ? function
+                              : null;
+        var uMethod = UastContextKt.toUElement(method, UMethod.class);
+        if (uMethod == null || uMethod.isConstructor() || uMethod.getUastBody() == null
+            || uMethod.getReturnType() == null || PsiTypes.voidType().equals(uMethod.getReturnType())) {
+            return null;
+        }
+        return createTarget(method, uMethod.getUastBody());
+    }
+
+    @Nullable
+    private static PsiElement findSelectedExpression(Editor editor, PsiFile file) {
+        int start = editor.getSelectionModel().getSelectionStart();
+        int end = editor.getSelectionModel().getSelectionEnd();
+        return file instanceof KtFile
+               ? PsiTreeUtil.findElementOfClassAtRange(file, start, end, KtExpression.class)
+               : CodeInsightUtil.findExpressionInRange(file, start, end);
+    }
+
+    @Nullable
+    private static Target createTarget(PsiElement element, UElement provider) {
+        if (referencesClassState(provider)) return null;
+
+        var variables = collectOuterVariables(provider, element);
+        if (variables.size() != 1) return null;
+
+        var anchor = variables.iterator().next();
+        var anchorType = anchor instanceof PsiVariable variable ? variable.getType() : null;
+        if (anchor instanceof KtParameter || anchor instanceof KtProperty) {
+            var uVariable = UastContextKt.toUElement(anchor, UVariable.class);
+            anchorType = uVariable != null ? uVariable.getType() : null;
+        }
+        if (!InheritanceUtil.isInheritor(anchorType, PSI_ELEMENT) || !isEffectivelyFinal(anchor, element)) return null;
+
+        var anchorName = ((PsiNamedElement) anchor).getName();
+        return anchorName != null ? new Target(element, provider, anchorName) : null;
+    }
+
+    /**
+     * Collects the local variables and parameters referenced in the argument provider, that are declared outside the argument element.
+     */
+    private static Set<PsiElement> collectOuterVariables(UElement provider, PsiElement element) {
+        var variables = new LinkedHashSet<PsiElement>();
+        provider.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                var variable = node.resolve();
+                if (isLocalVariable(variable) && !PsiTreeUtil.isAncestor(element, variable, false)) variables.add(variable);
+                return false;
+            }
+        });
+        //Method parameters are declared within the method, but they are outside the computation
+        if (element instanceof PsiMethod method) {
+            PsiTreeUtil.findChildrenOfType(method.getBody(), PsiReferenceExpression.class).stream()
+                .map(PsiReferenceExpression::resolve)
+                .filter(resolved -> resolved instanceof PsiParameter parameter && parameter.getDeclarationScope() == method)
+                .forEach(variables::add);
+        } else if (element instanceof KtNamedFunction function) {
+            function.getValueParameters().stream()
+                .filter(parameter -> isReferencedIn(parameter, provider))
+                .forEach(variables::add);
+        }
+        return variables;
+    }
+
+    private static boolean isReferencedIn(PsiElement variable, UElement provider) {
+        var isReferenced = new boolean[1];
+        provider.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                if (variable.equals(node.resolve())) isReferenced[0] = true;
+                return false;
+            }
+        });
+        return isReferenced[0];
+    }
+
+    private static boolean isLocalVariable(@Nullable PsiElement element) {
+        return element instanceof PsiLocalVariable
+            || element instanceof PsiParameter
+            || (element instanceof KtParameter parameter && !parameter.hasValOrVar())
+            || (element instanceof KtProperty property && property.isLocal());
+    }
+
+    /**
+     * Returns whether the argument variable can be captured by a lambda. Kotlin lambdas may capture any variable,
+     * but a captured {@code var} may change, so only {@code val}s and parameters are accepted.
+     */
+    private static boolean isEffectivelyFinal(PsiElement variable, PsiElement element) {
+        if (variable instanceof KtProperty property) return !property.isVar();
+        if (!(variable instanceof PsiVariable javaVariable)) return variable instanceof KtParameter;
+        if (javaVariable.hasModifierProperty(PsiModifier.FINAL)) return true;
+
+        var scope = PsiTreeUtil.getParentOfType(element, PsiMethod.class, false);
+        return scope != null && ReferencesSearch.search(javaVariable, new LocalSearchScope(scope)).findAll().stream()
+            .noneMatch(reference -> reference.getElement() instanceof PsiExpression expression && PsiUtil.isAccessedForWriting(expression));
+    }
+
+    /**
+     * Returns whether the argument element references the instance of its containing class, either explicitly via {@code this}
+     * or {@code super}, or implicitly via instance fields and methods, or it reads static fields or Kotlin object and top-level
+     * properties that are not constants.
+     */
+    private static boolean referencesClassState(UElement element) {
+        var isReferenced = new boolean[1];
+        element.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitThisExpression(@NotNull UThisExpression node) {
+                isReferenced[0] = true;
+                return true;
+            }
+
+            @Override
+            public boolean visitSuperExpression(@NotNull USuperExpression node) {
+                isReferenced[0] = true;
+                return true;
+            }
+
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                boolean isQualified = node.getUastParent() instanceof UQualifiedReferenceExpression qualified && qualified.getSelector() == node;
+                var target = node.resolve();
+                if ((!isQualified && isInstanceMember(target, node.getSourcePsi() instanceof KtElement)) || isNonConstantStaticField(target)) {
+                    isReferenced[0] = true;
+                }
+                return false;
+            }
+
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                if (node.getKind() == UastCallKind.METHOD_CALL && node.getReceiver() == null
+                    && isInstanceMember(node.resolve(), node.getSourcePsi() instanceof KtElement)) {
+                    isReferenced[0] = true;
+                }
+                return false;
+            }
+        });
+        return isReferenced[0];
+    }
+
+    private static boolean isInstanceMember(@Nullable PsiElement element, boolean isKotlin) {
+        if (element instanceof PsiMember member && (member instanceof PsiField || member instanceof PsiMethod)) {
+            return !member.hasModifierProperty(PsiModifier.STATIC)
+                && member.getContainingClass() != null
+                && !(member.getContainingClass().getNavigationElement() instanceof KtObjectDeclaration)
+                && !(isKotlin && isReceiverScoped(member.getContainingClass()));
+        }
+        return element instanceof KtProperty property && !property.isLocal() && property.getContainingClassOrObject() instanceof KtClass
+            || element instanceof KtNamedFunction function && !function.isLocal() && function.getContainingClassOrObject() instanceof KtClass;
+    }
+
+    private static boolean isNonConstantStaticField(@Nullable PsiElement element) {
+        if (element instanceof PsiField field) {
+            return field.hasModifierProperty(PsiModifier.STATIC) && !(field instanceof PsiEnumConstant) && field.computeConstantValue() == null;
+        }
+        return element instanceof KtProperty property && !property.isLocal() && !property.hasModifier(KtTokens.CONST_KEYWORD)
+            && (property.isTopLevel() || property.getContainingClassOrObject() instanceof KtObjectDeclaration);
+    }
+
+    /**
+     * Returns whether the argument class is a platform or JDK class, whose members are accessed via an implicit receiver
+     * of a Kotlin scope function, e.g. {@code with(psiClass) { name }}, rather than via the containing class.
+     */
+    private static boolean isReceiverScoped(PsiClass psiClass) {
+        var qualifiedName = psiClass.getQualifiedName();
+        return qualifiedName != null && (qualifiedName.startsWith("com.intellij.") || qualifiedName.startsWith("java.") || qualifiedName.startsWith("kotlin."));
+    }
+
+    private static boolean containsCall(UElement element) {
+        var containsCall = new boolean[1];
+        element.accept(new AbstractUastVisitor() {
+            @Override
+            public boolean visitCallExpression(@NotNull UCallExpression node) {
+                containsCall[0] = true;
+                return true;
+            }
+
+            @Override
+            public boolean visitSimpleNameReferenceExpression(@NotNull USimpleNameReferenceExpression node) {
+                //Kotlin property accesses may resolve to getter methods
+                if (node.resolve() instanceof PsiMethod) containsCall[0] = true;
+                return false;
+            }
+        });
+        return containsCall[0];
+    }
+
+    //---- Invocation ----
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
+        var target = findTarget(editor, file);
+        if (target == null) return;
+
+        var dependency = CachedValueDependencyAnalyzer.findNarrowestDependency(target.provider, target.element);
+        WriteCommandAction.runWriteCommandAction(project, () -> {
+            if (file instanceof KtFile ktFile) {
+                var dependencyText = dependency != null ? dependency.text() : FALLBACK_DEPENDENCY;
+                var imports = new ArrayList<>(List.of(CACHED_VALUES_MANAGER, CACHED_VALUE_PROVIDER));
+                imports.addAll(dependency != null ? dependency.imports() : List.of(PSI_MODIFICATION_TRACKER));
+                wrapKotlin(project, ktFile, target, dependencyText, imports);
+            } else {
+                wrapJava(project, target, dependency != null ? dependency.text() : PSI_MODIFICATION_TRACKER + ".MODIFICATION_COUNT");
+            }
+        });
+    }
+
+    private static void wrapJava(Project project, Target target, String dependency) {
+        var factory = JavaPsiFacade.getElementFactory(project);
+        PsiElement wrapped;
+        if (target.element instanceof PsiMethod method && method.getBody() != null) {
+            for (var returnStatement : collectReturns(method)) {
+                var value = returnStatement.getReturnValue();
+                if (value != null) value.replace(factory.createExpressionFromText(createResult(value.getText(), dependency), value));
+            }
+            var body = method.getBody();
+            var statements = body.getStatements();
+            var provider = statements.length == 1 && statements[0] instanceof PsiReturnStatement returnStatement && returnStatement.getReturnValue() != null
+                           ? returnStatement.getReturnValue().getText()
+                           : body.getText();
+            wrapped = body.replace(factory.createCodeBlockFromText("{\nreturn " + createGetCachedValue(target.anchor, provider) + ";\n}", method));
+        } else if (target.element instanceof PsiExpression expression) {
+            wrapped = expression.replace(factory.createExpressionFromText(
+                createGetCachedValue(target.anchor, createResult(expression.getText(), dependency)), expression));
+        } else {
+            return;
+        }
+        CodeStyleManager.getInstance(project).reformat(JavaCodeStyleManager.getInstance(project).shortenClassReferences(wrapped));
+    }
+
+    /**
+     * Collects the return statements of the argument method, excluding the ones of lambdas and local classes.
+     */
+    private static List<PsiReturnStatement> collectReturns(PsiMethod method) {
+        return PsiTreeUtil.findChildrenOfType(method.getBody(), PsiReturnStatement.class).stream()
+            .filter(returnStatement -> PsiTreeUtil.getParentOfType(returnStatement, PsiMethod.class, PsiLambdaExpression.class) == method)
+            .toList();
+    }
+
+    private static String createGetCachedValue(String anchor, String provider) {
+        return CACHED_VALUES_MANAGER + ".getCachedValue(" + anchor + ", () -> " + provider + ")";
+    }
+
+    private static String createResult(String value, String dependency) {
+        return CACHED_VALUE_PROVIDER_RESULT + ".create(" + value + ", " + dependency + ")";
+    }
+
+    private static void wrapKotlin(Project project, KtFile file, Target target, String dependency, List<String> imports) {
+        var factory = new KtPsiFactory(project, false);
+        PsiElement wrapped;
+        if (target.element instanceof KtNamedFunction function && function.getBodyBlockExpression() != null) {
+            var body = function.getBodyBlockExpression();
+            var statements = body.getStatements();
+            for (var returnExpression : collectReturns(function, body)) {
+                var value = returnExpression.getReturnedExpression();
+                if (value == null) continue;
+                var result = createKotlinResult(value.getText(), dependency);
+                //The last return becomes the last expression of the lambda, the others return from the lambda
+                returnExpression.replace(factory.createExpression(
+                    !statements.isEmpty() && statements.get(statements.size() - 1) == returnExpression ? result : "return@getCachedValue " + result));
+            }
+            var bodyText = body.getText();
+            var lambdaBody = body.getLBrace() != null && body.getRBrace() != null
+                             ? bodyText.substring(body.getLBrace().getStartOffsetInParent() + 1, body.getRBrace().getStartOffsetInParent())
+                             : bodyText;
+            wrapped = body.replace(factory.createBlock("return CachedValuesManager.getCachedValue(" + target.anchor + ") {" + lambdaBody + "}"));
+        } else if (target.element instanceof KtNamedFunction function && function.getBodyExpression() != null) {
+            var body = function.getBodyExpression();
+            wrapped = body.replace(factory.createExpression(createKotlinGetCachedValue(target.anchor, createKotlinResult(body.getText(), dependency))));
+        } else if (target.element instanceof KtExpression expression) {
+            wrapped = expression.replace(factory.createExpression(createKotlinGetCachedValue(target.anchor, createKotlinResult(expression.getText(), dependency))));
+        } else {
+            return;
+        }
+        imports.forEach(fqn -> ImportUtilsKt.importIfNotAlreadyAdded(file, fqn, factory));
+        CodeStyleManager.getInstance(project).reformat(wrapped);
+    }
+
+    /**
+     * Collects the return expressions of the argument function, excluding the ones of nested functions and labeled returns.
+     */
+    private static List<KtReturnExpression> collectReturns(KtNamedFunction function, KtBlockExpression body) {
+        return PsiTreeUtil.findChildrenOfType(body, KtReturnExpression.class).stream()
+            .filter(returnExpression -> returnExpression.getTargetLabel() == null
+                && PsiTreeUtil.getParentOfType(returnExpression, KtNamedFunction.class) == function)
+            .toList();
+    }
+
+    private static String createKotlinGetCachedValue(String anchor, String provider) {
+        return "CachedValuesManager.getCachedValue(" + anchor + ") { " + provider + " }";
+    }
+
+    private static String createKotlinResult(String value, String dependency) {
+        return StringUtil.getShortName(CACHED_VALUE_PROVIDER) + ".Result.create(" + value + ", " + dependency + ")";
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+}
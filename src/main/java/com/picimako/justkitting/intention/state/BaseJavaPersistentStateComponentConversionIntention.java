@@ -48,10 +48,21 @@ abstract class BaseJavaPersistentStateComponentConversionIntention extends BaseC
      * }</pre>
      */
     protected static void addStateAnnotation(ConversionContext context) {
+        addStateAnnotation(context, "\"<storage name>\"");
+    }
+
+    /**
+     * Adds the {@link com.intellij.openapi.components.State} annotation to the target class, the same way as {@link #addStateAnnotation(ConversionContext)},
+     * but with the argument value in the {@link com.intellij.openapi.components.Storage} annotation.
+     *
+     * @param storageValue the text of the storage file expression, e.g. {@code com.intellij.openapi.components.StoragePathMacros.CACHE_FILE}
+     * @since 1.5.0
+     */
+    protected static void addStateAnnotation(ConversionContext context, String storageValue) {
         // add @State annotation to class
         var stateAnnotation = context.targetClass.getModifierList().addAnnotation(STATE_ANNOTATION);
         stateAnnotation.setDeclaredAttributeValue("name", context.factory.createExpressionFromText("\"" + context.targetClass.getName() + "\"", stateAnnotation));
-        stateAnnotation.setDeclaredAttributeValue("storages", context.factory.createAnnotationFromText("@com.intellij.openapi.components.Storage(\"<storage name>\")", stateAnnotation));
+        stateAnnotation.setDeclaredAttributeValue("storages", context.factory.createAnnotationFromText("@com.intellij.openapi.components.Storage(" + storageValue + ")", stateAnnotation));
         var psiElement = context.styleManager.shortenClassReferences(stateAnnotation);
         stateAnnotation.replace(psiElement);
     }
@@ -3,6 +3,7 @@
 package com.picimako.justkitting.intention.state;
 
 import static com.intellij.openapi.command.WriteCommandAction.runWriteCommandAction;
+import static com.picimako.justkitting.PlatformNames.STORAGE_PATH_MACROS;
 
 import com.intellij.codeInsight.CodeInsightActionHandler;
 import com.intellij.openapi.actionSystem.Presentation;
@@ -143,4 +144,77 @@ final class JavaConversionActions {
             };
         }
     }
+
+    /**
+     * Converts the class using a standalone inner class ({@code State}) as the state object, for storing cache-like data,
+     * e.g. derived data of thousands of entries.
+     * <p>
+     * The state is stored in {@code StoragePathMacros.CACHE_FILE}, so it is neither roamed nor synced with the settings, nor shared via VCS.
+     * The state class holds a single map of strings, that is serialized more compactly than lists of beans.
+     * All existing fields, methods, etc. within the class remain untouched.
+     * <p>
+     * <h3>From:</h3>
+     * <pre>{@code
+     * public class SomeComponent {
+     * }
+     * }</pre>
+     * <h3>To:</h3>
+     * <pre>{@code
+     * import com.intellij.openapi.components.State;
+     * import com.intellij.openapi.components.Storage;
+     * import com.intellij.openapi.components.StoragePathMacros;
+     * import com.intellij.openapi.components.PersistentStateComponent;
+     *
+     * @State(name = "SomeComponent", storages = @Storage(StoragePathMacros.CACHE_FILE))
+     * public class SomeComponent implements PersistentStateComponent<SomeComponent.State> {
+     *
+     *   private State myState = new State();
+     *
+     *   @Override
+     *   public State getState() {
+     *     return myState;
+     *   }
+     *
+     *   @Override
+     *   public void loadState(State state) {
+     *     myState = state;
+     *   }
+     *
+     *   static final class State {
+     *     public Map<String, String> entries = new HashMap<>();
+     *   }
+     * }
+     * }</pre>
+     *
+     * @since 1.5.0
+     */
+    static final class WithCacheState extends BaseJavaPersistentStateComponentConversionIntention {
+        @Override
+        protected void update(@NotNull Presentation presentation, @NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+            super.update(presentation, project, editor, file);
+            presentation.setText(JustKittingBundle.message("intention.persistent.state.use.cache.map.state"));
+        }
+
+        @Override
+        protected @NotNull CodeInsightActionHandler getHandler() {
+            return (project, editor, file) -> {
+                var context = createContext(project, editor, file);
+
+                runWriteCommandAction(project, () -> {
+                    addStateAnnotation(context, STORAGE_PATH_MACROS + ".CACHE_FILE");
+                    addPersistentStateComponentToImplementsList(context, context.targetClass.getName() + ".State");
+                    addStandaloneStateClass(context);
+                    var stateClass = context.targetClass.findInnerClassByName("State", false);
+                    if (stateClass != null) {
+                        stateClass.add(context.styleManager.shortenClassReferences(context.factory.createFieldFromText(
+                            "public java.util.Map<String, String> entries = new java.util.HashMap<>();", stateClass)));
+                    }
+                    //Add getState() and loadState() methods with the corresponding state field
+                    context.targetClass.add(context.factory.createFieldFromText("private State myState = new State();", context.targetClass));
+                    context.targetClass.add(context.factory.createMethodFromText("@Override\npublic State getState() {return myState;}", context.targetClass));
+                    context.targetClass.add(context.factory.createMethodFromText("@Override\npublic void loadState(State state) {myState = state;}", context.targetClass));
+                });
+            };
+        }
+    }
 }
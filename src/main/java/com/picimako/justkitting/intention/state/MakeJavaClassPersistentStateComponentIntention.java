@@ -30,12 +30,13 @@ import java.util.List;
  * Converts a Java class to a {@link com.intellij.openapi.components.PersistentStateComponent} by implementing that interface
  * and generating a simple implementation for its methods.
  * <p>
- * There are two options now, based on the
+ * There are three options now, based on the
  * <a href="https://plugins.jetbrains.com/docs/intellij/persisting-state-of-components.html#implementing-the-persistentstatecomponent-interface">
  * Plugin SDK > Persisting State of Components > Implementing the PersistentStateComponent Interface</a> document:
  * <ul>
  *     <li>use a standalone inner class for providing the state for the component</li>
  *     <li>use the class itself as the state object</li>
+ *     <li>use a standalone inner class holding a map of cache-like data, stored in {@code StoragePathMacros.CACHE_FILE}</li>
  * </ul>
  * <p>
  * For now, only non-abstract classes are supported.
@@ -46,7 +47,8 @@ import java.util.List;
 public class MakeJavaClassPersistentStateComponentIntention extends BaseIntentionAction {
     private static final List<AnAction> JAVA_ACTIONS = List.of(
         new JavaConversionActions.WithStandaloneStateObject(),
-        new JavaConversionActions.WithSelfAsState());
+        new JavaConversionActions.WithSelfAsState(),
+        new JavaConversionActions.WithCacheState());
 
     @Override
     public @IntentionName @NotNull String getText() {
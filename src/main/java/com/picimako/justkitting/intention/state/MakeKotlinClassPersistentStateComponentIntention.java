@@ -24,12 +24,15 @@ import java.util.List;
  * Converts a Kotlin class to a {@link com.intellij.openapi.components.PersistentStateComponent} by implementing that interface
  * and generating a simple implementation for its methods.
  * <p>
- * There are two options now, based on the
+ * There are five options now, based on the
  * <a href="https://plugins.jetbrains.com/docs/intellij/persisting-state-of-components.html#implementing-the-persistentstatecomponent-interface">
  * Plugin SDK > Persisting State of Components > Implementing the PersistentStateComponent Interface</a> document:
  * <ul>
  *     <li>use a standalone inner class for providing the state for the component</li>
  *     <li>use the class itself as the state object</li>
+ *     <li>extend {@code SimplePersistentStateComponent} and use a {@code BaseState} subclass as the state object</li>
+ *     <li>extend {@code SerializablePersistentStateComponent} and use an immutable data class as the state object</li>
+ *     <li>extend {@code SimplePersistentStateComponent} with a {@code BaseState} subclass holding cache-like data, stored in {@code StoragePathMacros.CACHE_FILE}</li>
  * </ul>
  * <p>
  * For now, only non-abstract classes are supported.
@@ -40,7 +43,10 @@ import java.util.List;
 public class MakeKotlinClassPersistentStateComponentIntention extends BaseIntentionAction {
     private static final List<AnAction> KOTLIN_ACTIONS = List.of(
         new KotlinConversionActions.WithStandaloneStateObject(),
-        new KotlinConversionActions.WithSelfAsState());
+        new KotlinConversionActions.WithSelfAsState(),
+        new KotlinConversionActions.WithBaseState(),
+        new KotlinConversionActions.WithSerializableState(),
+        new KotlinConversionActions.WithCacheState());
 
     @Override
     public @IntentionName @NotNull String getText() {
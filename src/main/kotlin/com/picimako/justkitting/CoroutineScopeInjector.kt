@@ -0,0 +1,112 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import com.intellij.psi.JavaPsiFacade
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.codeStyle.JavaCodeStyleManager
+import org.jetbrains.kotlin.psi.KtClass
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.psi.KtLambdaExpression
+import org.jetbrains.kotlin.psi.KtPsiFactory
+
+/**
+ * Injects a [kotlinx.coroutines.CoroutineScope] into the constructor of services, so that the background work they start
+ * is cancelled when the service is disposed.
+ *
+ * The IntelliJ Platform provides a scope for the services that declare a `CoroutineScope` constructor parameter,
+ * see [Launching Coroutine From Service Scope](https://plugins.jetbrains.com/docs/intellij/launching-coroutines.html#launching-coroutine-from-service-scope).
+ *
+ * @since 1.5.0
+ */
+object CoroutineScopeInjector {
+    private const val SCOPE_NAME = "coroutineScope"
+    private const val COROUTINE_SCOPE_SHORT_NAME = "CoroutineScope"
+
+    /**
+     * Returns whether a `CoroutineScope` constructor parameter can be added to the argument Java class,
+     * i.e. it has at most one constructor, and it has no `CoroutineScope` field or constructor parameter yet.
+     */
+    @JvmStatic
+    fun canInject(psiClass: PsiClass): Boolean {
+        return psiClass.constructors.size <= 1
+            && psiClass.fields.none { it.type.equalsToText(PlatformNames.COROUTINE_SCOPE) }
+            && psiClass.constructors.none { constructor -> constructor.parameterList.parameters.any { it.type.equalsToText(PlatformNames.COROUTINE_SCOPE) } }
+    }
+
+    /**
+     * Returns whether a `CoroutineScope` constructor parameter can be added to the argument Kotlin class,
+     * i.e. it has no secondary constructors, and it has no `CoroutineScope` primary constructor parameter yet.
+     */
+    @JvmStatic
+    fun canInject(ktClass: KtClass): Boolean {
+        return ktClass.secondaryConstructors.isEmpty() && ktClass.primaryConstructorParameters.none { isCoroutineScope(it.typeReference?.text) }
+    }
+
+    /**
+     * Adds a `private final CoroutineScope coroutineScope` field to the argument Java class, initialized from a new parameter
+     * of its constructor. If the class has no constructor, one is created.
+     *
+     * @return the name of the field
+     */
+    @JvmStatic
+    fun inject(psiClass: PsiClass): String {
+        val factory = JavaPsiFacade.getElementFactory(psiClass.project)
+        val name = getUniqueName(psiClass.fields.mapNotNull { it.name })
+        val field = psiClass.add(factory.createFieldFromText("private final ${PlatformNames.COROUTINE_SCOPE} $name;", psiClass))
+
+        val constructor = psiClass.constructors.firstOrNull() ?: psiClass.add(factory.createConstructor(psiClass.name!!, psiClass)) as PsiMethod
+        val parameter = constructor.parameterList.add(factory.createParameter(name, factory.createTypeByFQClassName(PlatformNames.COROUTINE_SCOPE, psiClass.resolveScope)))
+        constructor.body?.add(factory.createStatementFromText("this.$name = $name;", constructor))
+
+        val codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.project)
+        codeStyleManager.shortenClassReferences(field)
+        codeStyleManager.shortenClassReferences(parameter)
+        return name
+    }
+
+    /**
+     * Adds a `private val coroutineScope: CoroutineScope` parameter to the primary constructor of the argument Kotlin class.
+     * If the class has no primary constructor, one is created.
+     *
+     * @return the name of the property
+     */
+    @JvmStatic
+    fun inject(ktClass: KtClass): String {
+        val factory = KtPsiFactory(ktClass.project)
+        val name = getUniqueName(ktClass.primaryConstructorParameters.mapNotNull { it.name } + ktClass.getProperties().mapNotNull { it.name })
+        ktClass.createPrimaryConstructorParameterListIfAbsent().addParameter(factory.createParameter("private val $name: $COROUTINE_SCOPE_SHORT_NAME"))
+        importIfNotAlreadyAdded(ktClass.containingKtFile, PlatformNames.COROUTINE_SCOPE, factory)
+        return name
+    }
+
+    /**
+     * Returns the name of the `CoroutineScope` property declared in the primary constructor of the argument Kotlin class,
+     * or null if there is no such property.
+     */
+    @JvmStatic
+    fun findScopeProperty(ktClass: KtClass): String? {
+        return ktClass.primaryConstructorParameters.firstOrNull { it.hasValOrVar() && isCoroutineScope(it.typeReference?.text) }?.name
+    }
+
+    /**
+     * Replaces the argument expression with `<scopeName>.launch { ... }`, executing the body of the argument lambda.
+     */
+    @JvmStatic
+    fun replaceWithLaunch(expression: KtExpression, lambda: KtLambdaExpression, scopeName: String) {
+        val factory = KtPsiFactory(expression.project)
+        val file = expression.containingKtFile
+        expression.replace(factory.createExpression("$scopeName.launch ${lambda.text}"))
+        importIfNotAlreadyAdded(file, "kotlinx.coroutines.launch", factory)
+    }
+
+    private fun isCoroutineScope(typeText: String?): Boolean {
+        return typeText == COROUTINE_SCOPE_SHORT_NAME || typeText == PlatformNames.COROUTINE_SCOPE
+    }
+
+    private fun getUniqueName(usedNames: Collection<String>): String {
+        if (SCOPE_NAME !in usedNames) return SCOPE_NAME
+        return generateSequence(1) { it + 1 }.map { "$SCOPE_NAME$it" }.first { it !in usedNames }
+    }
+}
@@ -0,0 +1,57 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import com.intellij.openapi.application.ApplicationManager
+import com.picimako.justkitting.PlatformNames.SERVICE_ANNOTATION
+import org.jetbrains.kotlin.analysis.api.analyze
+import org.jetbrains.kotlin.analysis.api.annotations.KaAnnotationValue
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.psi.KtClass
+
+/**
+ * Resolves the service levels specified in the `@Service` annotation of Kotlin classes via the Kotlin Analysis API.
+ *
+ * @since 1.5.0
+ */
+object KotlinServiceLevelResolver {
+    private val SERVICE_ANNOTATION_CLASS_ID = ClassId.topLevel(FqName(SERVICE_ANNOTATION))
+
+    /**
+     * Returns the names of the `Service.Level` enum entries specified in the `@Service` annotation of the argument class,
+     * e.g. `PROJECT` and `APP`. Returns an empty list if the annotation has no service level specified.
+     *
+     * Returns null if the annotation cannot be resolved, or if analysis is not allowed in the current context (on the EDT or in a write action),
+     * so that callers can fall back to a PSI-based approach.
+     *
+     * Must be called in a read action.
+     */
+    @JvmStatic
+    fun resolveDeclaredServiceLevels(kotlinClass: KtClass): List<String>? {
+        if (!isAnalysisAllowed()) return null
+
+        return analyze(kotlinClass) {
+            val serviceAnnotation = kotlinClass.classSymbol?.annotations?.get(SERVICE_ANNOTATION_CLASS_ID)?.firstOrNull() ?: return@analyze null
+            serviceAnnotation.arguments.flatMap { getEnumEntryNames(it.expression) }
+        }
+    }
+
+    /**
+     * Returns whether analysis is allowed in the current context, i.e. not on the EDT and not in a write action.
+     */
+    @JvmStatic
+    fun isAnalysisAllowed(): Boolean {
+        val application = ApplicationManager.getApplication()
+        return !application.isDispatchThread && !application.isWriteAccessAllowed
+    }
+
+    /**
+     * Handles both a single service level, e.g. `@Service(Service.Level.PROJECT)`, and multiple ones specified as array.
+     */
+    private fun getEnumEntryNames(value: KaAnnotationValue): List<String> = when (value) {
+        is KaAnnotationValue.EnumEntryValue -> listOfNotNull(value.callableId?.callableName?.asString())
+        is KaAnnotationValue.ArrayValue -> value.values.flatMap { getEnumEntryNames(it) }
+        else -> emptyList()
+    }
+}
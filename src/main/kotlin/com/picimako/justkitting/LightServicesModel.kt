@@ -0,0 +1,202 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import com.intellij.lang.java.JavaLanguage
+import com.intellij.openapi.application.ReadAction.compute
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.openapi.util.ModificationTracker
+import com.intellij.psi.PsiNameIdentifierOwner
+import com.intellij.psi.PsiNamedElement
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import com.picimako.justkitting.index.LightServiceIndex
+import org.jetbrains.kotlin.idea.KotlinLanguage
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Project service providing a shared, cached snapshot of the light services in the project, or in a [LightServicesScope].
+ *
+ * The snapshot is recomputed only when Java or Kotlin code, or the project roots change, so the light services inlay hints,
+ * the *View all light services...* popup and the `getInstance()` generation all work from the same data,
+ * instead of looking up and classifying the light services over and over again.
+ *
+ * @since 1.5.0
+ */
+@Service(Service.Level.PROJECT)
+class LightServicesModel(private val project: Project) {
+
+    private val snapshot: CachedValue<LightServicesSnapshot> = CachedValuesManager.getManager(project).createCachedValue {
+        CachedValueProvider.Result.create(computeSnapshot(LightServicesScope.PROJECT), javaAndKotlinModificationTracker(), ProjectRootModificationTracker.getInstance(project))
+    }
+
+    /**
+     * Snapshots for scopes other than [LightServicesScope.PROJECT].
+     */
+    private val scopedSnapshots: CachedValue<MutableMap<LightServicesScope, LightServicesSnapshot>> = CachedValuesManager.getManager(project).createCachedValue {
+        CachedValueProvider.Result.create(ConcurrentHashMap<LightServicesScope, LightServicesSnapshot>(), javaAndKotlinModificationTracker(), ProjectRootModificationTracker.getInstance(project))
+    }
+
+    private val limitedServices: CachedValue<MutableMap<Pair<LightServicesScope, Int>, LimitedLightServices>> = CachedValuesManager.getManager(project).createCachedValue {
+        CachedValueProvider.Result.create(ConcurrentHashMap<Pair<LightServicesScope, Int>, LimitedLightServices>(), javaAndKotlinModificationTracker(), ProjectRootModificationTracker.getInstance(project))
+    }
+
+    /**
+     * Returns the current snapshot of light services in the argument scope. It is computed only when it is not yet cached, or the cached one is outdated.
+     *
+     * Must be called in smart mode.
+     */
+    @JvmOverloads
+    fun getSnapshot(scope: LightServicesScope = LightServicesScope.PROJECT): LightServicesSnapshot = compute<LightServicesSnapshot, Exception> {
+        if (scope.isProjectScope) snapshot.value
+        else scopedSnapshots.value.computeIfAbsent(scope) { computeSnapshot(it) }
+    }
+
+    /**
+     * Returns whether there is at least one light service in the argument scope. It queries the index directly, so no snapshot is computed.
+     *
+     * Must be called in smart mode.
+     */
+    fun hasLightService(scope: LightServicesScope): Boolean =
+        compute<Boolean, Exception> { LightServiceIndex.hasLightService(scope.toSearchScope(project)) }
+
+    /**
+     * Returns the service level of the argument class.
+     *
+     * If there is no up-to-date snapshot available, or the class is not in the snapshot (e.g. it is not a light service),
+     * the level is determined via [ServiceLevelDecider], so that no full snapshot computation is triggered by this call.
+     */
+    fun <T : PsiNamedElement> getServiceLevel(targetClass: T?): ServiceLevel {
+        if (targetClass is PsiNameIdentifierOwner && snapshot.hasUpToDateValue()) {
+            getSnapshot().getServiceLevel(targetClass)?.let { return it }
+        }
+        return ServiceLevelDecider.getServiceLevel(targetClass)
+    }
+
+    /**
+     * Returns at most `maxCount` light services, in the order they are displayed: grouped by service level in the order of [ServiceLevel] entries,
+     * and sorted alphabetically within each group. Whether there are more light services in the argument scope is also returned.
+     *
+     * If there is an up-to-date snapshot available, the services are taken from that. Otherwise, the indexed light service entries
+     * are processed in the alphabetical order of their class names, and classified based on the indexed service levels.
+     * The PSI is loaded only for the entries that may still be displayed, and the processing stops as soon as no further entry can be.
+     * Only the resolved services are counted, so whether there are more services is consistent with the ones displayed.
+     *
+     * The results are cached per `maxCount` with the same dependencies as the snapshot.
+     *
+     * Must be called in smart mode.
+     */
+    @JvmOverloads
+    fun getLimitedServices(maxCount: Int, scope: LightServicesScope = LightServicesScope.PROJECT): LimitedLightServices {
+        if (scope.isProjectScope && snapshot.hasUpToDateValue()) return getSnapshot().limitTo(maxCount)
+        return compute<LimitedLightServices, Exception> {
+            limitedServices.value.computeIfAbsent(scope to maxCount) { computeLimitedServices(maxCount, scope) }
+        }
+    }
+
+    private fun computeLimitedServices(maxCount: Int, scope: LightServicesScope): LimitedLightServices {
+        //One more service than displayed is collected, to know whether there are more services than the displayed ones
+        val limit = maxCount + 1
+        val levels = ServiceLevel.values()
+        val resolvedServices = levels.associateWith { mutableListOf<PsiNameIdentifierOwner>() }
+        LightServiceIndex.processLightServiceEntries(scope.toSearchScope(project), compareBy<String> { it.substringAfterLast('.') }) { qualifiedName, file, declaredLevels ->
+            val level = ServiceLevelDecider.getServiceLevel(declaredLevels, qualifiedName.substringAfterLast('.'))
+            val services = resolvedServices.getValue(level)
+            //Since the entries come in alphabetical order, an entry is displayed after all services already collected for its and preceding levels
+            val position = levels.takeWhile { it != level }.sumOf { resolvedServices.getValue(it).size } + services.size
+            if (position < limit) {
+                LightServiceIndex.findLightServiceClass(project, file, qualifiedName)?.let { services.add(it) }
+            }
+            //Once the first service level is full, no further entry can be displayed
+            resolvedServices.getValue(levels.first()).size < limit
+        }
+
+        var remaining = maxCount
+        val servicesByLevel = linkedMapOf<ServiceLevel, List<PsiNameIdentifierOwner>>()
+        for (level in levels) {
+            servicesByLevel[level] = resolvedServices.getValue(level).take(remaining.coerceAtLeast(0))
+            remaining -= servicesByLevel.getValue(level).size
+        }
+        return LimitedLightServices(servicesByLevel, resolvedServices.values.sumOf { it.size } > maxCount)
+    }
+
+    private fun computeSnapshot(scope: LightServicesScope): LightServicesSnapshot {
+        val servicesByLevel = linkedMapOf<ServiceLevel, List<PsiNameIdentifierOwner>>()
+        val lightServiceClasses = LightServiceIndex.findLightServiceClasses(project, scope.toSearchScope(project))
+        //Classify all light services in one go, concurrently
+        val serviceLevels = ServiceLevelDecider.getServiceLevels(lightServiceClasses)
+        val lightServices = lightServiceClasses.groupBy { serviceLevels.getValue(it) }
+        //The order of service level groups is determined by the order in which the ServiceLevel entries are defined
+        ServiceLevel.values().forEach { servicesByLevel[it] = lightServices[it]?.sortedBy { service -> service.name } ?: emptyList() }
+        return LightServicesSnapshot(servicesByLevel)
+    }
+
+    private fun javaAndKotlinModificationTracker(): ModificationTracker =
+        PsiModificationTracker.getInstance(project).forLanguages { it.isKindOf(JavaLanguage.INSTANCE) || it.isKindOf(KotlinLanguage.INSTANCE) }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): LightServicesModel = project.service()
+    }
+}
+
+/**
+ * An immutable snapshot of light services grouped by service level. The services are sorted alphabetically by their class names
+ * within each service level group.
+ *
+ * @param servicesByLevel the light services grouped by service levels, in the order of [ServiceLevel] entries
+ */
+class LightServicesSnapshot(val servicesByLevel: Map<ServiceLevel, List<PsiNameIdentifierOwner>>) {
+    private val serviceLevels: Map<PsiNameIdentifierOwner, ServiceLevel> =
+        servicesByLevel.flatMap { (level, services) -> services.map { it to level } }.toMap()
+
+    /**
+     * All light services, regardless of service levels, sorted alphabetically by class names.
+     */
+    val allServices: List<PsiNameIdentifierOwner> by lazy { servicesByLevel.values.flatten().sortedBy { it.name } }
+
+    val size: Int
+        get() = serviceLevels.size
+
+    fun isEmpty(): Boolean = serviceLevels.isEmpty()
+
+    fun isNotEmpty(): Boolean = !isEmpty()
+
+    /**
+     * Returns the service level of the argument class, or null if it is not a light service in this snapshot.
+     */
+    fun getServiceLevel(serviceClass: PsiNameIdentifierOwner): ServiceLevel? = serviceLevels[serviceClass]
+
+    /**
+     * Returns the first `maxCount` light services from this snapshot, in the order of service levels.
+     */
+    fun limitTo(maxCount: Int): LimitedLightServices {
+        var remaining = maxCount
+        val limitedServicesByLevel = linkedMapOf<ServiceLevel, List<PsiNameIdentifierOwner>>()
+        servicesByLevel.forEach { (level, services) ->
+            limitedServicesByLevel[level] = services.take(remaining.coerceAtLeast(0))
+            remaining -= limitedServicesByLevel.getValue(level).size
+        }
+        return LimitedLightServices(limitedServicesByLevel, size > maxCount)
+    }
+}
+
+/**
+ * At most a certain number of light services grouped by service level, and sorted alphabetically by their class names within each group.
+ *
+ * @param servicesByLevel the light services grouped by service levels, in the order of [ServiceLevel] entries
+ * @param hasMore whether there are more light services in the looked up scope than the ones in [servicesByLevel]
+ */
+class LimitedLightServices(val servicesByLevel: Map<ServiceLevel, List<PsiNameIdentifierOwner>>, val hasMore: Boolean) {
+    /**
+     * Whether there is at least one light service in the looked up scope.
+     */
+    val hasLightService: Boolean
+        get() = hasMore || servicesByLevel.values.any { it.isNotEmpty() }
+}
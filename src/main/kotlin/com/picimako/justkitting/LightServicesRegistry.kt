@@ -0,0 +1,258 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiDirectory
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiTreeChangeAdapter
+import com.intellij.psi.PsiTreeChangeEvent
+import com.intellij.psi.search.ProjectScope
+import com.intellij.util.Alarm
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.messages.Topic
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import com.picimako.justkitting.index.LightServiceIndex
+import org.jetbrains.kotlin.idea.KotlinFileType
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Project service maintaining the light services of the project incrementally, for the Light Services tool window.
+ *
+ * Unlike [LightServicesModel], which recomputes its snapshot on any Java or Kotlin change, this registry keeps the light services per file,
+ * and when PSI change events arrive, it re-reads the indexed light service entries only for the changed files. The resulting changes are published
+ * via [LightServicesRegistryListener.TOPIC], so that listeners can update only the affected parts of their UIs.
+ *
+ * The whole project is reloaded only initially, when indexing finishes (e.g. after a branch switch), and when the project roots change.
+ *
+ * Entries are read from [LightServiceIndex], and classified based on the indexed service levels, so no PSI is loaded during the updates.
+ *
+ * @since 1.5.0
+ */
+@Service(Service.Level.PROJECT)
+class LightServicesRegistry(private val project: Project) : Disposable {
+    /**
+     * The light services per file. Modified only on the EDT.
+     */
+    private val entriesByFile = HashMap<VirtualFile, List<LightServiceEntry>>()
+    private val pendingFiles: MutableSet<VirtualFile> = ConcurrentHashMap.newKeySet()
+    /**
+     * A full reload is pending as long as the number of requested full reloads differs from the number of the last applied one.
+     */
+    private val fullReloadRequestCount = AtomicInteger()
+    @Volatile
+    private var appliedFullReloadRequestCount = 0
+    private val isInitialized = AtomicBoolean()
+    private val updateAlarm = Alarm(Alarm.ThreadToUse.POOLED_THREAD, this)
+
+    /**
+     * Starts tracking the light services in the project, and schedules the initial loading of them.
+     * Subsequent calls have no effect.
+     */
+    fun initialize() {
+        if (!isInitialized.compareAndSet(false, true)) return
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(PsiChangeListener(), this)
+        val connection = project.messageBus.connect(this)
+        connection.subscribe(DumbService.DUMB_MODE, object : DumbService.DumbModeListener {
+            override fun exitDumbMode() = scheduleFullReload()
+        })
+        connection.subscribe(ModuleRootListener.TOPIC, object : ModuleRootListener {
+            override fun rootsChanged(event: ModuleRootEvent) = scheduleFullReload()
+        })
+        scheduleFullReload()
+    }
+
+    /**
+     * Returns all the light services currently known by this registry.
+     *
+     * Must be called on the EDT.
+     */
+    fun getEntries(): List<LightServiceEntry> {
+        ApplicationManager.getApplication().assertIsDispatchThread()
+        return entriesByFile.values.flatten()
+    }
+
+    /**
+     * Schedules reloading all light services in the project, e.g. on explicit user request.
+     */
+    fun scheduleFullReload() {
+        fullReloadRequestCount.incrementAndGet()
+        scheduleUpdate()
+    }
+
+    private fun scheduleFileUpdate(file: VirtualFile) {
+        pendingFiles.add(file)
+        scheduleUpdate()
+    }
+
+    /**
+     * Changes are batched, so that e.g. typing in a file doesn't trigger a separate update for each keystroke.
+     */
+    private fun scheduleUpdate() {
+        if (project.isDisposed) return
+        updateAlarm.cancelAllRequests()
+        updateAlarm.addRequest({ submitUpdate() }, UPDATE_DELAY_MS)
+    }
+
+    /**
+     * The pending changes are collected in a non-blocking read action, in smart mode. Since changes are cleared only when the update is applied,
+     * an update cancelled by a subsequent one, or by a write action, doesn't lose any changes.
+     */
+    private fun submitUpdate() {
+        ReadAction.nonBlocking<LightServicesUpdate> {
+            val fullReloadRequest = fullReloadRequestCount.get()
+            val isFullReload = fullReloadRequest != appliedFullReloadRequestCount
+            val files = pendingFiles.toSet()
+            val entries = if (isFullReload) collectAllEntries() else files.associateWith { collectEntries(it) }
+            LightServicesUpdate(if (isFullReload) fullReloadRequest else null, files, entries)
+        }
+            .inSmartMode(project)
+            .coalesceBy(this)
+            .expireWith(this)
+            .finishOnUiThread(ModalityState.any()) { applyUpdate(it) }
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun applyUpdate(update: LightServicesUpdate) {
+        val publisher = project.messageBus.syncPublisher(LightServicesRegistryListener.TOPIC)
+        pendingFiles.removeAll(update.files)
+        if (update.fullReloadRequest != null) {
+            appliedFullReloadRequestCount = update.fullReloadRequest
+            entriesByFile.clear()
+            entriesByFile.putAll(update.entriesByFile.filterValues { it.isNotEmpty() })
+            publisher.servicesReloaded(getEntries())
+            return
+        }
+
+        val removed = mutableListOf<LightServiceEntry>()
+        val added = mutableListOf<LightServiceEntry>()
+        update.entriesByFile.forEach { (file, newEntries) ->
+            val oldEntries = entriesByFile[file] ?: emptyList()
+            if (oldEntries == newEntries) return@forEach
+
+            removed.addAll(oldEntries - newEntries.toSet())
+            added.addAll(newEntries - oldEntries.toSet())
+            if (newEntries.isEmpty()) entriesByFile.remove(file) else entriesByFile[file] = newEntries
+        }
+        if (removed.isNotEmpty() || added.isNotEmpty()) publisher.servicesChanged(removed, added)
+    }
+
+    private fun collectAllEntries(): Map<VirtualFile, List<LightServiceEntry>> {
+        val entries = HashMap<VirtualFile, MutableList<LightServiceEntry>>()
+        LightServiceIndex.processLightServiceEntries(ProjectScope.getProjectScope(project)) { qualifiedName, file, declaredLevels ->
+            entries.getOrPut(file) { mutableListOf() }.add(createEntry(qualifiedName, file, declaredLevels))
+            true
+        }
+        return entries
+    }
+
+    /**
+     * Returns the light services in the argument file, based on [LightServiceIndex]. Deleted files and files outside the project content have no light services.
+     *
+     * Must be called in a read action and in smart mode.
+     */
+    fun collectEntries(file: VirtualFile): List<LightServiceEntry> {
+        if (!file.isValid || !ProjectFileIndex.getInstance(project).isInContent(file)) return emptyList()
+        return LightServiceIndex.getLightServiceEntries(project, file)
+            .map { (qualifiedName, declaredLevels) -> createEntry(qualifiedName, file, declaredLevels) }
+            .sortedBy { it.qualifiedName }
+    }
+
+    private fun createEntry(qualifiedName: String, file: VirtualFile, declaredLevels: String): LightServiceEntry {
+        val name = qualifiedName.substringAfterLast('.')
+        return LightServiceEntry(name, qualifiedName, ServiceLevelDecider.getServiceLevel(declaredLevels, name),
+            ProjectFileIndex.getInstance(project).getModuleForFile(file)?.name, file)
+    }
+
+    override fun dispose() {
+    }
+
+    /**
+     * Collects the Java and Kotlin files that have changed. Changes of directories, e.g. deleting or moving a package, trigger a full reload.
+     */
+    private inner class PsiChangeListener : PsiTreeChangeAdapter() {
+        override fun childrenChanged(event: PsiTreeChangeEvent) = handle(event)
+        override fun childAdded(event: PsiTreeChangeEvent) = handle(event)
+        override fun childReplaced(event: PsiTreeChangeEvent) = handle(event)
+        override fun childMoved(event: PsiTreeChangeEvent) = handle(event)
+        override fun beforeChildRemoval(event: PsiTreeChangeEvent) = handle(event)
+        override fun childRemoved(event: PsiTreeChangeEvent) = handle(event)
+        override fun propertyChanged(event: PsiTreeChangeEvent) = handle(event)
+
+        private fun handle(event: PsiTreeChangeEvent) {
+            when (val child = event.child ?: event.element) {
+                is PsiDirectory -> scheduleFullReload()
+                is PsiFile -> scheduleIfJavaOrKotlin(child)
+                else -> event.file?.let { scheduleIfJavaOrKotlin(it) }
+            }
+        }
+
+        private fun scheduleIfJavaOrKotlin(file: PsiFile) {
+            if (file.fileType != JavaFileType.INSTANCE && file.fileType != KotlinFileType.INSTANCE) return
+            file.virtualFile?.let { scheduleFileUpdate(it) }
+        }
+    }
+
+    /**
+     * @param fullReloadRequest the number of the full reload request this update is for, or null if only the argument files are updated
+     */
+    private class LightServicesUpdate(val fullReloadRequest: Int?, val files: Set<VirtualFile>, val entriesByFile: Map<VirtualFile, List<LightServiceEntry>>)
+
+    companion object {
+        private const val UPDATE_DELAY_MS = 300
+
+        @JvmStatic
+        fun getInstance(project: Project): LightServicesRegistry = project.service()
+    }
+}
+
+/**
+ * A light service known by [LightServicesRegistry].
+ *
+ * @param name the simple name of the light service class
+ * @param qualifiedName the fully qualified name of the light service class
+ * @param level the service level of the light service, based on the indexed service levels
+ * @param moduleName the name of the module containing the light service, or null if it is not in a module
+ * @param file the file containing the light service class
+ * @since 1.5.0
+ */
+data class LightServiceEntry(val name: String, val qualifiedName: String, val level: ServiceLevel, val moduleName: String?, val file: VirtualFile)
+
+/**
+ * Listener for the changes of light services in [LightServicesRegistry]. Events are published on the EDT.
+ *
+ * @since 1.5.0
+ */
+interface LightServicesRegistryListener {
+    /**
+     * Called when the light services in some files have changed.
+     */
+    fun servicesChanged(removed: Collection<LightServiceEntry>, added: Collection<LightServiceEntry>)
+
+    /**
+     * Called when all light services of the project have been reloaded.
+     */
+    fun servicesReloaded(entries: Collection<LightServiceEntry>)
+
+    companion object {
+        @JvmField
+        @Topic.ProjectLevel
+        val TOPIC = Topic(LightServicesRegistryListener::class.java, Topic.BroadcastDirection.NONE)
+    }
+}
@@ -0,0 +1,73 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting
+
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.module.ModuleUtilCore
+import com.intellij.openapi.project.Project
+import com.intellij.psi.search.FilenameIndex
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.ProjectScope
+import com.intellij.psi.xml.XmlFile
+
+/**
+ * Defines where light services are looked up: either in the whole project, or in a set of modules.
+ *
+ * @param moduleNames the names of the modules to look up light services in. If empty, the whole project is searched.
+ * @since 1.5.0
+ */
+data class LightServicesScope(val moduleNames: Set<String>) {
+
+    val isProjectScope: Boolean
+        get() = moduleNames.isEmpty()
+
+    /**
+     * Converts this scope to a search scope. Modules that no longer exist are ignored.
+     */
+    fun toSearchScope(project: Project): GlobalSearchScope {
+        if (isProjectScope) return ProjectScope.getProjectScope(project)
+
+        val moduleManager = ModuleManager.getInstance(project)
+        val moduleScopes = moduleNames.mapNotNull { moduleManager.findModuleByName(it)?.moduleScope }
+        return if (moduleScopes.isNotEmpty()) GlobalSearchScope.union(moduleScopes) else GlobalSearchScope.EMPTY_SCOPE
+    }
+
+    companion object {
+        @JvmField
+        val PROJECT = LightServicesScope(emptySet())
+
+        /**
+         * Returns the scope of the module containing the argument plugin descriptor, along with the modules of its plugin model v2
+         * content modules specified as `<content><module name="..."/></content>`.
+         *
+         * A content module is matched either to the IDE module with the same name, or to the module that contains the content module's
+         * descriptor file (`<content module name>.xml`, where the `/` characters in the name are replaced with `.`).
+         *
+         * If the plugin descriptor is not in a module, the whole project is returned as scope.
+         *
+         * Must be called in a read action and in smart mode.
+         */
+        @JvmStatic
+        fun forPluginDescriptor(pluginDescriptor: XmlFile): LightServicesScope {
+            val module = ModuleUtilCore.findModuleForPsiElement(pluginDescriptor) ?: return PROJECT
+            val project = pluginDescriptor.project
+            val moduleManager = ModuleManager.getInstance(project)
+
+            val moduleNames = linkedSetOf(module.name)
+            pluginDescriptor.rootTag?.findSubTags("content")
+                ?.flatMap { it.findSubTags("module").asIterable() }
+                ?.mapNotNull { it.getAttributeValue("name") }
+                ?.forEach { contentModuleName ->
+                    val contentModule = moduleManager.findModuleByName(contentModuleName.substringBefore('/'))
+                    if (contentModule != null) {
+                        moduleNames.add(contentModule.name)
+                    } else {
+                        FilenameIndex.getVirtualFilesByName("${contentModuleName.replace('/', '.')}.xml", ProjectScope.getProjectScope(project))
+                            .mapNotNull { ModuleUtilCore.findModuleForFile(it, project) }
+                            .forEach { moduleNames.add(it.name) }
+                    }
+                }
+            return LightServicesScope(moduleNames)
+        }
+    }
+}
@@ -6,28 +6,100 @@ import com.intellij.openapi.application.ReadAction.compute
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.components.service
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiField
 import com.intellij.psi.search.ProjectScope
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 
 /**
- * Project service to store Psi elements referencing the [Service] annotation, and properties of [Service.Level].
+ * Project service to store Psi elements of IntelliJ Platform classes and their members, e.g. the [Service] annotation,
+ * and properties of [Service.Level].
+ *
+ * The elements are looked up in the libraries scope of the project, and are cached until the project roots change
+ * (e.g. after updating the IntelliJ Platform version), so that they are not looked up again and again by inspections
+ * and reference providers, and the PSI of outdated library jars is not kept in memory.
+ * Classes and members that are not found are cached as well, to avoid repeatedly looking them up.
+ *
+ * Classes referenced by name in user code are looked up via [findLibraryClass], that caches only the classes found,
+ * and at most [MAX_LIBRARY_CLASSES] of them, so that arbitrary names don't grow the cache without bound.
  *
  * @since 0.1.0
  */
 @Service(Service.Level.PROJECT)
 class PlatformPsiCache(val project: Project) {
 
-    val serviceAnnotation: PsiClass? by lazy { findClass(PlatformNames.SERVICE_ANNOTATION) }
-    val serviceLevelProject: PsiField? by lazy { findClass(PlatformNames.SERVICE_LEVEL)!!.findFieldByName("PROJECT", false) }
-    val serviceLevelApp: PsiField? by lazy { findClass(PlatformNames.SERVICE_LEVEL)!!.findFieldByName("APP", false) }
-    val callMatcher: PsiClass? by lazy { findClass(PlatformNames.CALL_MATCHER) }
+    /**
+     * Maps the fully qualified name of classes, and the `<class FQN>#<field name>` identifiers of fields, to their PSI elements.
+     */
+    private val elements: CachedValue<ConcurrentMap<String, Optional<PsiElement>>> = CachedValuesManager.getManager(project).createCachedValue {
+        CachedValueProvider.Result.create(ConcurrentHashMap<String, Optional<PsiElement>>(), ProjectRootModificationTracker.getInstance(project))
+    }
+
+    //Services
+    val serviceAnnotation: PsiClass? get() = getClass(PlatformNames.SERVICE_ANNOTATION)
+    val serviceLevelProject: PsiField? get() = getField(PlatformNames.SERVICE_LEVEL, "PROJECT")
+    val serviceLevelApp: PsiField? get() = getField(PlatformNames.SERVICE_LEVEL, "APP")
+
+    //Method calls
+    val callMatcher: PsiClass? get() = getClass(PlatformNames.CALL_MATCHER)
+
+    /**
+     * Maps the fully qualified names of library classes referenced in user code to their PSI elements.
+     */
+    private val libraryClasses: CachedValue<ConcurrentMap<String, PsiClass>> = CachedValuesManager.getManager(project).createCachedValue {
+        CachedValueProvider.Result.create(ConcurrentHashMap<String, PsiClass>(), ProjectRootModificationTracker.getInstance(project))
+    }
+
+    /**
+     * Returns the platform class with the argument fully qualified name from the libraries scope of the project, or null if there is no such class.
+     *
+     * Missing classes are cached too, so this is meant for a fixed set of platform class names, e.g. the ones in [PlatformNames].
+     *
+     * @since 1.5.0
+     */
+    fun getClass(qualifiedName: String): PsiClass? = getElement(qualifiedName) { findClass(qualifiedName) } as PsiClass?
+
+    /**
+     * Returns the class with the argument fully qualified name, coming from user code, e.g. a string literal, from the libraries scope
+     * of the project, or null if there is no such class.
+     *
+     * @since 1.5.0
+     */
+    fun findLibraryClass(qualifiedName: String): PsiClass? = compute<PsiClass?, Exception> {
+        val cache = libraryClasses.value
+        cache[qualifiedName]?.takeIf { it.isValid }
+            ?: findClass(qualifiedName)?.also { if (cache.size < MAX_LIBRARY_CLASSES) cache[qualifiedName] = it }
+    }
+
+    private fun getField(classQualifiedName: String, fieldName: String): PsiField? =
+        getElement("$classQualifiedName#$fieldName") { getClass(classQualifiedName)?.findFieldByName(fieldName, false) } as PsiField?
+
+    private fun getElement(key: String, finder: () -> PsiElement?): PsiElement? = compute<PsiElement?, Exception> {
+        val cache = elements.value
+        var element = cache[key]
+        //Not using computeIfAbsent() because looking up fields also looks up and caches their classes.
+        //Invalidated elements are looked up again.
+        if (element == null || (element.isPresent && !element.get().isValid)) {
+            element = Optional.ofNullable(finder())
+            cache[key] = element
+        }
+        element.orElse(null)
+    }
 
     private fun findClass(name: String): PsiClass? =
-        compute<PsiClass?, Exception> { JavaPsiFacade.getInstance(project).findClass(name, ProjectScope.getLibrariesScope(project)) }
+        JavaPsiFacade.getInstance(project).findClass(name, ProjectScope.getLibrariesScope(project))
 
     companion object {
+        private const val MAX_LIBRARY_CLASSES = 1000
+
         @JvmStatic
         fun getInstance(project: Project): PlatformPsiCache = project.service()
     }
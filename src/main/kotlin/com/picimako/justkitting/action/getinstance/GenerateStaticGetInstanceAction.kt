@@ -14,10 +14,13 @@ import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiJavaFile
 import com.intellij.util.containers.ContainerUtil
+import com.picimako.justkitting.CoroutineScopeInjector
+import com.picimako.justkitting.LightServicesModel
 import com.picimako.justkitting.ListPopupHelper
-import com.picimako.justkitting.ServiceLevelDecider
 import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import com.picimako.justkitting.ServiceUtil
 import com.picimako.justkitting.resources.JustKittingBundle
+import org.jetbrains.kotlin.asJava.toLightClass
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.psi.KtObjectDeclaration
 
@@ -40,11 +43,19 @@ import org.jetbrains.kotlin.psi.KtObjectDeclaration
  *    * ApplicationService, ApplicationSettings or ApplicationState, then application-level getter is generated.
  *  * Otherwise, users can choose between generating application- and project-level method.
  *
+ * ### CoroutineScope injection
+ *
+ * When [withCoroutineScope] is true, a `CoroutineScope` constructor parameter is also added to the class (see [CoroutineScopeInjector]),
+ * and in Kotlin classes, a `serviceAsync()`-based suspending `getInstanceAsync()` function is generated too.
+ * In this case, the action is available only in light services, since the platform injects the scope only into services,
+ * and only when the scope can be injected, e.g. the class doesn't have a `CoroutineScope` parameter yet.
+ *
+ * @param withCoroutineScope whether to inject a `CoroutineScope` into the service constructor
  * @see org.jetbrains.idea.devkit.inspections.NonDefaultConstructorInspection
  * @see [Retrieving a Service](https://plugins.jetbrains.com/docs/intellij/plugin-services.html.retrieving-a-service)
  * @since 0.1.0
  */
-class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
+open class GenerateStaticGetInstanceAction(private val withCoroutineScope: Boolean = false) : BaseCodeInsightAction() {
     private lateinit var handler: CodeInsightActionHandler
 
     public override fun getHandler(): CodeInsightActionHandler {
@@ -53,12 +64,12 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
 
     public override fun isValidForFile(project: Project, editor: Editor, file: PsiFile): Boolean {
         if (file is PsiJavaFile) {
-            handler = JavaGetInstanceHandler()
+            handler = JavaGetInstanceHandler(withCoroutineScope)
             return (handler as JavaGetInstanceHandler).isValidFor(editor, file)
         }
 
         if (file is KtFile) {
-            handler = KotlinGetInstanceHandler()
+            handler = KotlinGetInstanceHandler(withCoroutineScope)
             return (handler as KotlinGetInstanceHandler).isValidFor(editor, file)
         }
 
@@ -68,7 +79,7 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
     /**
      * Base class for handling `getInstance()` generation.
      */
-    internal abstract class GetInstanceHandler : LanguageCodeInsightActionHandler {
+    internal abstract class GetInstanceHandler(protected val withCoroutineScope: Boolean) : LanguageCodeInsightActionHandler {
         companion object {
             const val GET_INSTANCE = "getInstance"
         }
@@ -84,8 +95,8 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
     /**
      * Handles the validation and generation of a `getInstance()` method in Java files.
      */
-    internal class JavaGetInstanceHandler : GetInstanceHandler() {
-        private val actions by lazy { listOf(JavaGetInstanceGenerationAction(PROJECT), JavaGetInstanceGenerationAction(APP)) }
+    internal class JavaGetInstanceHandler(withCoroutineScope: Boolean) : GetInstanceHandler(withCoroutineScope) {
+        private val actions by lazy { listOf(JavaGetInstanceGenerationAction(PROJECT, withCoroutineScope), JavaGetInstanceGenerationAction(APP, withCoroutineScope)) }
 
         override fun isValidFor(editor: Editor?, file: PsiFile?): Boolean {
             return getStaticOrTopLevelClass(file!!, editor!!)?.let {
@@ -93,15 +104,16 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
                     && !it.isEnum
                     //There is no static 'getInstance()' method
                     && !ContainerUtil.exists(it.methods) { method -> GET_INSTANCE == method.name && isStatic(method) }
+                    && (!withCoroutineScope || ServiceUtil.isLightService(it) && CoroutineScopeInjector.canInject(it))
                 }
             } ?: false
         }
 
         override fun invoke(project: Project, editor: Editor, file: PsiFile) {
             //Null check for 'staticOrTopLevelClass' is not required due to it being checked in 'isValidFor()'
-            when (ServiceLevelDecider.getServiceLevel(getStaticOrTopLevelClass(file, editor))) {
-                ServiceLevel.PROJECT -> JavaGetInstanceGenerationAction(PROJECT).invokeHandler(project, editor, file)
-                ServiceLevel.APP -> JavaGetInstanceGenerationAction(APP).invokeHandler(project, editor, file)
+            when (LightServicesModel.getInstance(project).getServiceLevel(getStaticOrTopLevelClass(file, editor))) {
+                ServiceLevel.PROJECT -> JavaGetInstanceGenerationAction(PROJECT, withCoroutineScope).invokeHandler(project, editor, file)
+                ServiceLevel.APP -> JavaGetInstanceGenerationAction(APP, withCoroutineScope).invokeHandler(project, editor, file)
                 else -> chooseAppOrProjectLevelFromList(actions, editor)
             }
         }
@@ -110,8 +122,8 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
     /**
      * Handles the validation and generation of a `getInstance()` function in Kotlin files.
      */
-    internal class KotlinGetInstanceHandler : GetInstanceHandler() {
-        private val actions by lazy { listOf(KotlinGetInstanceGenerationAction(PROJECT), KotlinGetInstanceGenerationAction(APP)) }
+    internal class KotlinGetInstanceHandler(withCoroutineScope: Boolean) : GetInstanceHandler(withCoroutineScope) {
+        private val actions by lazy { listOf(KotlinGetInstanceGenerationAction(PROJECT, withCoroutineScope), KotlinGetInstanceGenerationAction(APP, withCoroutineScope)) }
 
         override fun isValidFor(editor: Editor?, file: PsiFile?): Boolean {
             return getParentClass(file!!, editor!!)?.let {
@@ -119,15 +131,16 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
                     it.name != null
                         && !it.isEnum()
                         && !hasGetInstanceFunction(getCompanionObject(it))
+                        && (!withCoroutineScope || ServiceUtil.isLightService(it.toLightClass()) && CoroutineScopeInjector.canInject(it))
                 }
             } ?: false
         }
 
         override fun invoke(project: Project, editor: Editor, file: PsiFile) {
             //Null check for 'getParentClass' is not required due to it being checked in 'isValidFor()'
-            when (ServiceLevelDecider.getServiceLevel(getParentClass(file, editor))) {
-                ServiceLevel.PROJECT -> KotlinGetInstanceGenerationAction(PROJECT).invokeHandler(project, editor, file)
-                ServiceLevel.APP -> KotlinGetInstanceGenerationAction(APP).invokeHandler(project, editor, file)
+            when (LightServicesModel.getInstance(project).getServiceLevel(getParentClass(file, editor))) {
+                ServiceLevel.PROJECT -> KotlinGetInstanceGenerationAction(PROJECT, withCoroutineScope).invokeHandler(project, editor, file)
+                ServiceLevel.APP -> KotlinGetInstanceGenerationAction(APP, withCoroutineScope).invokeHandler(project, editor, file)
                 else -> chooseAppOrProjectLevelFromList(actions, editor)
             }
         }
@@ -142,3 +155,11 @@ class GenerateStaticGetInstanceAction : BaseCodeInsightAction() {
         }
     }
 }
+
+/**
+ * Generates a static `getInstance()` method in service classes, and injects a `CoroutineScope` into their constructors.
+ *
+ * @see GenerateStaticGetInstanceAction
+ * @since 1.5.0
+ */
+class GenerateStaticGetInstanceWithCoroutineScopeAction : GenerateStaticGetInstanceAction(true)
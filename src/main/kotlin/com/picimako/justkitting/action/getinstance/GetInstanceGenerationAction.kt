@@ -15,9 +15,10 @@ import com.picimako.justkitting.resources.JustKittingBundle
  *
  * @param <PSI_METHOD>
  * @param <PSI_CLASS>
+ * @param withCoroutineScope whether to also inject a `CoroutineScope` into the service constructor
  */
 internal abstract class GetInstanceGenerationAction<PSI_METHOD, PSI_CLASS>
-protected constructor(protected val serviceLevel: Service.Level) : BaseCodeInsightAction() {
+protected constructor(protected val serviceLevel: Service.Level, protected val withCoroutineScope: Boolean) : BaseCodeInsightAction() {
     /**
      * Creates a [PSI_METHOD] for the `getInstance()` from the current action's pattern text.
      *
@@ -12,13 +12,17 @@ import com.intellij.psi.*
 import com.intellij.psi.codeStyle.JavaCodeStyleManager
 import com.intellij.psi.util.PsiTreeUtil.getParentOfType
 import com.intellij.psi.util.PsiUtil.getTopLevelClass
+import com.picimako.justkitting.CoroutineScopeInjector
 import java.text.MessageFormat
 
 /**
  * Action for generating `getInstance()` methods for services, components,
  * and classes in Java files, that can benefit from such method.
+ *
+ * If [withCoroutineScope] is true, a `CoroutineScope` is also injected into the constructor of the class.
  */
-internal class JavaGetInstanceGenerationAction(serviceLevel: Service.Level) : GetInstanceGenerationAction<PsiMethod, PsiClass>(serviceLevel) {
+internal class JavaGetInstanceGenerationAction(serviceLevel: Service.Level, withCoroutineScope: Boolean = false) :
+    GetInstanceGenerationAction<PsiMethod, PsiClass>(serviceLevel, withCoroutineScope) {
 
     override fun getHandler(): CodeInsightActionHandler {
         return CodeInsightActionHandler { project: Project, editor: Editor, file: PsiFile ->
@@ -27,6 +31,7 @@ internal class JavaGetInstanceGenerationAction(serviceLevel: Service.Level) : Ge
             val getInstance = createMethod(staticOrTopLevelClass, project)
             //Add the method right after the list of fields, or the list of constructor if there is any
             WriteCommandAction.runWriteCommandAction(project) {
+                if (withCoroutineScope) CoroutineScopeInjector.inject(staticOrTopLevelClass!!)
                 JavaCodeStyleManager.getInstance(project).shortenClassReferences(staticOrTopLevelClass!!.add(getInstance))
             }
         }
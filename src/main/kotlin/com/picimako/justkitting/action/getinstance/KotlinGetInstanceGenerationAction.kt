@@ -16,6 +16,7 @@ import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.util.concurrency.AppExecutorUtil
+import com.picimako.justkitting.CoroutineScopeInjector
 import com.picimako.justkitting.PlatformNames
 import com.picimako.justkitting.importIfNotAlreadyAdded
 import org.jetbrains.kotlin.idea.base.psi.getOrCreateCompanionObject
@@ -25,9 +26,12 @@ import java.text.MessageFormat
 /**
  * Action for generating `getInstance()` functions for services, components,
  * and classes in Kotlin files, that can benefit from such method.
+ *
+ * If [withCoroutineScope] is true, a `CoroutineScope` is also injected into the primary constructor of the class,
+ * and a suspending `getInstanceAsync()` function, based on `serviceAsync()`, is also generated.
  */
-internal class KotlinGetInstanceGenerationAction(serviceLevel: Service.Level) :
-    GetInstanceGenerationAction<KtFunction, KtClass>(serviceLevel) {
+internal class KotlinGetInstanceGenerationAction(serviceLevel: Service.Level, withCoroutineScope: Boolean = false) :
+    GetInstanceGenerationAction<KtFunction, KtClass>(serviceLevel, withCoroutineScope) {
 
     override fun getHandler(): CodeInsightActionHandler {
         return CodeInsightActionHandler { project: Project?, editor, file ->
@@ -78,13 +82,32 @@ internal class KotlinGetInstanceGenerationAction(serviceLevel: Service.Level) :
              * }
              *
              */
-            companionObject.body?.addAfter(getInstanceFunction, companionObject.body?.lBrace)
+            val addedGetInstance = companionObject.body?.addAfter(getInstanceFunction, companionObject.body?.lBrace)
+
+            /*
+             * Add 'getInstanceAsync()' and the CoroutineScope constructor parameter
+             *
+             * class SomeService(private val coroutineScope: CoroutineScope) {
+             *   companion object {
+             *     fun getInstance(project: Project): SomeService = project.service()
+             *     suspend fun getInstanceAsync(project: Project): SomeService = project.serviceAsync()
+             *   }
+             * }
+             */
+            if (withCoroutineScope) {
+                val getInstanceAsyncFunction = companionObject.body?.addAfter(createAsyncMethod(parentClass, project), addedGetInstance)
+                companionObject.body?.addBefore(KtPsiFactory(project, false).createNewLine(), getInstanceAsyncFunction)
+            }
 
             //Import service and Project if they are not yet imported for other functionality
             //Project must be imported only when we are generating the getInstance() for a project service
             importIfNotAlreadyAdded(file as KtFile, "com.intellij.openapi.components.service")
             if (serviceLevel == Service.Level.PROJECT)
                 importIfNotAlreadyAdded(file, PlatformNames.PROJECT)
+            if (withCoroutineScope) {
+                importIfNotAlreadyAdded(file, "com.intellij.openapi.components.serviceAsync")
+                CoroutineScopeInjector.inject(parentClass)
+            }
         }
     }
 
@@ -102,9 +125,23 @@ internal class KotlinGetInstanceGenerationAction(serviceLevel: Service.Level) :
         )
     }
 
+    /**
+     * Creates the suspending `getInstanceAsync()` function with its return type being the current class.
+     */
+    private fun createAsyncMethod(psiClass: KtClass, project: Project): KtFunction {
+        return KtPsiFactory(project, false).createFunction(
+            MessageFormat.format(
+                if (serviceLevel == Service.Level.PROJECT) PROJECT_GET_INSTANCE_ASYNC_PATTERN else APP_GET_INSTANCE_ASYNC_PATTERN,
+                psiClass.name
+            )
+        )
+    }
+
     companion object {
         private const val PROJECT_GET_INSTANCE_PATTERN = "fun getInstance(project: Project): {0} = project.service()"
         private const val APP_GET_INSTANCE_PATTERN = "fun getInstance(): {0} = service()"
+        private const val PROJECT_GET_INSTANCE_ASYNC_PATTERN = "suspend fun getInstanceAsync(project: Project): {0} = project.serviceAsync()"
+        private const val APP_GET_INSTANCE_ASYNC_PATTERN = "suspend fun getInstanceAsync(): {0} = serviceAsync()"
     }
 }
 
@@ -0,0 +1,34 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.action.servicegraph
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.wm.ToolWindowManager
+import com.picimako.justkitting.toolwindow.ServiceDependenciesToolWindowFactory
+import com.picimako.justkitting.toolwindow.ServiceDependenciesToolWindowPanel
+
+/**
+ * Opens the Service Dependencies tool window, and (re)builds the service dependency graph of the project.
+ *
+ * The action is not available during indexing, since the graph can be built only in smart mode.
+ *
+ * @since 1.5.0
+ */
+class AnalyzeServiceDependenciesAction : AnAction() {
+
+    override fun actionPerformed(e: AnActionEvent) {
+        val project = e.project ?: return
+        val toolWindow = ToolWindowManager.getInstance(project).getToolWindow(ServiceDependenciesToolWindowFactory.TOOL_WINDOW_ID) ?: return
+        //If the tool window content is not created yet, the graph is built upon its creation
+        val panel = toolWindow.contentManager.contents.firstNotNullOfOrNull { it.component as? ServiceDependenciesToolWindowPanel }
+        toolWindow.activate { panel?.analyze() }
+    }
+
+    override fun update(e: AnActionEvent) {
+        e.presentation.isEnabledAndVisible = e.project != null
+    }
+
+    override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+}
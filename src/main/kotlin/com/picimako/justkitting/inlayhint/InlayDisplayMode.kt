@@ -2,17 +2,15 @@
 
 package com.picimako.justkitting.inlayhint
 
+import com.intellij.psi.PsiFile
+import com.intellij.psi.xml.XmlFile
+import com.picimako.justkitting.LightServicesScope
 import com.picimako.justkitting.resources.JustKittingBundle
 
 /**
  * Represents how to display the Light Service inlay hints in the plugin.xml.
  */
 enum class InlayDisplayMode(val displayName: String) {
-    /**
-     * No hint is displayed.
-     */
-    Disabled(JustKittingBundle.message("inlay.hints.light.services.settings.display.mode.disabled")),
-
     /**
      * Shows a user-defined max number of light services grouped by the service level.
      *
@@ -27,12 +25,46 @@ enum class InlayDisplayMode(val displayName: String) {
     ViewAllOnly(JustKittingBundle.message("inlay.hints.light.services.settings.display.mode.view.all.only"))
 }
 
+/**
+ * Represents where the light services are looked up for the Light Service inlay hints.
+ *
+ * @since 1.5.0
+ */
+enum class LookupScope(val displayName: String) {
+    /**
+     * Light services are looked up in the whole project.
+     */
+    Project(JustKittingBundle.message("inlay.hints.light.services.settings.lookup.scope.project")),
+
+    /**
+     * Light services are looked up only in the module containing the plugin.xml, and in its content modules.
+     *
+     * This is useful in repositories hosting multiple plugins.
+     */
+    PluginModules(JustKittingBundle.message("inlay.hints.light.services.settings.lookup.scope.plugin.modules"));
+
+    /**
+     * Returns the [LightServicesScope] for the argument plugin descriptor, based on this lookup scope.
+     */
+    fun toLightServicesScope(pluginDescriptor: PsiFile): LightServicesScope =
+        if (this == PluginModules && pluginDescriptor is XmlFile) LightServicesScope.forPluginDescriptor(pluginDescriptor)
+        else LightServicesScope.PROJECT
+}
+
+/**
+ * Settings for the light services inlay hints. Whether the hints are displayed at all is controlled by the enabled state of
+ * [LightServicesInlayHintsProvider] in `Settings > Editor > Inlay Hints`.
+ */
 data class Settings(
-    var lightServicesDisplayMode: InlayDisplayMode = InlayDisplayMode.Disabled,
+    var lightServicesDisplayMode: InlayDisplayMode = InlayDisplayMode.ListOfLightServices,
     /**
      * Applicable only in the case of [InlayDisplayMode.ListOfLightServices].
      */
-    var maxNumberOfServicesToDisplay: Int = DEFAULT_MAX_NO_OF_SERVICES
+    var maxNumberOfServicesToDisplay: Int = DEFAULT_MAX_NO_OF_SERVICES,
+    /**
+     * @since 1.5.0
+     */
+    var lookupScope: LookupScope = LookupScope.Project
 ) {
     companion object {
         const val DEFAULT_MAX_NO_OF_SERVICES: Int = 10
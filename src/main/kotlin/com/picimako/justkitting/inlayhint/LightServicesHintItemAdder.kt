@@ -2,33 +2,34 @@
 
 package com.picimako.justkitting.inlayhint
 
-import com.picimako.justkitting.ServiceLevelDecider
-import com.picimako.justkitting.inlayhint.LightServiceLookup.lookupLightServiceClasses
-import com.picimako.justkitting.resources.JustKittingBundle
-import com.intellij.codeInsight.hints.InlayHintsSink
-import com.intellij.codeInsight.hints.presentation.InsetPresentation
-import com.intellij.codeInsight.hints.presentation.PresentationFactory
-import com.intellij.openapi.editor.Editor
-import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.codeInsight.hints.declarative.AboveLineIndentedPosition
+import com.intellij.codeInsight.hints.declarative.HintFormat
+import com.intellij.codeInsight.hints.declarative.InlayActionData
+import com.intellij.codeInsight.hints.declarative.InlayTreeSink
+import com.intellij.codeInsight.hints.declarative.PresentationTreeBuilder
+import com.intellij.codeInsight.hints.declarative.PsiPointerInlayActionNavigationHandler
+import com.intellij.codeInsight.hints.declarative.PsiPointerInlayActionPayload
 import com.intellij.psi.PsiNameIdentifierOwner
-import com.intellij.psi.xml.XmlToken
+import com.intellij.psi.SmartPointerManager
+import com.intellij.psi.xml.XmlTag
+import com.picimako.justkitting.resources.JustKittingBundle
 import org.apache.commons.lang3.mutable.MutableInt
-import java.util.function.Supplier
 
 /**
  * Adds various types of hints that are leveraged in a composite way in [LightServicesModeBasedHintAdder].
+ *
+ * Each hint is placed in its own line above the `<extensions>` tag, in the order they are added.
  */
 @Suppress("UnstableApiUsage")
-abstract class LightServicesHintItemAdder(open var settings: Settings,
-                                          open var sink: InlayHintsSink,
-                                          open var factory: PresentationFactory,
-                                          open var editor: Editor,
-                                          open var file: PsiFile) : LightServicesHintPresentationAware(factory, editor, file) {
+abstract class LightServicesHintItemAdder(open val settings: Settings, open val sink: InlayTreeSink) {
+    /**
+     * The vertical priority of the next hint. It is incremented for each hint, so that the hints are displayed in separate lines.
+     */
+    private var verticalPriority = 0
 
     /**
      * Adds all the `services` PsiClasses as hints to the `extensionsTag` under the `serviceLevel` group.
-     * Before addition, the PsiClasses are sorted alphabetically by their names.
+     * The PsiClasses are expected to be already sorted alphabetically by their names.
      *
      * The hint addition process is interrupted once the number of class hints added reaches the user-defined max count.
      *
@@ -45,50 +46,82 @@ abstract class LightServicesHintItemAdder(open var settings: Settings,
      * @param serviceLevel the level of service (project, app) of the PsiClasses
      * @param classCount stores the number of class hints added
      */
-    fun <T: PsiNameIdentifierOwner> addClassReferenceHints(services: MutableList<T>?, extensionsTag: XmlToken, serviceLevel: String, classCount: MutableInt) {
-        if (classCount.value < settings.maxNumberOfServicesToDisplay && services!!.isNotEmpty()) {
+    fun <T: PsiNameIdentifierOwner> addClassReferenceHints(services: List<T>, extensionsTag: XmlTag, serviceLevel: String, classCount: MutableInt) {
+        if (classCount.value < settings.maxNumberOfServicesToDisplay && services.isNotEmpty()) {
             addLabelHints(extensionsTag, JustKittingBundle.message("inlay.hints.light.services.list.display.mode.group.title", serviceLevel))
-            for (service in services.sortedBy { it.name }) {
+            for (service in services) {
                 addClassReferenceHint(extensionsTag, service)
                 if (classCount.incrementAndGet() == settings.maxNumberOfServicesToDisplay) return
             }
         }
     }
 
+    /**
+     * Adds non-clickable hints for the argument light services persisted by [LightServicesHintsSnapshotStorage], under the `serviceLevel` group.
+     * The services are expected to be already sorted alphabetically by their names.
+     *
+     * Similar to [addClassReferenceHints], the hint addition process is interrupted once the number of class hints added
+     * reaches the user-defined max count.
+     *
+     * @since 1.5.0
+     */
+    fun addPersistedServiceHints(services: List<LightServicesHintsSnapshotStorage.PersistedLightService>, extensionsTag: XmlTag,
+                                 serviceLevel: String, classCount: MutableInt) {
+        if (classCount.value < settings.maxNumberOfServicesToDisplay && services.isNotEmpty()) {
+            addLabelHints(extensionsTag, JustKittingBundle.message("inlay.hints.light.services.list.display.mode.group.title", serviceLevel))
+            for (service in services) {
+                addLabelHints(extensionsTag, service.name)
+                if (classCount.incrementAndGet() == settings.maxNumberOfServicesToDisplay) return
+            }
+        }
+    }
+
     /**
      * Adds non-clickable hints for all provided `labels`.
      */
-    fun addLabelHints(extensionsTagToken: XmlToken, vararg labels: String) {
-        labels.forEach { addHintFor(extensionsTagToken, presentationFactory.inset(basePresentation(it), down = 3, top = 3)) }
+    fun addLabelHints(extensionsTag: XmlTag, vararg labels: String) {
+        labels.forEach { label -> addHintFor(extensionsTag) { segmentedText(label) } }
     }
 
     /**
      * Adds the *View all light services...* hint for the `extensionsTag`.
      *
-     * The argument map is flattened, so that all levels of services are expressed in a list format.
+     * The light services are queried only when the hint is clicked, by [ViewAllLightServicesInlayActionHandler].
      *
      * @param extensionsTag the extensions plugin.xml tag to add the hint to
-     * @param classes the service classes grouped by service levels.
-     * The default empty map value is used for the [InlayDisplayMode.ViewAllOnly] display mode, in which case it will look up the light services in the current
-     * project, instead of working with a pre-processed collection of them. Since, for [InlayDisplayMode.ListOfLightServices] the View All hint is displayed
-     * only when there is definitely a light service in the project, the empty map will not interfere with that logic.
      */
-    fun addViewAllServicesHint(extensionsTag: XmlToken, classes: Map<ServiceLevelDecider.ServiceLevel, MutableList<PsiNameIdentifierOwner>> = emptyMap()) {
-        val classesSupplier =
-            if (classes.isNotEmpty()) Supplier { classes.flatMap { (_, values) -> values } }
-            else Supplier { lookupLightServiceClasses(extensionsTag.project).toList() }
-        addHintFor(extensionsTag, presentationFactory.inset(viewAllServicesPresentation(classesSupplier, extensionsTag.textRange.startOffset), down = 1))
+    fun addViewAllServicesHint(extensionsTag: XmlTag) {
+        val actionData = InlayActionData(
+            PsiPointerInlayActionPayload(SmartPointerManager.createPointer(extensionsTag)),
+            ViewAllLightServicesInlayActionHandler.HANDLER_ID)
+        addHintFor(extensionsTag) { segmentedText(JustKittingBundle.message("inlay.hints.light.services.view.all.light.services"), actionData) }
+    }
+
+    /**
+     * Adds a PsiClass reference hint to the given `extensionsTag`. It navigates to the PsiClass when clicked.
+     */
+    private fun <T: PsiNameIdentifierOwner> addClassReferenceHint(extensionsTag: XmlTag, psiClass: T) {
+        val name = psiClass.name ?: return
+        val actionData = InlayActionData(
+            PsiPointerInlayActionPayload(SmartPointerManager.createPointer(psiClass)),
+            PsiPointerInlayActionNavigationHandler.HANDLER_ID)
+        addHintFor(extensionsTag) { segmentedText(name, actionData) }
+    }
+
+    private fun addHintFor(extensionsTag: XmlTag, builder: PresentationTreeBuilder.() -> Unit) {
+        sink.addPresentation(AboveLineIndentedPosition(extensionsTag.textRange.startOffset, verticalPriority++),
+            hintFormat = HintFormat.default, builder = builder)
     }
 
     /**
-     * Adds a formatted PsiClass reference hint to the given `element`.
+     * Declarative inlay hints truncate text segments longer than a certain length, so longer texts,
+     * e.g. long class names, are added as multiple segments.
      */
-    private fun <T: PsiNameIdentifierOwner> addClassReferenceHint(element: XmlToken, psiClass: T) {
-        addHintFor(element, presentationFactory.inset(classReferencePresentation(psiClass), down = 1))
+    private fun PresentationTreeBuilder.segmentedText(text: String, actionData: InlayActionData? = null) {
+        text.chunked(MAX_TEXT_SEGMENT_LENGTH).forEach { text(it, actionData) }
     }
 
-    private fun addHintFor(element: PsiElement, insetPres: InsetPresentation) {
-        sink.addBlockElement(element.parent.textRange.startOffset, relatesToPrecedingText = true, showAbove = true, priority = 0,
-                presentation = presentationFactory.inset(insetPres, left = calculateBlockInlayStartOffset(element as XmlToken)))
+    private companion object {
+        const val MAX_TEXT_SEGMENT_LENGTH = 25
     }
 }
@@ -0,0 +1,44 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inlayhint
+
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.picimako.justkitting.LightServicesModel
+
+/**
+ * Refreshes the persisted light services inlay hints snapshots in the background when indexing finishes.
+ *
+ * This way the snapshots stay up-to-date even if the corresponding plugin descriptors are not opened in an editor,
+ * and the light services model is already warmed up by the time the inlay hints pass is restarted after indexing.
+ *
+ * @since 1.5.0
+ */
+class LightServicesHintsSnapshotRefresher(private val project: Project) : DumbService.DumbModeListener {
+
+    override fun exitDumbMode() {
+        val storage = LightServicesHintsSnapshotStorage.getInstance(project)
+        if (storage.getSnapshots().isEmpty()) return
+
+        ReadAction.nonBlocking { refreshSnapshots(storage) }
+            .inSmartMode(project)
+            .expireWith(storage)
+            .coalesceBy(this)
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun refreshSnapshots(storage: LightServicesHintsSnapshotStorage) {
+        val model = LightServicesModel.getInstance(project)
+        val settings = LightServicesInlayHintsSettings.getInstance().settings
+        for (snapshot in storage.getSnapshots()) {
+            when (settings.lightServicesDisplayMode) {
+                InlayDisplayMode.ListOfLightServices ->
+                    storage.updateServices(snapshot.key, snapshot.scope, model.getLimitedServices(settings.maxNumberOfServicesToDisplay, snapshot.scope))
+                InlayDisplayMode.ViewAllOnly ->
+                    storage.updateHasLightService(snapshot.key, snapshot.scope, model.hasLightService(snapshot.scope))
+            }
+        }
+    }
+}
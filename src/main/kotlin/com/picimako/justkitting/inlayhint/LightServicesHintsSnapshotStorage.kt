@@ -0,0 +1,157 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inlayhint
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.PersistentStateComponent
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.State
+import com.intellij.openapi.components.Storage
+import com.intellij.openapi.components.StoragePathMacros
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiNameIdentifierOwner
+import com.intellij.util.xmlb.annotations.XCollection
+import com.picimako.justkitting.LimitedLightServices
+import com.picimako.justkitting.LightServicesScope
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import org.jetbrains.kotlin.psi.KtClass
+
+/**
+ * Persists the light services last displayed as inlay hints, per plugin descriptor and lookup scope, in the project's cache file.
+ *
+ * During indexing, [LightServicesInlayHintsProvider] displays the hints from these snapshots, marked as possibly outdated,
+ * since light services cannot be looked up without indexes. The snapshots are updated whenever the hints are computed in smart mode,
+ * and by [LightServicesHintsSnapshotRefresher] when indexing finishes.
+ *
+ * It is also used as the parent disposable of the background refresh.
+ *
+ * @since 1.5.0
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "JustKittingLightServicesHintsSnapshot", storages = [Storage(StoragePathMacros.CACHE_FILE)])
+class LightServicesHintsSnapshotStorage : PersistentStateComponent<LightServicesHintsSnapshotStorage.SnapshotsState>, Disposable {
+    private var state = SnapshotsState()
+
+    @Synchronized
+    override fun getState(): SnapshotsState = state
+
+    @Synchronized
+    override fun loadState(state: SnapshotsState) {
+        this.state = state
+    }
+
+    /**
+     * Returns the persisted snapshot for the argument key, or null if there is no snapshot persisted for it.
+     */
+    @Synchronized
+    fun getSnapshot(key: String): PersistedHintsSnapshot? = state.snapshots.firstOrNull { it.key == key }
+
+    /**
+     * Returns all persisted snapshots.
+     */
+    @Synchronized
+    fun getSnapshots(): List<PersistedHintsSnapshot> = state.snapshots.toList()
+
+    /**
+     * Persists the argument light services displayed in [InlayDisplayMode.ListOfLightServices] mode.
+     *
+     * Must be called in a read action.
+     */
+    fun updateServices(key: String, scope: LightServicesScope, lightServices: LimitedLightServices) {
+        val services = lightServices.servicesByLevel.flatMap { (level, services) ->
+            services.mapNotNull { service -> toPersistedLightService(service, level) }
+        }
+        putSnapshot(PersistedHintsSnapshot(key, scope.moduleNames.toMutableList(), lightServices.hasLightService, lightServices.hasMore,
+            services.toMutableList()))
+    }
+
+    /**
+     * Persists whether there is any light service in the scope, in [InlayDisplayMode.ViewAllOnly] mode.
+     * Previously persisted services are kept, so that they are available when the display mode is changed during indexing.
+     */
+    @Synchronized
+    fun updateHasLightService(key: String, scope: LightServicesScope, hasLightService: Boolean) {
+        val previous = getSnapshot(key)
+        //Only the existence of light services is known, so the previous services are kept when they are still valid,
+        //and there are considered to be more services when no previous service is known
+        val hasMore = hasLightService && (previous == null || previous.hasMore || previous.services.isEmpty())
+        putSnapshot(PersistedHintsSnapshot(key, scope.moduleNames.toMutableList(), hasLightService, hasMore,
+            if (hasLightService) previous?.services ?: mutableListOf() else mutableListOf()))
+    }
+
+    @Synchronized
+    private fun putSnapshot(snapshot: PersistedHintsSnapshot) {
+        //The most recently updated snapshot is kept at the end of the list, so that the least recently used ones are evicted first
+        state.snapshots.removeIf { it.key == snapshot.key }
+        state.snapshots.add(snapshot)
+        while (state.snapshots.size > MAX_NO_OF_SNAPSHOTS) state.snapshots.removeAt(0)
+    }
+
+    override fun dispose() {
+    }
+
+    private fun toPersistedLightService(service: PsiNameIdentifierOwner, level: ServiceLevel): PersistedLightService? {
+        val name = service.name ?: return null
+        val qualifiedName = when (service) {
+            is PsiClass -> service.qualifiedName
+            is KtClass -> service.fqName?.asString()
+            else -> null
+        } ?: return null
+        return PersistedLightService(name, qualifiedName, level.name)
+    }
+
+    class SnapshotsState {
+        @XCollection
+        var snapshots: MutableList<PersistedHintsSnapshot> = mutableListOf()
+    }
+
+    /**
+     * @param key identifies the plugin descriptor and lookup scope the snapshot is persisted for, see [snapshotKey]
+     * @param moduleNames the module names of the [LightServicesScope] the services were looked up in
+     * @param hasLightService whether there is at least one light service in the scope
+     * @param hasMore whether there are more light services in the scope than the displayed ones
+     * @param services the displayed light services in display order
+     */
+    data class PersistedHintsSnapshot(
+        var key: String = "",
+        @get:XCollection var moduleNames: MutableList<String> = mutableListOf(),
+        var hasLightService: Boolean = false,
+        var hasMore: Boolean = false,
+        @get:XCollection var services: MutableList<PersistedLightService> = mutableListOf()
+    ) {
+        val scope: LightServicesScope
+            get() = LightServicesScope(moduleNames.toSet())
+
+        /**
+         * Returns the persisted services grouped by service level, in the order of [ServiceLevel] entries.
+         * Services with unknown service levels are ignored.
+         */
+        fun getServicesByLevel(): Map<ServiceLevel, List<PersistedLightService>> {
+            val servicesByLevel = services.groupBy { service -> ServiceLevel.values().firstOrNull { it.name == service.level } }
+            return ServiceLevel.values().associateWith { servicesByLevel[it] ?: emptyList() }
+        }
+    }
+
+    data class PersistedLightService(var name: String = "", var qualifiedName: String = "", var level: String = "")
+
+    companion object {
+        /**
+         * The number of plugin descriptors and lookup scopes snapshots are persisted for, to keep the cache file small.
+         */
+        private const val MAX_NO_OF_SNAPSHOTS = 20
+
+        /**
+         * Returns the key of the snapshot for the argument plugin descriptor and lookup scope.
+         * It doesn't require indexes, so it can be used during indexing too.
+         */
+        @JvmStatic
+        fun snapshotKey(pluginDescriptor: PsiFile, lookupScope: LookupScope): String =
+            "${pluginDescriptor.virtualFile?.url ?: pluginDescriptor.name}|${lookupScope.name}"
+
+        @JvmStatic
+        fun getInstance(project: Project): LightServicesHintsSnapshotStorage = project.service()
+    }
+}
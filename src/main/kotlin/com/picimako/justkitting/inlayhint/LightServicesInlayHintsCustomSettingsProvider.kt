@@ -0,0 +1,148 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inlayhint
+
+import com.intellij.codeInsight.hints.declarative.InlayHintsCustomSettingsProvider
+import com.intellij.lang.Language
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.ComponentValidator
+import com.intellij.openapi.ui.ValidationInfo
+import com.intellij.ui.DocumentAdapter
+import com.intellij.ui.SimpleListCellRenderer
+import com.intellij.ui.components.JBTextField
+import com.intellij.ui.dsl.builder.panel
+import com.intellij.util.ui.JBUI
+import com.picimako.justkitting.inlayhint.Settings.Companion.MAX_NO_OF_SERVICES
+import com.picimako.justkitting.resources.JustKittingBundle
+import java.util.function.Supplier
+import javax.swing.DefaultComboBoxModel
+import javax.swing.JComponent
+import javax.swing.event.DocumentEvent
+
+/**
+ * Provides the UI for the display mode, the number of services to display and the lookup scope for [LightServicesInlayHintsProvider]
+ * within `Settings > Editor > Inlay Hints`.
+ *
+ * The edited values are kept in a copy of the settings, and are persisted in [LightServicesInlayHintsSettings] only when applied.
+ *
+ * @since 1.5.0
+ */
+@Suppress("UnstableApiUsage")
+class LightServicesInlayHintsCustomSettingsProvider : InlayHintsCustomSettingsProvider<Settings> {
+    private val settings = LightServicesInlayHintsSettings.getInstance().settings.copy()
+    private val lightServicesDisplayModeModel = DefaultComboBoxModel(InlayDisplayMode.values())
+    private val maxNoOfServicesTextField = JBTextField(2)
+    private val lookupScopeModel = DefaultComboBoxModel(LookupScope.values())
+
+    override fun createComponent(project: Project, language: Language): JComponent {
+        val panel = panel {
+
+            /*
+             * Display mode: [<combobox with options>]
+             */
+            row(JustKittingBundle.message("inlay.hints.light.services.display.mode.label")) {
+
+                //Add combobox to select display mode
+                val lightServicesDisplayMode = comboBox<InlayDisplayMode>(
+                    lightServicesDisplayModeModel,
+                    SimpleListCellRenderer.create("") { it.displayName }
+                ).component
+
+                //Update Settings properties and related UI controls
+                lightServicesDisplayMode.addActionListener {
+                    settings.lightServicesDisplayMode = lightServicesDisplayMode.selectedItem as InlayDisplayMode
+                    maxNoOfServicesTextField.isEnabled = settings.lightServicesDisplayMode == InlayDisplayMode.ListOfLightServices
+                }
+            }
+
+            /*
+             * Max number of services to display: [<text field>]
+             */
+            row(JustKittingBundle.message("inlay.hints.light.services.settings.max.no.of.services.label")) {
+                cell(maxNoOfServicesTextField)
+
+                installValidatorForMaxNoOfServices()
+
+                maxNoOfServicesTextField.document.addDocumentListener(object : DocumentAdapter() {
+                    override fun textChanged(e: DocumentEvent) {
+                        ComponentValidator.getInstance(maxNoOfServicesTextField).ifPresent { v: ComponentValidator -> v.revalidate() }
+                    }
+                })
+            }
+
+            /*
+             * Look up services in: [<combobox with options>]
+             */
+            row(JustKittingBundle.message("inlay.hints.light.services.settings.lookup.scope.label")) {
+                val lookupScope = comboBox<LookupScope>(
+                    lookupScopeModel,
+                    SimpleListCellRenderer.create("") { it.displayName }
+                ).component
+
+                lookupScope.addActionListener { settings.lookupScope = lookupScope.selectedItem as LookupScope }
+            }
+        }
+        panel.border = JBUI.Borders.empty(2)
+        updateUI()
+        return panel
+    }
+
+    /**
+     * ComponentValidator is used since CellBuilder.intTextField with its validation mechanism won't work for some reason
+     *
+     * See [Validation errors](https://jetbrains.design/intellij/principles/validation_errors/).
+     */
+    private fun installValidatorForMaxNoOfServices() {
+        ComponentValidator(ApplicationManager.getApplication()).withValidator(Supplier {
+            maxNoOfServicesTextField.let {
+                val maxServices: String = it.text
+                if (maxServices.isNotBlank()) {
+                    try {
+                        if (maxServices.toInt() !in 1..MAX_NO_OF_SERVICES) {
+                            ValidationInfo(
+                                JustKittingBundle.message(
+                                    "inlay.hints.light.services.settings.value.must.be.between.x.and.y",
+                                    1,
+                                    MAX_NO_OF_SERVICES
+                                ), maxNoOfServicesTextField
+                            )
+                        } else {
+                            settings.maxNumberOfServicesToDisplay = maxServices.toInt()
+                            null
+                        }
+                    } catch (_: NumberFormatException) {
+                        ValidationInfo(
+                            JustKittingBundle.message("inlay.hints.light.services.settings.value.must.be.a.number"),
+                            maxNoOfServicesTextField
+                        )
+                    }
+                } else {
+                    null
+                }
+            }
+        }).installOn(maxNoOfServicesTextField)
+    }
+
+    override fun isDifferentFrom(project: Project, settings: Settings): Boolean = this.settings != settings
+
+    override fun getSettingsCopy(): Settings = settings.copy()
+
+    override fun putSettings(project: Project, settings: Settings, language: Language) {
+        this.settings.lightServicesDisplayMode = settings.lightServicesDisplayMode
+        this.settings.maxNumberOfServicesToDisplay = settings.maxNumberOfServicesToDisplay
+        this.settings.lookupScope = settings.lookupScope
+        updateUI()
+    }
+
+    override fun persistSettings(project: Project, settings: Settings, language: Language) {
+        LightServicesInlayHintsSettings.getInstance().loadState(settings.copy())
+    }
+
+    private fun updateUI() {
+        lightServicesDisplayModeModel.selectedItem = settings.lightServicesDisplayMode
+        maxNoOfServicesTextField.text = settings.maxNumberOfServicesToDisplay.toString()
+        maxNoOfServicesTextField.isEnabled = settings.lightServicesDisplayMode == InlayDisplayMode.ListOfLightServices
+        lookupScopeModel.selectedItem = settings.lookupScope
+    }
+}
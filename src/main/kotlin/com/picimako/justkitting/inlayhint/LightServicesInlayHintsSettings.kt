@@ -0,0 +1,35 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inlayhint
+
+import com.intellij.openapi.components.PersistentStateComponent
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.State
+import com.intellij.openapi.components.Storage
+import com.intellij.openapi.components.service
+
+/**
+ * Stores the application-level settings of the light services inlay hints.
+ *
+ * Declarative inlay hints providers don't manage custom settings themselves, thus they are stored here,
+ * and are configured via [LightServicesInlayHintsCustomSettingsProvider].
+ *
+ * @since 1.5.0
+ */
+@Service(Service.Level.APP)
+@State(name = "JustKittingLightServicesInlayHintsSettings", storages = [Storage("editor.xml")])
+class LightServicesInlayHintsSettings : PersistentStateComponent<Settings> {
+    var settings: Settings = Settings()
+        private set
+
+    override fun getState(): Settings = settings
+
+    override fun loadState(state: Settings) {
+        settings = state
+    }
+
+    companion object {
+        @JvmStatic
+        fun getInstance(): LightServicesInlayHintsSettings = service()
+    }
+}
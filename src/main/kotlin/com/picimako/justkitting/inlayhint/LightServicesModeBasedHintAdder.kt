@@ -2,49 +2,70 @@
 
 package com.picimako.justkitting.inlayhint
 
+import com.picimako.justkitting.LightServicesModel
+import com.picimako.justkitting.LightServicesScope
 import com.picimako.justkitting.ServiceLevelDecider
 import com.picimako.justkitting.resources.JustKittingBundle
-import com.intellij.codeInsight.hints.InlayHintsSink
-import com.intellij.codeInsight.hints.presentation.PresentationFactory
-import com.intellij.openapi.editor.Editor
-import com.intellij.psi.PsiFile
-import com.intellij.psi.PsiNameIdentifierOwner
-import com.intellij.psi.xml.XmlToken
+import com.intellij.codeInsight.hints.declarative.InlayTreeSink
+import com.intellij.openapi.project.Project
+import com.intellij.psi.xml.XmlTag
 import org.apache.commons.lang3.mutable.MutableInt
 
 /**
  * Provides methods to add hints in a composite way based on editor types and display modes. 
  */
 @Suppress("UnstableApiUsage")
-data class LightServicesModeBasedHintAdder(override var settings: Settings,
-                                           override var sink: InlayHintsSink,
-                                           override var factory: PresentationFactory,
-                                           override var editor: Editor,
-                                           override var file: PsiFile) : LightServicesHintItemAdder(settings, sink, factory, editor, file) {
+class LightServicesModeBasedHintAdder(override val settings: Settings,
+                                      override val sink: InlayTreeSink,
+                                      private val project: Project) : LightServicesHintItemAdder(settings, sink) {
 
     /**
      * Adds hints for the code snippet displayed in `Settings > Editor > Inlay Hints`.
      *
      * These are dummy hint labels to make sure that descriptive enough hints are shown even when there are no light services in a project.
      */
-    fun addPreviewHints(element: XmlToken) {
+    fun addPreviewHints(element: XmlTag) {
         when (settings.lightServicesDisplayMode) {
             InlayDisplayMode.ListOfLightServices -> addLabelHints(element, *JustKittingBundle.message("inlay.hints.light.services.settings.list.display.mode.preview.text").split(",").toTypedArray())
             InlayDisplayMode.ViewAllOnly -> addLabelHints(element, JustKittingBundle.message("inlay.hints.light.services.view.all.light.services"))
-            else -> {
-            }
         }
     }
 
     /**
      * Adds hints for the `<extensions>` tag when it is in the project's actual plugin.xml.
+     *
+     * The displayed light services are also persisted under `snapshotKey`, so that they can be displayed during indexing.
+     *
+     * Must be called in smart mode.
      */
-    fun addRealHints(element: XmlToken) {
+    fun addRealHints(element: XmlTag, scope: LightServicesScope, snapshotKey: String) {
         when (settings.lightServicesDisplayMode) {
-            InlayDisplayMode.ListOfLightServices -> addHintsForLimitedList(element)
-            InlayDisplayMode.ViewAllOnly -> addHintsForViewAllOnly(element)
-            else -> {
+            InlayDisplayMode.ListOfLightServices -> addHintsForLimitedList(element, scope, snapshotKey)
+            InlayDisplayMode.ViewAllOnly -> addHintsForViewAllOnly(element, scope, snapshotKey)
+        }
+    }
+
+    /**
+     * Adds hints for the `<extensions>` tag from the light services persisted in smart mode, when light services cannot be looked up
+     * due to indexing.
+     *
+     * The hints are the same as the ones added by [addRealHints], except that they are preceded by a hint marking them as possibly outdated,
+     * and the light service hints are not clickable.
+     */
+    fun addPossiblyOutdatedHints(element: XmlTag, snapshot: LightServicesHintsSnapshotStorage.PersistedHintsSnapshot) {
+        if (!snapshot.hasLightService) return
+
+        addLabelHints(element, JustKittingBundle.message("inlay.hints.light.services.possibly.outdated"))
+        when (settings.lightServicesDisplayMode) {
+            InlayDisplayMode.ListOfLightServices -> {
+                val classCount = MutableInt(0)
+                snapshot.getServicesByLevel().forEach { (level, services) -> addPersistedServiceHints(services, element, level.displayName, classCount) }
+
+                if (snapshot.hasMore || snapshot.services.size > classCount.value) {
+                    addViewAllServicesHint(element)
+                }
             }
+            InlayDisplayMode.ViewAllOnly -> addViewAllServicesHint(element)
         }
     }
 
@@ -75,22 +96,19 @@ data class LightServicesModeBasedHintAdder(override var settings: Settings,
      *
      * @see ServiceLevelDecider.ServiceLevel
      */
-    private fun addHintsForLimitedList(element: XmlToken) {
-        val lightServices = LightServiceLookup.lookupLightServiceClasses(file.project)
-        if (lightServices.isNotEmpty()) {
-            //Collect and group the classes into collections based on their service level
-            val services = linkedMapOf<ServiceLevelDecider.ServiceLevel, MutableList<PsiNameIdentifierOwner>>()
-            ServiceLevelDecider.ServiceLevel.values().forEach { services[it] = mutableListOf() }
-            lightServices.forEach { services[ServiceLevelDecider.getServiceLevel(it)]?.add(it) }
-
-            //Add hints for all light service classes. The order of service level groups is now determined by the order in which
-            //the ServiceLevelHelper.ServiceLevel entries are defined.
+    private fun addHintsForLimitedList(element: XmlTag, scope: LightServicesScope, snapshotKey: String) {
+        //Only as many light services are looked up as can be displayed
+        val lightServices = LightServicesModel.getInstance(project).getLimitedServices(settings.maxNumberOfServicesToDisplay, scope)
+        LightServicesHintsSnapshotStorage.getInstance(project).updateServices(snapshotKey, scope, lightServices)
+        if (lightServices.hasLightService) {
+            //Add hints for the light service classes. The services are already grouped and sorted,
+            //and the order of service level groups is determined by the order in which the ServiceLevel entries are defined.
             val classCount = MutableInt(0)
-            ServiceLevelDecider.ServiceLevel.values().forEach { addClassReferenceHints(services[it], element, it.displayName, classCount) }
+            lightServices.servicesByLevel.forEach { (level, services) -> addClassReferenceHints(services, element, level.displayName, classCount) }
 
-            //If there are more light services classes than the user-defined max count to display, then add a 'View All' hint as well
-            if (lightServices.size > settings.maxNumberOfServicesToDisplay && classCount.value == settings.maxNumberOfServicesToDisplay) {
-                addViewAllServicesHint(element, services)
+            //If there are more light services classes than the displayed ones, then add a 'View all' hint as well
+            if (lightServices.hasMore) {
+                addViewAllServicesHint(element)
             }
         }
     }
@@ -98,8 +116,10 @@ data class LightServicesModeBasedHintAdder(override var settings: Settings,
     /**
      * Adds a single, `View all light services...` hint for the [InlayDisplayMode.ViewAllOnly] display mode.
      */
-    private fun addHintsForViewAllOnly(element: XmlToken) {
-        if (LightServiceLookup.isProjectHasLightService(file.project)) {
+    private fun addHintsForViewAllOnly(element: XmlTag, scope: LightServicesScope, snapshotKey: String) {
+        val hasLightService = LightServicesModel.getInstance(project).hasLightService(scope)
+        LightServicesHintsSnapshotStorage.getInstance(project).updateHasLightService(snapshotKey, scope, hasLightService)
+        if (hasLightService) {
             addViewAllServicesHint(element)
         }
     }
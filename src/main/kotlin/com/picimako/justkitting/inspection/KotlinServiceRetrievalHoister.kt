@@ -0,0 +1,111 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.PsiTreeUtil
+import com.picimako.justkitting.ServiceUtil
+import org.jetbrains.kotlin.psi.KtBlockExpression
+import org.jetbrains.kotlin.psi.KtClassBody
+import org.jetbrains.kotlin.psi.KtDeclarationWithBody
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.psi.KtFile
+import org.jetbrains.kotlin.psi.KtNamedDeclaration
+import org.jetbrains.kotlin.psi.KtPsiFactory
+import org.jetbrains.uast.UCallExpression
+import org.jetbrains.uast.UClassLiteralExpression
+import org.jetbrains.uast.UExpression
+import org.jetbrains.uast.UQualifiedReferenceExpression
+import org.jetbrains.uast.UResolvable
+import org.jetbrains.uast.UThisExpression
+import org.jetbrains.uast.toUElement
+
+/**
+ * Kotlin-specific logic of [HoistServiceRetrievalQuickFix].
+ *
+ * @since 1.5.0
+ */
+object KotlinServiceRetrievalHoister {
+
+    /**
+     * Returns the statement containing the argument element, that is directly in a block, thus a new local variable can be declared before it.
+     * Returns null if there is no such statement, e.g. the element is in the expression body of a function.
+     */
+    @JvmStatic
+    fun findAnchor(element: PsiElement): KtExpression? {
+        var current = element
+        while (current.parent !is KtBlockExpression) {
+            val parent = current.parent
+            if (parent == null || parent is KtDeclarationWithBody || parent is KtClassBody || parent is KtFile) return null
+            current = parent
+        }
+        return current as? KtExpression
+    }
+
+    /**
+     * Declares a new `val` before the anchor statement, initialized with the argument service retrieval, and replaces the retrieval
+     * and the equivalent ones within the anchor statement with a reference to the new variable.
+     *
+     * Retrievals are equivalent when they call the same function, retrieve the same service class, and their receivers and arguments
+     * resolve to the same elements.
+     */
+    @JvmStatic
+    fun hoist(retrieval: KtExpression, anchor: KtExpression, variableName: String) {
+        val factory = KtPsiFactory(retrieval.project)
+        val name = getUniqueName(variableName, anchor)
+        val retrievalCall = getCall(retrieval)
+        val equivalentRetrievals = PsiTreeUtil.findChildrenOfType(anchor, retrieval.javaClass)
+            .filter { it == retrieval || areEquivalentCalls(retrievalCall, getCall(it)) }
+
+        val block = anchor.parent
+        block.addBefore(factory.createProperty("val $name = ${retrieval.text}"), anchor)
+        block.addBefore(factory.createNewLine(), anchor)
+        equivalentRetrievals.forEach { it.replace(factory.createExpression(name)) }
+    }
+
+    private fun getCall(expression: KtExpression): UCallExpression? =
+        when (val uExpression = expression.toUElement()) {
+            is UQualifiedReferenceExpression -> uExpression.selector as? UCallExpression
+            else -> uExpression as? UCallExpression
+        }
+
+    private fun areEquivalentCalls(call: UCallExpression?, other: UCallExpression?): Boolean {
+        if (call == null || other == null) return false
+        val method = call.resolve() ?: return false
+        return method.manager.areElementsEquivalent(method, other.resolve())
+            && method.manager.areElementsEquivalent(ServiceUtil.getRetrievedServiceClass(call), ServiceUtil.getRetrievedServiceClass(other))
+            && areEquivalent(call.receiver, other.receiver)
+            && call.valueArgumentCount == other.valueArgumentCount
+            && call.valueArguments.zip(other.valueArguments).all { (argument, otherArgument) -> areEquivalent(argument, otherArgument) }
+    }
+
+    /**
+     * Returns whether the argument receivers or arguments are equivalent. Expressions other than class literals, `this`, calls
+     * and references are not considered equivalent, since they may evaluate to different values.
+     */
+    private fun areEquivalent(expression: UExpression?, other: UExpression?): Boolean =
+        when {
+            expression == null || other == null -> expression == null && other == null
+            expression is UClassLiteralExpression && other is UClassLiteralExpression -> expression.type == other.type
+            expression is UThisExpression && other is UThisExpression -> expression.label == other.label
+            expression is UCallExpression && other is UCallExpression -> areEquivalentCalls(expression, other)
+            expression is UQualifiedReferenceExpression && other is UQualifiedReferenceExpression ->
+                areEquivalent(expression.receiver, other.receiver) && areEquivalent(expression.selector, other.selector)
+            expression is UResolvable && other is UResolvable -> {
+                val target = expression.resolve()
+                target != null && target.manager.areElementsEquivalent(target, other.resolve())
+            }
+            else -> false
+        }
+
+    /**
+     * Returns the argument name, or if it is already used in the enclosing declaration, the name suffixed with the first available number.
+     */
+    private fun getUniqueName(name: String, anchor: KtExpression): String {
+        val scope = PsiTreeUtil.getParentOfType(anchor, KtDeclarationWithBody::class.java) ?: anchor.containingFile
+        val usedNames = PsiTreeUtil.findChildrenOfType(scope, KtNamedDeclaration::class.java).mapNotNullTo(HashSet()) { it.name }
+        if (name !in usedNames) return name
+
+        return generateSequence(1) { it + 1 }.map { "$name$it" }.first { it !in usedNames }
+    }
+}
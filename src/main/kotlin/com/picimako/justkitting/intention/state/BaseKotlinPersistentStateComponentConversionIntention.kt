@@ -44,11 +44,13 @@ abstract class BaseKotlinPersistentStateComponentConversionIntention : BaseCodeI
          * class SomeComponent {
          * }
          * ```
+         *
+         * @param storageValue the text of the storage file expression, e.g. `StoragePathMacros.CACHE_FILE`, whose import is the responsibility of the caller
          */
         @JvmStatic
-        protected fun addStateAnnotation(context: ConversionContext) {
+        protected fun addStateAnnotation(context: ConversionContext, storageValue: String = "\"<storage name>\"") {
             val annotationEntry = context.factory.createAnnotationEntry("""
-                @State(name = "${context.targetClass?.name}", storages = [Storage("<storage name>")])
+                @State(name = "${context.targetClass?.name}", storages = [Storage($storageValue)])
             """.trimIndent())
 
             context.targetClass?.addAnnotationEntry(annotationEntry)
@@ -7,11 +7,31 @@ import com.intellij.openapi.actionSystem.Presentation
 import com.intellij.openapi.command.WriteCommandAction.runWriteCommandAction
 import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.codeStyle.CodeStyleManager
+import com.intellij.psi.search.LocalSearchScope
+import com.intellij.psi.search.searches.ReferencesSearch
+import com.intellij.psi.util.PsiTreeUtil
+import com.picimako.justkitting.PlatformNames
 import com.picimako.justkitting.importIfNotAlreadyAdded
 import com.picimako.justkitting.resources.JustKittingBundle
+import org.jetbrains.kotlin.KtNodeTypes
+import org.jetbrains.kotlin.lexer.KtTokens
+import org.jetbrains.kotlin.psi.KtBinaryExpression
+import org.jetbrains.kotlin.psi.KtBlockExpression
+import org.jetbrains.kotlin.psi.KtClass
+import org.jetbrains.kotlin.psi.KtConstantExpression
+import org.jetbrains.kotlin.psi.KtDotQualifiedExpression
+import org.jetbrains.kotlin.psi.KtExpression
 import org.jetbrains.kotlin.psi.KtFile
+import org.jetbrains.kotlin.psi.KtProperty
+import org.jetbrains.kotlin.psi.KtPsiFactory
+import org.jetbrains.kotlin.psi.KtSimpleNameExpression
+import org.jetbrains.kotlin.psi.KtStringTemplateExpression
+import org.jetbrains.kotlin.psi.KtSuperTypeCallEntry
+import org.jetbrains.kotlin.psi.KtThisExpression
+import org.jetbrains.kotlin.psi.KtUnaryExpression
 import org.jetbrains.kotlin.psi.psiUtil.endOffset
 import org.jetbrains.kotlin.psi.psiUtil.startOffset
 
@@ -138,4 +158,424 @@ class KotlinConversionActions private constructor() {
             }
         }
     }
+
+    /**
+     * Converts the class to a `SimplePersistentStateComponent` using a `BaseState` subclass (`State`) as the state object.
+     * The platform tracks the modification count of the state, and skips its serialization when it hasn't changed.
+     *
+     * The mutable properties declared in the class body that have no custom accessors or delegate, a `Boolean`, `Int`, `Long`,
+     * `Float` or `String?` type, and a constant initializer, are moved into the state class as stored properties.
+     * Integer literals are typed to the type of the property, e.g. `5L` for a `Long` property, so that the `property()` overload
+     * of the property type is called. Their accesses within the class are rewritten to `state.x`.
+     *
+     * Private properties are removed, while non-private ones are kept as accessors of the state, so that they can still be used
+     * from other files. The accessors keep only the visibility and modality modifiers of the original properties.
+     *
+     * The names of the stored properties are provided by Kotlin's property delegation, thus this conversion is available only for Kotlin classes.
+     * It is also available only when the class doesn't extend another class.
+     *
+     * ### From:
+     * ```
+     * class SomeComponent {
+     *     private var count: Long = 5
+     * }
+     * ```
+     * ### To:
+     * ```
+     * import com.intellij.openapi.components.BaseState
+     * import com.intellij.openapi.components.SimplePersistentStateComponent
+     * import com.intellij.openapi.components.State
+     * import com.intellij.openapi.components.Storage
+     *
+     * @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+     * class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+     *     class State : BaseState() {
+     *         var count by property(5L)
+     *     }
+     * }
+     * ```
+     *
+     * @see <a href="https://plugins.jetbrains.com/docs/intellij/persisting-state-of-components.html#using-simplepersistentstatecomponent">Using SimplePersistentStateComponent</a>
+     * @since 1.5.0
+     */
+    class WithBaseState : BaseKotlinPersistentStateComponentConversionIntention() {
+        override fun update(presentation: Presentation, project: Project, editor: Editor, file: PsiFile) {
+            super.update(presentation, project, editor, file)
+            presentation.text = JustKittingBundle.message("intention.persistent.state.use.base.state")
+        }
+
+        override fun isValidForFile(project: Project, editor: Editor, file: PsiFile): Boolean {
+            val targetClass = file.findElementAt(editor.caretModel.offset)?.parent as? KtClass ?: return false
+            return targetClass.superTypeListEntries.none { it is KtSuperTypeCallEntry }
+        }
+
+        override fun getHandler(): CodeInsightActionHandler = CodeInsightActionHandler { project: Project?, editor: Editor?, file: PsiFile? ->
+            with(createContext(project!!, editor!!, file!!)) {
+                val properties = targetClass!!.getProperties().mapNotNull { getMigratableProperty(it, targetClass) }
+
+                runWriteCommandAction(project) {
+                    addStateAnnotation(this)
+                    val className = targetClass.name!!
+                    targetClass.addSuperTypeListEntry(factory.createSuperTypeCallEntry("SimplePersistentStateComponent<$className.State>(State())"))
+                    val containingFile = targetClass.containingKtFile
+                    importIfNotAlreadyAdded(containingFile, PlatformNames.SIMPLE_PERSISTENT_STATE_COMPONENT, factory)
+                    importIfNotAlreadyAdded(containingFile, PlatformNames.BASE_STATE, factory)
+
+                    val stateClassText = if (properties.isEmpty()) "class State : BaseState()"
+                    else properties.joinToString("\n", "class State : BaseState() {\n", "\n}") {
+                        "var ${it.property.name} by ${PROPERTY_FACTORIES[it.typeText]}(${getTypedInitializer(it.property.initializer!!, it.typeText)})"
+                    }
+                    with(targetClass.body!!) {
+                        val stateClass = addAfter(factory.createClass(stateClassText), lBrace)
+                        CodeStyleManager.getInstance(project).reformat(stateClass)
+                    }
+
+                    properties.forEach { migrate(it, factory, project) }
+                }
+            }
+        }
+
+        /**
+         * Returns the argument property with its type and references, if it can be moved into the state class, otherwise null.
+         */
+        private fun getMigratableProperty(property: KtProperty, targetClass: KtClass): MigratableProperty? {
+            if (!isPlainMutableProperty(property)) return null
+
+            val initializer = property.initializer ?: return null
+            val typeText = property.typeReference?.text ?: getLiteralType(initializer) ?: return null
+            if (!PROPERTY_FACTORIES.containsKey(typeText) || getTypedInitializer(initializer, typeText) == null) return null
+
+            val accesses = mutableListOf<KtExpression>()
+            for (reference in ReferencesSearch.search(property, LocalSearchScope(targetClass)).findAll()) {
+                accesses.add(getAccessExpression(reference.element) ?: return null)
+            }
+            return MigratableProperty(property, typeText, accesses)
+        }
+
+        /**
+         * Returns the text of the argument initializer typed to the argument property type, e.g. `5L` for `5` and `Long`,
+         * or null if the initializer is not a constant of that type.
+         */
+        private fun getTypedInitializer(initializer: KtExpression, typeText: String): String? {
+            val text = initializer.text
+            return when {
+                typeText == "String?" -> if (initializer is KtStringTemplateExpression && !initializer.hasInterpolation() || text == "null") text else null
+                initializer !is KtConstantExpression -> null
+                initializer.node.elementType != KtNodeTypes.INTEGER_CONSTANT -> text
+                typeText == "Long" -> if (text.endsWith("L")) text else "${text}L"
+                //Integer literals are not assignable to Float properties, so such code doesn't compile in the first place
+                typeText == "Float" -> null
+                else -> text
+            }
+        }
+
+        /**
+         * Rewrites the accesses of the argument property to use the state, then removes the property if it is private,
+         * or replaces it with accessors of the state otherwise.
+         */
+        private fun migrate(migratable: MigratableProperty, factory: KtPsiFactory, project: Project) {
+            val name = migratable.property.name!!
+            migratable.accesses.forEach { it.replace(factory.createExpression("state.$name")) }
+
+            val property = migratable.property
+            if (property.hasModifier(KtTokens.PRIVATE_KEYWORD)) {
+                property.delete()
+            } else {
+                val accessorProperty = property.replace(factory.createProperty(
+                    "${getAccessorModifiers(property)}var $name: ${migratable.typeText}\nget() = state.$name\nset(value) {\nstate.$name = value\n}"))
+                CodeStyleManager.getInstance(project).reformat(accessorProperty)
+            }
+        }
+
+        private companion object {
+            /**
+             * The supported property types mapped to the `BaseState` functions creating the stored properties for them.
+             */
+            val PROPERTY_FACTORIES = mapOf(
+                "Boolean" to "property",
+                "Int" to "property",
+                "Long" to "property",
+                "Float" to "property",
+                "String?" to "string")
+        }
+    }
+
+    /**
+     * Converts the class to a `SerializablePersistentStateComponent` using an immutable data class (`State`) as the state object.
+     * Reading the state is lock-free, and it is updated atomically via `updateState {}`.
+     *
+     * The mutable properties declared in the class body that have an initializer, no custom accessors, no delegate,
+     * and an explicit type or a literal initializer are migrated into the data class. Their accesses within the class
+     * are rewritten to `state.x`, and their simple assignments to `updateState { current -> current.copy(x = ...) }`,
+     * in which the assigned value reads the migrated properties from the updated state, e.g. `current.x`.
+     * Properties with compound assignments, increments or decrements are not migrated.
+     *
+     * Private properties are removed, while non-private ones are kept as accessors of the state, so that they can still be used
+     * from other files. The accessors keep only the visibility and modality modifiers of the original properties.
+     *
+     * This conversion is available only when the class doesn't extend another class.
+     *
+     * ### From:
+     * ```
+     * class SomeComponent {
+     *     var name: String = "default"
+     * }
+     * ```
+     * ### To:
+     * ```
+     * import com.intellij.openapi.components.State
+     * import com.intellij.openapi.components.Storage
+     * import com.intellij.openapi.components.SerializablePersistentStateComponent
+     *
+     * @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+     * class SomeComponent : SerializablePersistentStateComponent<SomeComponent.State>(State()) {
+     *     data class State(
+     *         @JvmField val name: String = "default",
+     *     )
+     *
+     *     var name: String
+     *         get() = state.name
+     *         set(value) {
+     *             updateState { current -> current.copy(name = value) }
+     *         }
+     * }
+     * ```
+     *
+     * @see <a href="https://plugins.jetbrains.com/docs/intellij/persisting-state-of-components.html#using-serializablepersistentstatecomponent">Using SerializablePersistentStateComponent</a>
+     * @since 1.5.0
+     */
+    class WithSerializableState : BaseKotlinPersistentStateComponentConversionIntention() {
+        override fun update(presentation: Presentation, project: Project, editor: Editor, file: PsiFile) {
+            super.update(presentation, project, editor, file)
+            presentation.text = JustKittingBundle.message("intention.persistent.state.use.serializable.state")
+        }
+
+        override fun isValidForFile(project: Project, editor: Editor, file: PsiFile): Boolean {
+            val targetClass = file.findElementAt(editor.caretModel.offset)?.parent as? KtClass ?: return false
+            return targetClass.superTypeListEntries.none { it is KtSuperTypeCallEntry }
+        }
+
+        override fun getHandler(): CodeInsightActionHandler = CodeInsightActionHandler { project: Project?, editor: Editor?, file: PsiFile? ->
+            with(createContext(project!!, editor!!, file!!)) {
+                val properties = targetClass!!.getProperties().mapNotNull { getMigratableProperty(it, targetClass) }
+
+                runWriteCommandAction(project) {
+                    addStateAnnotation(this)
+                    val className = targetClass.name!!
+                    targetClass.addSuperTypeListEntry(factory.createSuperTypeCallEntry("SerializablePersistentStateComponent<$className.State>(State())"))
+                    importIfNotAlreadyAdded(targetClass.containingKtFile, PlatformNames.SERIALIZABLE_PERSISTENT_STATE_COMPONENT, factory)
+
+                    val stateClassText = if (properties.isEmpty()) "class State"
+                    else properties.joinToString(",\n", "data class State(\n", ",\n)") { "@JvmField val ${it.property.name}: ${it.typeText} = ${it.property.initializer!!.text}" }
+                    with(targetClass.body!!) {
+                        val stateClass = addAfter(factory.createClass(stateClassText), lBrace)
+                        CodeStyleManager.getInstance(project).reformat(stateClass)
+                    }
+
+                    migrateAccesses(properties, factory)
+                    properties.forEach { migrate(it, factory, project) }
+                }
+            }
+        }
+
+        /**
+         * Returns the argument property with its type and references, if it can be migrated into the state data class, otherwise null.
+         */
+        private fun getMigratableProperty(property: KtProperty, targetClass: KtClass): MigratableProperty? {
+            if (!isPlainMutableProperty(property)) return null
+
+            val initializer = property.initializer ?: return null
+            val typeText = property.typeReference?.text ?: getLiteralType(initializer) ?: return null
+
+            val accesses = mutableListOf<KtExpression>()
+            for (reference in ReferencesSearch.search(property, LocalSearchScope(targetClass)).findAll()) {
+                val access = getAccessExpression(reference.element) ?: return null
+                if (isWrite(access) && !isPlainAssignment(access)) return null
+                accesses.add(access)
+            }
+            return MigratableProperty(property, typeText, accesses)
+        }
+
+        /**
+         * Returns whether the argument access is the target of a simple assignment statement, e.g. `name = "value"`.
+         */
+        private fun isPlainAssignment(access: KtExpression): Boolean {
+            val assignment = access.parent as? KtBinaryExpression ?: return false
+            return assignment.operationToken == KtTokens.EQ && assignment.right != null && assignment.parent is KtBlockExpression
+        }
+
+        /**
+         * Rewrites the accesses of the argument properties to use the state.
+         *
+         * Simple assignments become atomic updates of the state, in which the migrated properties are read from the state being updated,
+         * e.g. `count = count + 1` becomes `updateState { current -> current.copy(count = current.count + 1) }`. Reading them from `state`
+         * instead would be a non-atomic read-modify-write. The updater parameter is named, so that an `it` in the assigned value still
+         * refers to what it referred to originally.
+         */
+        private fun migrateAccesses(properties: List<MigratableProperty>, factory: KtPsiFactory) {
+            val accesses = properties.flatMap { migratable -> migratable.accesses.map { it to migratable.property.name!! } }
+            val (writes, reads) = accesses.partition { isWrite(it.first) }
+            val assignments = writes.map { (access, name) ->
+                val assignment = access.parent as KtBinaryExpression
+                Triple(assignment, name, getUpdaterParameterName(assignment))
+            }
+
+            //Reads are replaced first, so that the assigned values, e.g. in 'name = name + "suffix"', contain the already converted reads
+            reads.forEach { (read, name) ->
+                val enclosingAssignment = assignments.find { PsiTreeUtil.isAncestor(it.first.right, read, false) }
+                read.replace(factory.createExpression("${enclosingAssignment?.third ?: "state"}.$name"))
+            }
+            assignments.forEach { (assignment, name, parameterName) ->
+                assignment.replace(factory.createExpression("updateState { $parameterName -> $parameterName.copy($name = ${assignment.right!!.text}) }"))
+            }
+        }
+
+        /**
+         * Returns a name for the parameter of the `updateState {}` lambda that doesn't shadow any name referenced in the assigned value.
+         */
+        private fun getUpdaterParameterName(assignment: KtBinaryExpression): String {
+            val referencedNames = PsiTreeUtil.findChildrenOfType(assignment.right, KtSimpleNameExpression::class.java).map { it.getReferencedName() }.toSet()
+            return generateSequence(0) { it + 1 }.map { if (it == 0) "current" else "current$it" }.first { it !in referencedNames }
+        }
+
+        /**
+         * Removes the argument property if it is private, or replaces it with accessors of the state otherwise.
+         */
+        private fun migrate(migratable: MigratableProperty, factory: KtPsiFactory, project: Project) {
+            val name = migratable.property.name!!
+            val property = migratable.property
+            if (property.hasModifier(KtTokens.PRIVATE_KEYWORD)) {
+                property.delete()
+            } else {
+                val accessorProperty = property.replace(factory.createProperty(
+                    "${getAccessorModifiers(property)}var $name: ${migratable.typeText}\nget() = state.$name\nset(value) {\nupdateState { current -> current.copy($name = value) }\n}"))
+                CodeStyleManager.getInstance(project).reformat(accessorProperty)
+            }
+        }
+    }
+
+    /**
+     * Converts the class to a `SimplePersistentStateComponent` for storing cache-like data, e.g. derived data of thousands of entries.
+     *
+     * The state is stored in `StoragePathMacros.CACHE_FILE`, so it is neither roamed nor synced with the settings, nor shared via VCS.
+     * The state class is a `BaseState` with a map stored property, that is serialized more compactly than lists of beans,
+     * and whose modifications are tracked by the platform, so the state is serialized only when it has changed.
+     *
+     * This conversion is available only when the class doesn't extend another class.
+     *
+     * ### From:
+     * ```
+     * class SomeComponent {
+     * }
+     * ```
+     * ### To:
+     * ```
+     * import com.intellij.openapi.components.BaseState
+     * import com.intellij.openapi.components.SimplePersistentStateComponent
+     * import com.intellij.openapi.components.State
+     * import com.intellij.openapi.components.Storage
+     * import com.intellij.openapi.components.StoragePathMacros
+     *
+     * @State(name = "SomeComponent", storages = [Storage(StoragePathMacros.CACHE_FILE)])
+     * class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+     *     class State : BaseState() {
+     *         val entries by map<String, String>()
+     *     }
+     * }
+     * ```
+     *
+     * @since 1.5.0
+     */
+    class WithCacheState : BaseKotlinPersistentStateComponentConversionIntention() {
+        override fun update(presentation: Presentation, project: Project, editor: Editor, file: PsiFile) {
+            super.update(presentation, project, editor, file)
+            presentation.text = JustKittingBundle.message("intention.persistent.state.use.cache.state")
+        }
+
+        override fun isValidForFile(project: Project, editor: Editor, file: PsiFile): Boolean {
+            val targetClass = file.findElementAt(editor.caretModel.offset)?.parent as? KtClass ?: return false
+            return targetClass.superTypeListEntries.none { it is KtSuperTypeCallEntry }
+        }
+
+        override fun getHandler(): CodeInsightActionHandler = CodeInsightActionHandler { project: Project?, editor: Editor?, file: PsiFile? ->
+            with(createContext(project!!, editor!!, file!!)) {
+                runWriteCommandAction(project) {
+                    addStateAnnotation(this, "StoragePathMacros.CACHE_FILE")
+                    val className = targetClass!!.name!!
+                    targetClass.addSuperTypeListEntry(factory.createSuperTypeCallEntry("SimplePersistentStateComponent<$className.State>(State())"))
+                    val containingFile = targetClass.containingKtFile
+                    importIfNotAlreadyAdded(containingFile, PlatformNames.STORAGE_PATH_MACROS, factory)
+                    importIfNotAlreadyAdded(containingFile, PlatformNames.SIMPLE_PERSISTENT_STATE_COMPONENT, factory)
+                    importIfNotAlreadyAdded(containingFile, PlatformNames.BASE_STATE, factory)
+
+                    with(targetClass.body!!) {
+                        val stateClass = addAfter(factory.createClass("class State : BaseState() {\nval entries by map<String, String>()\n}"), lBrace)
+                        CodeStyleManager.getInstance(project).reformat(stateClass)
+                    }
+                }
+            }
+        }
+    }
 }
+
+/**
+ * Modifiers of a migrated property that are kept on the property replacing it with accessors of the state.
+ */
+private val ACCESSOR_MODIFIERS = listOf(KtTokens.PUBLIC_KEYWORD, KtTokens.PROTECTED_KEYWORD, KtTokens.INTERNAL_KEYWORD, KtTokens.OPEN_KEYWORD, KtTokens.FINAL_KEYWORD)
+
+/**
+ * Returns the visibility and modality modifiers of the argument property, each followed by a space.
+ *
+ * Annotations are not kept, since e.g. `@JvmField` cannot be used on properties with custom accessors, and serialization annotations,
+ * e.g. `@OptionTag`, don't apply to the accessors, that are not serialized.
+ */
+private fun getAccessorModifiers(property: KtProperty): String =
+    ACCESSOR_MODIFIERS.filter { property.hasModifier(it) }.joinToString("") { "${it.value} " }
+
+/**
+ * Returns whether the argument property is a mutable property without custom accessors, delegate, and modifiers
+ * that would prevent moving it into a state class.
+ */
+private fun isPlainMutableProperty(property: KtProperty): Boolean {
+    return property.isVar && !property.hasDelegate() && property.getter == null && property.setter == null
+        && !property.hasModifier(KtTokens.LATEINIT_KEYWORD) && !property.hasModifier(KtTokens.ABSTRACT_KEYWORD)
+        && !property.hasModifier(KtTokens.OVERRIDE_KEYWORD) && property.receiverTypeReference == null
+}
+
+/**
+ * Returns the expression accessing the property, i.e. the reference itself, or `this.x` for `this`-qualified references,
+ * or null if the reference is qualified with another receiver.
+ */
+private fun getAccessExpression(reference: PsiElement): KtExpression? {
+    if (reference !is KtSimpleNameExpression) return null
+    val parent = reference.parent
+    if (parent is KtDotQualifiedExpression && parent.selectorExpression == reference) {
+        return if (parent.receiverExpression is KtThisExpression) parent else null
+    }
+    return reference
+}
+
+private fun isWrite(access: KtExpression): Boolean {
+    val parent = access.parent
+    return (parent is KtBinaryExpression && parent.left == access && KtTokens.ALL_ASSIGNMENTS.contains(parent.operationToken))
+        || (parent is KtUnaryExpression && (parent.operationToken == KtTokens.PLUSPLUS || parent.operationToken == KtTokens.MINUSMINUS))
+}
+
+private fun getLiteralType(initializer: KtExpression): String? {
+    return when {
+        initializer is KtStringTemplateExpression && !initializer.hasInterpolation() -> "String"
+        initializer !is KtConstantExpression -> null
+        initializer.node.elementType == KtNodeTypes.BOOLEAN_CONSTANT -> "Boolean"
+        initializer.node.elementType == KtNodeTypes.INTEGER_CONSTANT -> if (initializer.text.endsWith("L")) "Long" else "Int"
+        initializer.node.elementType == KtNodeTypes.FLOAT_CONSTANT -> if (initializer.text.endsWith("f", true)) "Float" else "Double"
+        else -> null
+    }
+}
+
+/**
+ * A property to move into the state class.
+ *
+ * @param typeText the type of the property
+ * @param accesses the expressions reading or assigning the property within the class
+ */
+private data class MigratableProperty(val property: KtProperty, val typeText: String, val accesses: List<KtExpression>)
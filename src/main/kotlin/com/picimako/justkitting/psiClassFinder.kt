@@ -6,6 +6,7 @@ import com.intellij.openapi.project.Project
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiExpression
+import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.search.ProjectScope
 
 internal class PsiClassFinder {
@@ -23,8 +24,20 @@ internal class PsiClassFinder {
             return JavaPsiFacade.getInstance(expression.project).constantEvaluationHelper.computeConstantExpression(expression, true)
         }
 
-        internal fun findClass(text: String, project: Project): PsiClass? {
-            return JavaPsiFacade.getInstance(project).findClass(text, ProjectScope.getAllScope(project))
+        /**
+         * Library classes, e.g. IntelliJ Platform classes, are served from [PlatformPsiCache], other classes are looked up in the whole project.
+         */
+        internal fun findClass(text: String, project: Project): PsiClass? = findClass(text, project, ProjectScope.getAllScope(project))
+
+        /**
+         * Library classes, e.g. IntelliJ Platform classes, are served from [PlatformPsiCache], other classes are looked up in the argument scope.
+         *
+         * @since 1.5.0
+         */
+        @JvmStatic
+        fun findClass(text: String, project: Project, scope: GlobalSearchScope): PsiClass? {
+            return PlatformPsiCache.getInstance(project).findLibraryClass(text)
+                ?: JavaPsiFacade.getInstance(project).findClass(text, scope)
         }
     }
 }
\ No newline at end of file
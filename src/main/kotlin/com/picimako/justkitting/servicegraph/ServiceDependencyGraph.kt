@@ -0,0 +1,152 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.servicegraph
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPsiElementPointer
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+
+/**
+ * A service of the project, either a light service, or one registered in a plugin descriptor.
+ *
+ * @param qualifiedName the fully qualified name of the service (implementation) class, that identifies the service in the graph
+ * @since 1.5.0
+ */
+data class ServiceNode(
+    val qualifiedName: String,
+    val level: ServiceLevel,
+    val isLightService: Boolean,
+    val pointer: SmartPsiElementPointer<out PsiElement>? = null,
+) {
+    val name: String
+        get() = qualifiedName.substringAfterLast('.')
+}
+
+/**
+ * A service retrieval executed when the owner (a service or a startup activity) is initialized or executed.
+ *
+ * @param target   the qualified name of the retrieved service
+ * @param pointer  points to the service retrieval call, for navigation
+ * @since 1.5.0
+ */
+data class ServiceDependency(val target: String, val pointer: SmartPsiElementPointer<out PsiElement>? = null)
+
+/**
+ * The graph of service-to-service retrievals executed during the initialization of services, and the services retrieved by startup activities.
+ *
+ * It provides:
+ * - the fan-out depth of services: the length of the longest chain of service initializations triggered by initializing a service,
+ * counting each cycle as a single step,
+ * - the cycles in service initialization,
+ * - the services that are (directly or transitively) initialized by startup activities.
+ *
+ * Only the dependencies between services of the graph are considered, retrievals of e.g. IntelliJ Platform services are ignored.
+ *
+ * @param services             the services by their qualified names
+ * @param dependencies         the services retrieved during the initialization of each service, by the qualified name of the initialized service
+ * @param startupDependencies  the services retrieved by each startup activity, by the qualified name of the activity
+ * @since 1.5.0
+ */
+class ServiceDependencyGraph(
+    val services: Map<String, ServiceNode>,
+    dependencies: Map<String, List<ServiceDependency>>,
+    startupDependencies: Map<String, List<ServiceDependency>>,
+) {
+    val dependencies: Map<String, List<ServiceDependency>> = dependencies.mapValues { (_, deps) -> deps.filter { it.target in services } }
+    val startupDependencies: Map<String, List<ServiceDependency>> = startupDependencies.mapValues { (_, deps) -> deps.filter { it.target in services } }
+
+    /**
+     * The strongly connected components of the graph. A component is a cycle if it has more than one service, or its service retrieves itself.
+     */
+    private val components: List<List<String>> = findStronglyConnectedComponents()
+    private val componentByService: Map<String, Int> = buildMap { components.forEachIndexed { index, component -> component.forEach { put(it, index) } } }
+
+    /**
+     * The cycles in service initialization, each one sorted by service name.
+     */
+    val cycles: List<List<ServiceNode>> = components
+        .filter { it.size > 1 || getTargets(it[0]).contains(it[0]) }
+        .map { component -> component.mapNotNull { services[it] }.sortedBy { it.qualifiedName } }
+
+    /**
+     * The fan-out depth of each service.
+     */
+    val fanOutDepths: Map<String, Int> = computeFanOutDepths()
+
+    /**
+     * The qualified names of the services initialized directly or transitively by startup activities.
+     */
+    val servicesReachableFromStartup: Set<String> = findReachableServices(this.startupDependencies.values.flatten().map { it.target })
+
+    fun getFanOutDepth(service: String): Int = fanOutDepths[service] ?: 0
+
+    fun isInCycle(service: String): Boolean = cycles.any { cycle -> cycle.any { it.qualifiedName == service } }
+
+    private fun getTargets(service: String): List<String> = dependencies[service]?.map { it.target } ?: emptyList()
+
+    /**
+     * Tarjan's algorithm. Components are returned in reverse topological order, i.e. a component is returned after the ones it depends on.
+     */
+    private fun findStronglyConnectedComponents(): List<List<String>> {
+        val result = mutableListOf<List<String>>()
+        val indices = hashMapOf<String, Int>()
+        val lowLinks = hashMapOf<String, Int>()
+        val stack = ArrayDeque<String>()
+        val onStack = hashSetOf<String>()
+
+        fun connect(service: String) {
+            indices[service] = indices.size
+            lowLinks[service] = indices.getValue(service)
+            stack.addLast(service)
+            onStack.add(service)
+
+            for (target in getTargets(service)) {
+                if (target !in indices) {
+                    connect(target)
+                    lowLinks[service] = minOf(lowLinks.getValue(service), lowLinks.getValue(target))
+                } else if (target in onStack) {
+                    lowLinks[service] = minOf(lowLinks.getValue(service), indices.getValue(target))
+                }
+            }
+
+            if (lowLinks[service] == indices[service]) {
+                val component = mutableListOf<String>()
+                do {
+                    val member = stack.removeLast()
+                    onStack.remove(member)
+                    component.add(member)
+                } while (member != service)
+                result.add(component)
+            }
+        }
+
+        services.keys.sorted().forEach { if (it !in indices) connect(it) }
+        return result
+    }
+
+    /**
+     * Computes the depths on the graph of components, so that cycles don't cause infinite depths.
+     * Since the components are in reverse topological order, the depths of the dependencies are always computed first.
+     */
+    private fun computeFanOutDepths(): Map<String, Int> {
+        val componentDepths = IntArray(components.size)
+        components.forEachIndexed { index, component ->
+            componentDepths[index] = component.asSequence()
+                .flatMap { getTargets(it) }
+                .map { componentByService.getValue(it) }
+                .filter { it != index }
+                .maxOfOrNull { componentDepths[it] + 1 } ?: 0
+        }
+        return services.keys.associateWith { componentDepths[componentByService.getValue(it)] }
+    }
+
+    private fun findReachableServices(roots: Collection<String>): Set<String> {
+        val reachable = linkedSetOf<String>()
+        val queue = ArrayDeque(roots)
+        while (queue.isNotEmpty()) {
+            val service = queue.removeFirst()
+            if (reachable.add(service)) queue.addAll(getTargets(service))
+        }
+        return reachable
+    }
+}
@@ -0,0 +1,149 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.servicegraph
+
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.SmartPointerManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.xml.XmlTag
+import com.picimako.justkitting.LightServicesModel
+import com.picimako.justkitting.PluginDescriptorUtil
+import com.picimako.justkitting.PsiClassFinder
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import com.picimako.justkitting.ServiceUtil
+import org.jetbrains.kotlin.psi.KtClassOrObject
+import org.jetbrains.uast.UCallExpression
+import org.jetbrains.uast.UClass
+import org.jetbrains.uast.UMethod
+import org.jetbrains.uast.toUElement
+import org.jetbrains.uast.toUElementOfType
+import org.jetbrains.uast.visitor.AbstractUastVisitor
+
+/**
+ * Statically builds the [ServiceDependencyGraph] of a project.
+ *
+ * The services are the light services of the project (with the service levels determined by [LightServicesModel]),
+ * and the ones registered as `<applicationService>` and `<projectService>` in the plugin descriptors of the project.
+ *
+ * The dependencies of a service are the service retrievals (as recognized by [ServiceUtil.isServiceRetrieval]) executed during its initialization,
+ * i.e. in its constructors, instance initializers and field initializers, and in the methods of the service class called from those.
+ * Lambdas and anonymous classes are ignored, since they are usually executed later.
+ *
+ * The startup activities are the ones registered as `<postStartupActivity>`, `<backgroundPostStartupActivity>` and `<startupActivity>`,
+ * and all service retrievals in them are considered, since they are all executed during or soon after project opening.
+ *
+ * @since 1.5.0
+ */
+object ServiceDependencyGraphBuilder {
+    private val SERVICE_TAG_LEVELS = mapOf("applicationService" to ServiceLevel.APP, "projectService" to ServiceLevel.PROJECT)
+    private val STARTUP_ACTIVITY_TAGS = setOf("postStartupActivity", "backgroundPostStartupActivity", "startupActivity")
+
+    /**
+     * Must be called in a read action and in smart mode.
+     */
+    @JvmStatic
+    fun build(project: Project): ServiceDependencyGraph {
+        val pointerManager = SmartPointerManager.getInstance(project)
+        val services = linkedMapOf<String, ServiceNode>()
+        val serviceClasses = linkedMapOf<String, PsiElement>()
+        //Service interfaces mapped to the implementations, so that retrievals via the interfaces are assigned to the right services
+        val aliases = hashMapOf<String, String>()
+        val startupActivityClasses = linkedMapOf<String, PsiClass>()
+
+        LightServicesModel.getInstance(project).getSnapshot().servicesByLevel.forEach { (level, lightServices) ->
+            for (lightService in lightServices) {
+                val qualifiedName = getQualifiedName(lightService) ?: continue
+                services[qualifiedName] = ServiceNode(qualifiedName, level, true, pointerManager.createSmartPsiElementPointer(lightService))
+                serviceClasses[qualifiedName] = lightService
+            }
+        }
+
+        val projectScope = GlobalSearchScope.projectScope(project)
+        fun findClass(name: String?): PsiClass? = name?.let { PsiClassFinder.findClass(it.replace('$', '.'), project, projectScope) }
+
+        for (extension in findExtensionTags(project)) {
+            ProgressManager.checkCanceled()
+            val serviceLevel = SERVICE_TAG_LEVELS[extension.name]
+            if (serviceLevel != null) {
+                val implementation = findClass(extension.getAttributeValue("serviceImplementation")) ?: continue
+                val qualifiedName = implementation.qualifiedName ?: continue
+                services[qualifiedName] = ServiceNode(qualifiedName, serviceLevel, false, pointerManager.createSmartPsiElementPointer(implementation))
+                serviceClasses[qualifiedName] = implementation
+                findClass(extension.getAttributeValue("serviceInterface"))?.qualifiedName?.let { aliases[it] = qualifiedName }
+            } else if (extension.name in STARTUP_ACTIVITY_TAGS) {
+                val activity = findClass(extension.getAttributeValue("implementation")) ?: continue
+                activity.qualifiedName?.let { startupActivityClasses[it] = activity }
+            }
+        }
+
+        val dependencies = serviceClasses.mapValues { (_, serviceClass) ->
+            ProgressManager.checkCanceled()
+            collectInitializationRetrievals(serviceClass).mapNotNull { toDependency(it, aliases, pointerManager) }.distinctBy { it.target }
+        }
+        val startupDependencies = startupActivityClasses.mapValues { (_, activity) ->
+            ProgressManager.checkCanceled()
+            collectAllRetrievals(activity).mapNotNull { toDependency(it, aliases, pointerManager) }.distinctBy { it.target }
+        }
+        return ServiceDependencyGraph(services, dependencies, startupDependencies)
+    }
+
+    /**
+     * Returns the extension tags in the `com.intellij` namespace from all plugin descriptors of the project.
+     */
+    private fun findExtensionTags(project: Project): List<XmlTag> =
+        PluginDescriptorUtil.findPluginDescriptors(project)
+            .mapNotNull { it.rootTag }
+            .flatMap { it.findSubTags("extensions").asIterable() }
+            .filter { it.getAttributeValue("defaultExtensionNs") == "com.intellij" }
+            .flatMap { it.subTags.asIterable() }
+
+    /**
+     * Collects the service retrievals executed during the initialization of the argument service class,
+     * including the ones in the methods of the class called during initialization.
+     */
+    private fun collectInitializationRetrievals(serviceClass: PsiElement): List<UCallExpression> {
+        val uClass = serviceClass.toUElement(UClass::class.java) ?: return emptyList()
+        val calls = ServiceUtil.collectEagerInitializationCalls(uClass)
+
+        //Methods of the service class called during initialization are followed one level deep, e.g. 'init { loadState() }'
+        val helperMethodCalls = calls.asSequence()
+            .mapNotNull { it.resolve() }
+            .filter { !it.isConstructor && isMemberOf(it, uClass.javaPsi) }
+            .distinct()
+            .mapNotNull { it.navigationElement.toUElementOfType<UMethod>()?.uastBody }
+            .flatMap { ServiceUtil.collectEagerCalls(it) }
+            .toList()
+        return (calls + helperMethodCalls).filter { ServiceUtil.isServiceRetrieval(it) }
+    }
+
+    /**
+     * Collects all service retrievals in the argument class, including the ones in lambdas and anonymous classes.
+     */
+    private fun collectAllRetrievals(psiClass: PsiClass): List<UCallExpression> {
+        val retrievals = mutableListOf<UCallExpression>()
+        psiClass.toUElement(UClass::class.java)?.accept(object : AbstractUastVisitor() {
+            override fun visitCallExpression(node: UCallExpression): Boolean {
+                if (ServiceUtil.isServiceRetrieval(node)) retrievals.add(node)
+                return super.visitCallExpression(node)
+            }
+        })
+        return retrievals
+    }
+
+    private fun toDependency(retrieval: UCallExpression, aliases: Map<String, String>, pointerManager: SmartPointerManager): ServiceDependency? {
+        val serviceName = ServiceUtil.getRetrievedServiceClass(retrieval)?.qualifiedName ?: return null
+        return ServiceDependency(aliases[serviceName] ?: serviceName, retrieval.sourcePsi?.let { pointerManager.createSmartPsiElementPointer(it) })
+    }
+
+    private fun isMemberOf(method: PsiMethod, psiClass: PsiClass): Boolean = method.manager.areElementsEquivalent(method.containingClass, psiClass)
+
+    private fun getQualifiedName(serviceClass: PsiElement): String? = when (serviceClass) {
+        is PsiClass -> serviceClass.qualifiedName
+        is KtClassOrObject -> serviceClass.fqName?.asString()
+        else -> null
+    }
+}
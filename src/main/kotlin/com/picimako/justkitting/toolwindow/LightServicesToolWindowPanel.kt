@@ -0,0 +1,161 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.toolwindow
+
+import com.intellij.icons.AllIcons
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.DefaultActionGroup
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.project.DumbAwareAction
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.SimpleToolWindowPanel
+import com.intellij.pom.Navigatable
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.DoubleClickListener
+import com.intellij.ui.ScrollPaneFactory
+import com.intellij.ui.SimpleTextAttributes
+import com.intellij.ui.TreeSpeedSearch
+import com.intellij.ui.treeStructure.Tree
+import com.intellij.util.ui.tree.TreeUtil
+import com.picimako.justkitting.LightServiceEntry
+import com.picimako.justkitting.LightServicesRegistry
+import com.picimako.justkitting.LightServicesRegistryListener
+import com.picimako.justkitting.index.LightServiceIndex
+import com.picimako.justkitting.resources.JustKittingBundle
+import com.picimako.justkitting.toolwindow.LightServicesTreeModel.GroupNodeData
+import java.awt.event.KeyAdapter
+import java.awt.event.KeyEvent
+import java.awt.event.MouseEvent
+import javax.swing.JTree
+import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.TreePath
+
+/**
+ * The content of the Light Services tool window, displaying the light services of the project in a [LightServicesTreeModel].
+ *
+ * The tree is kept up-to-date by applying the changes published by [LightServicesRegistry], and light services can be navigated to
+ * via double-click or Enter, and searched via speed search.
+ *
+ * @since 1.5.0
+ */
+class LightServicesToolWindowPanel(private val project: Project) : SimpleToolWindowPanel(true, true), Disposable {
+    private val treeModel = LightServicesTreeModel()
+    private val tree = Tree(treeModel)
+
+    init {
+        tree.isRootVisible = false
+        tree.showsRootHandles = true
+        tree.cellRenderer = LightServicesTreeCellRenderer()
+        tree.emptyText.text = JustKittingBundle.message("light.services.tool.window.loading")
+        TreeSpeedSearch.installOn(tree, false) { path -> getSpeedSearchText(path) }
+        installNavigation()
+
+        setContent(ScrollPaneFactory.createScrollPane(tree))
+        toolbar = createToolbar()
+
+        project.messageBus.connect(this).subscribe(LightServicesRegistryListener.TOPIC, object : LightServicesRegistryListener {
+            override fun servicesChanged(removed: Collection<LightServiceEntry>, added: Collection<LightServiceEntry>) {
+                treeModel.update(removed, added)
+            }
+
+            override fun servicesReloaded(entries: Collection<LightServiceEntry>) {
+                treeModel.reload(entries)
+                tree.emptyText.text = JustKittingBundle.message("light.services.tool.window.no.light.services")
+                //Only the service levels are expanded, so that large projects don't end up with thousands of visible rows
+                TreeUtil.expand(tree, 1)
+            }
+        })
+
+        val registry = LightServicesRegistry.getInstance(project)
+        registry.initialize()
+        //If the registry was already initialized, e.g. when the tool window is reopened, the current light services are displayed right away
+        treeModel.reload(registry.getEntries())
+    }
+
+    private fun createToolbar() = ActionManager.getInstance().createActionToolbar("JustKittingLightServices",
+        DefaultActionGroup(RefreshAction(), ExpandAllAction(), CollapseAllAction()), true)
+        .apply { targetComponent = tree }
+        .component
+
+    private fun installNavigation() {
+        object : DoubleClickListener() {
+            override fun onDoubleClick(event: MouseEvent): Boolean = navigateToSelectedService()
+        }.installOn(tree)
+
+        tree.addKeyListener(object : KeyAdapter() {
+            override fun keyPressed(e: KeyEvent) {
+                if (e.keyCode == KeyEvent.VK_ENTER && navigateToSelectedService()) e.consume()
+            }
+        })
+    }
+
+    /**
+     * Navigates to the class of the selected light service. Only a single class is resolved, thus it is done on the EDT.
+     */
+    private fun navigateToSelectedService(): Boolean {
+        val entry = (tree.lastSelectedPathComponent as? DefaultMutableTreeNode)?.userObject as? LightServiceEntry ?: return false
+        if (DumbService.isDumb(project)) return false
+
+        val serviceClass = ReadAction.compute<Navigatable?, Exception> {
+            LightServiceIndex.findLightServiceClass(project, entry.file, entry.qualifiedName) as? Navigatable
+        }
+        serviceClass?.navigate(true)
+        return serviceClass != null
+    }
+
+    override fun dispose() {
+    }
+
+    private class LightServicesTreeCellRenderer : ColoredTreeCellRenderer() {
+        override fun customizeCellRenderer(tree: JTree, value: Any?, selected: Boolean, expanded: Boolean, leaf: Boolean, row: Int, hasFocus: Boolean) {
+            when (val data = (value as? DefaultMutableTreeNode)?.userObject) {
+                is GroupNodeData.Level -> {
+                    icon = AllIcons.Nodes.Folder
+                    append(data.level.displayName)
+                    append(" (${data.serviceCount})", SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                }
+                is GroupNodeData.Module -> {
+                    icon = AllIcons.Nodes.Module
+                    append(data.moduleName ?: JustKittingBundle.message("light.services.tool.window.no.module"))
+                    append(" (${data.serviceCount})", SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                }
+                is LightServiceEntry -> {
+                    icon = AllIcons.Nodes.Class
+                    append(data.name)
+                    append("  ${data.qualifiedName.substringBeforeLast('.', "")}", SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                }
+            }
+        }
+    }
+
+    private inner class RefreshAction : DumbAwareAction(JustKittingBundle.message("light.services.tool.window.refresh"), null, AllIcons.Actions.Refresh) {
+        override fun actionPerformed(e: AnActionEvent) = LightServicesRegistry.getInstance(project).scheduleFullReload()
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+    }
+
+    private inner class ExpandAllAction : DumbAwareAction(JustKittingBundle.message("light.services.tool.window.expand.all"), null, AllIcons.Actions.Expandall) {
+        override fun actionPerformed(e: AnActionEvent) = TreeUtil.expandAll(tree)
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.EDT
+    }
+
+    private inner class CollapseAllAction : DumbAwareAction(JustKittingBundle.message("light.services.tool.window.collapse.all"), null, AllIcons.Actions.Collapseall) {
+        override fun actionPerformed(e: AnActionEvent) = TreeUtil.collapseAll(tree, 0)
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.EDT
+    }
+
+    private companion object {
+        fun getSpeedSearchText(path: TreePath): String? = when (val data = (path.lastPathComponent as? DefaultMutableTreeNode)?.userObject) {
+            is GroupNodeData.Level -> data.level.displayName
+            is GroupNodeData.Module -> data.moduleName
+            is LightServiceEntry -> data.name
+            else -> null
+        }
+    }
+}
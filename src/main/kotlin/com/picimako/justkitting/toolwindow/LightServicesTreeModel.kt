@@ -0,0 +1,154 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.toolwindow
+
+import com.picimako.justkitting.LightServiceEntry
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel
+import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.DefaultTreeModel
+
+/**
+ * Tree model of the Light Services tool window. Light services are grouped by service level, then by module:
+ * ```
+ * Project (2)
+ *   my.module (2)
+ *     AProjectService
+ *     SomeProjectService
+ * Application (1)
+ *   my.other.module (1)
+ *     AnApplicationService
+ * ```
+ * Service levels are in the order of [ServiceLevel] entries, while modules and light services are sorted alphabetically.
+ * Groups without light services are not displayed.
+ *
+ * Besides reloading the whole tree, it can apply changes of individual light services, in which case only the affected nodes
+ * are inserted, removed and updated, so that the expanded state and selection of the tree are preserved, and the cost of
+ * an update doesn't depend on the number of all light services.
+ *
+ * Must be used on the EDT.
+ *
+ * @since 1.5.0
+ */
+class LightServicesTreeModel : DefaultTreeModel(DefaultMutableTreeNode()) {
+    private val serviceNodes = HashMap<LightServiceEntry, DefaultMutableTreeNode>()
+
+    /**
+     * Replaces all light services in the tree with the argument ones.
+     */
+    fun reload(entries: Collection<LightServiceEntry>) {
+        serviceNodes.clear()
+        val newRoot = DefaultMutableTreeNode()
+        entries.groupBy { it.level }.toSortedMap().forEach { (level, levelEntries) ->
+            val levelNode = DefaultMutableTreeNode(GroupNodeData.Level(level, levelEntries.size))
+            levelEntries.groupBy { it.moduleName }.toSortedMap(MODULE_NAME_COMPARATOR).forEach { (moduleName, moduleEntries) ->
+                val moduleNode = DefaultMutableTreeNode(GroupNodeData.Module(moduleName, moduleEntries.size))
+                moduleEntries.sortedWith(SERVICE_COMPARATOR).forEach { entry ->
+                    val serviceNode = DefaultMutableTreeNode(entry, false)
+                    serviceNodes[entry] = serviceNode
+                    moduleNode.add(serviceNode)
+                }
+                levelNode.add(moduleNode)
+            }
+            newRoot.add(levelNode)
+        }
+        setRoot(newRoot)
+    }
+
+    /**
+     * Removes the `removed` light services from, and inserts the `added` ones into the tree.
+     */
+    fun update(removed: Collection<LightServiceEntry>, added: Collection<LightServiceEntry>) {
+        removed.forEach { removeService(it) }
+        added.forEach { addService(it) }
+    }
+
+    /**
+     * Returns the number of light services in the tree.
+     */
+    fun getServiceCount(): Int = serviceNodes.size
+
+    private fun removeService(entry: LightServiceEntry) {
+        val serviceNode = serviceNodes.remove(entry) ?: return
+        val moduleNode = serviceNode.parent as DefaultMutableTreeNode
+        val levelNode = moduleNode.parent as DefaultMutableTreeNode
+        removeChild(moduleNode, serviceNode)
+        (moduleNode.userObject as GroupNodeData).serviceCount--
+        (levelNode.userObject as GroupNodeData).serviceCount--
+
+        if (moduleNode.childCount == 0) removeChild(levelNode, moduleNode) else nodeChanged(moduleNode)
+        if (levelNode.childCount == 0) removeChild(root as DefaultMutableTreeNode, levelNode) else nodeChanged(levelNode)
+    }
+
+    private fun addService(entry: LightServiceEntry) {
+        if (serviceNodes.containsKey(entry)) return
+
+        val levelNode = findOrCreateGroupNode(root as DefaultMutableTreeNode, GroupNodeData.Level(entry.level, 0))
+        val moduleNode = findOrCreateGroupNode(levelNode, GroupNodeData.Module(entry.moduleName, 0))
+        val serviceNode = DefaultMutableTreeNode(entry, false)
+        serviceNodes[entry] = serviceNode
+        insertSorted(moduleNode, serviceNode) { SERVICE_COMPARATOR.compare(entry, it.userObject as LightServiceEntry) }
+        (moduleNode.userObject as GroupNodeData).serviceCount++
+        (levelNode.userObject as GroupNodeData).serviceCount++
+        nodeChanged(moduleNode)
+        nodeChanged(levelNode)
+    }
+
+    private fun findOrCreateGroupNode(parent: DefaultMutableTreeNode, groupData: GroupNodeData): DefaultMutableTreeNode {
+        val index = binarySearch(parent) { groupData.compareTo(it.userObject as GroupNodeData) }
+        if (index >= 0) return parent.getChildAt(index) as DefaultMutableTreeNode
+
+        val groupNode = DefaultMutableTreeNode(groupData)
+        insertNodeInto(groupNode, parent, -(index + 1))
+        return groupNode
+    }
+
+    private fun insertSorted(parent: DefaultMutableTreeNode, node: DefaultMutableTreeNode, comparison: (DefaultMutableTreeNode) -> Int) {
+        val index = binarySearch(parent, comparison)
+        insertNodeInto(node, parent, if (index >= 0) index else -(index + 1))
+    }
+
+    private fun removeChild(parent: DefaultMutableTreeNode, child: DefaultMutableTreeNode) {
+        val index = parent.getIndex(child)
+        parent.remove(index)
+        nodesWereRemoved(parent, intArrayOf(index), arrayOf(child))
+    }
+
+    /**
+     * Returns the index of the child for which `comparison` returns 0, or `-(insertion point) - 1` if there is no such child.
+     */
+    private fun binarySearch(parent: DefaultMutableTreeNode, comparison: (DefaultMutableTreeNode) -> Int): Int {
+        var low = 0
+        var high = parent.childCount - 1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            val result = comparison(parent.getChildAt(middle) as DefaultMutableTreeNode)
+            when {
+                result > 0 -> low = middle + 1
+                result < 0 -> high = middle - 1
+                else -> return middle
+            }
+        }
+        return -(low + 1)
+    }
+
+    /**
+     * Data of the service level and module nodes, along with the number of light services in them.
+     */
+    sealed class GroupNodeData(var serviceCount: Int) : Comparable<GroupNodeData> {
+        class Level(val level: ServiceLevel, serviceCount: Int) : GroupNodeData(serviceCount) {
+            override fun compareTo(other: GroupNodeData): Int = level.compareTo((other as Level).level)
+        }
+
+        class Module(val moduleName: String?, serviceCount: Int) : GroupNodeData(serviceCount) {
+            override fun compareTo(other: GroupNodeData): Int = MODULE_NAME_COMPARATOR.compare(moduleName, (other as Module).moduleName)
+        }
+    }
+
+    private companion object {
+        /**
+         * Light services not in any module are displayed last.
+         */
+        val MODULE_NAME_COMPARATOR: Comparator<String?> = nullsLast(String.CASE_INSENSITIVE_ORDER.thenComparing(naturalOrder()))
+        val SERVICE_COMPARATOR: Comparator<LightServiceEntry> = compareBy<LightServiceEntry> { it.name }.thenBy { it.qualifiedName }.thenBy { it.file.path }
+    }
+}
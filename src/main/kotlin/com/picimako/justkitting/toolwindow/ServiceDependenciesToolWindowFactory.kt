@@ -0,0 +1,29 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.toolwindow
+
+import com.intellij.openapi.project.DumbAware
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.wm.ToolWindow
+import com.intellij.openapi.wm.ToolWindowFactory
+import com.intellij.ui.content.ContentFactory
+
+/**
+ * Creates the Service Dependencies tool window. The service dependency graph is built only when the tool window is first opened.
+ *
+ * @since 1.5.0
+ */
+class ServiceDependenciesToolWindowFactory : ToolWindowFactory, DumbAware {
+
+    override fun createToolWindowContent(project: Project, toolWindow: ToolWindow) {
+        val panel = ServiceDependenciesToolWindowPanel(project)
+        val content = ContentFactory.getInstance().createContent(panel, null, false)
+        Disposer.register(content, panel)
+        toolWindow.contentManager.addContent(content)
+    }
+
+    companion object {
+        const val TOOL_WINDOW_ID = "Service Dependencies"
+    }
+}
@@ -0,0 +1,218 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.toolwindow
+
+import com.intellij.icons.AllIcons
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.DefaultActionGroup
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.project.DumbAwareAction
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.SimpleToolWindowPanel
+import com.intellij.pom.Navigatable
+import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.DoubleClickListener
+import com.intellij.ui.ScrollPaneFactory
+import com.intellij.ui.SimpleTextAttributes
+import com.intellij.ui.TreeSpeedSearch
+import com.intellij.ui.treeStructure.Tree
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.ui.tree.TreeUtil
+import com.picimako.justkitting.resources.JustKittingBundle
+import com.picimako.justkitting.servicegraph.ServiceDependencyGraph
+import com.picimako.justkitting.servicegraph.ServiceDependencyGraphBuilder
+import com.picimako.justkitting.servicegraph.ServiceNode
+import java.awt.event.KeyAdapter
+import java.awt.event.KeyEvent
+import java.awt.event.MouseEvent
+import javax.swing.JTree
+import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.DefaultTreeModel
+import javax.swing.tree.TreePath
+
+/**
+ * The content of the Service Dependencies tool window, displaying the [ServiceDependencyGraph] of the project:
+ * - the cycles in service initialization,
+ * - the services retrieved by startup activities,
+ * - all services sorted by their fan-out depths, along with the services they retrieve during initialization.
+ *
+ * The graph is built in the background, when the tool window is opened, and on demand via the toolbar, or [com.picimako.justkitting.action.servicegraph.AnalyzeServiceDependenciesAction].
+ * Services and service retrievals can be navigated to via double-click or Enter.
+ *
+ * @since 1.5.0
+ */
+class ServiceDependenciesToolWindowPanel(private val project: Project) : SimpleToolWindowPanel(true, true), Disposable {
+    private val treeModel = DefaultTreeModel(DefaultMutableTreeNode())
+    private val tree = Tree(treeModel)
+
+    init {
+        tree.isRootVisible = false
+        tree.showsRootHandles = true
+        tree.cellRenderer = ServiceDependenciesTreeCellRenderer()
+        TreeSpeedSearch.installOn(tree, false) { path -> getNodeData(path)?.speedSearchText }
+        installNavigation()
+
+        setContent(ScrollPaneFactory.createScrollPane(tree))
+        toolbar = ActionManager.getInstance().createActionToolbar("JustKittingServiceDependencies",
+            DefaultActionGroup(AnalyzeAction(), ExpandAllAction(), CollapseAllAction()), true)
+            .apply { targetComponent = tree }
+            .component
+
+        analyze()
+    }
+
+    /**
+     * Builds the service dependency graph in the background, in smart mode, then displays it.
+     */
+    fun analyze() {
+        tree.emptyText.text = JustKittingBundle.message("service.dependencies.tool.window.analyzing")
+        ReadAction.nonBlocking<ServiceDependencyGraph> { ServiceDependencyGraphBuilder.build(project) }
+            .inSmartMode(project)
+            .coalesceBy(this)
+            .expireWith(this)
+            .finishOnUiThread(ModalityState.any()) { display(it) }
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun display(graph: ServiceDependencyGraph) {
+        treeModel.setRoot(buildTree(graph))
+        tree.emptyText.text = JustKittingBundle.message("service.dependencies.tool.window.no.services")
+        TreeUtil.expand(tree, 1)
+    }
+
+    private fun installNavigation() {
+        object : DoubleClickListener() {
+            override fun onDoubleClick(event: MouseEvent): Boolean = navigateToSelectedNode()
+        }.installOn(tree)
+
+        tree.addKeyListener(object : KeyAdapter() {
+            override fun keyPressed(e: KeyEvent) {
+                if (e.keyCode == KeyEvent.VK_ENTER && navigateToSelectedNode()) e.consume()
+            }
+        })
+    }
+
+    private fun navigateToSelectedNode(): Boolean {
+        val pointer = tree.selectionPath?.let { getNodeData(it) }?.pointer ?: return false
+        val target = ReadAction.compute<Navigatable?, Exception> { pointer.element as? Navigatable }
+        target?.navigate(true)
+        return target != null
+    }
+
+    override fun dispose() {
+    }
+
+    /**
+     * The user object of the tree nodes.
+     *
+     * @param pointer the element to navigate to, if any
+     */
+    sealed class NodeData(val speedSearchText: String, val pointer: SmartPsiElementPointer<out PsiElement>? = null) {
+        class Group(val text: String, val count: Int) : NodeData(text)
+        class Cycle(val services: List<ServiceNode>) : NodeData(services.joinToString(" → ") { it.name })
+        class StartupActivity(qualifiedName: String) : NodeData(qualifiedName.substringAfterLast('.'))
+        class Service(val service: ServiceNode, val fanOutDepth: Int, val isInitializedOnStartup: Boolean, val isInCycle: Boolean) :
+            NodeData(service.name, service.pointer)
+        class Dependency(val service: ServiceNode, pointer: SmartPsiElementPointer<out PsiElement>?) : NodeData(service.name, pointer)
+    }
+
+    private class ServiceDependenciesTreeCellRenderer : ColoredTreeCellRenderer() {
+        override fun customizeCellRenderer(tree: JTree, value: Any?, selected: Boolean, expanded: Boolean, leaf: Boolean, row: Int, hasFocus: Boolean) {
+            when (val data = (value as? DefaultMutableTreeNode)?.userObject) {
+                is NodeData.Group -> {
+                    icon = AllIcons.Nodes.Folder
+                    append(data.text)
+                    append(" (${data.count})", SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                }
+                is NodeData.Cycle -> {
+                    icon = AllIcons.Nodes.ErrorIntroduction
+                    append(data.speedSearchText + " → " + data.services.first().name)
+                }
+                is NodeData.StartupActivity -> {
+                    icon = AllIcons.Nodes.Class
+                    append(data.speedSearchText)
+                }
+                is NodeData.Service -> {
+                    icon = AllIcons.Nodes.Class
+                    append(data.service.name, if (data.isInCycle) SimpleTextAttributes.ERROR_ATTRIBUTES else SimpleTextAttributes.REGULAR_ATTRIBUTES)
+                    append("  " + JustKittingBundle.message("service.dependencies.tool.window.fan.out.depth", data.fanOutDepth), SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                    append(", " + data.service.level.displayName, SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                    if (data.isInitializedOnStartup) {
+                        append(", " + JustKittingBundle.message("service.dependencies.tool.window.initialized.on.startup"), SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                    }
+                }
+                is NodeData.Dependency -> {
+                    icon = AllIcons.Nodes.Method
+                    append(data.service.name)
+                    append("  ${data.service.qualifiedName.substringBeforeLast('.', "")}", SimpleTextAttributes.GRAYED_ATTRIBUTES)
+                }
+            }
+        }
+    }
+
+    private inner class AnalyzeAction : DumbAwareAction(JustKittingBundle.message("service.dependencies.tool.window.analyze"), null, AllIcons.Actions.Refresh) {
+        override fun actionPerformed(e: AnActionEvent) = analyze()
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+    }
+
+    private inner class ExpandAllAction : DumbAwareAction(JustKittingBundle.message("light.services.tool.window.expand.all"), null, AllIcons.Actions.Expandall) {
+        override fun actionPerformed(e: AnActionEvent) = TreeUtil.expandAll(tree)
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.EDT
+    }
+
+    private inner class CollapseAllAction : DumbAwareAction(JustKittingBundle.message("light.services.tool.window.collapse.all"), null, AllIcons.Actions.Collapseall) {
+        override fun actionPerformed(e: AnActionEvent) = TreeUtil.collapseAll(tree, 0)
+
+        override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.EDT
+    }
+
+    companion object {
+        /**
+         * Builds the tree of the argument graph. Groups without any item are not added.
+         */
+        @JvmStatic
+        fun buildTree(graph: ServiceDependencyGraph): DefaultMutableTreeNode {
+            val root = DefaultMutableTreeNode()
+            fun group(key: String, children: List<DefaultMutableTreeNode>) {
+                if (children.isEmpty()) return
+                root.add(DefaultMutableTreeNode(NodeData.Group(JustKittingBundle.message(key), children.size)).apply { children.forEach(::add) })
+            }
+            fun dependencyNode(service: ServiceNode, pointer: SmartPsiElementPointer<out PsiElement>?) =
+                DefaultMutableTreeNode(NodeData.Dependency(service, pointer))
+
+            group("service.dependencies.tool.window.cycles", graph.cycles.map { cycle ->
+                DefaultMutableTreeNode(NodeData.Cycle(cycle)).apply { cycle.forEach { add(dependencyNode(it, it.pointer)) } }
+            })
+
+            group("service.dependencies.tool.window.startup.activities", graph.startupDependencies.entries
+                .filter { it.value.isNotEmpty() }
+                .sortedBy { it.key.substringAfterLast('.') }
+                .map { (activity, dependencies) ->
+                    DefaultMutableTreeNode(NodeData.StartupActivity(activity)).apply {
+                        dependencies.forEach { add(dependencyNode(graph.services.getValue(it.target), it.pointer)) }
+                    }
+                })
+
+            group("service.dependencies.tool.window.services", graph.services.values
+                .sortedWith(compareByDescending<ServiceNode> { graph.getFanOutDepth(it.qualifiedName) }.thenBy { it.name })
+                .map { service ->
+                    val data = NodeData.Service(service, graph.getFanOutDepth(service.qualifiedName),
+                        service.qualifiedName in graph.servicesReachableFromStartup, graph.isInCycle(service.qualifiedName))
+                    DefaultMutableTreeNode(data).apply {
+                        graph.dependencies[service.qualifiedName]?.forEach { add(dependencyNode(graph.services.getValue(it.target), it.pointer)) }
+                    }
+                })
+            return root
+        }
+
+        private fun getNodeData(path: TreePath): NodeData? = (path.lastPathComponent as? DefaultMutableTreeNode)?.userObject as? NodeData
+    }
+}
@@ -0,0 +1,127 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.intellij.openapi.application.ReadAction.compute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.psi.PsiNameIdentifierOwner;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link LightServicesModel}.
+ */
+public final class LightServicesModelTest extends JustKittingTestBase {
+
+    @Test
+    public void testGroupsAndSortsLightServices() {
+        getFixture().addFileToProject("ZProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class ZProjectService {
+                }""");
+        getFixture().addFileToProject("AProjectService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(Service.Level.PROJECT)
+                class AProjectService
+                """);
+        getFixture().addFileToProject("AnApplicationService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.APP)
+                public final class AnApplicationService {
+                }""");
+
+        var snapshot = LightServicesModel.getInstance(getProject()).getSnapshot();
+
+        assertThat(snapshot.getSize()).isEqualTo(3);
+        assertThat(snapshot.getServicesByLevel().keySet()).containsExactly(ServiceLevelDecider.ServiceLevel.values());
+        assertThat(compute(() -> snapshot.getServicesByLevel().get(ServiceLevelDecider.ServiceLevel.PROJECT).stream().map(PsiNameIdentifierOwner::getName).toList()))
+            .containsExactly("AProjectService", "ZProjectService");
+        assertThat(compute(() -> snapshot.getAllServices().stream().map(PsiNameIdentifierOwner::getName).toList()))
+            .containsExactly("AProjectService", "AnApplicationService", "ZProjectService");
+    }
+
+    @Test
+    public void testReturnsSameSnapshotWithoutModification() {
+        getFixture().addFileToProject("AProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                }""");
+
+        var model = LightServicesModel.getInstance(getProject());
+
+        assertThat(model.getSnapshot()).isSameAs(model.getSnapshot());
+    }
+
+    @Test
+    public void testReturnsLimitedLightServices() {
+        getFixture().addFileToProject("CProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class CProjectService {
+                }""");
+        getFixture().addFileToProject("BProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class BProjectService {
+                }""");
+        getFixture().addFileToProject("AProjectService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(Service.Level.PROJECT)
+                class AProjectService
+                """);
+        getFixture().addFileToProject("AnApplicationService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.APP)
+                public final class AnApplicationService {
+                }""");
+
+        var limitedServices = LightServicesModel.getInstance(getProject()).getLimitedServices(2);
+
+        assertThat(limitedServices.getHasMore()).isTrue();
+        assertThat(compute(() -> limitedServices.getServicesByLevel().get(ServiceLevelDecider.ServiceLevel.PROJECT).stream().map(PsiNameIdentifierOwner::getName).toList()))
+            .containsExactly("AProjectService", "BProjectService");
+        assertThat(limitedServices.getServicesByLevel().get(ServiceLevelDecider.ServiceLevel.APP)).isEmpty();
+    }
+
+    @Test
+    public void testReturnsAllLimitedLightServicesWithoutMore() {
+        getFixture().addFileToProject("AProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                }""");
+        getFixture().addFileToProject("AnApplicationService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.APP)
+                public final class AnApplicationService {
+                }""");
+
+        var limitedServices = LightServicesModel.getInstance(getProject()).getLimitedServices(2);
+
+        assertThat(limitedServices.getHasMore()).isFalse();
+        assertThat(compute(() -> limitedServices.getServicesByLevel().get(ServiceLevelDecider.ServiceLevel.APP).stream().map(PsiNameIdentifierOwner::getName).toList()))
+            .containsExactly("AnApplicationService");
+    }
+}
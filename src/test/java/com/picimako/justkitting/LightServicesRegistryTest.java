@@ -0,0 +1,44 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.intellij.openapi.application.ReadAction.compute;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link LightServicesRegistry}.
+ */
+public final class LightServicesRegistryTest extends JustKittingTestBase {
+
+    @Test
+    public void testCollectsLightServicesOfFile() {
+        var file = getFixture().addFileToProject("Services.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                    @Service
+                    public static final class AnApplicationService {
+                    }
+                }""").getVirtualFile();
+
+        var entries = compute(() -> LightServicesRegistry.getInstance(getProject()).collectEntries(file));
+
+        assertThat(entries).extracting(LightServiceEntry::getQualifiedName, LightServiceEntry::getLevel, LightServiceEntry::getModuleName)
+            .containsExactly(
+                tuple("AProjectService", ServiceLevel.PROJECT, getFixture().getModule().getName()),
+                tuple("AProjectService.AnApplicationService", ServiceLevel.APP, getFixture().getModule().getName()));
+    }
+
+    @Test
+    public void testNoLightServicesInNonServiceFile() {
+        var file = getFixture().addFileToProject("SomeClass.java", "public final class SomeClass {}").getVirtualFile();
+
+        assertThat(compute(() -> LightServicesRegistry.getInstance(getProject()).collectEntries(file))).isEmpty();
+    }
+}
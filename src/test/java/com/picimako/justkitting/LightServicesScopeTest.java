@@ -0,0 +1,54 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static com.intellij.openapi.application.ReadAction.compute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.xml.XmlFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+/**
+ * Functional test for {@link LightServicesScope}.
+ */
+public final class LightServicesScopeTest extends JustKittingTestBase {
+
+    @Test
+    public void testScopeOfPluginDescriptorModule() {
+        var pluginDescriptor = (XmlFile) getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <content>
+                        <module name="nonexistent.module"/>
+                    </content>
+                </idea-plugin>""");
+
+        var scope = compute(() -> LightServicesScope.forPluginDescriptor(pluginDescriptor));
+
+        assertThat(scope.isProjectScope()).isFalse();
+        assertThat(scope.getModuleNames()).containsExactly(getFixture().getModule().getName());
+    }
+
+    @Test
+    public void testLooksUpLightServicesInModuleScope() {
+        getFixture().addFileToProject("AProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                }""");
+        var pluginDescriptor = (XmlFile) getFixture().addFileToProject("META-INF/plugin.xml", "<idea-plugin></idea-plugin>");
+
+        var scope = compute(() -> LightServicesScope.forPluginDescriptor(pluginDescriptor));
+        var model = LightServicesModel.getInstance(getProject());
+
+        assertThat(model.hasLightService(scope)).isTrue();
+        assertThat(compute(() -> model.getSnapshot(scope).getAllServices().stream().map(PsiNameIdentifierOwner::getName).toList()))
+            .containsExactly("AProjectService");
+        assertThat(model.hasLightService(new LightServicesScope(Set.of("nonexistent.module")))).isFalse();
+    }
+}
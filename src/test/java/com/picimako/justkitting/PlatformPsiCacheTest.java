@@ -0,0 +1,51 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link PlatformPsiCache}.
+ */
+public final class PlatformPsiCacheTest extends JustKittingTestBase {
+
+    @Test
+    public void testReturnsPlatformClassesAndFields() {
+        var cache = PlatformPsiCache.getInstance(getProject());
+
+        assertThat(cache.getServiceAnnotation()).isNotNull();
+        assertThat(cache.getServiceAnnotation()).isSameAs(cache.getServiceAnnotation());
+        assertThat(cache.getServiceLevelProject()).isNotNull();
+        assertThat(cache.getServiceLevelProject().getName()).isEqualTo("PROJECT");
+        assertThat(cache.getServiceLevelApp().getName()).isEqualTo("APP");
+    }
+
+    @Test
+    public void testReturnsNullForNonExistentClass() {
+        var cache = PlatformPsiCache.getInstance(getProject());
+
+        assertThat(cache.getClass("com.intellij.NonExistentClass")).isNull();
+        assertThat(cache.getClass("com.intellij.NonExistentClass")).isNull();
+    }
+
+    @Test
+    public void testLooksUpLibraryClassesByName() {
+        var cache = PlatformPsiCache.getInstance(getProject());
+
+        assertThat(cache.findLibraryClass("com.intellij.openapi.components.Service")).isSameAs(cache.getServiceAnnotation());
+        assertThat(cache.findLibraryClass("com.intellij.NonExistentClass")).isNull();
+        assertThat(cache.findLibraryClass("com.intellij.openapi.components.Service")).isSameAs(cache.getServiceAnnotation());
+    }
+
+    @Test
+    public void testLooksUpClassesAgainWhenProjectRootsChange() {
+        var cache = PlatformPsiCache.getInstance(getProject());
+        assertThat(cache.getCallMatcher()).isNull();
+
+        ThirdPartyLibraryLoader.loadJavaImpl(getFixture());
+
+        assertThat(cache.getCallMatcher()).isNotNull();
+    }
+}
@@ -72,4 +72,20 @@ public final class ServiceLevelDeciderJavaTest extends JustKittingTestBase {
         var serviceLevel = ServiceLevelUtil.getServiceLevel(psiFile);
         assertThat(serviceLevel).isSameAs(ServiceLevelDecider.ServiceLevel.APP);
     }
+
+    //Indexed service levels
+
+    @Test
+    public void testServiceLevelForIndexedServiceLevels() {
+        assertThat(ServiceLevelDecider.getServiceLevel("PROJECT", "SomeService")).isSameAs(ServiceLevelDecider.ServiceLevel.PROJECT);
+        assertThat(ServiceLevelDecider.getServiceLevel("APP", "SomeService")).isSameAs(ServiceLevelDecider.ServiceLevel.APP);
+        assertThat(ServiceLevelDecider.getServiceLevel("PROJECT,APP", "SomeService")).isSameAs(ServiceLevelDecider.ServiceLevel.PROJECT_AND_APP);
+    }
+
+    @Test
+    public void testServiceLevelForNoIndexedServiceLevel() {
+        assertThat(ServiceLevelDecider.getServiceLevel("", "SomeProjectSettings")).isSameAs(ServiceLevelDecider.ServiceLevel.PROJECT);
+        assertThat(ServiceLevelDecider.getServiceLevel("", "SomeApplicationState")).isSameAs(ServiceLevelDecider.ServiceLevel.APP);
+        assertThat(ServiceLevelDecider.getServiceLevel("", "SomeService")).isSameAs(ServiceLevelDecider.ServiceLevel.NOT_SURE);
+    }
 }
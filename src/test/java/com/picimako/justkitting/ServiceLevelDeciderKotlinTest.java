@@ -2,9 +2,14 @@
 
 package com.picimako.justkitting;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.kotlin.psi.KtClass;
 import org.jetbrains.kotlin.psi.KtFile;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static com.intellij.openapi.application.ReadAction.compute;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -166,4 +171,32 @@ public final class ServiceLevelDeciderKotlinTest extends JustKittingTestBase {
         var serviceLevel = ServiceLevelUtil.getServiceLevel(psiFile);
         assertThat(serviceLevel).isSameAs(ServiceLevelDecider.ServiceLevel.PROJECT);
     }
+
+    //Batch
+
+    @Test
+    public void testServiceLevelsForKotlinClassesInBatch() throws Exception {
+        KtFile psiFile = (KtFile) getFixture().configureByText("SomeService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(value = [Service.Level.APP])
+                class SomeService
+
+                @Service(Service.Level.PROJECT, Service.Level.APP)
+                class AnotherService
+
+                @Service
+                class YetAnotherProjectService
+                """);
+
+        var kotlinClasses = compute(() -> PsiTreeUtil.getChildrenOfTypeAsList(psiFile, KtClass.class));
+        //The Kotlin Analysis API is not used on the EDT, so the classification is executed on a background thread
+        var serviceLevels = ApplicationManager.getApplication().executeOnPooledThread(() -> ServiceLevelDecider.getServiceLevels(kotlinClasses)).get();
+
+        assertThat(serviceLevels).containsExactlyInAnyOrderEntriesOf(Map.of(
+            kotlinClasses.get(0), ServiceLevelDecider.ServiceLevel.APP,
+            kotlinClasses.get(1), ServiceLevelDecider.ServiceLevel.PROJECT_AND_APP,
+            kotlinClasses.get(2), ServiceLevelDecider.ServiceLevel.PROJECT));
+    }
 }
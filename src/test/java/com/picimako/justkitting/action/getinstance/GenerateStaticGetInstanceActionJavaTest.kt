@@ -367,4 +367,79 @@ class GenerateStaticGetInstanceActionJavaTest : JustKittingActionTestBase() {
     //                "    }\n" +
     //                "}");
     //    }
+
+    //CoroutineScope injection
+
+    @Test
+    fun testNotAvailableWithCoroutineScopeForMultipleConstructors() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        val psiFile = fixture.configureByText("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.APP)
+                public final class SomeService {
+                <caret>
+                    public SomeService() {
+                    }
+
+                    public SomeService(String name) {
+                    }
+                }
+                """.trimIndent())
+        val isValid = GenerateStaticGetInstanceWithCoroutineScopeAction().isValidForFile(project, fixture.editor, psiFile)
+        assertThat(isValid).isFalse()
+    }
+
+    @Test
+    fun testNotAvailableWithCoroutineScopeInNonServiceClass() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        val psiFile = fixture.configureByText("SomeProjectSettings.java",
+            """
+                public final class SomeProjectSettings {
+                <caret>
+                }
+                """.trimIndent())
+        val isValid = GenerateStaticGetInstanceWithCoroutineScopeAction().isValidForFile(project, fixture.editor, psiFile)
+        assertThat(isValid).isFalse()
+    }
+
+    @Test
+    fun testShouldGenerateProjectLevelGetterWithCoroutineScope() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        checkAction("SomeService.java", { GenerateStaticGetInstanceWithCoroutineScopeAction() },
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service(Service.Level.PROJECT)
+                public final class SomeService {
+                    private final Project project;
+                <caret>
+                    public SomeService(Project project) {
+                        this.project = project;
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+                import kotlinx.coroutines.CoroutineScope;
+
+                @Service(Service.Level.PROJECT)
+                public final class SomeService {
+                    private final Project project;
+                    private final CoroutineScope coroutineScope;
+
+                    public SomeService(Project project, CoroutineScope coroutineScope) {
+                        this.project = project;
+                        this.coroutineScope = coroutineScope;
+                    }
+
+                    public static SomeService getInstance(Project project) {
+                        return project.getService(SomeService.class);
+                    }
+                }
+                """.trimIndent())
+    }
 }
@@ -379,4 +379,104 @@ class GenerateStaticGetInstanceActionKotlinTest : JustKittingActionTestBase() {
                 """.trimIndent()
         )
     }
+
+    //CoroutineScope injection
+
+    @Test
+    fun testNotAvailableWithCoroutineScopeIfScopeIsAlreadyInjected() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        val psiFile = fixture.configureByText("SomeService.kt",
+            """
+                import com.intellij.openapi.components.Service
+                import kotlinx.coroutines.CoroutineScope
+
+                @Service(Service.Level.PROJECT)
+                class SomeService(private val coroutineScope: CoroutineScope) {
+                <caret>
+                }
+                """.trimIndent())
+        val isValid = GenerateStaticGetInstanceWithCoroutineScopeAction().isValidForFile(project, fixture.editor, psiFile)
+        assertThat(isValid).isFalse()
+    }
+
+    @Test
+    fun testNotAvailableWithCoroutineScopeInNonServiceClass() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        val psiFile = fixture.configureByText("SomeProjectSettings.kt",
+            """
+                class SomeProjectSettings {
+                <caret>
+                }
+                """.trimIndent())
+        val isValid = GenerateStaticGetInstanceWithCoroutineScopeAction().isValidForFile(project, fixture.editor, psiFile)
+        assertThat(isValid).isFalse()
+    }
+
+    @Test
+    fun testShouldGenerateProjectLevelGettersWithCoroutineScope() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        checkAction("SomeService.kt", { GenerateStaticGetInstanceWithCoroutineScopeAction() },
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(Service.Level.PROJECT)
+                class SomeService {
+                <caret>
+                    fun someMethod() {
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.components.service
+                import com.intellij.openapi.project.Project
+                import com.intellij.openapi.components.serviceAsync
+                import kotlinx.coroutines.CoroutineScope
+
+                @Service(Service.Level.PROJECT)
+                class SomeService(private val coroutineScope: CoroutineScope) {
+                
+                    fun someMethod() {
+                    }
+                
+                    companion object {
+                        fun getInstance(project: Project): SomeService = project.service()
+
+                        suspend fun getInstanceAsync(project: Project): SomeService = project.serviceAsync()
+                    }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testShouldGenerateAppLevelGettersWithCoroutineScopeAppendedToPrimaryConstructor() {
+        fixture.addClass("package kotlinx.coroutines; public interface CoroutineScope {}")
+        checkAction("SomeService.kt", { GenerateStaticGetInstanceWithCoroutineScopeAction() },
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(Service.Level.APP)
+                class SomeService(private val name: String) {
+                <caret>
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.components.service
+                import com.intellij.openapi.components.serviceAsync
+                import kotlinx.coroutines.CoroutineScope
+
+                @Service(Service.Level.APP)
+                class SomeService(private val name: String, private val coroutineScope: CoroutineScope) {
+                
+                    companion object {
+                        fun getInstance(): SomeService = service()
+
+                        suspend fun getInstanceAsync(): SomeService = serviceAsync()
+                    }
+                }
+                """.trimIndent()
+        )
+    }
 }
@@ -0,0 +1,135 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.index;
+
+import static com.intellij.openapi.application.ReadAction.compute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.picimako.justkitting.JustKittingTestBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * Functional test for {@link LightServiceIndex}.
+ */
+public final class LightServiceIndexTest extends JustKittingTestBase {
+
+    //Indexing
+
+    @Test
+    public void testIndexesJavaServiceWithLevel() {
+        getFixture().configureByText("SomeService.java",
+            """
+                package some.pkg;
+
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class SomeService {
+                }""");
+
+        assertThat(getFileData()).containsExactly(Map.entry("some.pkg.SomeService", "PROJECT"));
+    }
+
+    @Test
+    public void testIndexesJavaServiceWithMultipleLevelsAndNestedClass() {
+        getFixture().configureByText("SomeService.java",
+            """
+                import com.intellij.openapi.components.*;
+
+                @Service({Service.Level.PROJECT, Service.Level.APP})
+                public final class SomeService {
+                    @com.intellij.openapi.components.Service
+                    static final class NestedService {
+                    }
+                }""");
+
+        assertThat(getFileData()).containsOnly(
+            Map.entry("SomeService", "PROJECT,APP"),
+            Map.entry("SomeService.NestedService", ""));
+    }
+
+    @Test
+    public void testDoesntIndexJavaClassWithNonPlatformServiceAnnotation() {
+        getFixture().configureByText("SomeService.java",
+            """
+                import org.springframework.stereotype.Service;
+
+                @Service
+                public final class SomeService {
+                }""");
+
+        assertThat(getFileData()).isEmpty();
+    }
+
+    @Test
+    public void testIndexesKotlinServiceWithLevel() {
+        getFixture().configureByText("SomeService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service(Service.Level.APP)
+                class SomeService {
+                    companion object {
+                        @Service(Service.Level.PROJECT)
+                        class NestedService
+                    }
+                }""");
+
+        assertThat(getFileData()).containsOnly(
+            Map.entry("SomeService", "APP"),
+            Map.entry("SomeService.Companion.NestedService", "PROJECT"));
+    }
+
+    @Test
+    public void testDoesntIndexKotlinServiceLevelParameter() {
+        getFixture().configureByText("NotAService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                class NotAService(serviceLevel: Service.Level) {
+                }""");
+
+        assertThat(getFileData()).isEmpty();
+    }
+
+    //Lookup
+
+    @Test
+    public void testFindsLightServiceClasses() {
+        getFixture().addFileToProject("AProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                }""");
+        getFixture().addFileToProject("AnApplicationService.kt",
+            """
+                import com.intellij.openapi.components.Service
+
+                @Service
+                class AnApplicationService
+                """);
+
+        var lightServices = compute(() -> LightServiceIndex.findLightServiceClasses(getProject(), ProjectScope.getProjectScope(getProject())));
+
+        assertThat(lightServices).extracting(PsiNameIdentifierOwner::getName).containsExactlyInAnyOrder("AProjectService", "AnApplicationService");
+        assertThat(compute(() -> LightServiceIndex.hasLightService(ProjectScope.getProjectScope(getProject())))).isTrue();
+    }
+
+    @Test
+    public void testHasNoLightService() {
+        getFixture().addFileToProject("NotAService.java", "public final class NotAService {}");
+
+        assertThat(compute(() -> LightServiceIndex.hasLightService(ProjectScope.getProjectScope(getProject())))).isFalse();
+    }
+
+    private Map<String, String> getFileData() {
+        return compute(() -> FileBasedIndex.getInstance().getFileData(LightServiceIndex.NAME, getFixture().getFile().getVirtualFile(), getProject()));
+    }
+}
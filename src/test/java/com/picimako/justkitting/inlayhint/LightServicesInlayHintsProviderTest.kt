@@ -2,21 +2,34 @@
 
 package com.picimako.justkitting.inlayhint
 
+import com.intellij.ide.highlighter.XmlFileType
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.testFramework.DumbModeTestUtils
 import com.intellij.testFramework.LightProjectDescriptor
-import com.intellij.testFramework.utils.inlays.InlayHintsProviderTestCase
+import com.intellij.testFramework.utils.inlays.declarative.DeclarativeInlayHintsProviderTestCase
+import com.intellij.testFramework.utils.inlays.declarative.ProviderTestMode
 import com.picimako.justkitting.ThirdPartyLibraryLoader
 
 /**
  * Functional test for [LightServicesInlayHintsProvider].
  */
 @Suppress("UnstableApiUsage")
-class LightServicesInlayHintsProviderTest : InlayHintsProviderTestCase() {
+class LightServicesInlayHintsProviderTest : DeclarativeInlayHintsProviderTestCase() {
 
     override fun setUp() {
         super.setUp()
         ThirdPartyLibraryLoader.loadUtil8(myFixture)
     }
 
+    override fun tearDown() {
+        try {
+            LightServicesInlayHintsSettings.getInstance().loadState(Settings())
+        } finally {
+            super.tearDown()
+        }
+    }
+
     override fun getTestDataPath(): String {
         return "src/test/testData/inlayproject"
     }
@@ -36,82 +49,151 @@ class LightServicesInlayHintsProviderTest : InlayHintsProviderTestCase() {
         myFixture.copyFileToProject("AProjectAndApplicationService.kt")
     }
 
-    fun testNoHint() {
-        doTestProvider(
-            "plugin.xml",
+    fun testNoHintWithoutLightServices() {
+        doTest(
             """
 <idea-plugin>
     <extensions defaultExtensionNs="com.intellij">
     </extensions>
 </idea-plugin>
 """.trimIndent(),
-            LightServicesInlayHintsProvider(),
-            Settings(),
-            false)
+            Settings())
+    }
+
+    fun testNoHintInNonPluginDescriptor() {
+        loadLightServiceFiles()
+        doTest(
+            """
+<idea-module>
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-module>
+""".trimIndent(),
+            Settings())
     }
 
     fun testListOfServicesWithoutViewAll() {
         loadLightServiceFiles()
-        doTestProvider(
-            "plugin.xml",
+        doTest(
             """
 <idea-plugin>
-<# block -- Project light services --
-AProjectService
--- Application light services --
-AnApplicationService
--- Project and application light services --
-AProjectAndApplicationService #>
-/*<# block -- Project light services --
-AProjectService
--- Application light services --
-AnApplicationService
--- Project and application light services --
-AProjectAndApplicationService #>*/
+    /*<# block -- Project light services -- #>*/
+    /*<# block AProjectService #>*/
+    /*<# block -- Application light services -- #>*/
+    /*<# block AnApplicationService #>*/
+    /*<# block -- Project and application light services -- #>*/
+    /*<# block AProjectAndApplicationService #>*/
     <extensions defaultExtensionNs="com.intellij">
     </extensions>
 </idea-plugin>
 """.trimIndent(),
-            LightServicesInlayHintsProvider(),
-            Settings(lightServicesDisplayMode = InlayDisplayMode.ListOfLightServices, maxNumberOfServicesToDisplay = 3),
-            false)
+            Settings(lightServicesDisplayMode = InlayDisplayMode.ListOfLightServices, maxNumberOfServicesToDisplay = 3))
     }
 
     fun testListOfServicesWithViewAll() {
         loadLightServiceFiles()
-        doTestProvider(
-            "plugin.xml",
+        doTest(
             """
 <idea-plugin>
-<# block -- Project light services --
-AProjectService
-View all light services... #>
-/*<# block -- Project light services --
-AProjectService
-View all light services... #>*/
+    /*<# block -- Project light services -- #>*/
+    /*<# block AProjectService #>*/
+    /*<# block View all light services... #>*/
     <extensions defaultExtensionNs="com.intellij">
     </extensions>
 </idea-plugin>
 """.trimIndent(),
-            LightServicesInlayHintsProvider(),
-            Settings(lightServicesDisplayMode = InlayDisplayMode.ListOfLightServices, maxNumberOfServicesToDisplay = 1),
-            false)
+            Settings(lightServicesDisplayMode = InlayDisplayMode.ListOfLightServices, maxNumberOfServicesToDisplay = 1))
     }
 
     fun testViewAllOnly() {
         loadLightServiceFiles()
-        doTestProvider(
-            "plugin.xml",
+        doTest(
+            """
+<idea-plugin>
+    /*<# block View all light services... #>*/
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-plugin>
+""".trimIndent(),
+            Settings(lightServicesDisplayMode = InlayDisplayMode.ViewAllOnly))
+    }
+
+    fun testPersistedServicesDuringIndexing() {
+        loadLightServiceFiles()
+        val settings = Settings(lightServicesDisplayMode = InlayDisplayMode.ListOfLightServices, maxNumberOfServicesToDisplay = 1)
+        //Displaying the hints in smart mode persists the displayed light services
+        doTest(
             """
 <idea-plugin>
-<# block View all light services... #>
-/*<# block View all light services... #>*/
+    /*<# block -- Project light services -- #>*/
+    /*<# block AProjectService #>*/
+    /*<# block View all light services... #>*/
     <extensions defaultExtensionNs="com.intellij">
     </extensions>
 </idea-plugin>
 """.trimIndent(),
-            LightServicesInlayHintsProvider(),
-            Settings(lightServicesDisplayMode = InlayDisplayMode.ViewAllOnly),
-            false)
+            settings)
+
+        DumbModeTestUtils.runInDumbModeSynchronously(project) {
+            doTest(
+                """
+<idea-plugin>
+    /*<# block (Possibly outdated until indexing finishes) #>*/
+    /*<# block -- Project light services -- #>*/
+    /*<# block AProjectService #>*/
+    /*<# block View all light services... #>*/
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-plugin>
+""".trimIndent(),
+                settings)
+        }
+    }
+
+    fun testNoHintDuringIndexingWithoutPersistedServices() {
+        loadLightServiceFiles()
+        DumbModeTestUtils.runInDumbModeSynchronously(project) {
+            doTest(
+                """
+<idea-plugin>
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-plugin>
+""".trimIndent(),
+                Settings())
+        }
+    }
+
+    fun testRecognizesSettingsPreview() {
+        val preview = createNonPhysicalFile(
+            """
+<idea-plugin>
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-plugin>
+""".trimIndent())
+
+        assertTrue(LightServicesInlayHintsProvider.isSettingsPreview(preview))
+    }
+
+    fun testDoesntRecognizeOtherNonPhysicalPluginDescriptorAsSettingsPreview() {
+        val pluginDescriptor = createNonPhysicalFile(
+            """
+<idea-plugin>
+    <id>some.plugin</id>
+    <extensions defaultExtensionNs="com.intellij">
+    </extensions>
+</idea-plugin>
+""".trimIndent())
+
+        assertFalse(LightServicesInlayHintsProvider.isSettingsPreview(pluginDescriptor))
+    }
+
+    private fun createNonPhysicalFile(text: String): PsiFile =
+        PsiFileFactory.getInstance(project).createFileFromText("plugin.xml", XmlFileType.INSTANCE, text)
+
+    private fun doTest(expectedText: String, settings: Settings) {
+        LightServicesInlayHintsSettings.getInstance().loadState(settings)
+        doTestProvider("plugin.xml", expectedText, LightServicesInlayHintsProvider(), testMode = ProviderTestMode.SIMPLE)
     }
 }
@@ -2,6 +2,8 @@
 
 package com.picimako.justkitting.inspection;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.intellij.codeInspection.InspectionProfileEntry;
 import com.picimako.justkitting.ThirdPartyLibraryLoader;
 import org.junit.jupiter.api.BeforeEach;
@@ -284,4 +286,544 @@ public final class CachedValuesInspectionTest extends JustKittingInspectionTestB
                    }
                 }""");
     }
+
+    //Kotlin
+
+    @Test
+    public void testNeverChangedIsAddedForEmptyDependencyInKotlin() {
+        doQuickFixTest("Add ModificationTracker.NEVER_CHANGED as dependency", "NeverChangedIsAddedForEmptyDependency.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class NeverChangedIsAddedForEmptyDependency {
+                    fun method() {
+                        CachedValueProvider.Result.cre<caret>ate(Any())
+                    }
+                }""",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.openapi.util.ModificationTracker
+
+                class NeverChangedIsAddedForEmptyDependency {
+                    fun method() {
+                        CachedValueProvider.Result.create(Any(), ModificationTracker.NEVER_CHANGED)
+                    }
+                }""");
+    }
+
+    @Test
+    public void testModificationCountIsAddedForEmptyListDependencyInKotlin() {
+        doQuickFixTest("Replace empty collection with PsiModificationTracker.MODIFICATION_COUNT", "ModificationCountIsAddedForEmptyCollectionDependency.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class ModificationCountIsAddedForEmptyCollectionDependency {
+                    fun method() {
+                        CachedValueProvider.Result.cre<caret>ate(Any(), emptyList<Any>())
+                    }
+                }""",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.PsiModificationTracker
+
+                class ModificationCountIsAddedForEmptyCollectionDependency {
+                    fun method() {
+                        CachedValueProvider.Result.create(Any(), PsiModificationTracker.MODIFICATION_COUNT)
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNeverChangedIsAddedForEmptyListOfDependencyInKotlin() {
+        doQuickFixTest("Replace empty collection with ModificationTracker.NEVER_CHANGED", "NeverChangedIsAddedForEmptyCollectionDependency.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+
+                class NeverChangedIsAddedForEmptyCollectionDependency {
+                    fun method() {
+                        CachedValueProvider.Result.cre<caret>ate(Any(), listOf<Any>())
+                    }
+                }""",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.openapi.util.ModificationTracker
+
+                class NeverChangedIsAddedForEmptyCollectionDependency {
+                    fun method() {
+                        CachedValueProvider.Result.create(Any(), ModificationTracker.NEVER_CHANGED)
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoHighlightForNonEmptyDependenciesInKotlin() {
+        doJavaTest("NoHighlightForNonEmptyDependencies.kt",
+            """
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.PsiClass
+
+                class NoHighlightForNonEmptyDependencies {
+                    fun method(psiClass: PsiClass) {
+                        CachedValueProvider.Result.create(Any(), psiClass)
+                        CachedValueProvider.Result.create(Any(), listOf(psiClass))
+                    }
+                }""");
+    }
+
+    //Narrower dependencies
+
+    @Test
+    public void testContainingFileIsAddedAsDependency() {
+        doQuickFixTest("Add file as dependency", "ContainingFileIsAddedAsDependency.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public class ContainingFileIsAddedAsDependency {
+                   public CachedValueProvider<Object> provider(PsiFile file) {
+                       return () -> CachedValueProvider.Result.cre<caret>ate(PsiTreeUtil.findChildrenOfType(file, PsiClass.class));
+                   }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public class ContainingFileIsAddedAsDependency {
+                   public CachedValueProvider<Object> provider(PsiFile file) {
+                       return () -> CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(file, PsiClass.class), file);
+                   }
+                }""");
+    }
+
+    @Test
+    public void testNoBroaderDependencyForCrossFileReads() {
+        doJavaTest("NoBroaderDependencyForCrossFileReads.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.JavaPsiFacade;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.search.GlobalSearchScope;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public class NoBroaderDependencyForCrossFileReads {
+                   private int counter;
+
+                   public CachedValueProvider<Object> classLookup(Project project) {
+                       return () -> CachedValueProvider.Result.create(JavaPsiFacade.getInstance(project).findClass("some.Class", GlobalSearchScope.allScope(project)),
+                           PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> superClass(PsiClass psiClass) {
+                       return () -> CachedValueProvider.Result.create(psiClass.getSuperClass(), PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> fileParent(PsiFile file) {
+                       return () -> CachedValueProvider.Result.create(file.getParent(), PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> navigationElement(PsiClass psiClass) {
+                       return () -> CachedValueProvider.Result.create(psiClass.getNavigationElement().getChildren(), PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> fieldRead(PsiFile file) {
+                       return () -> CachedValueProvider.Result.create(file.getTextLength() + counter, PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> multipleFiles(PsiFile file, PsiFile otherFile) {
+                       return () -> CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(file, PsiClass.class).size() + otherFile.getTextLength(),
+                           PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+                }""");
+    }
+
+    @Test
+    public void testBroaderDependency() {
+        addProjectRootClasses();
+        doJavaTest("BroaderDependency.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.roots.ProjectRootManager;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class BroaderDependency {
+                   public CachedValueProvider<Object> provider(Project project) {
+                       return () -> CachedValueProvider.Result.create(ProjectRootManager.getInstance(project).getContentRoots(),
+                           <warning descr="This dependency changes on any PSI modification, but the value depends only on the project roots. Consider using a narrower dependency.">PsiModificationTracker.MODIFICATION_COUNT</warning>);
+                   }
+
+                   public CachedValueProvider<Object> providerWithHelper(Project project) {
+                       return () -> CachedValueProvider.Result.create(getContentRoots(project),
+                           <warning descr="This dependency changes on any PSI modification, but the value depends only on the project roots. Consider using a narrower dependency.">PsiModificationTracker.getInstance(project)</warning>);
+                   }
+
+                   private Object getContentRoots(Project project) {
+                       return ProjectRootManager.getInstance(project).getContentRoots();
+                   }
+                }""");
+    }
+
+    @Test
+    public void testProjectRootTrackerReplacesBroaderDependency() {
+        addProjectRootClasses();
+        doQuickFixTest("Replace with ProjectRootModificationTracker.getInstance(project)", "ProjectRootTrackerReplacesBroaderDependency.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.roots.ProjectRootManager;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class ProjectRootTrackerReplacesBroaderDependency {
+                   public CachedValueProvider<Object> provider(Project project) {
+                       return () -> CachedValueProvider.Result.create(ProjectRootManager.getInstance(project).getContentRoots(), PsiModificationTracker.MODIFICATION_<caret>COUNT);
+                   }
+                }""",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.roots.ProjectRootManager;
+                import com.intellij.openapi.roots.ProjectRootModificationTracker;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class ProjectRootTrackerReplacesBroaderDependency {
+                   public CachedValueProvider<Object> provider(Project project) {
+                       return () -> CachedValueProvider.Result.create(ProjectRootManager.getInstance(project).getContentRoots(), ProjectRootModificationTracker.getInstance(project));
+                   }
+                }""");
+    }
+
+    @Test
+    public void testNoBroaderDependencyForUnknownReads() {
+        addProjectRootClasses();
+        doJavaTest("NoBroaderDependencyForUnknownReads.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.roots.ProjectRootManager;
+                import com.intellij.openapi.vfs.VfsUtilCore;
+                import com.intellij.openapi.vfs.VirtualFile;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public class NoBroaderDependencyForUnknownReads {
+                   public CachedValueProvider<Object> fileContent(VirtualFile file) {
+                       return () -> CachedValueProvider.Result.create(VfsUtilCore.loadText(file), PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+
+                   public CachedValueProvider<Object> multipleAreas(PsiFile file) {
+                       return () -> CachedValueProvider.Result.create(ProjectRootManager.getInstance(file.getProject()).getContentRoots().length + file.getTextLength(),
+                           PsiModificationTracker.MODIFICATION_COUNT);
+                   }
+                }""");
+    }
+
+    @Test
+    public void testVfsStructureTrackerReplacesBroaderDependencyInKotlin() {
+        doQuickFixTest("Replace with VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS", "VfsStructureTrackerReplacesBroaderDependency.kt",
+            """
+                import com.intellij.openapi.vfs.VirtualFile
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.PsiModificationTracker
+
+                class VfsStructureTrackerReplacesBroaderDependency {
+                    fun provider(dir: VirtualFile) = CachedValueProvider {
+                        CachedValueProvider.Result.create(dir.findChild("plugin.xml"), PsiModificationTracker.MODIFICATION_<caret>COUNT)
+                    }
+                }""",
+            """
+                import com.intellij.openapi.vfs.VirtualFile
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.PsiModificationTracker
+                import com.intellij.openapi.vfs.VirtualFileManager
+
+                class VfsStructureTrackerReplacesBroaderDependency {
+                    fun provider(dir: VirtualFile) = CachedValueProvider {
+                        CachedValueProvider.Result.create(dir.findChild("plugin.xml"), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS)
+                    }
+                }""");
+    }
+
+    //Captured variables
+
+    @Test
+    public void testCapturedVariables() {
+        doJavaTest("CapturedVariables.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class CapturedVariables {
+                   public String getName(PsiElement element, String prefix, Project project) {
+                       String suffix = "suffix";
+                       return CachedValuesManager.getCachedValue(element, () -> {
+                           String local = "local";
+                           return CachedValueProvider.Result.create(<warning descr="The provider captures 'prefix', but the cached value is keyed by the provider class, so the value computed for one 'prefix' is returned for the others too.">prefix</warning> + element.getText() + <warning descr="The provider captures 'suffix', but the cached value is keyed by the provider class, so the value computed for one 'suffix' is returned for the others too.">suffix</warning> + local + prefix + project.getName(), element);
+                       });
+                   }
+
+                   public String getNameWithoutCapture(PsiElement element) {
+                       return CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(element.getText(), element));
+                   }
+                }""");
+    }
+
+    @Test
+    public void testCapturedVariablesInKotlin() {
+        doJavaTest("CapturedVariables.kt",
+            """
+                import com.intellij.psi.PsiElement
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.CachedValuesManager
+
+                class CapturedVariables {
+                    fun getName(element: PsiElement, prefix: String): String = CachedValuesManager.getCachedValue(element) {
+                        CachedValueProvider.Result.create(<warning descr="The provider captures 'prefix', but the cached value is keyed by the provider class, so the value computed for one 'prefix' is returned for the others too.">prefix</warning> + element.text, element)
+                    }
+                }""");
+    }
+
+    //Per-call creation
+
+    @Test
+    public void testPerCallCreation() {
+        doJavaTest("PerCallCreation.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.util.Key;
+                import com.intellij.openapi.util.ModificationTracker;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class PerCallCreation {
+                   private static final Key<String> STATIC_KEY = Key.create("static.key");
+                   private final Project project;
+                   private final CachedValue<String> value;
+                   private CachedValue<String> lazyValue;
+
+                   public PerCallCreation(Project project) {
+                       this.project = project;
+                       value = CachedValuesManager.getManager(project).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED));
+                   }
+
+                   public String getValue() {
+                       return CachedValuesManager.getManager(project).<warning descr="A new CachedValue is created on every call, so nothing is cached between calls. Consider storing it in a field.">createCachedValue</warning>(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED)).getValue();
+                   }
+
+                   public String getLazyValue() {
+                       if (lazyValue == null) {
+                           lazyValue = CachedValuesManager.getManager(project).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED));
+                       }
+                       return lazyValue.getValue();
+                   }
+
+                   public Key<String> getKey() {
+                       return Key.<warning descr="A new Key is created on every call, and it is never released. Consider storing it in a static field.">create</warning>("some.key");
+                   }
+                }""");
+    }
+
+    @Test
+    public void testPerCallKeyCreationInKotlin() {
+        doJavaTest("PerCallCreation.kt",
+            """
+                import com.intellij.openapi.util.Key
+
+                class PerCallCreation {
+                    fun getKey(): Key<String> = Key.<warning descr="A new Key is created on every call, and it is never released. Consider storing it in a static field.">create</warning><String>("some.key")
+
+                    companion object {
+                        val KEY = Key.create<String>("companion.key")
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoPerCallCreationForCachedValuesStoredInUserData() {
+        doJavaTest("UserDataCachedValue.java",
+            """
+                import com.intellij.openapi.util.Key;
+                import com.intellij.openapi.util.ModificationTracker;
+                import com.intellij.openapi.util.UserDataHolderEx;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class UserDataCachedValue {
+                   private static final Key<CachedValue<String>> KEY = Key.create("user.data.cached.value");
+
+                   public String getLazyValue(PsiElement element) {
+                       CachedValue<String> value = element.getUserData(KEY);
+                       if (value == null) {
+                           value = CachedValuesManager.getManager(element.getProject()).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED));
+                           element.putUserData(KEY, value);
+                       }
+                       return value.getValue();
+                   }
+
+                   public String getValueIfAbsent(UserDataHolderEx holder, PsiElement element) {
+                       return holder.putUserDataIfAbsent(KEY, CachedValuesManager.getManager(element.getProject()).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED))).getValue();
+                   }
+
+                   public String getStoredValue(PsiElement element) {
+                       var value = CachedValuesManager.getManager(element.getProject()).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED));
+                       element.putUserData(KEY, value);
+                       return value.getValue();
+                   }
+                }""");
+    }
+
+    @Test
+    public void testNoPerCallCreationForCachedValuesStoredInUserDataInKotlin() {
+        doJavaTest("UserDataCachedValue.kt",
+            """
+                import com.intellij.openapi.util.Key
+                import com.intellij.openapi.util.ModificationTracker
+                import com.intellij.psi.PsiElement
+                import com.intellij.psi.util.CachedValue
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.CachedValuesManager
+
+                class UserDataCachedValue {
+                    fun getLazyValue(element: PsiElement): String? {
+                        var value = element.getUserData(KEY)
+                        if (value == null) {
+                            value = CachedValuesManager.getManager(element.project).createCachedValue { CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED) }
+                            element.putUserData(KEY, value)
+                        }
+                        return value.value
+                    }
+
+                    companion object {
+                        val KEY = Key.create<CachedValue<String>>("user.data.cached.value")
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoHoistingInKotlin() {
+        getFixture().configureByText("NoHoistingInKotlin.kt",
+            """
+                import com.intellij.openapi.util.Key
+
+                class NoHoistingInKotlin {
+                    fun getKey(): Key<String> = Key.cre<caret>ate<String>("some.key")
+                }""");
+        getFixture().enableInspections(getInspection());
+        getFixture().doHighlighting();
+        assertThat(getFixture().filterAvailableIntentions("Move Key into static field")).isEmpty();
+    }
+
+    @Test
+    public void testHoistsKeyIntoStaticField() {
+        doQuickFixTest("Move Key into static field 'LIGHT_SERVICES_KEY'", "HoistsKeyIntoStaticField.java",
+            """
+                import com.intellij.openapi.util.Key;
+
+                public class HoistsKeyIntoStaticField {
+                    public Key<String> getKey() {
+                        return Key.cre<caret>ate("lightServices");
+                    }
+                }""",
+            """
+                import com.intellij.openapi.util.Key;
+
+                public class HoistsKeyIntoStaticField {
+                    private static final Key<String> LIGHT_SERVICES_KEY = Key.create("lightServices");
+
+                    public Key<String> getKey() {
+                        return LIGHT_SERVICES_KEY;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testHoistsCachedValueIntoField() {
+        doQuickFixTest("Move CachedValue into field 'cachedValue'", "HoistsCachedValueIntoField.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.util.ModificationTracker;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class HoistsCachedValueIntoField {
+                    private final Project project = findProject();
+
+                    public String getValue() {
+                        return CachedValuesManager.getManager(project).createCached<caret>Value(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED)).getValue();
+                    }
+
+                    private static Project findProject() {
+                        return null;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.util.ModificationTracker;
+                import com.intellij.psi.util.CachedValue;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+
+                public class HoistsCachedValueIntoField {
+                    private final Project project = findProject();
+                    private final CachedValue<String> cachedValue = CachedValuesManager.getManager(project).createCachedValue(() -> CachedValueProvider.Result.create("value", ModificationTracker.NEVER_CHANGED));
+
+                    public String getValue() {
+                        return cachedValue.getValue();
+                    }
+
+                    private static Project findProject() {
+                        return null;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoHoistingForParameterReferences() {
+        getFixture().configureByText("NoHoistingForParameterReferences.java",
+            """
+                import com.intellij.openapi.util.Key;
+
+                public class NoHoistingForParameterReferences {
+                    public Key<String> getKey(String name) {
+                        return Key.cre<caret>ate(name);
+                    }
+                }""");
+        getFixture().enableInspections(getInspection());
+        getFixture().doHighlighting();
+        assertThat(getFixture().filterAvailableIntentions("Move Key into static field")).isEmpty();
+    }
+
+    private void addProjectRootClasses() {
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.roots;
+
+                public abstract class ProjectRootManager {
+                    public static ProjectRootManager getInstance(com.intellij.openapi.project.Project project) {
+                        return null;
+                    }
+
+                    public abstract com.intellij.openapi.vfs.VirtualFile[] getContentRoots();
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.roots;
+
+                public abstract class ProjectRootModificationTracker implements com.intellij.openapi.util.ModificationTracker {
+                    public static ProjectRootModificationTracker getInstance(com.intellij.openapi.project.Project project) {
+                        return null;
+                    }
+                }""");
+    }
 }
@@ -0,0 +1,189 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link ExtensionStaticInitializationInspection}.
+ */
+public final class ExtensionStaticInitializationInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new ExtensionStaticInitializationInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.util.io;
+
+                public final class FileUtil {
+                    public static String loadFile(java.io.File file) {
+                        return null;
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.patterns;
+
+                public class PsiElementPattern {
+                    public PsiElementPattern withParent(PsiElementPattern parent) {
+                        return this;
+                    }
+
+                    public PsiElementPattern withName(String name) {
+                        return this;
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.patterns;
+
+                public final class PlatformPatterns {
+                    public static PsiElementPattern psiElement() {
+                        return null;
+                    }
+                }""");
+        getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <localInspection implementationClass="SomeInspection"/>
+                        <lang.foldingBuilder language="JAVA" implementationClass="Outer$NestedFoldingBuilder"/>
+                        <intentionAction>
+                            <className>SomeIntention</className>
+                        </intentionAction>
+                    </extensions>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testReportsExpensiveStaticInitialization() {
+        doJavaTest("SomeInspection.java",
+            """
+                import com.intellij.openapi.util.io.FileUtil;
+                import java.io.File;
+                import java.util.Set;
+                import static com.intellij.patterns.PlatformPatterns.psiElement;
+
+                public class SomeInspection {
+                    private static final String CONTENT = <warning descr="Static initialization of extension class performs file I/O via 'FileUtil.loadFile()'. Consider moving it into a lazy holder class or a lazily initialized value.">FileUtil.loadFile(new File("some.txt"))</warning>;
+                    private static final String INDIRECT_CONTENT = <warning descr="Static initialization of extension class performs file I/O via 'FileUtil.loadFile()', called from 'SomeInspection.load()'. Consider moving it into a lazy holder class or a lazily initialized value.">load()</warning>;
+                    private static final Set<String> <warning descr="Static initialization of extension class creates collections of 20 elements. Consider moving it into a lazy holder class or a lazily initialized value.">NAMES</warning> = Set.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j",
+                        "k", "l", "m", "n", "o", "p", "q", "r", "s", "t");
+                    private static final Set<String> SMALL_NAMES = Set.of("a", "b", "c");
+                    private static final Object <warning descr="Static initialization of extension class builds a pattern of 11 conditions. Consider moving it into a lazy holder class or a lazily initialized value.">PATTERN</warning> =
+                        psiElement().withName("a").withParent(psiElement().withName("b").withParent(psiElement().withName("c").withParent(psiElement().withName("d"))));
+                    private static final Runnable LAZY = () -> FileUtil.loadFile(new File("some.txt"));
+
+                    private static String load() {
+                        return FileUtil.loadFile(new File("some.txt"));
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsStaticInitializerBlocks() {
+        doJavaTest("Outer.java",
+            """
+                import java.util.HashMap;
+                import java.util.Map;
+
+                public class Outer {
+                    public static final class NestedFoldingBuilder {
+                        private static final Map<String, String> MAP = new HashMap<>();
+
+                        <warning descr="Static initialization of extension class creates collections of 20 elements. Consider moving it into a lazy holder class or a lazily initialized value.">static</warning> {
+                            MAP.put("a", "a"); MAP.put("b", "b"); MAP.put("c", "c"); MAP.put("d", "d"); MAP.put("e", "e");
+                            MAP.put("f", "f"); MAP.put("g", "g"); MAP.put("h", "h"); MAP.put("i", "i"); MAP.put("j", "j");
+                            MAP.put("k", "k"); MAP.put("l", "l"); MAP.put("m", "m"); MAP.put("n", "n"); MAP.put("o", "o");
+                            MAP.put("p", "p"); MAP.put("q", "q"); MAP.put("r", "r"); MAP.put("s", "s"); MAP.put("t", "t");
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsClassesReferencedInClassNameTags() {
+        doJavaTest("SomeIntention.java",
+            """
+                import java.util.HashMap;
+                import java.util.Map;
+
+                public class SomeIntention {
+                    private static final Map<String, String> MAP = new HashMap<>();
+
+                    <warning descr="Static initialization of extension class creates collections of 20 elements. Consider moving it into a lazy holder class or a lazily initialized value.">static</warning> {
+                        MAP.put("a", "a"); MAP.put("b", "b"); MAP.put("c", "c"); MAP.put("d", "d"); MAP.put("e", "e");
+                        MAP.put("f", "f"); MAP.put("g", "g"); MAP.put("h", "h"); MAP.put("i", "i"); MAP.put("j", "j");
+                        MAP.put("k", "k"); MAP.put("l", "l"); MAP.put("m", "m"); MAP.put("n", "n"); MAP.put("o", "o");
+                        MAP.put("p", "p"); MAP.put("q", "q"); MAP.put("r", "r"); MAP.put("s", "s"); MAP.put("t", "t");
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportNonExtensionClasses() {
+        doJavaTest("SomeClass.java",
+            """
+                import com.intellij.openapi.util.io.FileUtil;
+                import java.io.File;
+
+                public class SomeClass {
+                    private static final String CONTENT = FileUtil.loadFile(new File("some.txt"));
+                }""");
+    }
+
+    @Test
+    public void testMovesFieldToLazyHolder() {
+        doQuickFixTest("Move field into lazy holder class 'ContentHolder'", "SomeInspection.java",
+            """
+                import com.intellij.openapi.util.io.FileUtil;
+                import java.io.File;
+
+                public class SomeInspection {
+                    private static final String CONTENT = FileUtil.loadF<caret>ile(new File("some.txt"));
+
+                    String getContent() {
+                        return CONTENT;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.util.io.FileUtil;
+                import java.io.File;
+
+                public class SomeInspection {
+
+                    String getContent() {
+                        return ContentHolder.CONTENT;
+                    }
+
+                    private static final class ContentHolder {
+                        private static final String CONTENT = FileUtil.loadFile(new File("some.txt"));
+                    }
+                }""");
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsKotlinCompanionObjectProperties() {
+        doJavaTest("SomeInspection.kt",
+            """
+                import com.intellij.openapi.util.io.FileUtil
+                import java.io.File
+
+                class SomeInspection {
+                    companion object {
+                        private val CONTENT = FileUtil.<warning descr="Static initialization of extension class performs file I/O via 'FileUtil.loadFile()'. Consider moving it into a lazy holder class or a lazily initialized value.">loadFile(File("some.txt"))</warning>
+                        private val LAZY_CONTENT by lazy { FileUtil.loadFile(File("some.txt")) }
+                    }
+                }""");
+    }
+}
@@ -0,0 +1,273 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link HeavyObjectRetentionInspection}.
+ */
+public final class HeavyObjectRetentionInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new HeavyObjectRetentionInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.util.containers;
+
+                import java.util.Map;
+                import java.util.concurrent.ConcurrentMap;
+
+                public final class ContainerUtil {
+                    public static <K, V> Map<K, V> createWeakMap() {
+                        return null;
+                    }
+
+                    public static <K, V> ConcurrentMap<K, V> createConcurrentWeakMap() {
+                        return null;
+                    }
+                }""");
+    }
+
+    //Java
+
+    @Test
+    public void testReportsRetainingFieldsInLightService() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.SmartPsiElementPointer;
+                import com.intellij.util.containers.ContainerUtil;
+                import java.util.List;
+                import java.util.Map;
+
+                @Service
+                public final class SomeService {
+                    private PsiClass <warning descr="Field keeps 'PsiClass' objects alive as long as the light service, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">psiClass</warning>;
+                    private final List<PsiFile> <warning descr="Field keeps 'PsiFile' objects alive as long as the light service, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">files</warning> = List.of();
+                    private final Map<String, PsiClass[]> <warning descr="Field keeps 'PsiClass' objects alive as long as the light service, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">classesByName</warning> = Map.of();
+                    private final SmartPsiElementPointer<PsiClass> pointer = null;
+                    private final Map<PsiClass, String> weakMap = ContainerUtil.createWeakMap();
+                    private String name;
+                }""");
+    }
+
+    @Test
+    public void testReportsMapsNotCreatedAsWeakMaps() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import java.util.HashMap;
+                import java.util.Map;
+                import java.util.WeakHashMap;
+
+                @Service
+                public final class SomeService {
+                    private final Map<PsiClass, String> weakHashMap = new WeakHashMap<>();
+                    private final Map<PsiClass, String> <warning descr="Field keeps 'PsiClass' objects alive as long as the light service, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">nonWeakMap</warning> = createWeaklyTypedMap();
+                    private final Map<PsiClass, String> <warning descr="Field keeps 'PsiClass' objects alive as long as the light service, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">nonWeakClassMap</warning> = new WeakishMap<>();
+
+                    private static <K, V> Map<K, V> createWeaklyTypedMap() {
+                        return new HashMap<>();
+                    }
+
+                    private static final class WeakishMap<K, V> extends HashMap<K, V> {
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportFieldsOfNonLongLivedClasses() {
+        doJavaTest("SomeClass.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                public final class SomeClass {
+                    private PsiClass psiClass;
+                }""");
+    }
+
+    @Test
+    public void testConvertsFieldToSmartPointer() {
+        doQuickFixTest("Convert field to SmartPsiElementPointer", "SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+
+                @Service
+                public final class SomeService {
+                    private PsiClass psi<caret>Class = null;
+
+                    void update(PsiClass newClass) {
+                        psiClass = newClass;
+                        String name = psiClass.getName();
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.SmartPointerManager;
+                import com.intellij.psi.SmartPsiElementPointer;
+
+                @Service
+                public final class SomeService {
+                    private SmartPsiElementPointer<PsiClass> psiClass = null;
+
+                    void update(PsiClass newClass) {
+                        psiClass = createNullablePointer(newClass);
+                        String name = getPointedElement(psiClass).getName();
+                    }
+
+                    private static <T extends PsiElement> T getPointedElement(SmartPsiElementPointer<T> pointer) {
+                        return pointer != null ? pointer.getElement() : null;
+                    }
+
+                    private static <T extends PsiElement> SmartPsiElementPointer<T> createNullablePointer(T element) {
+                        return element != null ? SmartPointerManager.createPointer(element) : null;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testConvertsLazilyInitializedFieldToSmartPointer() {
+        doQuickFixTest("Convert field to SmartPsiElementPointer", "SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+
+                @Service
+                public final class SomeService {
+                    private PsiClass psi<caret>Class;
+
+                    PsiClass getPsiClass() {
+                        if (psiClass == null) psiClass = findClass();
+                        return psiClass;
+                    }
+
+                    void reset() {
+                        psiClass = null;
+                    }
+
+                    private PsiClass findClass() {
+                        return null;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.SmartPointerManager;
+                import com.intellij.psi.SmartPsiElementPointer;
+
+                @Service
+                public final class SomeService {
+                    private SmartPsiElementPointer<PsiClass> psiClass;
+
+                    PsiClass getPsiClass() {
+                        if (getPointedElement(psiClass) == null) psiClass = createNullablePointer(findClass());
+                        return getPointedElement(psiClass);
+                    }
+
+                    void reset() {
+                        psiClass = null;
+                    }
+
+                    private PsiClass findClass() {
+                        return null;
+                    }
+
+                    private static <T extends PsiElement> T getPointedElement(SmartPsiElementPointer<T> pointer) {
+                        return pointer != null ? pointer.getElement() : null;
+                    }
+
+                    private static <T extends PsiElement> SmartPsiElementPointer<T> createNullablePointer(T element) {
+                        return element != null ? SmartPointerManager.createPointer(element) : null;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testConvertsMapToWeakKeyedMap() {
+        doQuickFixTest("Initialize map via ContainerUtil.createWeakMap()", "SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import java.util.HashMap;
+                import java.util.Map;
+
+                @Service
+                public final class SomeService {
+                    private final Map<PsiClass, String> names<caret> = new HashMap<>();
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.util.containers.ContainerUtil;
+
+                import java.util.Map;
+
+                @Service
+                public final class SomeService {
+                    private final Map<PsiClass, String> names = ContainerUtil.createWeakMap();
+                }""");
+    }
+
+    @Test
+    public void testConvertsMapInitializedWithConcurrentMapToConcurrentWeakKeyedMap() {
+        doQuickFixTest("Initialize map via ContainerUtil.createConcurrentWeakMap()", "SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import java.util.Map;
+                import java.util.concurrent.ConcurrentHashMap;
+
+                @Service
+                public final class SomeService {
+                    private final Map<PsiClass, String> names<caret> = new ConcurrentHashMap<>();
+                }""",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.PsiClass;
+                import com.intellij.util.containers.ContainerUtil;
+
+                import java.util.Map;
+
+                @Service
+                public final class SomeService {
+                    private final Map<PsiClass, String> names = ContainerUtil.createConcurrentWeakMap();
+                }""");
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsRetainingPropertiesInKotlinObjects() {
+        doJavaTest("SomeObject.kt",
+            """
+                import com.intellij.psi.PsiClass
+
+                object SomeObject {
+                    private var <warning descr="Field keeps 'PsiClass' objects alive as long as the Kotlin object, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">psiClass</warning>: PsiClass? = null
+                }
+
+                class SomeClass {
+                    private var psiClass: PsiClass? = null
+
+                    companion object {
+                        private var <warning descr="Field keeps 'PsiClass' objects alive as long as the companion object, which may cause memory leaks. Consider using a SmartPsiElementPointer, a CachedValue or a weak-keyed map instead.">cachedClass</warning>: PsiClass? = null
+                    }
+                }""");
+    }
+}
@@ -0,0 +1,154 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link HeavyServiceConstructorInspection}.
+ */
+public final class HeavyServiceConstructorInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new HeavyServiceConstructorInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.psi.search.searches;
+
+                public final class ReferencesSearch {
+                    public static Object search(Object element) {
+                        return null;
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.application;
+
+                public final class ReadAction {
+                    public static <T> T compute(java.util.function.Supplier<T> computable) {
+                        return computable.get();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsExpensiveCallsInServiceInitialization() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.application.ReadAction;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+                import java.nio.file.Files;
+                import java.nio.file.Path;
+
+                @Service
+                public final class SomeService {
+                    private final Object references = <warning descr="Service initialization searches for references or inheritors via 'ReferencesSearch.search()'. Consider moving it behind a lazily initialized or CachedValue-based accessor.">ReferencesSearch.search(null)</warning>;
+                    private final Object value;
+
+                    {
+                        <warning descr="Service initialization runs a read action via 'ReadAction.compute()'. Consider moving it behind a lazily initialized or CachedValue-based accessor.">ReadAction.compute(() -> "value")</warning>;
+                    }
+
+                    public SomeService() throws Exception {
+                        value = <warning descr="Service initialization performs file I/O via 'Files.readString()'. Consider moving it behind a lazily initialized or CachedValue-based accessor.">Files.readString(Path.of("config"))</warning>;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsExpensiveCallsInCalledMethods() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                @Service
+                public final class SomeService {
+                    private final Object references;
+
+                    public SomeService() {
+                        references = <warning descr="Service initialization searches for references or inheritors via 'ReferencesSearch.search()', called from 'SomeService.collect()'. Consider moving it behind a lazily initialized or CachedValue-based accessor.">collect()</warning>;
+                    }
+
+                    private Object collect() {
+                        return doCollect();
+                    }
+
+                    private Object doCollect() {
+                        return ReferencesSearch.search(null);
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportExpensiveCallsBeyondMaxCallDepth() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+
+                @Service
+                public final class SomeService {
+                    public SomeService() {
+                        first();
+                    }
+
+                    private void first() {
+                        second();
+                    }
+
+                    private void second() {
+                        third();
+                    }
+
+                    private void third() {
+                        ReferencesSearch.search(null);
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportExpensiveCallsInLambdasAndNonServiceInitialization() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.components.Service;
+                import com.intellij.psi.search.searches.ReferencesSearch;
+                import java.util.function.Supplier;
+
+                @Service
+                public final class SomeService {
+                    private final Supplier<Object> references = () -> ReferencesSearch.search(null);
+                    private static final Object STATIC_REFERENCES = ReferencesSearch.search(null);
+
+                    public Object getReferences() {
+                        return ReferencesSearch.search(null);
+                    }
+                }
+
+                final class NotAService {
+                    private final Object references = ReferencesSearch.search(null);
+                }""");
+    }
+
+    @Test
+    public void testReportsExpensiveCallsInKotlinServiceInitialization() {
+        doJavaTest("SomeService.kt",
+            """
+                import com.intellij.openapi.components.Service
+                import com.intellij.psi.search.searches.ReferencesSearch
+
+                @Service
+                class SomeService {
+                    private val references = ReferencesSearch.<warning descr="Service initialization searches for references or inheritors via 'ReferencesSearch.search()'. Consider moving it behind a lazily initialized or CachedValue-based accessor.">search(null)</warning>
+                }""");
+    }
+}
@@ -0,0 +1,625 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link PersistentStateSerializationCostInspection}.
+ */
+public final class PersistentStateSerializationCostInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new PersistentStateSerializationCostInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public interface PersistentStateComponent<T> {
+                    T getState();
+
+                    void loadState(T state);
+
+                    default long getStateModificationCount() {
+                        return -1;
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public @interface Storage {
+                    String value() default "";
+
+                    String file() default "";
+
+                    RoamingType roamingType() default RoamingType.DEFAULT;
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public enum RoamingType {
+                    DISABLED, PER_OS, DEFAULT
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public @interface State {
+                    String name();
+
+                    Storage[] storages() default {};
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public final class StoragePathMacros {
+                    public static final String CACHE_FILE = "$cache_file$";
+                    public static final String WORKSPACE_FILE = "$WORKSPACE_FILE$";
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.util;
+
+                public class SimpleModificationTracker {
+                    public long getModificationCount() {
+                        return 0;
+                    }
+
+                    public void incModificationCount() {
+                    }
+                }""");
+    }
+
+    //Java
+
+    @Test
+    public void testReportsCopyBeanAndNewStateObjects() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import com.intellij.util.xmlb.XmlSerializerUtil;
+
+                @State(name = "SomeComponent", storages = @Storage("some.xml"))
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private String name;
+
+                    @Override
+                    public Options getState() {
+                        return <warning descr="'getState()' creates a new state object every time the settings are saved. Consider keeping the state in a field and returning that.">new Options(name)</warning>;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        <warning descr="'XmlSerializerUtil.copyBean()' copies the loaded state reflectively. Consider keeping the loaded state object instead.">XmlSerializerUtil.copyBean(state, new Options(null))</warning>;
+                    }
+
+                    static final class Options {
+                        public String name;
+
+                        Options(String name) {
+                            this.name = name;
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsNewStateObjectInLocalVariable() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+
+                @State(name = "SomeComponent", storages = @Storage("some.xml"))
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options options = new Options();
+
+                    @Override
+                    public Options getState() {
+                        var state = new Options();
+                        state.name = options.name;
+                        return <warning descr="'getState()' creates a new state object every time the settings are saved. Consider keeping the state in a field and returning that.">state</warning>;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    static final class Options {
+                        public String name;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsCollectionStateWithoutModificationCount() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import java.util.ArrayList;
+                import java.util.List;
+
+                @State(name = "SomeComponent", storages = @Storage("some.xml"))
+                public final class <warning descr="State containing collections is serialized and compared to the stored state on every save. Consider overriding 'getStateModificationCount()', or using a BaseState-based state.">SomeComponent</warning> implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options options = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return options;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    static final class Options {
+                        public List<String> names = new ArrayList<>();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportCollectionStateWithModificationCount() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import java.util.ArrayList;
+                import java.util.List;
+
+                @State(name = "SomeComponent", storages = @Storage("some.xml"))
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options options = new Options();
+                    private long modificationCount;
+
+                    @Override
+                    public Options getState() {
+                        return options;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    @Override
+                    public long getStateModificationCount() {
+                        return modificationCount;
+                    }
+
+                    static final class Options {
+                        public List<String> names = new ArrayList<>();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsCacheInNonCacheStorage() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import com.intellij.openapi.components.StoragePathMacros;
+                import java.util.HashMap;
+                import java.util.Map;
+
+                @State(name = "SomeComponent", storages = {@Storage(<warning descr="Cache-like state is stored in a roamable or workspace file. Consider storing it in StoragePathMacros.CACHE_FILE.">StoragePathMacros.WORKSPACE_FILE</warning>), @Storage(StoragePathMacros.CACHE_FILE)})
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options options = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return options;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    @Override
+                    public long getStateModificationCount() {
+                        return 0;
+                    }
+
+                    static final class Options {
+                        public Map<String, String> resultCache = new HashMap<>();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportNonRoamableStorage() {
+        doJavaTest("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.RoamingType;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import java.util.HashMap;
+                import java.util.Map;
+
+                @State(name = "SomeComponent", storages = @Storage(value = "some.xml", roamingType = RoamingType.DISABLED))
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options options = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return options;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    @Override
+                    public long getStateModificationCount() {
+                        return 0;
+                    }
+
+                    static final class Options {
+                        public Map<String, String> resultCache = new HashMap<>();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportStateWithoutCacheWordInNames() {
+        doJavaTest("CachetComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import java.util.HashMap;
+                import java.util.Map;
+
+                @State(name = "CachetComponent", storages = @Storage("some.xml"))
+                public final class CachetComponent implements PersistentStateComponent<CachetComponent.Options> {
+                    private Options options = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return options;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        options = state;
+                    }
+
+                    @Override
+                    public long getStateModificationCount() {
+                        return 0;
+                    }
+
+                    static final class Options {
+                        public Map<String, String> cachets = new HashMap<>();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testAssignsLoadedState() {
+        doQuickFixTest("Assign loaded state to 'myState'", "SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.util.xmlb.XmlSerializerUtil;
+
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options myState = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return myState;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        XmlSerializerUtil.copy<caret>Bean(state, myState);
+                    }
+
+                    static final class Options {
+                        public String name;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.util.xmlb.XmlSerializerUtil;
+
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent.Options> {
+                    private Options myState = new Options();
+
+                    @Override
+                    public Options getState() {
+                        return myState;
+                    }
+
+                    @Override
+                    public void loadState(Options state) {
+                        myState = state;
+                    }
+
+                    static final class Options {
+                        public String name;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoAssignQuickFixForSelfAsState() {
+        getFixture().configureByText("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.util.xmlb.XmlSerializerUtil;
+
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent> {
+                    public String name;
+
+                    @Override
+                    public SomeComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeComponent state) {
+                        XmlSerializerUtil.copy<caret>Bean(state, this);
+                    }
+                }""");
+        getFixture().enableInspections(getInspection());
+        getFixture().doHighlighting();
+        assertThat(getFixture().filterAvailableIntentions("Assign loaded state")).isEmpty();
+    }
+
+    @Test
+    public void testTracksStateModifications() {
+        doQuickFixTest("Track state modifications in getStateModificationCount()", "SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public final class Some<caret>Component implements PersistentStateComponent<SomeComponent> {
+                    private final List<String> items = new ArrayList<>();
+                    private int count;
+
+                    @Override
+                    public SomeComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeComponent state) {
+                    }
+
+                    public void addItem(String item) {
+                        if (!items.contains(item)) {
+                            items.add(item);
+                            count++;
+                        }
+                    }
+
+                    public int getCount() {
+                        return count;
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.util.SimpleModificationTracker;
+
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public final class SomeComponent implements PersistentStateComponent<SomeComponent> {
+                    private final SimpleModificationTracker stateModificationTracker = new SimpleModificationTracker();
+                    private final List<String> items = new ArrayList<>();
+                    private int count;
+
+                    @Override
+                    public SomeComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeComponent state) {
+                    }
+
+                    public void addItem(String item) {
+                        if (!items.contains(item)) {
+                            items.add(item);
+                            stateModificationTracker.incModificationCount();
+                            count++;
+                            stateModificationTracker.incModificationCount();
+                        }
+                    }
+
+                    public int getCount() {
+                        return count;
+                    }
+
+                    @Override
+                    public long getStateModificationCount() {
+                        return stateModificationTracker.getModificationCount();
+                    }
+                }""");
+    }
+
+    @Test
+    public void testNoTrackingQuickFixForExposedCollection() {
+        getFixture().configureByText("SomeComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public final class Some<caret>Component implements PersistentStateComponent<SomeComponent> {
+                    private final List<String> items = new ArrayList<>();
+
+                    @Override
+                    public SomeComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeComponent state) {
+                    }
+
+                    public List<String> getItems() {
+                        return items;
+                    }
+                }""");
+        getFixture().enableInspections(getInspection());
+        getFixture().doHighlighting();
+        assertThat(getFixture().filterAvailableIntentions("Track state modifications")).isEmpty();
+    }
+
+    @Test
+    public void testStoresStateInCacheFile() {
+        doQuickFixTest("Store state in StoragePathMacros.CACHE_FILE", "SomeCacheComponent.java",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+
+                @State(name = "SomeCacheComponent", storages = @Storage("some<caret>Cache.xml"))
+                public final class SomeCacheComponent implements PersistentStateComponent<SomeCacheComponent> {
+                    public String value;
+
+                    @Override
+                    public SomeCacheComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeCacheComponent state) {
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent;
+                import com.intellij.openapi.components.State;
+                import com.intellij.openapi.components.Storage;
+                import com.intellij.openapi.components.StoragePathMacros;
+
+                @State(name = "SomeCacheComponent", storages = @Storage(StoragePathMacros.CACHE_FILE))
+                public final class SomeCacheComponent implements PersistentStateComponent<SomeCacheComponent> {
+                    public String value;
+
+                    @Override
+                    public SomeCacheComponent getState() {
+                        return this;
+                    }
+
+                    @Override
+                    public void loadState(SomeCacheComponent state) {
+                    }
+                }""");
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsKotlinComponent() {
+        doJavaTest("SomeCacheComponent.kt",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.util.xmlb.XmlSerializerUtil
+
+                @State(name = "SomeCacheComponent", storages = [Storage(<warning descr="Cache-like state is stored in a roamable or workspace file. Consider storing it in StoragePathMacros.CACHE_FILE.">"someCache.xml"</warning>)])
+                class <warning descr="State containing collections is serialized and compared to the stored state on every save. Consider overriding 'getStateModificationCount()', or using a BaseState-based state.">SomeCacheComponent</warning> : PersistentStateComponent<SomeCacheComponent> {
+                    var entries: MutableList<String> = mutableListOf()
+
+                    override fun getState(): SomeCacheComponent = this
+
+                    override fun loadState(state: SomeCacheComponent) {
+                        XmlSerializerUtil.<warning descr="'XmlSerializerUtil.copyBean()' copies the loaded state reflectively. Consider keeping the loaded state object instead.">copyBean(state, this)</warning>
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportKotlinCacheFileAndNonRoamableStorages() {
+        doJavaTest("SomeCacheComponent.kt",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent
+                import com.intellij.openapi.components.RoamingType
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.StoragePathMacros
+
+                @State(name = "SomeCacheComponent", storages = [Storage(StoragePathMacros.CACHE_FILE), Storage("someCache.xml", roamingType = RoamingType.DISABLED)])
+                class SomeCacheComponent : PersistentStateComponent<SomeCacheComponent> {
+                    var entries: MutableList<String> = mutableListOf()
+
+                    override fun getState(): SomeCacheComponent = this
+
+                    override fun loadState(state: SomeCacheComponent) {
+                        entries = state.entries
+                    }
+
+                    override fun getStateModificationCount(): Long = 0
+                }""");
+    }
+
+    @Test
+    public void testAssignsLoadedStateInKotlin() {
+        doQuickFixTest("Assign loaded state to 'myState'", "SomeComponent.kt",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent
+                import com.intellij.util.xmlb.XmlSerializerUtil
+
+                class SomeComponent : PersistentStateComponent<SomeComponent.Options> {
+                    private var myState = Options()
+
+                    override fun getState(): Options = myState
+
+                    override fun loadState(state: Options) {
+                        XmlSerializerUtil.copy<caret>Bean(state, myState)
+                    }
+
+                    class Options {
+                        var name: String? = null
+                    }
+                }""",
+            """
+                import com.intellij.openapi.components.PersistentStateComponent
+                import com.intellij.util.xmlb.XmlSerializerUtil
+
+                class SomeComponent : PersistentStateComponent<SomeComponent.Options> {
+                    private var myState = Options()
+
+                    override fun getState(): Options = myState
+
+                    override fun loadState(state: Options) {
+                        myState = state
+                    }
+
+                    class Options {
+                        var name: String? = null
+                    }
+                }""");
+    }
+}
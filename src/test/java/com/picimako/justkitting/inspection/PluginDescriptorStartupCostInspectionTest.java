@@ -0,0 +1,154 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link PluginDescriptorStartupCostInspection}.
+ */
+public final class PluginDescriptorStartupCostInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new PluginDescriptorStartupCostInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass("package com.intellij.openapi.startup; public interface ProjectActivity {}");
+        getFixture().addClass("package com.intellij.openapi.startup; public interface StartupActivity {}");
+        getFixture().addClass("package com.intellij.openapi.components; public interface BaseComponent {}");
+        getFixture().addClass("package com.example; public final class SomeProjectActivity implements com.intellij.openapi.startup.ProjectActivity {}");
+        getFixture().addClass("package com.example; public final class SomeStartupActivity implements com.intellij.openapi.startup.StartupActivity {}");
+        getFixture().addClass("package com.example; public interface SomeComponent {}");
+        getFixture().addClass("package com.example; public final class SomeComponentImpl implements SomeComponent {}");
+        getFixture().addClass("package com.example; public final class LifecycleComponent implements com.intellij.openapi.components.BaseComponent {}");
+        getFixture().addClass("package com.example; public final class InitializedComponent { public void initComponent() {} }");
+    }
+
+    @Test
+    public void testReportsPreloadedServices() {
+        doJavaTest("plugin.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <applicationService serviceImplementation="com.example.SomeService" <warning descr="Preloaded services are created during application or project startup. Consider removing 'preload' and letting the service be created on its first use.">preload="true"</warning>/>
+                        <projectService serviceImplementation="com.example.SomeService" <warning descr="Preloaded services are created during application or project startup. Consider removing 'preload' and letting the service be created on its first use.">preload="await"</warning>/>
+                        <applicationService serviceImplementation="com.example.SomeService" <warning descr="Preloaded services are created during application or project startup. Consider removing 'preload' and letting the service be created on its first use.">preload="notLightEdit"</warning>/>
+                        <projectService serviceImplementation="com.example.OtherService"/>
+                    </extensions>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testReportsComponents() {
+        doJavaTest("plugin.xml",
+            """
+                <idea-plugin>
+                    <<warning descr="Components in <application-components> are created eagerly during startup. Consider migrating them to services, listeners or extensions.">application-components</warning>>
+                        <component>
+                            <implementation-class>com.example.LifecycleComponent</implementation-class>
+                        </component>
+                    </application-components>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testReportsNonProjectActivityStartupActivities() {
+        doJavaTest("plugin.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <postStartupActivity implementation=<warning descr="Startup activity registered via <postStartupActivity> is not a ProjectActivity, thus it may block project opening or the EDT. Consider implementing ProjectActivity and registering it as <postStartupActivity>.">"com.example.SomeStartupActivity"</warning>/>
+                        <startupActivity implementation=<warning descr="Startup activity registered via <startupActivity> is not a ProjectActivity, thus it may block project opening or the EDT. Consider implementing ProjectActivity and registering it as <postStartupActivity>.">"com.example.SomeStartupActivity"</warning>/>
+                        <postStartupActivity implementation="com.example.SomeProjectActivity"/>
+                        <postStartupActivity implementation="com.example.NonExistentActivity"/>
+                    </extensions>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testReportsApplicationListenersOnHighFrequencyTopics() {
+        doJavaTest("plugin.xml",
+            """
+                <idea-plugin>
+                    <applicationListeners>
+                        <listener class="com.example.SomeListener" topic=<warning descr="Application listener on a high-frequency topic is created early and is called on every event. Consider an AsyncFileListener registered via <vfs.asyncListener>, that processes events in the background.">"com.intellij.openapi.vfs.newvfs.BulkFileListener"</warning>/>
+                        <listener class="com.example.SomeListener" topic="com.intellij.ide.AppLifecycleListener"/>
+                    </applicationListeners>
+                    <projectListeners>
+                        <listener class="com.example.SomeListener" topic="com.intellij.openapi.vfs.newvfs.BulkFileListener"/>
+                    </projectListeners>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testDoesntReportInNonPluginDescriptorFiles() {
+        doJavaTest("some.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <applicationService serviceImplementation="com.example.SomeService" preload="true"/>
+                    </extensions>
+                </idea-plugin>""");
+    }
+
+    //Quick fixes
+
+    @Test
+    public void testRemovesPreloadAttribute() {
+        doQuickFixTest("Remove 'preload' attribute", "plugin.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <applicationService serviceImplementation="com.example.SomeService" pre<caret>load="true"/>
+                    </extensions>
+                </idea-plugin>""",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <applicationService serviceImplementation="com.example.SomeService"/>
+                    </extensions>
+                </idea-plugin>""");
+    }
+
+    @Test
+    public void testConvertsComponentsToServices() {
+        doQuickFixTest("Register components as services (created on first use, not at startup)", "plugin.xml",
+            """
+                <idea-plugin>
+                    <application-<caret>components>
+                        <component>
+                            <interface-class>com.example.SomeComponent</interface-class>
+                            <implementation-class>com.example.SomeComponentImpl</implementation-class>
+                        </component>
+                        <component>
+                            <implementation-class>com.example.LifecycleComponent</implementation-class>
+                        </component>
+                        <component>
+                            <implementation-class>com.example.InitializedComponent</implementation-class>
+                        </component>
+                    </application-components>
+                    <extensions defaultExtensionNs="com.intellij">
+                    </extensions>
+                </idea-plugin>""",
+            """
+                <idea-plugin>
+                    <application-components>
+                        <component>
+                            <implementation-class>com.example.LifecycleComponent</implementation-class>
+                        </component>
+                        <component>
+                            <implementation-class>com.example.InitializedComponent</implementation-class>
+                        </component>
+                    </application-components>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <applicationService serviceInterface="com.example.SomeComponent" serviceImplementation="com.example.SomeComponentImpl"/>
+                    </extensions>
+                </idea-plugin>""");
+    }
+}
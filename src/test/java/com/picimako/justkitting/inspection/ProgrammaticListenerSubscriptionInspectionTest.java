@@ -0,0 +1,315 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link ProgrammaticListenerSubscriptionInspection}.
+ */
+public final class ProgrammaticListenerSubscriptionInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new ProgrammaticListenerSubscriptionInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.util.messages;
+
+                public class Topic<L> {
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.util.messages;
+
+                public interface SimpleMessageBusConnection {
+                    <L> void subscribe(Topic<L> topic, L handler);
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.util.messages;
+
+                public interface MessageBusConnection extends SimpleMessageBusConnection {
+                    <L> void subscribe(Topic<L> topic, L handler);
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.util.messages;
+
+                public interface MessageBus {
+                    MessageBusConnection connect();
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.project;
+
+                public interface Project {
+                    com.intellij.util.messages.MessageBus getMessageBus();
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.application;
+
+                public interface Application {
+                    com.intellij.util.messages.MessageBus getMessageBus();
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.application;
+
+                public final class ApplicationManager {
+                    public static Application getApplication() {
+                        return null;
+                    }
+                }""");
+        getFixture().addClass("package com.intellij.openapi.startup; public interface ProjectActivity {}");
+        getFixture().addClass(
+            """
+                package com.example;
+
+                import com.intellij.util.messages.Topic;
+
+                public interface SomeListener {
+                    Topic<SomeListener> TOPIC = new Topic<>();
+
+                    class Nested implements SomeListener {
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.example;
+
+                import com.intellij.openapi.project.Project;
+
+                public final class SomeListenerImpl implements SomeListener {
+                    public SomeListenerImpl() {
+                    }
+
+                    public SomeListenerImpl(Project project) {
+                    }
+
+                    public SomeListenerImpl(String name) {
+                    }
+                }""");
+    }
+
+    //Java
+
+    @Test
+    public void testReportsSubscriptionsInLightServiceInitialization() {
+        doJavaTest("SomeService.java",
+            """
+                import com.example.SomeListener;
+                import com.example.SomeListenerImpl;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class SomeService {
+                    public SomeService(Project project) {
+                        <warning descr="Subscribing in service initialization forces the service to be created early. Consider registering the listener in <applicationListeners> or <projectListeners> in plugin.xml.">project.getMessageBus().connect().subscribe(SomeListener.TOPIC, new SomeListenerImpl())</warning>;
+                    }
+
+                    void later(Project project) {
+                        project.getMessageBus().connect().subscribe(SomeListener.TOPIC, new SomeListenerImpl());
+                    }
+                }""");
+    }
+
+    @Test
+    public void testReportsSubscriptionsInStartupActivities() {
+        doJavaTest("SomeActivity.java",
+            """
+                import com.example.SomeListener;
+                import com.intellij.openapi.project.Project;
+                import com.intellij.openapi.startup.ProjectActivity;
+
+                public final class SomeActivity implements ProjectActivity {
+                    void execute(Project project) {
+                        var connection = project.getMessageBus().connect();
+                        <warning descr="Subscribing in a startup activity forces the listener to be created at startup. Consider registering the listener in <applicationListeners> or <projectListeners> in plugin.xml.">connection.subscribe(SomeListener.TOPIC, new SomeListener() { })</warning>;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportSubscriptionsInOtherClasses() {
+        doJavaTest("SomeClass.java",
+            """
+                import com.example.SomeListener;
+                import com.example.SomeListenerImpl;
+                import com.intellij.openapi.project.Project;
+
+                public final class SomeClass {
+                    public SomeClass(Project project) {
+                        project.getMessageBus().connect().subscribe(SomeListener.TOPIC, new SomeListenerImpl());
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesProjectLevelSubscriptionToPluginXml() {
+        getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                </idea-plugin>""");
+        doQuickFixTest("Register listener in <projectListeners> in plugin.xml", "SomeService.java",
+            """
+                import com.example.SomeListener;
+                import com.example.SomeListenerImpl;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class SomeService {
+                    public SomeService(Project project) {
+                        project.getMessageBus().connect().sub<caret>scribe(SomeListener.TOPIC, new SomeListenerImpl(project));
+                    }
+                }""",
+            """
+                import com.example.SomeListener;
+                import com.example.SomeListenerImpl;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class SomeService {
+                    public SomeService(Project project) {
+                    }
+                }""");
+        getFixture().checkResult("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <projectListeners>
+                        <listener class="com.example.SomeListenerImpl" topic="com.example.SomeListener"/>
+                    </projectListeners>
+                </idea-plugin>""", true);
+    }
+
+    @Test
+    public void testMovesApplicationLevelSubscriptionToPluginXml() {
+        getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <applicationListeners>
+                    </applicationListeners>
+                </idea-plugin>""");
+        doQuickFixTest("Register listener in <applicationListeners> in plugin.xml", "SomeService.java",
+            """
+                import com.example.SomeListener;
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.openapi.components.Service;
+
+                @Service
+                public final class SomeService {
+                    public SomeService() {
+                        ApplicationManager.getApplication().getMessageBus().connect().sub<caret>scribe(SomeListener.TOPIC, new SomeListener.Nested());
+                    }
+                }""",
+            """
+                import com.example.SomeListener;
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.openapi.components.Service;
+
+                @Service
+                public final class SomeService {
+                    public SomeService() {
+                    }
+                }""");
+        getFixture().checkResult("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <applicationListeners>
+                        <listener class="com.example.SomeListener$Nested" topic="com.example.SomeListener"/>
+                    </applicationListeners>
+                </idea-plugin>""", true);
+    }
+
+    @Test
+    public void testNoQuickFixForListenerWithArbitraryConstructorArguments() {
+        getFixture().addFileToProject("META-INF/plugin.xml", "<idea-plugin></idea-plugin>");
+        getFixture().configureByText("SomeService.java",
+            """
+                import com.example.SomeListener;
+                import com.example.SomeListenerImpl;
+                import com.intellij.openapi.components.Service;
+                import com.intellij.openapi.project.Project;
+
+                @Service
+                public final class SomeService {
+                    public SomeService(Project project) {
+                        project.getMessageBus().connect().sub<caret>scribe(SomeListener.TOPIC, new SomeListenerImpl("name"));
+                    }
+                }""");
+        getFixture().enableInspections(getInspection());
+        getFixture().doHighlighting();
+        assertThat(getFixture().filterAvailableIntentions("Register listener in")).isEmpty();
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsSubscriptionsInKotlinLightService() {
+        doJavaTest("SomeService.kt",
+            """
+                import com.example.SomeListener
+                import com.example.SomeListenerImpl
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.project.Project
+
+                @Service
+                class SomeService(project: Project) {
+                    init {
+                        project.messageBus.connect().<warning descr="Subscribing in service initialization forces the service to be created early. Consider registering the listener in <applicationListeners> or <projectListeners> in plugin.xml.">subscribe(SomeListener.TOPIC, SomeListenerImpl())</warning>
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesKotlinSubscriptionToPluginXml() {
+        getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                </idea-plugin>""");
+        doQuickFixTest("Register listener in <projectListeners> in plugin.xml", "SomeService.kt",
+            """
+                import com.example.SomeListener
+                import com.example.SomeListenerImpl
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.project.Project
+
+                @Service
+                class SomeService(project: Project) {
+                    init {
+                        project.messageBus.connect().sub<caret>scribe(SomeListener.TOPIC, SomeListenerImpl())
+                    }
+                }""",
+            """
+                import com.example.SomeListener
+                import com.example.SomeListenerImpl
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.project.Project
+
+                @Service
+                class SomeService(project: Project) {
+                    init {
+                    }
+                }""");
+        getFixture().checkResult("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <projectListeners>
+                        <listener class="com.example.SomeListenerImpl" topic="com.example.SomeListener"/>
+                    </projectListeners>
+                </idea-plugin>""", true);
+    }
+}
@@ -0,0 +1,290 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link ServiceRetrievalInHotCodeInspection}.
+ */
+public final class ServiceRetrievalInHotCodeInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new ServiceRetrievalInHotCodeInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.components;
+
+                public interface ComponentManager {
+                    <T> T getService(Class<T> serviceClass);
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.project;
+
+                public interface Project extends com.intellij.openapi.components.ComponentManager {
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.psi;
+
+                public abstract class PsiElementVisitor {
+                    public void visitElement(Object element) {
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.actionSystem;
+
+                public abstract class AnAction {
+                    public void update(Object event) {
+                    }
+                }""");
+        getFixture().addClass(
+            """
+                import com.intellij.openapi.project.Project;
+
+                public final class SomeService {
+                    public static SomeService getInstance(Project project) {
+                        return project.getService(SomeService.class);
+                    }
+
+                    public void process(Object element) {
+                    }
+                }""");
+    }
+
+    //Loops
+
+    @Test
+    public void testReportsServiceRetrievalsInLoops() {
+        doJavaTest("Loops.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import java.util.List;
+
+                class Loops {
+                    void method(Project project, List<Object> elements) {
+                        for (Object element : elements) {
+                            <warning descr="Service is retrieved in every iteration. Consider retrieving it once, before the loop.">SomeService.getInstance(project)</warning>.process(element);
+                        }
+                        for (int i = 0; i < elements.size(); i++) {
+                            <warning descr="Service is retrieved in every iteration. Consider retrieving it once, before the loop.">project.getService(SomeService.class)</warning>.process(elements.get(i));
+                        }
+                        while (<warning descr="Service is retrieved in every iteration. Consider retrieving it once, before the loop.">SomeService.getInstance(project)</warning> != null) {
+                        }
+                        elements.forEach(element -> <warning descr="Service is retrieved in every iteration. Consider retrieving it once, before the loop.">SomeService.getInstance(project)</warning>.process(element));
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportServiceRetrievalsDependingOnLoopVariables() {
+        doJavaTest("Loops.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import java.util.List;
+
+                class Loops {
+                    void method(List<Project> projects) {
+                        for (Project project : projects) {
+                            SomeService.getInstance(project).process(project);
+                        }
+                        projects.forEach(project -> SomeService.getInstance(project).process(project));
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportServiceRetrievalsOutsideHotCode(){
+        doJavaTest("NotInLoop.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import java.util.List;
+
+                class NotInLoop {
+                    void method(Project project, List<Object> elements) {
+                        SomeService service = SomeService.getInstance(project);
+                        for (Object element : SomeService.getInstance(project).toString().split(",")) {
+                            service.process(element);
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesServiceRetrievalOutOfLoop() {
+        doQuickFixTest("Move service retrieval into local variable 'someService' (retrieves it even if the loop has no iterations)", "Loops.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import java.util.List;
+
+                class Loops {
+                    void method(Project project, List<Object> elements) {
+                        for (Object element : elements) {
+                            SomeService.getInst<caret>ance(project).process(element);
+                            SomeService.getInstance(project).process(element);
+                        }
+                    }
+                }""",
+            """
+                import com.intellij.openapi.project.Project;
+                import java.util.List;
+
+                class Loops {
+                    void method(Project project, List<Object> elements) {
+                        SomeService someService = SomeService.getInstance(project);
+                        for (Object element : elements) {
+                            someService.process(element);
+                            someService.process(element);
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesServiceRetrievalOutOfDoWhileLoop() {
+        doQuickFixTest("Move service retrieval into local variable 'someService'", "Loops.java",
+            """
+                import com.intellij.openapi.project.Project;
+
+                class Loops {
+                    void method(Project project) {
+                        do {
+                            SomeService.getInst<caret>ance(project).process(project);
+                        } while (true);
+                    }
+                }""",
+            """
+                import com.intellij.openapi.project.Project;
+
+                class Loops {
+                    void method(Project project) {
+                        SomeService someService = SomeService.getInstance(project);
+                        do {
+                            someService.process(project);
+                        } while (true);
+                    }
+                }""");
+    }
+
+    //Visitors and actions
+
+    @Test
+    public void testReportsServiceRetrievalsInVisitorsAndActionUpdate() {
+        doJavaTest("Visitors.java",
+            """
+                import com.intellij.openapi.actionSystem.AnAction;
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.PsiElementVisitor;
+
+                class Visitors {
+                    static class Visitor extends PsiElementVisitor {
+                        private Project project;
+
+                        @Override
+                        public void visitElement(Object element) {
+                            <warning descr="Service is retrieved for every visited element. Consider retrieving it once, outside the visitor.">SomeService.getInstance(project)</warning>.process(element);
+                        }
+                    }
+
+                    static class Action extends AnAction {
+                        private Project project;
+
+                        @Override
+                        public void update(Object event) {
+                            <warning descr="Service is retrieved on every update of the action. Consider retrieving it only when it is actually needed.">SomeService.getInstance(project)</warning>.process(event);
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesServiceRetrievalOutOfAnonymousVisitor() {
+        doQuickFixTest("Move service retrieval into local variable 'someService'", "Visitors.java",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.PsiElementVisitor;
+
+                class Visitors {
+                    PsiElementVisitor buildVisitor(Project project) {
+                        return new PsiElementVisitor() {
+                            @Override
+                            public void visitElement(Object element) {
+                                SomeService.getInst<caret>ance(project).process(element);
+                            }
+                        };
+                    }
+                }""",
+            """
+                import com.intellij.openapi.project.Project;
+                import com.intellij.psi.PsiElementVisitor;
+
+                class Visitors {
+                    PsiElementVisitor buildVisitor(Project project) {
+                        SomeService someService = SomeService.getInstance(project);
+                        return new PsiElementVisitor() {
+                            @Override
+                            public void visitElement(Object element) {
+                                someService.process(element);
+                            }
+                        };
+                    }
+                }""");
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsServiceRetrievalInKotlinLoop() {
+        doJavaTest("Loops.kt",
+            """
+                import com.intellij.openapi.project.Project
+
+                class Loops {
+                    fun method(project: Project) {
+                        while (true) {
+                            <warning descr="Service is retrieved in every iteration. Consider retrieving it once, before the loop.">SomeService.getInstance(project)</warning>.process(project)
+                        }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testMovesOnlyEquivalentServiceRetrievalsOutOfKotlinLoop() {
+        doQuickFixTest("Move service retrieval into local variable 'someService' (retrieves it even if the loop has no iterations)", "Loops.kt",
+            """
+                import com.intellij.openapi.project.Project
+
+                class Loops {
+                    fun method(project: Project, otherProject: Project, elements: List<Any>) {
+                        for (element in elements) {
+                            SomeService.getInst<caret>ance(project).process(element)
+                            SomeService.getInstance(project).process(element)
+                            SomeService.getInstance(otherProject).process(element)
+                        }
+                    }
+                }""",
+            """
+                import com.intellij.openapi.project.Project
+
+                class Loops {
+                    fun method(project: Project, otherProject: Project, elements: List<Any>) {
+                        val someService = SomeService.getInstance(project)
+                        for (element in elements) {
+                            someService.process(element)
+                            someService.process(element)
+                            SomeService.getInstance(otherProject).process(element)
+                        }
+                    }
+                }""");
+    }
+}
@@ -0,0 +1,208 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.inspection;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Functional test for {@link UnmanagedServiceExecutorInspection}.
+ */
+public final class UnmanagedServiceExecutorInspectionTest extends JustKittingInspectionTestBase {
+
+    @Override
+    protected InspectionProfileEntry getInspection() {
+        return new UnmanagedServiceExecutorInspection();
+    }
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        getFixture().addClass("package kotlinx.coroutines; public interface CoroutineScope {}");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.application;
+
+                public interface Application {
+                    java.util.concurrent.Future<?> executeOnPooledThread(Runnable action);
+                }""");
+        getFixture().addClass(
+            """
+                package com.intellij.openapi.application;
+
+                public final class ApplicationManager {
+                    public static Application getApplication() {
+                        return null;
+                    }
+                }""");
+    }
+
+    //Java
+
+    @Test
+    public void testReportsUnmanagedExecutorsInJavaService() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.application.ApplicationManager;
+                import com.intellij.openapi.components.Service;
+                import java.util.concurrent.ExecutorService;
+                import java.util.concurrent.Executors;
+                import java.util.concurrent.LinkedBlockingQueue;
+                import java.util.concurrent.ThreadPoolExecutor;
+                import java.util.concurrent.TimeUnit;
+
+                @Service
+                public final class SomeService {
+                    private final ExecutorService executor = <warning descr="Executor created by the service is not shut down when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">Executors.newFixedThreadPool(4)</warning>;
+                    private final ExecutorService other = <warning descr="Executor created by the service is not shut down when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>())</warning>;
+
+                    void refresh() {
+                        <warning descr="Work submitted via 'executeOnPooledThread()' is not cancelled when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">ApplicationManager.getApplication().executeOnPooledThread(() -> { })</warning>;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportExecutorsInNonServiceClasses() {
+        doJavaTest("SomeClass.java",
+            """
+                import java.util.concurrent.ExecutorService;
+                import java.util.concurrent.Executors;
+
+                public final class SomeClass {
+                    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportExecutorsShutDownOnDisposeInJavaService() {
+        doJavaTest("SomeService.java",
+            """
+                import com.intellij.openapi.Disposable;
+                import com.intellij.openapi.components.Service;
+                import java.util.concurrent.ExecutorService;
+                import java.util.concurrent.Executors;
+
+                @Service
+                public final class SomeService implements Disposable {
+                    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+                    private final ExecutorService other;
+                    private final ExecutorService notShutDown = <warning descr="Executor created by the service is not shut down when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">Executors.newSingleThreadExecutor()</warning>;
+
+                    public SomeService() {
+                        this.other = Executors.newCachedThreadPool();
+                    }
+
+                    void refresh() {
+                        notShutDown.shutdown();
+                    }
+
+                    @Override
+                    public void dispose() {
+                        executor.shutdown();
+                        other.shutdownNow();
+                    }
+                }""");
+    }
+
+    //Kotlin
+
+    @Test
+    public void testReportsUnmanagedExecutorsInKotlinService() {
+        doJavaTest("SomeService.kt",
+            """
+                import com.intellij.openapi.application.ApplicationManager
+                import com.intellij.openapi.components.Service
+                import java.util.concurrent.Executors
+
+                @Service
+                class SomeService {
+                    private val executor = Executors.<warning descr="Executor created by the service is not shut down when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">newSingleThreadExecutor()</warning>
+
+                    fun refresh() {
+                        ApplicationManager.getApplication().<warning descr="Work submitted via 'executeOnPooledThread()' is not cancelled when the service is disposed. Consider launching coroutines in a CoroutineScope injected into the service constructor.">executeOnPooledThread { }</warning>
+                    }
+                }""");
+    }
+
+    @Test
+    public void testDoesntReportExecutorsShutDownInDisposerCallbackInKotlinService() {
+        doJavaTest("SomeService.kt",
+            """
+                import com.intellij.openapi.components.Service
+                import com.intellij.openapi.project.Project
+                import com.intellij.openapi.util.Disposer
+                import java.util.concurrent.Executors
+
+                @Service(Service.Level.PROJECT)
+                class SomeService(project: Project) {
+                    private val executor = Executors.newSingleThreadExecutor()
+
+                    init {
+                        Disposer.register(project) { executor.shutdownNow() }
+                    }
+                }""");
+    }
+
+    @Test
+    public void testLaunchesInInjectedCoroutineScope() {
+        doQuickFixTest("Launch in service CoroutineScope", "SomeService.kt",
+            """
+                import com.intellij.openapi.application.ApplicationManager
+                import com.intellij.openapi.components.Service
+
+                @Service
+                class SomeService {
+                    fun refresh() {
+                        ApplicationManager.getApplication().executeOnPoo<caret>ledThread { doRefresh() }
+                    }
+
+                    private fun doRefresh() {
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ApplicationManager
+                import com.intellij.openapi.components.Service
+                import kotlinx.coroutines.CoroutineScope
+                import kotlinx.coroutines.launch
+
+                @Service
+                class SomeService(private val coroutineScope: CoroutineScope) {
+                    fun refresh() {
+                        coroutineScope.launch { doRefresh() }
+                    }
+
+                    private fun doRefresh() {
+                    }
+                }""");
+    }
+
+    @Test
+    public void testLaunchesInExistingCoroutineScope() {
+        doQuickFixTest("Launch in service CoroutineScope", "SomeService.kt",
+            """
+                import com.intellij.openapi.application.ApplicationManager
+                import com.intellij.openapi.components.Service
+                import kotlinx.coroutines.CoroutineScope
+
+                @Service
+                class SomeService(private val cs: CoroutineScope) {
+                    fun refresh() {
+                        ApplicationManager.getApplication().executeOnPoo<caret>ledThread { }
+                    }
+                }""",
+            """
+                import com.intellij.openapi.application.ApplicationManager
+                import com.intellij.openapi.components.Service
+                import kotlinx.coroutines.CoroutineScope
+                import kotlinx.coroutines.launch
+
+                @Service
+                class SomeService(private val cs: CoroutineScope) {
+                    fun refresh() {
+                        cs.launch { }
+                    }
+                }""");
+    }
+}
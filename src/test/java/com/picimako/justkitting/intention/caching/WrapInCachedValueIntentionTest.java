@@ -0,0 +1,207 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.intention.caching;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.picimako.justkitting.ThirdPartyLibraryLoader;
+import com.picimako.justkitting.intention.JustKittingIntentionTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Integration test for {@link WrapInCachedValueIntention}.
+ */
+public final class WrapInCachedValueIntentionTest extends JustKittingIntentionTestBase {
+
+    @BeforeEach
+    protected void setUp() {
+        ThirdPartyLibraryLoader.loadJavaImpl(getFixture());
+    }
+
+    @Override
+    protected IntentionAction getIntention() {
+        return new WrapInCachedValueIntention();
+    }
+
+    //Positive cases
+
+    @Test
+    public void testWrapsJavaMethod() {
+        doIntentionTest("JavaMethod.java",
+            """
+                import com.intellij.psi.PsiClass;
+
+                public final class JavaMethod {
+                    public static PsiClass findTopmost<caret>SuperClass(PsiClass psiClass) {
+                        PsiClass current = psiClass;
+                        while (current.getSuperClass() != null) {
+                            current = current.getSuperClass();
+                        }
+                        return current;
+                    }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiModificationTracker;
+
+                public final class JavaMethod {
+                    public static PsiClass findTopmostSuperClass(PsiClass psiClass) {
+                        return CachedValuesManager.getCachedValue(psiClass, () -> {
+                            PsiClass current = psiClass;
+                            while (current.getSuperClass() != null) {
+                                current = current.getSuperClass();
+                            }
+                            return CachedValueProvider.Result.create(current, PsiModificationTracker.MODIFICATION_COUNT);
+                        });
+                    }
+                }""");
+    }
+
+    @Test
+    public void testWrapsJavaExpression() {
+        doIntentionTest("JavaExpression.java",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public final class JavaExpression {
+                    public static int countClasses(PsiFile file) {
+                        int count = <selection>PsiTreeUtil.findChildrenOfType(file, PsiClass.class).size()</selection>;
+                        return count;
+                    }
+                }""",
+            """
+                import com.intellij.psi.PsiClass;
+                import com.intellij.psi.PsiFile;
+                import com.intellij.psi.util.CachedValueProvider;
+                import com.intellij.psi.util.CachedValuesManager;
+                import com.intellij.psi.util.PsiTreeUtil;
+
+                public final class JavaExpression {
+                    public static int countClasses(PsiFile file) {
+                        int count = CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(file, PsiClass.class).size(), file));
+                        return count;
+                    }
+                }""");
+    }
+
+    @Test
+    public void testWrapsKotlinFunction() {
+        doIntentionTest("KotlinFunction.kt",
+            """
+                import com.intellij.psi.PsiElement
+                import com.intellij.psi.PsiFile
+
+                fun second<caret>Child(file: PsiFile): PsiElement? {
+                    return file.firstChild?.nextSibling
+                }""",
+            """
+                import com.intellij.psi.PsiElement
+                import com.intellij.psi.PsiFile
+                import com.intellij.psi.util.CachedValueProvider
+                import com.intellij.psi.util.CachedValuesManager
+
+                fun secondChild(file: PsiFile): PsiElement? {
+                    return CachedValuesManager.getCachedValue(file) {
+                        CachedValueProvider.Result.create(file.firstChild?.nextSibling, file)
+                    }
+                }""");
+    }
+
+    //Negative cases
+
+    @Test
+    public void testNotAvailableForMultiplePsiVariables() {
+        var psiFile = getFixture().configureByText("MultiplePsiVariables.java",
+            """
+                import com.intellij.psi.PsiElement;
+                import com.intellij.psi.PsiFile;
+
+                public final class MultiplePsiVariables {
+                    public static boolean is<caret>InFile(PsiElement element, PsiFile file) {
+                        return element.getContainingFile().equals(file);
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    @Test
+    public void testNotAvailableForInstanceState() {
+        var psiFile = getFixture().configureByText("InstanceState.java",
+            """
+                import com.intellij.psi.PsiElement;
+
+                public final class InstanceState {
+                    private int depth;
+
+                    public PsiElement find<caret>Parent(PsiElement element) {
+                        PsiElement parent = element;
+                        for (int i = 0; i < depth; i++) {
+                            parent = parent.getParent();
+                        }
+                        return parent;
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    @Test
+    public void testNotAvailableForStaticState() {
+        var psiFile = getFixture().configureByText("StaticState.java",
+            """
+                import com.intellij.psi.PsiElement;
+
+                public final class StaticState {
+                    private static int depth;
+
+                    public static PsiElement find<caret>Parent(PsiElement element) {
+                        PsiElement parent = element;
+                        for (int i = 0; i < StaticState.depth; i++) {
+                            parent = parent.getParent();
+                        }
+                        return parent;
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    @Test
+    public void testNotAvailableForObjectStateInKotlin() {
+        var psiFile = getFixture().configureByText("ObjectState.kt",
+            """
+                import com.intellij.psi.PsiElement
+
+                object ObjectState {
+                    var depth = 0
+
+                    fun find<caret>Parent(element: PsiElement): PsiElement? {
+                        var parent: PsiElement? = element
+                        repeat(depth) { parent = parent?.parent }
+                        return parent
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+
+    @Test
+    public void testNotAvailableForVoidMethod() {
+        var psiFile = getFixture().configureByText("VoidMethod.java",
+            """
+                import com.intellij.psi.PsiElement;
+
+                public final class VoidMethod {
+                    public static void de<caret>lete(PsiElement element) {
+                        element.delete();
+                    }
+                }""");
+
+        checkIfNotAvailableIn(psiFile);
+    }
+}
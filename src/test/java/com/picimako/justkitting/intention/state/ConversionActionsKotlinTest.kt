@@ -65,4 +65,247 @@ class ConversionActionsKotlinTest : JustKittingActionTestBase() {
                 """.trimIndent()
         )
     }
+
+    @Test
+    fun testConvertsClassWithBaseState() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithBaseState() },
+            """
+                class SomeCom<caret>ponent {
+                    private var count: Int = 0
+                    var name: String? = "default"
+                    private var lock = Any()
+
+                    fun increment() {
+                        count = count + 1
+                        this.count++
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SimplePersistentStateComponent
+                import com.intellij.openapi.components.BaseState
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+                    class State : BaseState() {
+                        var count by property(0)
+                        var name by string("default")
+                    }
+                
+                    var name: String?
+                        get() = state.name
+                        set(value) {
+                            state.name = value
+                        }
+                    private var lock = Any()
+
+                    fun increment() {
+                        state.count = state.count + 1
+                        state.count++
+                    }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithBaseStateTypingIntegerLiterals() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithBaseState() },
+            """
+                class SomeCom<caret>ponent {
+                    private var timeout: Long = 5
+                    private var ratio: Float = 1.5f
+                    private var limit: Long = 10L
+
+                    fun reset() {
+                        timeout = 0
+                        ratio = 0f
+                        limit = 0
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SimplePersistentStateComponent
+                import com.intellij.openapi.components.BaseState
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+                    class State : BaseState() {
+                        var timeout by property(5L)
+                        var ratio by property(1.5f)
+                        var limit by property(10L)
+                    }
+
+                    fun reset() {
+                        state.timeout = 0
+                        state.ratio = 0f
+                        state.limit = 0
+                    }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithBaseStateDroppingAnnotationsOfAccessors() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithBaseState() },
+            """
+                class SomeCom<caret>ponent {
+                    @JvmField internal var count: Long = 5
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SimplePersistentStateComponent
+                import com.intellij.openapi.components.BaseState
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+                    class State : BaseState() {
+                        var count by property(5L)
+                    }
+                
+                    internal var count: Long
+                        get() = state.count
+                        set(value) {
+                            state.count = value
+                        }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithSerializableState() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithSerializableState() },
+            """
+                class SomeCom<caret>ponent {
+                    private var count: Int = 0
+                    var name = "default"
+                    private var counter = 0
+
+                    fun increment() {
+                        count = count + 1
+                        counter++
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SerializablePersistentStateComponent
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SerializablePersistentStateComponent<SomeComponent.State>(State()) {
+                    data class State(
+                        @JvmField val count: Int = 0,
+                        @JvmField val name: String = "default",
+                    )
+                
+                    var name: String
+                        get() = state.name
+                        set(value) {
+                            updateState { current -> current.copy(name = value) }
+                        }
+                    private var counter = 0
+
+                    fun increment() {
+                        updateState { current -> current.copy(count = current.count + 1) }
+                        counter++
+                    }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithSerializableStateDroppingAnnotationsOfAccessors() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithSerializableState() },
+            """
+                class SomeCom<caret>ponent {
+                    @JvmField var name: String = "default"
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SerializablePersistentStateComponent
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SerializablePersistentStateComponent<SomeComponent.State>(State()) {
+                    data class State(
+                        @JvmField val name: String = "default",
+                    )
+                
+                    var name: String
+                        get() = state.name
+                        set(value) {
+                            updateState { current -> current.copy(name = value) }
+                        }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithSerializableStateUsingCollisionFreeUpdaterParameter() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithSerializableState() },
+            """
+                class SomeCom<caret>ponent {
+                    private var total: Int = 0
+                    private var max: Int = 0
+
+                    fun add(values: List<Int>, current: Int) {
+                        values.forEach { total = total + max + it + current }
+                    }
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.SerializablePersistentStateComponent
+                
+                @State(name = "SomeComponent", storages = [Storage("<storage name>")])
+                class SomeComponent : SerializablePersistentStateComponent<SomeComponent.State>(State()) {
+                    data class State(
+                        @JvmField val total: Int = 0,
+                        @JvmField val max: Int = 0,
+                    )
+
+                    fun add(values: List<Int>, current: Int) {
+                        values.forEach { updateState { current1 -> current1.copy(total = current1.total + current1.max + it + current) } }
+                    }
+                }
+                """.trimIndent()
+        )
+    }
+
+    @Test
+    fun testConvertsClassWithCacheState() {
+        checkAction("SomeComponent.kt", { KotlinConversionActions.WithCacheState() },
+            """
+                class SomeCom<caret>ponent {
+                }
+                """.trimIndent(),
+            """
+                import com.intellij.openapi.components.State
+                import com.intellij.openapi.components.Storage
+                import com.intellij.openapi.components.StoragePathMacros
+                import com.intellij.openapi.components.SimplePersistentStateComponent
+                import com.intellij.openapi.components.BaseState
+                
+                @State(name = "SomeComponent", storages = [Storage(StoragePathMacros.CACHE_FILE)])
+                class SomeComponent : SimplePersistentStateComponent<SomeComponent.State>(State()) {
+                    class State : BaseState() {
+                        val entries by map<String, String>()
+                    }
+                }
+                """.trimIndent()
+        )
+    }
 }
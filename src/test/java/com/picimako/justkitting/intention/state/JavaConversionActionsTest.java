@@ -61,4 +61,33 @@ public final class JavaConversionActionsTest extends JustKittingActionTestBase {
                 }"""
         );
     }
+
+    @Test
+    public void testConvertsClassWithCacheState() {
+        checkAction("SomeComponent.java", JavaConversionActions.WithCacheState::new,
+            "public final class SomeCom<caret>ponent {\n" +
+            "}",
+            """
+                import java.util.HashMap;
+                import java.util.Map;
+                
+                @com.intellij.openapi.components.State(name = "SomeComponent", storages = @com.intellij.openapi.components.Storage(com.intellij.openapi.components.StoragePathMacros.CACHE_FILE))
+                public final class SomeComponent implements com.intellij.openapi.components.PersistentStateComponent<SomeComponent.State> {
+                    private State myState = new State();
+                
+                    @Override
+                    public State getState() {
+                        return myState;
+                    }
+                
+                    @Override
+                    public void loadState(State state) {
+                        myState = state;
+                    }
+                
+                    static final class State {
+                        public Map<String, String> entries = new HashMap<>();
+                    }
+                }""");
+    }
 }
@@ -0,0 +1,91 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.servicegraph;
+
+import static com.intellij.openapi.application.ReadAction.compute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.picimako.justkitting.JustKittingTestBase;
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional test for {@link ServiceDependencyGraphBuilder}.
+ */
+public final class ServiceDependencyGraphBuilderTest extends JustKittingTestBase {
+
+    @Test
+    public void testBuildsGraphFromLightAndRegisteredServices() {
+        getFixture().addFileToProject("AProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class AProjectService {
+                    private final BProjectService b = BProjectService.getInstance();
+
+                    public AProjectService() {
+                        init();
+                    }
+
+                    private void init() {
+                        RegisteredService.getInstance();
+                    }
+
+                    public static AProjectService getInstance() {
+                        return null;
+                    }
+                }""");
+        getFixture().addFileToProject("BProjectService.java",
+            """
+                import com.intellij.openapi.components.Service;
+
+                @Service(Service.Level.PROJECT)
+                public final class BProjectService {
+                    private final Runnable deferred = () -> AProjectService.getInstance();
+
+                    public static BProjectService getInstance() {
+                        return null;
+                    }
+                }""");
+        getFixture().addFileToProject("RegisteredService.java",
+            """
+                public final class RegisteredService {
+                    public static RegisteredService getInstance() {
+                        return null;
+                    }
+                }""");
+        getFixture().addFileToProject("SomeStartupActivity.java",
+            """
+                public final class SomeStartupActivity {
+                    public void runActivity() {
+                        AProjectService.getInstance();
+                    }
+                }""");
+        getFixture().addFileToProject("META-INF/plugin.xml",
+            """
+                <idea-plugin>
+                    <extensions defaultExtensionNs="com.intellij">
+                        <projectService serviceImplementation="RegisteredService"/>
+                        <postStartupActivity implementation="SomeStartupActivity"/>
+                    </extensions>
+                </idea-plugin>""");
+
+        var graph = compute(() -> ServiceDependencyGraphBuilder.build(getProject()));
+
+        assertThat(graph.getServices().keySet()).containsExactlyInAnyOrder("AProjectService", "BProjectService", "RegisteredService");
+        assertThat(graph.getServices().get("RegisteredService").getLevel()).isEqualTo(ServiceLevel.PROJECT);
+        assertThat(graph.getServices().get("RegisteredService").isLightService()).isFalse();
+        assertThat(graph.getDependencies()).containsEntry("BProjectService", List.of());
+        assertThat(graph.getDependencies().get("AProjectService")).extracting(ServiceDependency::getTarget)
+            .containsExactlyInAnyOrder("BProjectService", "RegisteredService");
+        assertThat(graph.getStartupDependencies().get("SomeStartupActivity")).extracting(ServiceDependency::getTarget)
+            .containsExactly("AProjectService");
+        assertThat(graph.getServicesReachableFromStartup()).containsExactlyInAnyOrder("AProjectService", "BProjectService", "RegisteredService");
+        assertThat(graph.getFanOutDepths()).containsAllEntriesOf(Map.of("AProjectService", 1, "BProjectService", 0));
+        assertThat(graph.getCycles()).isEmpty();
+    }
+}
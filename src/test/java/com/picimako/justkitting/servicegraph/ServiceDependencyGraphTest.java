@@ -0,0 +1,79 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.servicegraph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit test for {@link ServiceDependencyGraph}.
+ */
+public final class ServiceDependencyGraphTest {
+
+    @Test
+    public void testComputesFanOutDepths() {
+        var graph = graph(Map.of(
+            "A", List.of("B", "C"),
+            "B", List.of("C"),
+            "C", List.of("D"),
+            "D", List.of()), Map.of());
+
+        assertThat(graph.getFanOutDepths()).containsExactlyInAnyOrderEntriesOf(Map.of("A", 3, "B", 2, "C", 1, "D", 0));
+    }
+
+    @Test
+    public void testFindsCyclesAndCountsThemAsSingleStep() {
+        var graph = graph(Map.of(
+            "A", List.of("B"),
+            "B", List.of("C"),
+            "C", List.of("B", "D"),
+            "D", List.of(),
+            "E", List.of("E")), Map.of());
+
+        assertThat(graph.getCycles()).extracting(cycle -> cycle.stream().map(ServiceNode::getQualifiedName).toList())
+            .containsExactlyInAnyOrder(List.of("B", "C"), List.of("E"));
+        assertThat(graph.getFanOutDepth("A")).isEqualTo(2);
+        assertThat(graph.getFanOutDepth("B")).isEqualTo(1);
+        assertThat(graph.getFanOutDepth("C")).isEqualTo(1);
+        assertThat(graph.isInCycle("C")).isTrue();
+        assertThat(graph.isInCycle("A")).isFalse();
+    }
+
+    @Test
+    public void testFindsServicesReachableFromStartupActivities() {
+        var graph = graph(Map.of(
+            "A", List.of("B"),
+            "B", List.of("C"),
+            "C", List.of(),
+            "D", List.of()), Map.of("Activity", List.of("A", "NotAService")));
+
+        assertThat(graph.getServicesReachableFromStartup()).containsExactlyInAnyOrder("A", "B", "C");
+    }
+
+    @Test
+    public void testIgnoresDependenciesOnServicesNotInTheGraph() {
+        var graph = graph(Map.of("A", List.of("com.intellij.SomePlatformService")), Map.of());
+
+        assertThat(graph.getDependencies().get("A")).isEmpty();
+        assertThat(graph.getFanOutDepth("A")).isZero();
+    }
+
+    private static ServiceDependencyGraph graph(Map<String, List<String>> dependencies, Map<String, List<String>> startupDependencies) {
+        var services = new LinkedHashMap<String, ServiceNode>();
+        dependencies.keySet().forEach(name -> services.put(name, new ServiceNode(name, ServiceLevel.PROJECT, true, null)));
+        return new ServiceDependencyGraph(services, toDependencies(dependencies), toDependencies(startupDependencies));
+    }
+
+    private static Map<String, List<ServiceDependency>> toDependencies(Map<String, List<String>> targets) {
+        var dependencies = new LinkedHashMap<String, List<ServiceDependency>>();
+        targets.forEach((owner, ownerTargets) ->
+            dependencies.put(owner, ownerTargets.stream().map(target -> new ServiceDependency(target, null)).toList()));
+        return dependencies;
+    }
+}
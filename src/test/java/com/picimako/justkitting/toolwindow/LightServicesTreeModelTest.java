@@ -0,0 +1,125 @@
+//Copyright 2025 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.justkitting.toolwindow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.testFramework.LightVirtualFile;
+import com.picimako.justkitting.JustKittingTestBase;
+import com.picimako.justkitting.LightServiceEntry;
+import com.picimako.justkitting.ServiceLevelDecider.ServiceLevel;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test for {@link LightServicesTreeModel}.
+ */
+public final class LightServicesTreeModelTest extends JustKittingTestBase {
+    private final LightVirtualFile file = new LightVirtualFile("Services.java");
+
+    @Test
+    public void testReloadsServicesGroupedByLevelAndModule() {
+        var model = new LightServicesTreeModel();
+        model.reload(List.of(
+            entry("SomeProjectService", ServiceLevel.PROJECT, "module.b"),
+            entry("AnApplicationService", ServiceLevel.APP, "module.a"),
+            entry("AProjectService", ServiceLevel.PROJECT, "module.b"),
+            entry("NoModuleService", ServiceLevel.PROJECT, null),
+            entry("AnotherProjectService", ServiceLevel.PROJECT, "module.a")));
+
+        assertThat(render(model)).containsExactly(
+            "Project (4)",
+            "  module.a (1)",
+            "    AnotherProjectService",
+            "  module.b (2)",
+            "    AProjectService",
+            "    SomeProjectService",
+            "  <no module> (1)",
+            "    NoModuleService",
+            "Application (1)",
+            "  module.a (1)",
+            "    AnApplicationService");
+        assertThat(model.getServiceCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void testAddsServicesIncrementally() {
+        var model = new LightServicesTreeModel();
+        model.reload(List.of(entry("SomeProjectService", ServiceLevel.PROJECT, "module.a")));
+
+        model.update(List.of(), List.of(
+            entry("AProjectService", ServiceLevel.PROJECT, "module.a"),
+            entry("AnApplicationService", ServiceLevel.APP, "module.b"),
+            entry("AnUnclassifiedService", ServiceLevel.NOT_SURE, "module.a")));
+
+        assertThat(render(model)).containsExactly(
+            "Project (2)",
+            "  module.a (2)",
+            "    AProjectService",
+            "    SomeProjectService",
+            "Application (1)",
+            "  module.b (1)",
+            "    AnApplicationService",
+            "Unclassified (1)",
+            "  module.a (1)",
+            "    AnUnclassifiedService");
+    }
+
+    @Test
+    public void testRemovesServicesAndEmptyGroupsIncrementally() {
+        var model = new LightServicesTreeModel();
+        var applicationService = entry("AnApplicationService", ServiceLevel.APP, "module.b");
+        var projectService = entry("AProjectService", ServiceLevel.PROJECT, "module.a");
+        model.reload(List.of(projectService, entry("SomeProjectService", ServiceLevel.PROJECT, "module.a"), applicationService));
+
+        model.update(List.of(applicationService, projectService), List.of());
+
+        assertThat(render(model)).containsExactly(
+            "Project (1)",
+            "  module.a (1)",
+            "    SomeProjectService");
+        assertThat(model.getServiceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMovesServiceToOtherLevel() {
+        var model = new LightServicesTreeModel();
+        var projectService = entry("SomeService", ServiceLevel.PROJECT, "module.a");
+        model.reload(List.of(projectService));
+
+        model.update(List.of(projectService), List.of(entry("SomeService", ServiceLevel.PROJECT_AND_APP, "module.a")));
+
+        assertThat(render(model)).containsExactly(
+            "Project and application (1)",
+            "  module.a (1)",
+            "    SomeService");
+    }
+
+    private LightServiceEntry entry(String name, ServiceLevel level, String moduleName) {
+        return new LightServiceEntry(name, "com.example." + name, level, moduleName, file);
+    }
+
+    private static List<String> render(LightServicesTreeModel model) {
+        var lines = new ArrayList<String>();
+        render((DefaultMutableTreeNode) model.getRoot(), "", lines);
+        return lines;
+    }
+
+    private static void render(DefaultMutableTreeNode parent, String indent, List<String> lines) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            var node = (DefaultMutableTreeNode) parent.getChildAt(i);
+            var text = switch (node.getUserObject()) {
+                case LightServicesTreeModel.GroupNodeData.Level level -> level.getLevel().getDisplayName() + " (" + level.getServiceCount() + ")";
+                case LightServicesTreeModel.GroupNodeData.Module module ->
+                    (module.getModuleName() != null ? module.getModuleName() : "<no module>") + " (" + module.getServiceCount() + ")";
+                case LightServiceEntry entry -> entry.getName();
+                default -> throw new IllegalStateException();
+            };
+            lines.add(indent + text);
+            render(node, indent + "  ", lines);
+        }
+    }
+}